@@ -0,0 +1,83 @@
+package com.hrms.benchmark;
+
+import com.hrms.model.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing and prorating a payroll's worth of amounts as long minor units against BigDecimal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    @Param({"10000"})
+    private int size;
+
+    private long[] minorUnits;
+    private BigDecimal[] amounts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        minorUnits = new long[size];
+        amounts = new BigDecimal[size];
+        for (int i = 0; i < size; i++) {
+            minorUnits[i] = 100_000 + random.nextInt(1_000_000);
+            amounts[i] = BigDecimal.valueOf(minorUnits[i], Money.SCALE);
+        }
+    }
+
+    @Benchmark
+    public long sumMinorUnits() {
+        long sum = 0;
+        for (long amount : minorUnits) {
+            sum = Math.addExact(sum, amount);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal amount : amounts) {
+            sum = sum.add(amount);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long prorateMinorUnits() {
+        long sum = 0;
+        for (long amount : minorUnits) {
+            sum += Money.multiply(amount, 17, 22);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public BigDecimal prorateBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        BigDecimal days = BigDecimal.valueOf(17);
+        BigDecimal workingDays = BigDecimal.valueOf(22);
+        for (BigDecimal amount : amounts) {
+            sum = sum.add(amount.multiply(days).divide(workingDays, Money.SCALE, RoundingMode.HALF_UP));
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,70 @@
+package com.hrms.benchmark;
+
+import com.hrms.service.HolidayCalendarService;
+import com.hrms.service.PayrollCalculator;
+import com.hrms.service.TaxBracketService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One chunk of employees through {@link PayrollCalculator}, with the flat tax rate so the
+ * calculator's own arithmetic is what is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayrollCalculatorBenchmark {
+
+    @Param({"1000"})
+    private int employees;
+
+    private PayrollCalculator calculator;
+    private long[] salaries;
+    private double[] overtimeHours;
+    private int[] unpaidLeaveDays;
+
+    @Setup
+    public void setUp() {
+        HolidayCalendarService holidayCalendarService = new HolidayCalendarService();
+        ReflectionTestUtils.setField(holidayCalendarService, "defaultRegion", "DEFAULT");
+        TaxBracketService taxBracketService = new TaxBracketService();
+        ReflectionTestUtils.setField(taxBracketService, "holidayCalendarService", holidayCalendarService);
+        ReflectionTestUtils.setField(taxBracketService, "flatRate", 0.1);
+        calculator = new PayrollCalculator();
+        ReflectionTestUtils.setField(calculator, "taxBracketService", taxBracketService);
+        ReflectionTestUtils.setField(calculator, "overtimeMultiplier", 1.5);
+
+        Random random = new Random(42);
+        salaries = new long[employees];
+        overtimeHours = new double[employees];
+        unpaidLeaveDays = new int[employees];
+        for (int i = 0; i < employees; i++) {
+            salaries[i] = 300_000 + random.nextInt(900_000);
+            overtimeHours[i] = random.nextInt(20);
+            unpaidLeaveDays[i] = random.nextInt(10) == 0 ? 2 : 0;
+        }
+    }
+
+    @Benchmark
+    public void calculateChunk(Blackhole blackhole) {
+        for (int i = 0; i < employees; i++) {
+            PayrollCalculator.Result result = new PayrollCalculator.Result();
+            calculator.calculate(salaries[i], 22, 22, 8, overtimeHours[i], unpaidLeaveDays[i], "DEFAULT", 2026, result);
+            blackhole.consume(result);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PayrollCalculatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
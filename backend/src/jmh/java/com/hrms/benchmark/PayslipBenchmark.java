@@ -0,0 +1,78 @@
+package com.hrms.benchmark;
+
+import com.hrms.service.PayslipTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Payslips per second through {@link PayslipTemplate}, alone and streamed into a zip archive the
+ * way {@code PayslipService} writes it, without the disk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayslipBenchmark {
+
+    private PayslipTemplate template;
+    private final StringBuilder buffer = new StringBuilder();
+    private String[] values;
+    private ZipOutputStream zip;
+    private long payrollId;
+
+    @Setup
+    public void setUp() throws IOException {
+        template = new PayslipTemplate();
+        ReflectionTestUtils.setField(template, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(template, "location", "classpath:templates/payslip.txt");
+        template.compile();
+        values = new String[]{"1", "2026-03", "2026-03-31", "Jane Doe", "EMP-001", "Engineering", "Engineer",
+                "5000.00", "250.00", "0.00", "5250.00", "630.00", "4620.00"};
+    }
+
+    // A fresh archive per iteration, as the zip keeps every entry for its central directory
+    @Setup(Level.Iteration)
+    public void openArchive() {
+        zip = new ZipOutputStream(new BufferedOutputStream(OutputStream.nullOutputStream(), 64 * 1024));
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeArchive() throws IOException {
+        zip.close();
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        buffer.setLength(0);
+        template.render(values, buffer);
+        blackhole.consume(buffer.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void renderAndArchive() throws IOException {
+        buffer.setLength(0);
+        template.render(values, buffer);
+        zip.putNextEntry(new ZipEntry("payslip-" + payrollId++ + "-EMP-001.txt"));
+        zip.write(buffer.toString().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PayslipBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.hrms.benchmark;
+
+import com.hrms.model.Money;
+import com.hrms.model.TaxBracket;
+import com.hrms.repository.TaxBracketRepository;
+import com.hrms.service.HolidayCalendarService;
+import com.hrms.service.TaxBracketService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tax lookups through the compiled bracket tables, for tables of a few and many brackets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaxBracketBenchmark {
+
+    private static final int AMOUNTS = 1024;
+
+    @Param({"4", "32"})
+    private int brackets;
+
+    private TaxBracketService taxBracketService;
+    private long[] grossSalaries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<TaxBracket> table = new ArrayList<>();
+        for (int i = 0; i < brackets; i++) {
+            table.add(new TaxBracket("DEFAULT", 2026, Money.ofMinor(i * 50_000L), Math.min(0.05 + i * 0.02, 0.6)));
+        }
+        TaxBracketRepository repository = Mockito.mock(TaxBracketRepository.class);
+        Mockito.when(repository.count()).thenReturn(1L);
+        Mockito.when(repository.findRegions()).thenReturn(List.of("DEFAULT"));
+        Mockito.when(repository.findByRegionOrderByTaxYearAscThresholdAsc("DEFAULT")).thenReturn(table);
+        HolidayCalendarService holidayCalendarService = new HolidayCalendarService();
+        ReflectionTestUtils.setField(holidayCalendarService, "defaultRegion", "DEFAULT");
+
+        taxBracketService = new TaxBracketService();
+        ReflectionTestUtils.setField(taxBracketService, "taxBracketRepository", repository);
+        ReflectionTestUtils.setField(taxBracketService, "holidayCalendarService", holidayCalendarService);
+        taxBracketService.load();
+
+        Random random = new Random(42);
+        grossSalaries = new long[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            grossSalaries[i] = random.nextInt(brackets * 60_000);
+        }
+    }
+
+    @Benchmark
+    public long calculateTax() {
+        return taxBracketService.calculateTax("DEFAULT", 2026, grossSalaries[next++ & (AMOUNTS - 1)]);
+    }
+
+    @Benchmark
+    public long calculateCumulativeTax() {
+        return taxBracketService.calculateCumulativeTax("DEFAULT", 2026, grossSalaries[next++ & (AMOUNTS - 1)] * 6, 6);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TaxBracketBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,8 +1,12 @@
 package com.hrms.controller;
 
 import com.hrms.dto.AttendanceDTO;
+import com.hrms.dto.PunchDTO;
 import com.hrms.model.AttendanceStatus;
+import com.hrms.service.AttendanceRecomputeService;
 import com.hrms.service.AttendanceService;
+import com.hrms.service.AutoAbsenceService;
+import com.hrms.service.PunchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -29,6 +33,15 @@ public class AttendanceController {
     @Autowired
     private AttendanceService attendanceService;
 
+    @Autowired
+    private AutoAbsenceService autoAbsenceService;
+
+    @Autowired
+    private PunchService punchService;
+
+    @Autowired
+    private AttendanceRecomputeService recomputeService;
+
     @GetMapping
     @Operation(summary = "Get all attendance records", description = "Retrieve all attendance records with pagination")
     public ResponseEntity<Page<AttendanceDTO>> getAllAttendance(
@@ -64,9 +77,17 @@ public class AttendanceController {
     }
 
     @GetMapping("/employee/{employeeId}")
-    @Operation(summary = "Get attendance by employee", description = "Retrieve all attendance records for a specific employee")
-    public ResponseEntity<List<AttendanceDTO>> getAttendanceByEmployee(@PathVariable Long employeeId) {
-        List<AttendanceDTO> attendance = attendanceService.getAttendanceByEmployee(employeeId);
+    @Operation(summary = "Get attendance by employee", description = "Retrieve attendance records for a specific employee, optionally within a date range that may include archived months")
+    public ResponseEntity<List<AttendanceDTO>> getAttendanceByEmployee(
+            @PathVariable Long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        List<AttendanceDTO> attendance;
+        if (startDate != null && endDate != null) {
+            attendance = attendanceService.getAttendanceByEmployee(employeeId, startDate, endDate);
+        } else {
+            attendance = attendanceService.getAttendanceByEmployee(employeeId);
+        }
         return ResponseEntity.ok(attendance);
     }
 
@@ -113,6 +134,49 @@ public class AttendanceController {
         }
     }
 
+    @PostMapping("/punches")
+    @Operation(summary = "Record punch", description = "Append a clock-in or clock-out punch; daily attendance is derived from punches in the background")
+    public ResponseEntity<PunchDTO> recordPunch(@Valid @RequestBody PunchDTO punchDTO) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(punchService.recordPunch(punchDTO));
+    }
+
+    @PostMapping("/punches/batch")
+    @Operation(summary = "Record punches", description = "Append a batch of buffered punches from a kiosk")
+    public ResponseEntity<Map<String, Object>> recordPunches(@Valid @RequestBody List<@Valid PunchDTO> punchDTOs) {
+        int recorded = punchService.recordPunches(punchDTOs);
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("recorded", recorded));
+    }
+
+    @PostMapping("/auto-absence")
+    @Operation(summary = "Mark absentees", description = "Mark every active employee without attendance or approved leave as absent for a date")
+    public ResponseEntity<?> markAbsentees(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        int marked = autoAbsenceService.markAbsent(date);
+        return ResponseEntity.ok(Map.of("date", date, "markedAbsent", marked));
+    }
+
+    @PostMapping("/recompute")
+    @Operation(summary = "Recompute working hours", description = "Start recomputing working and overtime hours for historical attendance, resuming from the last checkpoint unless restart is set")
+    public ResponseEntity<?> startRecompute(@RequestParam(defaultValue = "false") boolean restart) {
+        if (!recomputeService.start(restart)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Recompute is already running"));
+        }
+        return ResponseEntity.accepted().body(recomputeService.getStatus());
+    }
+
+    @GetMapping("/recompute/status")
+    @Operation(summary = "Get recompute progress", description = "Get progress of the working hours recompute job")
+    public ResponseEntity<Map<String, Object>> getRecomputeStatus() {
+        return ResponseEntity.ok(recomputeService.getStatus());
+    }
+
+    @PostMapping("/recompute/stop")
+    @Operation(summary = "Stop recompute", description = "Stop the recompute job after the chunks in progress; it can be resumed later")
+    public ResponseEntity<Map<String, Object>> stopRecompute() {
+        recomputeService.stop();
+        return ResponseEntity.ok(recomputeService.getStatus());
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete attendance", description = "Delete an attendance record")
     public ResponseEntity<?> deleteAttendance(@PathVariable Long id) {
@@ -0,0 +1,98 @@
+package com.hrms.controller;
+
+import com.hrms.service.BankFileService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/payroll/bank-files")
+@Tag(name = "Bank Files", description = "APIs for exporting the bank transfer files that pay a period's net salaries")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class BankFileController {
+
+    @Autowired
+    private BankFileService bankFileService;
+
+    @GetMapping("/{period}")
+    @Operation(summary = "Download bank file", description = "Generate a pay period's bank transfer file (FIXED or CSV) and send it once it matches its control totals")
+    public ResponseEntity<?> stream(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth period,
+                                    @RequestParam(defaultValue = "FIXED") String format) {
+        BankFileService.Format fileFormat = parseFormat(format);
+        if (fileFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown bank file format: " + format));
+        }
+        // Generated into a temporary file first so a file that fails its control totals is never sent
+        Path file;
+        try {
+            file = bankFileService.writeTemporary(period, fileFormat);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                bankFileService.deleteQuietly(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(fileFormat == BankFileService.Format.CSV ? MediaType.parseMediaType("text/csv") : MediaType.TEXT_PLAIN)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + bankFileService.fileName(period, fileFormat) + "\"")
+                .body(body);
+    }
+
+    @PostMapping("/{period}")
+    @Operation(summary = "Export bank file", description = "Write a pay period's bank transfer file to the server's bank files directory and return its control totals")
+    public ResponseEntity<?> export(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth period,
+                                    @RequestParam(defaultValue = "FIXED") String format) {
+        BankFileService.Format fileFormat = parseFormat(format);
+        if (fileFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown bank file format: " + format));
+        }
+        try {
+            return ResponseEntity.ok(bankFileService.export(period, fileFormat));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{period}/download")
+    @Operation(summary = "Download exported bank file", description = "Download a bank transfer file previously exported to the server")
+    public ResponseEntity<?> download(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth period,
+                                      @RequestParam(defaultValue = "FIXED") String format) {
+        BankFileService.Format fileFormat = parseFormat(format);
+        if (fileFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown bank file format: " + format));
+        }
+        Path file = bankFileService.getFile(period, fileFormat);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(new FileSystemResource(file));
+    }
+
+    private static BankFileService.Format parseFormat(String format) {
+        for (BankFileService.Format candidate : BankFileService.Format.values()) {
+            if (candidate.name().equalsIgnoreCase(format)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,97 @@
+package com.hrms.controller;
+
+import com.hrms.model.Employee;
+import com.hrms.model.Holiday;
+import com.hrms.repository.EmployeeRepository;
+import com.hrms.service.HolidayCalendarService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/holidays")
+@Tag(name = "Holiday Calendar", description = "APIs for managing regional public holidays and counting working days")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class HolidayController {
+
+    @Autowired
+    private HolidayCalendarService holidayCalendarService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @GetMapping
+    @Operation(summary = "Get holidays", description = "List a region's public holidays for a year")
+    public ResponseEntity<List<Holiday>> getHolidays(
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) Integer year) {
+        String holidayRegion = region != null ? region : holidayCalendarService.getDefaultRegion();
+        int holidayYear = year != null ? year : LocalDate.now().getYear();
+        return ResponseEntity.ok(holidayCalendarService.getHolidays(holidayRegion, holidayYear));
+    }
+
+    @PostMapping
+    @Operation(summary = "Add holiday", description = "Add a single public holiday to a region")
+    public ResponseEntity<?> addHoliday(@Valid @RequestBody Holiday holiday) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(holidayCalendarService.addHoliday(holiday));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{region}/{year}")
+    @Operation(summary = "Upload holidays", description = "Replace all of a region's public holidays for a year")
+    public ResponseEntity<?> replaceHolidays(@PathVariable String region, @PathVariable int year, @RequestBody List<Holiday> holidays) {
+        try {
+            return ResponseEntity.ok(holidayCalendarService.replaceHolidays(region, year, holidays));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete holiday", description = "Remove a public holiday")
+    public ResponseEntity<?> deleteHoliday(@PathVariable Long id) {
+        try {
+            holidayCalendarService.deleteHoliday(id);
+            return ResponseEntity.ok(Map.of("message", "Holiday deleted successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/working-days")
+    @Operation(summary = "Count working days", description = "Count working days between two dates, inclusive, for a region or an employee's region")
+    public ResponseEntity<?> countWorkingDays(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) Long employeeId) {
+        String calendarRegion = region;
+        if (employeeId != null) {
+            Employee employee = employeeRepository.findById(employeeId).orElse(null);
+            if (employee == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Employee not found with id: " + employeeId));
+            }
+            calendarRegion = holidayCalendarService.regionOf(employee);
+        }
+        if (calendarRegion == null) {
+            calendarRegion = holidayCalendarService.getDefaultRegion();
+        }
+        return ResponseEntity.ok(Map.of(
+                "region", calendarRegion,
+                "startDate", startDate,
+                "endDate", endDate,
+                "workingDays", holidayCalendarService.countWorkingDays(calendarRegion, startDate, endDate)));
+    }
+}
@@ -1,7 +1,18 @@
 package com.hrms.controller;
 
+import com.hrms.dto.AbsenceForecastDTO;
+import com.hrms.dto.LeaveAnalyticsRowDTO;
+import com.hrms.dto.LeaveBalanceDTO;
+import com.hrms.dto.LeaveCalendarEntryDTO;
+import com.hrms.dto.LeaveDecisionRequestDTO;
+import com.hrms.dto.LeaveDecisionResultDTO;
+import com.hrms.dto.LeaveQueuePageDTO;
 import com.hrms.dto.LeaveRequestDTO;
 import com.hrms.model.LeaveStatus;
+import com.hrms.model.LeaveType;
+import com.hrms.service.LeaveAccrualService;
+import com.hrms.service.LeaveAnalyticsCube;
+import com.hrms.service.LeaveBalanceService;
 import com.hrms.service.LeaveService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,12 +22,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/leaves")
@@ -27,6 +43,12 @@ public class LeaveController {
     @Autowired
     private LeaveService leaveService;
 
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private LeaveAccrualService leaveAccrualService;
+
     @GetMapping
     @Operation(summary = "Get all leave requests", description = "Retrieve all leave requests with pagination")
     public ResponseEntity<Page<LeaveRequestDTO>> getAllLeaveRequests(
@@ -118,6 +140,28 @@ public class LeaveController {
         }
     }
 
+    @PostMapping("/decisions")
+    @Operation(summary = "Approve or reject in bulk", description = "Apply one decision to many pending leave requests and return the outcome for each")
+    public ResponseEntity<?> decideLeaves(@Valid @RequestBody LeaveDecisionRequestDTO request) {
+        try {
+            List<LeaveDecisionResultDTO> results = leaveService.decideLeaves(request);
+            return ResponseEntity.ok(results);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}/cancel")
+    @Operation(summary = "Cancel leave request", description = "Cancel a pending or approved leave request and return the days to the balance")
+    public ResponseEntity<?> cancelLeave(@PathVariable Long id) {
+        try {
+            LeaveRequestDTO cancelledLeaveRequest = leaveService.cancelLeave(id);
+            return ResponseEntity.ok(cancelledLeaveRequest);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete leave request", description = "Delete a leave request")
     public ResponseEntity<?> deleteLeaveRequest(@PathVariable Long id) {
@@ -129,6 +173,134 @@ public class LeaveController {
         }
     }
 
+    @GetMapping("/team-calendar")
+    @Operation(summary = "Get team calendar", description = "List everyone in a department with a pending or approved leave between two dates")
+    public ResponseEntity<List<LeaveCalendarEntryDTO>> getTeamCalendar(
+            @RequestParam String department,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(leaveService.getTeamCalendar(department, startDate, endDate));
+    }
+
+    @GetMapping("/balance/{employeeId}")
+    @Operation(summary = "Get leave balances", description = "Get an employee's balance for every leave type used in a year")
+    public ResponseEntity<List<LeaveBalanceDTO>> getLeaveBalances(
+            @PathVariable Long employeeId,
+            @RequestParam(required = false) Integer year) {
+        int balanceYear = year != null ? year : LocalDate.now().getYear();
+        return ResponseEntity.ok(leaveBalanceService.getBalances(employeeId, balanceYear));
+    }
+
+    @GetMapping("/balance/{employeeId}/{leaveType}")
+    @Operation(summary = "Get leave balance by type", description = "Get an employee's balance for one leave type in a year")
+    public ResponseEntity<LeaveBalanceDTO> getLeaveBalance(
+            @PathVariable Long employeeId,
+            @PathVariable LeaveType leaveType,
+            @RequestParam(required = false) Integer year) {
+        int balanceYear = year != null ? year : LocalDate.now().getYear();
+        return ResponseEntity.ok(leaveBalanceService.getBalance(employeeId, leaveType, balanceYear));
+    }
+
+    @PostMapping("/balance/{employeeId}/adjust")
+    @Operation(summary = "Adjust leave balance", description = "Add or remove days from an employee's balance with a ledger entry")
+    public ResponseEntity<?> adjustLeaveBalance(@PathVariable Long employeeId, @RequestBody Map<String, String> request) {
+        try {
+            if (request.get("leaveType") == null || request.get("days") == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "leaveType and days are required"));
+            }
+            LeaveType leaveType = LeaveType.valueOf(request.get("leaveType"));
+            double days = Double.parseDouble(request.get("days"));
+            int year = request.get("year") != null ? Integer.parseInt(request.get("year")) : LocalDate.now().getYear();
+
+            LeaveBalanceDTO balance = leaveBalanceService.adjust(employeeId, leaveType, year, days, request.get("note"));
+            return ResponseEntity.ok(balance);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/balance/rebuild")
+    @Operation(summary = "Rebuild leave balances", description = "Recompute pending and consumed days of every leave balance from the leave requests")
+    public ResponseEntity<?> rebuildLeaveBalances() {
+        try {
+            return ResponseEntity.ok(Map.of("changedBalances", leaveBalanceService.rebuild()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/accruals")
+    @Operation(summary = "Run leave accrual", description = "Start crediting a month's leave accrual (default: last month), or every month from period through the given month; employees already credited for a month are skipped")
+    public ResponseEntity<?> startAccrual(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth period,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth through) {
+        try {
+            YearMonth from = period != null ? period : YearMonth.now().minusMonths(1);
+            if (!leaveAccrualService.start(from, through != null ? through : from)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Leave accrual is already running"));
+            }
+            return ResponseEntity.accepted().body(leaveAccrualService.getStatus());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/accruals/status")
+    @Operation(summary = "Get accrual progress", description = "Get progress of the current or last leave accrual run")
+    public ResponseEntity<Map<String, Object>> getAccrualStatus() {
+        return ResponseEntity.ok(leaveAccrualService.getStatus());
+    }
+
+    @PostMapping("/accruals/stop")
+    @Operation(summary = "Stop accrual", description = "Stop the leave accrual after the chunks in progress; running the same period again completes it")
+    public ResponseEntity<Map<String, Object>> stopAccrual() {
+        leaveAccrualService.stop();
+        return ResponseEntity.ok(leaveAccrualService.getStatus());
+    }
+
+    @GetMapping("/queue/counts")
+    @Operation(summary = "Get pending counts by approver", description = "Number of pending leave requests waiting on each approver")
+    public ResponseEntity<Map<String, Long>> getPendingCountsByApprover() {
+        return ResponseEntity.ok(leaveService.getPendingCountsByApprover());
+    }
+
+    @GetMapping("/queue/{approver}")
+    @Operation(summary = "Get approver queue", description = "Pending leave requests routed to the approver, oldest first, one page at a time")
+    public ResponseEntity<?> getApproverQueue(
+            @PathVariable String approver,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            LeaveQueuePageDTO page = leaveService.getApproverQueue(approver, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/capacity-forecast")
+    @Operation(summary = "Get absence forecast", description = "Pending and approved absences per day for each department, with the department's absence cap")
+    public ResponseEntity<List<AbsenceForecastDTO>> getCapacityForecast(
+            @RequestParam(required = false) String department,
+            @RequestParam(defaultValue = "92") int days) {
+        return ResponseEntity.ok(leaveService.getCapacityForecast(department, days));
+    }
+
+    @GetMapping("/analytics")
+    @Operation(summary = "Get leave analytics", description = "Request counts and day totals filtered and grouped by status, leave type, department and start month")
+    public ResponseEntity<List<LeaveAnalyticsRowDTO>> getLeaveAnalytics(
+            @RequestParam(required = false) LeaveStatus status,
+            @RequestParam(required = false) LeaveType leaveType,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth fromMonth,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth toMonth,
+            @RequestParam(required = false) Set<LeaveAnalyticsCube.Dimension> groupBy) {
+        Set<LeaveAnalyticsCube.Dimension> dimensions = groupBy != null && !groupBy.isEmpty()
+                ? EnumSet.copyOf(groupBy)
+                : EnumSet.noneOf(LeaveAnalyticsCube.Dimension.class);
+        return ResponseEntity.ok(leaveService.getLeaveAnalytics(status, leaveType, department, fromMonth, toMonth, dimensions));
+    }
+
     @GetMapping("/stats")
     @Operation(summary = "Get leave statistics", description = "Get leave request statistics")
     public ResponseEntity<Map<String, Object>> getLeaveStats() {
@@ -0,0 +1,37 @@
+package com.hrms.controller;
+
+import com.hrms.service.NotificationDispatcher;
+import com.hrms.service.NotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/notifications")
+@Tag(name = "Notifications", description = "APIs for monitoring the email notification outbox")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class NotificationController {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @GetMapping("/outbox/stats")
+    @Operation(summary = "Get outbox statistics", description = "Count queued, in-flight, sent and failed notifications")
+    public ResponseEntity<Map<String, Long>> getOutboxStats() {
+        return ResponseEntity.ok(notificationService.getOutboxCounts());
+    }
+
+    @PostMapping("/outbox/dispatch")
+    @Operation(summary = "Dispatch now", description = "Send one batch of due notifications without waiting for the next scheduled run")
+    public ResponseEntity<Map<String, Object>> dispatch() {
+        int claimed = notificationDispatcher.dispatchBatch();
+        return ResponseEntity.ok(Map.of("claimed", claimed));
+    }
+}
@@ -1,13 +1,22 @@
 package com.hrms.controller;
 
+import com.hrms.dto.PayrollTrendDTO;
 import com.hrms.model.Payroll;
+import com.hrms.model.PayrollYtd;
 import com.hrms.repository.PayrollRepository;
+import com.hrms.service.PayrollAggregateService;
+import com.hrms.service.PayrollService;
+import com.hrms.service.PayrollYtdService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +30,15 @@ public class PayrollController {
     @Autowired
     private PayrollRepository payrollRepository;
 
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollAggregateService payrollAggregateService;
+
+    @Autowired
+    private PayrollYtdService payrollYtdService;
+
     // GET: All payrolls
     @GetMapping
     public ResponseEntity<List<Payroll>> getAllPayrolls() {
@@ -44,19 +62,12 @@ public class PayrollController {
 
     // POST: Create new payroll
     @PostMapping
-    public ResponseEntity<Payroll> createPayroll(@RequestBody Payroll payroll) {
+    public ResponseEntity<?> createPayroll(@RequestBody Payroll payroll) {
         try {
-            if (payroll.getNetPay() == null) {
-                double netPay = payroll.getGrossSalary() - payroll.getTaxDeductions();
-                payroll.setNetPay(netPay);
-            }
-
-            if (payroll.getDate() == null) {
-                payroll.setDate(LocalDate.now());
-            }
-
-            Payroll savedPayroll = payrollRepository.save(payroll);
+            Payroll savedPayroll = payrollService.createPayroll(payroll);
             return new ResponseEntity<>(savedPayroll, HttpStatus.CREATED);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace(); // Optional: use a logger
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -65,29 +76,26 @@ public class PayrollController {
 
     // PUT: Update payroll
     @PutMapping("/{id}")
-    public ResponseEntity<Payroll> updatePayroll(@PathVariable("id") Long id, @RequestBody Payroll payroll) {
-        Optional<Payroll> payrollData = payrollRepository.findById(id);
-
-        if (payrollData.isPresent()) {
-            Payroll existingPayroll = payrollData.get();
-            existingPayroll.setEmployeeName(payroll.getEmployeeName());
-            existingPayroll.setGrossSalary(payroll.getGrossSalary());
-            existingPayroll.setTaxDeductions(payroll.getTaxDeductions());
-            existingPayroll.setNetPay(payroll.getNetPay());
-            existingPayroll.setDate(payroll.getDate());
-
-            Payroll updated = payrollRepository.save(existingPayroll);
-            return new ResponseEntity<>(updated, HttpStatus.OK);
-        } else {
+    public ResponseEntity<?> updatePayroll(@PathVariable("id") Long id, @RequestBody Payroll payroll) {
+        if (!payrollRepository.existsById(id)) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        try {
+            Payroll updated = payrollService.updatePayroll(id, payroll);
+            return new ResponseEntity<>(updated, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     // DELETE: Payroll by ID
     @DeleteMapping("/{id}")
     public ResponseEntity<HttpStatus> deletePayroll(@PathVariable("id") Long id) {
+        if (!payrollRepository.existsById(id)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
         try {
-            payrollRepository.deleteById(id);
+            payrollService.deletePayroll(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (Exception e) {
             e.printStackTrace(); // Optional: use a logger
@@ -95,11 +103,34 @@ public class PayrollController {
         }
     }
 
-    // GET: Payrolls by employee name
+    // GET: Payroll history of an employee, newest first
+    @GetMapping("/employees/{employeeId}")
+    public ResponseEntity<List<Payroll>> getPayrollsByEmployeeId(
+            @PathVariable("employeeId") Long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(payrollService.getPayrollsByEmployeeId(employeeId, startDate, endDate));
+    }
+
+    // GET: Year-to-date totals of an employee, for the current fiscal year unless one is given
+    @GetMapping("/employees/{employeeId}/ytd")
+    public ResponseEntity<PayrollYtd> getEmployeeYtd(@PathVariable("employeeId") Long employeeId,
+                                                     @RequestParam(required = false) Integer fiscalYear) {
+        return ResponseEntity.ok(payrollYtdService.getYtd(employeeId,
+                fiscalYear != null ? fiscalYear : payrollYtdService.fiscalYear(LocalDate.now())));
+    }
+
+    // GET: Totals of every fiscal year an employee was paid in, newest first
+    @GetMapping("/employees/{employeeId}/ytd/history")
+    public ResponseEntity<List<PayrollYtd>> getEmployeeYtdHistory(@PathVariable("employeeId") Long employeeId) {
+        return ResponseEntity.ok(payrollYtdService.getHistory(employeeId));
+    }
+
+    // GET: Payrolls by exact employee name; prefer /employees/{employeeId}
     @GetMapping("/employee/{employeeName}")
     public ResponseEntity<List<Payroll>> getPayrollsByEmployee(@PathVariable("employeeName") String employeeName) {
         try {
-            List<Payroll> payrolls = payrollRepository.findByEmployeeNameContainingIgnoreCase(employeeName);
+            List<Payroll> payrolls = payrollService.getPayrollsByEmployeeName(employeeName);
             return new ResponseEntity<>(payrolls, HttpStatus.OK);
         } catch (Exception e) {
             e.printStackTrace(); // Optional: use a logger
@@ -107,23 +138,59 @@ public class PayrollController {
         }
     }
 
-    // GET: Dashboard stats
+    // GET: Monthly totals with month-over-month change and year-to-date totals
+    @GetMapping("/trends")
+    public ResponseEntity<List<PayrollTrendDTO>> getTrends(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @RequestParam(required = false) String department) {
+        YearMonth toPeriod = to != null ? to : YearMonth.now();
+        YearMonth fromPeriod = from != null ? from : toPeriod.minusMonths(11);
+        if (fromPeriod.isAfter(toPeriod)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(payrollAggregateService.getTrends(fromPeriod, toPeriod, department));
+    }
+
+    // GET: Year-to-date totals per department
+    @GetMapping("/trends/ytd")
+    public ResponseEntity<List<PayrollTrendDTO>> getYtdByDepartment(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth through) {
+        return ResponseEntity.ok(payrollAggregateService.getYtdByDepartment(through != null ? through : YearMonth.now()));
+    }
+
+    // POST: Recompute the payroll aggregates from the payroll table
+    @PostMapping("/aggregates/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildAggregates() {
+        int cells = payrollAggregateService.rebuild();
+        return ResponseEntity.ok(Map.of("cells", cells));
+    }
+
+    // GET: Year-to-date totals of every employee paid in a fiscal year, by employee id
+    @GetMapping("/ytd")
+    public ResponseEntity<Page<PayrollYtd>> getYtd(@RequestParam(required = false) Integer fiscalYear,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "100") int size) {
+        int year = fiscalYear != null ? fiscalYear : payrollYtdService.fiscalYear(LocalDate.now());
+        return ResponseEntity.ok(payrollYtdService.getFiscalYear(year, PageRequest.of(page, size)));
+    }
+
+    // POST: Recompute the year-to-date accumulators from the payroll table
+    @PostMapping("/ytd/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildYtd() {
+        int rows = payrollYtdService.rebuild();
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+
+    // GET: Dashboard stats, served from the payroll aggregates
     @GetMapping("/dashboard/stats")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-
-            Double totalSalary = payrollRepository.getTotalSalaryDisbursed();
-            Double totalDeductions = payrollRepository.getTotalTaxDeductions();
-            Long payrollCount = payrollRepository.count();
-            List<String> employeeNames = payrollRepository.getDistinctEmployeeNames();
-            List<Payroll> recentPayrolls = payrollRepository.findTop10ByOrderByDateDesc();
-
-            stats.put("totalSalaryDisbursed", totalSalary != null ? totalSalary : 0.0);
-            stats.put("totalTaxDeductions", totalDeductions != null ? totalDeductions : 0.0);
-            stats.put("payrollCount", payrollCount);
-            stats.put("employeeCount", employeeNames != null ? employeeNames.size() : 0);
-            stats.put("recentPayrolls", recentPayrolls);
+            Map<String, Object> stats = new HashMap<>(payrollAggregateService.getTotals());
+
+            // Distinct employees paid, as before the aggregates
+            stats.put("employeeCount", payrollYtdService.getEmployeeCount());
+            stats.put("recentPayrolls", payrollRepository.findTop10ByOrderByDateDesc());
 
             return new ResponseEntity<>(stats, HttpStatus.OK);
         } catch (Exception e) {
@@ -0,0 +1,96 @@
+package com.hrms.controller;
+
+import com.hrms.model.PayrollRun;
+import com.hrms.service.PayrollHashService;
+import com.hrms.service.PayrollRunService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/payroll/runs")
+@Tag(name = "Payroll Runs", description = "APIs for computing payroll for every active employee of a pay period")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class PayrollRunController {
+
+    @Autowired
+    private PayrollRunService payrollRunService;
+
+    @Autowired
+    private PayrollHashService payrollHashService;
+
+    @PostMapping
+    @Operation(summary = "Start payroll run", description = "Compute payroll for a pay period in the background; a completed run replaces the period's previous run")
+    public ResponseEntity<?> startRun(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+        try {
+            return ResponseEntity.accepted().body(payrollRunService.start(period));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    @Operation(summary = "Get payroll runs", description = "List the runs of a pay period, or the most recent runs")
+    public ResponseEntity<List<PayrollRun>> getRuns(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+        return ResponseEntity.ok(payrollRunService.getRuns(period));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get payroll run", description = "Get the status and progress of a payroll run")
+    public ResponseEntity<?> getRun(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(payrollRunService.getRun(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "Resume payroll run", description = "Continue a stopped or failed run from its checkpoint")
+    public ResponseEntity<?> resumeRun(@PathVariable Long id) {
+        try {
+            return ResponseEntity.accepted().body(payrollRunService.resume(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/stop")
+    @Operation(summary = "Stop payroll run", description = "Stop the run after the chunks in progress; it can be resumed later")
+    public ResponseEntity<?> stopRun(@PathVariable Long id) {
+        try {
+            payrollRunService.stop(id);
+            return ResponseEntity.ok(Map.of("message", "Payroll run " + id + " is stopping"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/diff")
+    @Operation(summary = "Compare payroll runs", description = "List the employees whose figures differ from an earlier run of the period, by default the one before this run")
+    public ResponseEntity<?> diffRun(@PathVariable Long id, @RequestParam(required = false) Long against) {
+        try {
+            return ResponseEntity.ok(payrollHashService.diff(id, against));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/verify")
+    @Operation(summary = "Verify payroll run", description = "Check a completed run's payroll rows against their hashes for changes made outside the application")
+    public ResponseEntity<?> verifyRun(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(payrollHashService.verify(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
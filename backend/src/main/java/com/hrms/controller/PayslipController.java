@@ -0,0 +1,66 @@
+package com.hrms.controller;
+
+import com.hrms.service.PayslipService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/payroll/payslips")
+@Tag(name = "Payslips", description = "APIs for generating and downloading the payslips of a pay period")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class PayslipController {
+
+    @Autowired
+    private PayslipService payslipService;
+
+    @PostMapping
+    @Operation(summary = "Generate payslips", description = "Render a payslip for every payroll record of a pay period into the period's archive")
+    public ResponseEntity<?> generate(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+        try {
+            if (!payslipService.start(period)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Payslips are already being generated"));
+            }
+            return ResponseEntity.accepted().body(payslipService.getStatus());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/status")
+    @Operation(summary = "Get payslip progress", description = "Get progress and throughput of the current or last payslip generation")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(payslipService.getStatus());
+    }
+
+    @PostMapping("/stop")
+    @Operation(summary = "Stop payslip generation", description = "Stop generating payslips; the period's previous archive is kept")
+    public ResponseEntity<Map<String, Object>> stop() {
+        payslipService.stop();
+        return ResponseEntity.ok(payslipService.getStatus());
+    }
+
+    @GetMapping("/{period}/download")
+    @Operation(summary = "Download payslips", description = "Download the zip archive of a pay period's payslips")
+    public ResponseEntity<?> download(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+        Path archive = payslipService.getArchive(period);
+        if (archive == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archive.getFileName() + "\"")
+                .body(new FileSystemResource(archive));
+    }
+}
@@ -0,0 +1,51 @@
+package com.hrms.controller;
+
+import com.hrms.model.PayrollRetroMark;
+import com.hrms.service.RetroPayService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/payroll/retro")
+@Tag(name = "Retro Pay", description = "APIs for recomputing pay of periods whose inputs changed after they were paid")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class RetroPayController {
+
+    @Autowired
+    private RetroPayService retroPayService;
+
+    @PostMapping("/run")
+    @Operation(summary = "Process retro pay", description = "Recompute the marked employees and write adjustments for the differences")
+    public ResponseEntity<Map<String, Object>> run() {
+        if (!retroPayService.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Retro pay is already being processed"));
+        }
+        return ResponseEntity.accepted().body(retroPayService.getStatus());
+    }
+
+    @PostMapping("/stop")
+    @Operation(summary = "Stop retro pay", description = "Stop after the current batch; the remaining marks are kept")
+    public ResponseEntity<Map<String, Object>> stop() {
+        retroPayService.stop();
+        return ResponseEntity.ok(retroPayService.getStatus());
+    }
+
+    @GetMapping("/status")
+    @Operation(summary = "Get retro pay progress", description = "Get pending marks and progress of the current or last retro pay run")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(retroPayService.getStatus());
+    }
+
+    @GetMapping("/marks")
+    @Operation(summary = "Get pending marks", description = "Get the employees and periods waiting to be recomputed")
+    public ResponseEntity<List<PayrollRetroMark>> getMarks(@RequestParam(required = false) Long employeeId) {
+        return ResponseEntity.ok(retroPayService.getMarks(employeeId));
+    }
+}
@@ -0,0 +1,69 @@
+package com.hrms.controller;
+
+import com.hrms.model.Shift;
+import com.hrms.service.ShiftService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/shifts")
+@Tag(name = "Shift Management", description = "APIs for managing work shift definitions")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ShiftController {
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @GetMapping
+    @Operation(summary = "Get all shifts", description = "Retrieve all shift definitions")
+    public ResponseEntity<List<Shift>> getAllShifts() {
+        return ResponseEntity.ok(shiftService.getAllShifts());
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get shift by ID", description = "Retrieve a specific shift definition by ID")
+    public ResponseEntity<Shift> getShiftById(@PathVariable Long id) {
+        return shiftService.getShift(id)
+                .map(shift -> ResponseEntity.ok(shift))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    @Operation(summary = "Create shift", description = "Add a new shift definition")
+    public ResponseEntity<?> createShift(@Valid @RequestBody Shift shift) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(shiftService.createShift(shift));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update shift", description = "Update an existing shift definition")
+    public ResponseEntity<?> updateShift(@PathVariable Long id, @Valid @RequestBody Shift shift) {
+        try {
+            return ResponseEntity.ok(shiftService.updateShift(id, shift));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete shift", description = "Delete a shift definition")
+    public ResponseEntity<?> deleteShift(@PathVariable Long id) {
+        try {
+            shiftService.deleteShift(id);
+            return ResponseEntity.ok(Map.of("message", "Shift deleted successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.hrms.controller;
+
+import com.hrms.model.Money;
+import com.hrms.model.TaxBracket;
+import com.hrms.service.TaxBracketService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/payroll/tax-brackets")
+@Tag(name = "Tax Brackets", description = "APIs for managing progressive tax tables by region and year")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class TaxBracketController {
+
+    @Autowired
+    private TaxBracketService taxBracketService;
+
+    @GetMapping
+    @Operation(summary = "Get tax brackets", description = "List a region's tax brackets for a year, or for every year")
+    public ResponseEntity<List<TaxBracket>> getBrackets(@RequestParam String region,
+                                                        @RequestParam(required = false) Integer year) {
+        return ResponseEntity.ok(taxBracketService.getBrackets(region, year));
+    }
+
+    @PutMapping("/{region}/{year}")
+    @Operation(summary = "Upload tax brackets", description = "Replace a region's tax brackets for a year; payroll uses them immediately")
+    public ResponseEntity<?> replaceBrackets(@PathVariable String region, @PathVariable int year,
+                                             @RequestBody List<TaxBracket> brackets) {
+        try {
+            return ResponseEntity.ok(taxBracketService.replaceBrackets(region, year, brackets));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/calculate")
+    @Operation(summary = "Calculate tax", description = "Calculate the tax on a month's gross salary for a region and year")
+    public ResponseEntity<Map<String, Object>> calculate(@RequestParam(required = false) String region,
+                                                         @RequestParam(required = false) Integer year,
+                                                         @RequestParam BigDecimal grossSalary) {
+        long gross = Money.toMinor(grossSalary);
+        long tax = taxBracketService.calculateTax(region, year != null ? year : LocalDate.now().getYear(), gross);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("grossSalary", Money.ofMinor(gross));
+        result.put("taxDeductions", Money.ofMinor(tax));
+        result.put("netPay", Money.ofMinor(gross - tax));
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,39 @@
+package com.hrms.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class AbsenceForecastDTO {
+    private String department;
+    private int headcount;
+    private int maxAbsent;
+    private LocalDate startDate;
+    private List<Integer> dailyAbsent;
+    private int peakAbsent;
+    private LocalDate peakDate;
+
+    // Constructors
+    public AbsenceForecastDTO() {}
+
+    // Getters and Setters
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public int getHeadcount() { return headcount; }
+    public void setHeadcount(int headcount) { this.headcount = headcount; }
+
+    public int getMaxAbsent() { return maxAbsent; }
+    public void setMaxAbsent(int maxAbsent) { this.maxAbsent = maxAbsent; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public List<Integer> getDailyAbsent() { return dailyAbsent; }
+    public void setDailyAbsent(List<Integer> dailyAbsent) { this.dailyAbsent = dailyAbsent; }
+
+    public int getPeakAbsent() { return peakAbsent; }
+    public void setPeakAbsent(int peakAbsent) { this.peakAbsent = peakAbsent; }
+
+    public LocalDate getPeakDate() { return peakDate; }
+    public void setPeakDate(LocalDate peakDate) { this.peakDate = peakDate; }
+}
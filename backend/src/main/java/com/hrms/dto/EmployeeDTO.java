@@ -1,9 +1,11 @@
 package com.hrms.dto;
 
 import com.hrms.model.EmployeeStatus;
+import com.hrms.model.Money;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -37,8 +39,16 @@ public class EmployeeDTO {
     
     private LocalDate birthDate;
     private EmployeeStatus status;
-    private Double salary;
+    private Money salary;
     private String address;
+    private Long shiftId;
+    private String region;
+
+    @Size(max = 11, message = "Bank code must be at most 11 characters")
+    private String bankCode;
+
+    @Size(max = 34, message = "Bank account number must be at most 34 characters")
+    private String bankAccountNumber;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -90,8 +100,20 @@ public class EmployeeDTO {
     public EmployeeStatus getStatus() { return status; }
     public void setStatus(EmployeeStatus status) { this.status = status; }
 
-    public Double getSalary() { return salary; }
-    public void setSalary(Double salary) { this.salary = salary; }
+    public Long getShiftId() { return shiftId; }
+    public void setShiftId(Long shiftId) { this.shiftId = shiftId; }
+
+    public String getRegion() { return region; }
+    public void setRegion(String region) { this.region = region; }
+
+    public String getBankCode() { return bankCode; }
+    public void setBankCode(String bankCode) { this.bankCode = bankCode; }
+
+    public String getBankAccountNumber() { return bankAccountNumber; }
+    public void setBankAccountNumber(String bankAccountNumber) { this.bankAccountNumber = bankAccountNumber; }
+
+    public Money getSalary() { return salary; }
+    public void setSalary(Money salary) { this.salary = salary; }
 
     public String getAddress() { return address; }
     public void setAddress(String address) { this.address = address; }
@@ -0,0 +1,46 @@
+package com.hrms.dto;
+
+import com.hrms.model.LeaveStatus;
+import com.hrms.model.LeaveType;
+
+import java.time.YearMonth;
+
+public class LeaveAnalyticsRowDTO {
+    private LeaveStatus status;
+    private LeaveType leaveType;
+    private String department;
+    private YearMonth month;
+    private long count;
+    private long days;
+
+    // Constructors
+    public LeaveAnalyticsRowDTO() {}
+
+    public LeaveAnalyticsRowDTO(LeaveStatus status, LeaveType leaveType, String department, YearMonth month, long count, long days) {
+        this.status = status;
+        this.leaveType = leaveType;
+        this.department = department;
+        this.month = month;
+        this.count = count;
+        this.days = days;
+    }
+
+    // Getters and Setters
+    public LeaveStatus getStatus() { return status; }
+    public void setStatus(LeaveStatus status) { this.status = status; }
+
+    public LeaveType getLeaveType() { return leaveType; }
+    public void setLeaveType(LeaveType leaveType) { this.leaveType = leaveType; }
+
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public YearMonth getMonth() { return month; }
+    public void setMonth(YearMonth month) { this.month = month; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getDays() { return days; }
+    public void setDays(long days) { this.days = days; }
+}
@@ -0,0 +1,46 @@
+package com.hrms.dto;
+
+import com.hrms.model.LeaveType;
+
+public class LeaveBalanceDTO {
+    private Long employeeId;
+    private LeaveType leaveType;
+    private Integer year;
+    private Double entitled;
+    private Double accrued;
+    private Double adjusted;
+    private Double consumed;
+    private Double pending;
+    private Double available;
+
+    // Constructors
+    public LeaveBalanceDTO() {}
+
+    // Getters and Setters
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
+    public LeaveType getLeaveType() { return leaveType; }
+    public void setLeaveType(LeaveType leaveType) { this.leaveType = leaveType; }
+
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+
+    public Double getEntitled() { return entitled; }
+    public void setEntitled(Double entitled) { this.entitled = entitled; }
+
+    public Double getAccrued() { return accrued; }
+    public void setAccrued(Double accrued) { this.accrued = accrued; }
+
+    public Double getAdjusted() { return adjusted; }
+    public void setAdjusted(Double adjusted) { this.adjusted = adjusted; }
+
+    public Double getConsumed() { return consumed; }
+    public void setConsumed(Double consumed) { this.consumed = consumed; }
+
+    public Double getPending() { return pending; }
+    public void setPending(Double pending) { this.pending = pending; }
+
+    public Double getAvailable() { return available; }
+    public void setAvailable(Double available) { this.available = available; }
+}
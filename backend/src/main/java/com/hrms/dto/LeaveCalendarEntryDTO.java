@@ -0,0 +1,57 @@
+package com.hrms.dto;
+
+import com.hrms.model.LeaveStatus;
+import com.hrms.model.LeaveType;
+
+import java.time.LocalDate;
+
+public class LeaveCalendarEntryDTO {
+    private Long leaveId;
+    private Long employeeId;
+    private String employeeName;
+    private String department;
+    private LeaveType leaveType;
+    private LeaveStatus status;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    // Constructors
+    public LeaveCalendarEntryDTO() {}
+
+    public LeaveCalendarEntryDTO(Long leaveId, Long employeeId, String employeeName, String department,
+                                 LeaveType leaveType, LeaveStatus status, LocalDate startDate, LocalDate endDate) {
+        this.leaveId = leaveId;
+        this.employeeId = employeeId;
+        this.employeeName = employeeName;
+        this.department = department;
+        this.leaveType = leaveType;
+        this.status = status;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    // Getters and Setters
+    public Long getLeaveId() { return leaveId; }
+    public void setLeaveId(Long leaveId) { this.leaveId = leaveId; }
+
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
+    public String getEmployeeName() { return employeeName; }
+    public void setEmployeeName(String employeeName) { this.employeeName = employeeName; }
+
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public LeaveType getLeaveType() { return leaveType; }
+    public void setLeaveType(LeaveType leaveType) { this.leaveType = leaveType; }
+
+    public LeaveStatus getStatus() { return status; }
+    public void setStatus(LeaveStatus status) { this.status = status; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+}
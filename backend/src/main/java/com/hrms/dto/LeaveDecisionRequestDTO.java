@@ -0,0 +1,36 @@
+package com.hrms.dto;
+
+import com.hrms.model.LeaveStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class LeaveDecisionRequestDTO {
+    @NotEmpty(message = "At least one leave request ID is required")
+    @Size(max = 1000, message = "At most 1000 leave requests can be decided at once")
+    private List<Long> ids;
+
+    @NotNull(message = "Decision is required")
+    private LeaveStatus decision;
+
+    private String decidedBy;
+    private String rejectionReason;
+
+    // Constructors
+    public LeaveDecisionRequestDTO() {}
+
+    // Getters and Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public LeaveStatus getDecision() { return decision; }
+    public void setDecision(LeaveStatus decision) { this.decision = decision; }
+
+    public String getDecidedBy() { return decidedBy; }
+    public void setDecidedBy(String decidedBy) { this.decidedBy = decidedBy; }
+
+    public String getRejectionReason() { return rejectionReason; }
+    public void setRejectionReason(String rejectionReason) { this.rejectionReason = rejectionReason; }
+}
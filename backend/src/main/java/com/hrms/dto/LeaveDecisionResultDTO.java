@@ -0,0 +1,40 @@
+package com.hrms.dto;
+
+import com.hrms.model.LeaveStatus;
+
+public class LeaveDecisionResultDTO {
+    public enum Outcome {
+        APPLIED,
+        NOT_FOUND,
+        NOT_PENDING,
+        CONFLICT
+    }
+
+    private Long id;
+    private Outcome outcome;
+    private LeaveStatus status;
+    private String message;
+
+    // Constructors
+    public LeaveDecisionResultDTO() {}
+
+    public LeaveDecisionResultDTO(Long id, Outcome outcome, LeaveStatus status, String message) {
+        this.id = id;
+        this.outcome = outcome;
+        this.status = status;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Outcome getOutcome() { return outcome; }
+    public void setOutcome(Outcome outcome) { this.outcome = outcome; }
+
+    public LeaveStatus getStatus() { return status; }
+    public void setStatus(LeaveStatus status) { this.status = status; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,33 @@
+package com.hrms.dto;
+
+import java.util.List;
+
+public class LeaveQueuePageDTO {
+    private String approver;
+    private long pendingCount;
+    private List<LeaveRequestDTO> items;
+    private String nextCursor;
+
+    // Constructors
+    public LeaveQueuePageDTO() {}
+
+    public LeaveQueuePageDTO(String approver, long pendingCount, List<LeaveRequestDTO> items, String nextCursor) {
+        this.approver = approver;
+        this.pendingCount = pendingCount;
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public String getApprover() { return approver; }
+    public void setApprover(String approver) { this.approver = approver; }
+
+    public long getPendingCount() { return pendingCount; }
+    public void setPendingCount(long pendingCount) { this.pendingCount = pendingCount; }
+
+    public List<LeaveRequestDTO> getItems() { return items; }
+    public void setItems(List<LeaveRequestDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
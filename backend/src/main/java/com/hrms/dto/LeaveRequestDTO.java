@@ -32,11 +32,13 @@ public class LeaveRequestDTO {
     private String reason;
     
     private LeaveStatus status;
+    private String approver;
     private String approvedBy;
     private LocalDateTime approvalDate;
     private String rejectionReason;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     // Constructors
     public LeaveRequestDTO() {}
@@ -81,6 +83,9 @@ public class LeaveRequestDTO {
     public LeaveStatus getStatus() { return status; }
     public void setStatus(LeaveStatus status) { this.status = status; }
 
+    public String getApprover() { return approver; }
+    public void setApprover(String approver) { this.approver = approver; }
+
     public String getApprovedBy() { return approvedBy; }
     public void setApprovedBy(String approvedBy) { this.approvedBy = approvedBy; }
 
@@ -95,4 +100,7 @@ public class LeaveRequestDTO {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,32 @@
+package com.hrms.dto;
+
+public class PayrollDiffEntryDTO {
+    private Long employeeId;
+    private String department;
+    private String previousDepartment;
+    // ADDED, REMOVED or CHANGED
+    private String change;
+
+    // Constructors
+    public PayrollDiffEntryDTO() {}
+
+    public PayrollDiffEntryDTO(Long employeeId, String department, String previousDepartment, String change) {
+        this.employeeId = employeeId;
+        this.department = department;
+        this.previousDepartment = previousDepartment;
+        this.change = change;
+    }
+
+    // Getters and Setters
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public String getPreviousDepartment() { return previousDepartment; }
+    public void setPreviousDepartment(String previousDepartment) { this.previousDepartment = previousDepartment; }
+
+    public String getChange() { return change; }
+    public void setChange(String change) { this.change = change; }
+}
@@ -0,0 +1,35 @@
+package com.hrms.dto;
+
+import java.util.List;
+
+public class PayrollRunDiffDTO {
+    private Long runId;
+    private Long previousRunId;
+    private boolean identical;
+    private List<String> changedDepartments;
+    // Department buckets whose employees had to be compared one by one
+    private int bucketsCompared;
+    private List<PayrollDiffEntryDTO> changes;
+
+    // Constructors
+    public PayrollRunDiffDTO() {}
+
+    // Getters and Setters
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+
+    public Long getPreviousRunId() { return previousRunId; }
+    public void setPreviousRunId(Long previousRunId) { this.previousRunId = previousRunId; }
+
+    public boolean isIdentical() { return identical; }
+    public void setIdentical(boolean identical) { this.identical = identical; }
+
+    public List<String> getChangedDepartments() { return changedDepartments; }
+    public void setChangedDepartments(List<String> changedDepartments) { this.changedDepartments = changedDepartments; }
+
+    public int getBucketsCompared() { return bucketsCompared; }
+    public void setBucketsCompared(int bucketsCompared) { this.bucketsCompared = bucketsCompared; }
+
+    public List<PayrollDiffEntryDTO> getChanges() { return changes; }
+    public void setChanges(List<PayrollDiffEntryDTO> changes) { this.changes = changes; }
+}
@@ -0,0 +1,58 @@
+package com.hrms.dto;
+
+import com.hrms.model.Money;
+
+import java.time.YearMonth;
+
+public class PayrollTrendDTO {
+    private YearMonth period;
+    private String department;
+    private Money grossSalary;
+    private Money taxDeductions;
+    private Money netPay;
+    private long headcount;
+    // Against the previous period; null when there is nothing to compare with
+    private Money netPayChange;
+    private Double netPayChangePercent;
+    // From January of the period's year up to and including the period
+    private Money ytdGrossSalary;
+    private Money ytdTaxDeductions;
+    private Money ytdNetPay;
+
+    // Constructors
+    public PayrollTrendDTO() {}
+
+    // Getters and Setters
+    public YearMonth getPeriod() { return period; }
+    public void setPeriod(YearMonth period) { this.period = period; }
+
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public Money getGrossSalary() { return grossSalary; }
+    public void setGrossSalary(Money grossSalary) { this.grossSalary = grossSalary; }
+
+    public Money getTaxDeductions() { return taxDeductions; }
+    public void setTaxDeductions(Money taxDeductions) { this.taxDeductions = taxDeductions; }
+
+    public Money getNetPay() { return netPay; }
+    public void setNetPay(Money netPay) { this.netPay = netPay; }
+
+    public long getHeadcount() { return headcount; }
+    public void setHeadcount(long headcount) { this.headcount = headcount; }
+
+    public Money getNetPayChange() { return netPayChange; }
+    public void setNetPayChange(Money netPayChange) { this.netPayChange = netPayChange; }
+
+    public Double getNetPayChangePercent() { return netPayChangePercent; }
+    public void setNetPayChangePercent(Double netPayChangePercent) { this.netPayChangePercent = netPayChangePercent; }
+
+    public Money getYtdGrossSalary() { return ytdGrossSalary; }
+    public void setYtdGrossSalary(Money ytdGrossSalary) { this.ytdGrossSalary = ytdGrossSalary; }
+
+    public Money getYtdTaxDeductions() { return ytdTaxDeductions; }
+    public void setYtdTaxDeductions(Money ytdTaxDeductions) { this.ytdTaxDeductions = ytdTaxDeductions; }
+
+    public Money getYtdNetPay() { return ytdNetPay; }
+    public void setYtdNetPay(Money ytdNetPay) { this.ytdNetPay = ytdNetPay; }
+}
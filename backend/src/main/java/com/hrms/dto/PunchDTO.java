@@ -0,0 +1,47 @@
+package com.hrms.dto;
+
+import com.hrms.model.PunchDirection;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class PunchDTO {
+    private Long id;
+
+    @NotNull(message = "Employee ID is required")
+    private Long employeeId;
+
+    @NotNull(message = "Direction is required")
+    private PunchDirection direction;
+
+    private LocalDateTime punchedAt;
+
+    // Day the punch counts towards; defaults to the punch's calendar date. Night shifts send the
+    // date their shift started.
+    private LocalDate attendanceDate;
+
+    private String source;
+
+    // Constructors
+    public PunchDTO() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
+    public PunchDirection getDirection() { return direction; }
+    public void setDirection(PunchDirection direction) { this.direction = direction; }
+
+    public LocalDateTime getPunchedAt() { return punchedAt; }
+    public void setPunchedAt(LocalDateTime punchedAt) { this.punchedAt = punchedAt; }
+
+    public LocalDate getAttendanceDate() { return attendanceDate; }
+    public void setAttendanceDate(LocalDate attendanceDate) { this.attendanceDate = attendanceDate; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+}
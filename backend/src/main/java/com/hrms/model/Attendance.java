@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "attendance")
+@Table(name = "attendance",
+        uniqueConstraints = @UniqueConstraint(name = "uk_attendance_employee_date", columnNames = {"employee_id", "attendance_date"}),
+        indexes = @Index(name = "idx_attendance_date", columnList = "attendance_date"))
 @EntityListeners(AuditingEntityListener.class)
 public class Attendance {
     @Id
@@ -18,11 +20,12 @@ public class Attendance {
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "employee_id", nullable = false)
+    // attendance is range-partitioned by month and MySQL does not allow foreign keys on partitioned tables
+    @JoinColumn(name = "employee_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Employee employee;
 
     @NotNull
-    @Column(name = "attendance_date")
+    @Column(name = "attendance_date", nullable = false)
     private LocalDate attendanceDate;
 
     @Column(name = "check_in_time")
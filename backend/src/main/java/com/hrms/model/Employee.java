@@ -56,12 +56,26 @@ public class Employee {
     @Enumerated(EnumType.STRING)
     private EmployeeStatus status = EmployeeStatus.ACTIVE;
 
-    @Column(name = "salary")
-    private Double salary;
+    // Monthly
+    @Column(name = "salary", precision = 15, scale = 2)
+    private Money salary;
 
     @Column(name = "address")
     private String address;
 
+    @Column(name = "shift_id")
+    private Long shiftId;
+
+    @Column(name = "region")
+    private String region;
+
+    // Where salary is paid, used for bank disbursement files
+    @Column(name = "bank_code", length = 11)
+    private String bankCode;
+
+    @Column(name = "bank_account_number", length = 34)
+    private String bankAccountNumber;
+
     @OneToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "user_id")
     private User user;
@@ -123,12 +137,24 @@ public class Employee {
     public EmployeeStatus getStatus() { return status; }
     public void setStatus(EmployeeStatus status) { this.status = status; }
 
-    public Double getSalary() { return salary; }
-    public void setSalary(Double salary) { this.salary = salary; }
+    public Money getSalary() { return salary; }
+    public void setSalary(Money salary) { this.salary = salary; }
 
     public String getAddress() { return address; }
     public void setAddress(String address) { this.address = address; }
 
+    public Long getShiftId() { return shiftId; }
+    public void setShiftId(Long shiftId) { this.shiftId = shiftId; }
+
+    public String getRegion() { return region; }
+    public void setRegion(String region) { this.region = region; }
+
+    public String getBankCode() { return bankCode; }
+    public void setBankCode(String bankCode) { this.bankCode = bankCode; }
+
+    public String getBankAccountNumber() { return bankAccountNumber; }
+    public void setBankAccountNumber(String bankAccountNumber) { this.bankAccountNumber = bankAccountNumber; }
+
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 
@@ -0,0 +1,50 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "holidays", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_holiday_region_date", columnNames = {"region", "holiday_date"})
+})
+public class Holiday {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(name = "region", nullable = false)
+    private String region;
+
+    @NotNull
+    @Column(name = "holiday_date", nullable = false)
+    private LocalDate holidayDate;
+
+    @Column(name = "name")
+    private String name;
+
+    // Constructors
+    public Holiday() {}
+
+    public Holiday(String region, LocalDate holidayDate, String name) {
+        this.region = region;
+        this.holidayDate = holidayDate;
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getRegion() { return region; }
+    public void setRegion(String region) { this.region = region; }
+
+    public LocalDate getHolidayDate() { return holidayDate; }
+    public void setHolidayDate(LocalDate holidayDate) { this.holidayDate = holidayDate; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+}
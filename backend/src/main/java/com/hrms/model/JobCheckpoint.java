@@ -0,0 +1,44 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last position reached by a background job, so it can catch up or resume after downtime.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@EntityListeners(AuditingEntityListener.class)
+public class JobCheckpoint {
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "checkpoint", columnDefinition = "TEXT")
+    private String checkpoint;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public JobCheckpoint() {}
+
+    public JobCheckpoint(String jobName, String checkpoint) {
+        this.jobName = jobName;
+        this.checkpoint = checkpoint;
+    }
+
+    // Getters and Setters
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public String getCheckpoint() { return checkpoint; }
+    public void setCheckpoint(String checkpoint) { this.checkpoint = checkpoint; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
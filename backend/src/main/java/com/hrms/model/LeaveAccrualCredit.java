@@ -0,0 +1,69 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leave days earned by an employee for one month. At most one row exists per employee, leave
+ * type and period, which is what makes rerunning an accrual safe.
+ */
+@Entity
+@Table(name = "leave_accrual_credits", uniqueConstraints = @UniqueConstraint(
+        name = "uk_accrual_credit", columnNames = {"employee_id", "leave_type", "accrual_period"}))
+@EntityListeners(AuditingEntityListener.class)
+public class LeaveAccrualCredit {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false)
+    private LeaveType leaveType;
+
+    // yyyy-MM
+    @Column(name = "accrual_period", nullable = false, length = 7)
+    private String period;
+
+    // Completed years of service at the end of the period, which selected the rate
+    @Column(name = "tenure_years", nullable = false)
+    private Integer tenureYears;
+
+    @Column(name = "days", nullable = false)
+    private Double days;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public LeaveAccrualCredit() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Employee getEmployee() { return employee; }
+    public void setEmployee(Employee employee) { this.employee = employee; }
+
+    public LeaveType getLeaveType() { return leaveType; }
+    public void setLeaveType(LeaveType leaveType) { this.leaveType = leaveType; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public Integer getTenureYears() { return tenureYears; }
+    public void setTenureYears(Integer tenureYears) { this.tenureYears = tenureYears; }
+
+    public Double getDays() { return days; }
+    public void setDays(Double days) { this.days = days; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,91 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized leave balance per employee, leave type and year, kept in step with the ledger by
+ * atomic increments in the same transaction as each ledger entry.
+ */
+@Entity
+@Table(name = "leave_balances", uniqueConstraints = @UniqueConstraint(
+        name = "uk_leave_balance", columnNames = {"employee_id", "leave_type", "leave_year"}))
+@EntityListeners(AuditingEntityListener.class)
+public class LeaveBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false)
+    private LeaveType leaveType;
+
+    @Column(name = "leave_year", nullable = false)
+    private Integer year;
+
+    @Column(name = "entitled", nullable = false)
+    private Double entitled = 0.0;
+
+    @Column(name = "accrued", nullable = false)
+    private Double accrued = 0.0;
+
+    @Column(name = "adjusted", nullable = false)
+    private Double adjusted = 0.0;
+
+    @Column(name = "consumed", nullable = false)
+    private Double consumed = 0.0;
+
+    // Days held by requests that are still pending approval
+    @Column(name = "pending", nullable = false)
+    private Double pending = 0.0;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public LeaveBalance() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Employee getEmployee() { return employee; }
+    public void setEmployee(Employee employee) { this.employee = employee; }
+
+    public LeaveType getLeaveType() { return leaveType; }
+    public void setLeaveType(LeaveType leaveType) { this.leaveType = leaveType; }
+
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+
+    public Double getEntitled() { return entitled; }
+    public void setEntitled(Double entitled) { this.entitled = entitled; }
+
+    public Double getAccrued() { return accrued; }
+    public void setAccrued(Double accrued) { this.accrued = accrued; }
+
+    public Double getAdjusted() { return adjusted; }
+    public void setAdjusted(Double adjusted) { this.adjusted = adjusted; }
+
+    public Double getConsumed() { return consumed; }
+    public void setConsumed(Double consumed) { this.consumed = consumed; }
+
+    public Double getPending() { return pending; }
+    public void setPending(Double pending) { this.pending = pending; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    // Days that can still be requested
+    public double getAvailable() {
+        return entitled + accrued + adjusted - consumed - pending;
+    }
+}
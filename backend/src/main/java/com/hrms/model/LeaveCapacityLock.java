@@ -0,0 +1,30 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per department, locked by a leave request for the rest of its transaction so requests
+ * in the same department check the absence cap one at a time.
+ */
+@Entity
+@Table(name = "leave_capacity_locks")
+public class LeaveCapacityLock {
+    @Id
+    @Column(name = "department", length = 191)
+    private String department;
+
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    // Constructors
+    public LeaveCapacityLock() {}
+
+    // Getters and Setters
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public LocalDateTime getLockedAt() { return lockedAt; }
+    public void setLockedAt(LocalDateTime lockedAt) { this.lockedAt = lockedAt; }
+}
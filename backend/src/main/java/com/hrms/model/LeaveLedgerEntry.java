@@ -0,0 +1,93 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * One movement of an employee's leave balance. Entries are only ever appended; the running totals
+ * live in {@link LeaveBalance}.
+ */
+@Entity
+@Table(name = "leave_ledger_entries", indexes = {
+        @Index(name = "idx_ledger_employee_type_year", columnList = "employee_id, leave_type, leave_year")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class LeaveLedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false)
+    private LeaveType leaveType;
+
+    @Column(name = "leave_year", nullable = false)
+    private Integer year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false)
+    private LeaveLedgerEntryType entryType;
+
+    // Signed: consumption reversals and negative adjustments are stored as negative days
+    @Column(name = "days", nullable = false)
+    private Double days;
+
+    @Column(name = "leave_request_id")
+    private Long leaveRequestId;
+
+    @Column(name = "note")
+    private String note;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public LeaveLedgerEntry() {}
+
+    public LeaveLedgerEntry(Employee employee, LeaveType leaveType, Integer year,
+                            LeaveLedgerEntryType entryType, Double days, Long leaveRequestId, String note) {
+        this.employee = employee;
+        this.leaveType = leaveType;
+        this.year = year;
+        this.entryType = entryType;
+        this.days = days;
+        this.leaveRequestId = leaveRequestId;
+        this.note = note;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Employee getEmployee() { return employee; }
+    public void setEmployee(Employee employee) { this.employee = employee; }
+
+    public LeaveType getLeaveType() { return leaveType; }
+    public void setLeaveType(LeaveType leaveType) { this.leaveType = leaveType; }
+
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+
+    public LeaveLedgerEntryType getEntryType() { return entryType; }
+    public void setEntryType(LeaveLedgerEntryType entryType) { this.entryType = entryType; }
+
+    public Double getDays() { return days; }
+    public void setDays(Double days) { this.days = days; }
+
+    public Long getLeaveRequestId() { return leaveRequestId; }
+    public void setLeaveRequestId(Long leaveRequestId) { this.leaveRequestId = leaveRequestId; }
+
+    public String getNote() { return note; }
+    public void setNote(String note) { this.note = note; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
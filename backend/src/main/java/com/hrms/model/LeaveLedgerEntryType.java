@@ -0,0 +1,8 @@
+package com.hrms.model;
+
+public enum LeaveLedgerEntryType {
+    ENTITLEMENT,
+    ACCRUAL,
+    CONSUMPTION,
+    ADJUSTMENT
+}
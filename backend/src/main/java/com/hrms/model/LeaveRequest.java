@@ -11,7 +11,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "leave_requests")
+@Table(name = "leave_requests", indexes = {
+        @Index(name = "idx_leave_employee_dates", columnList = "employee_id, start_date, end_date"),
+        @Index(name = "idx_leave_approver_queue", columnList = "approver, status, created_at, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class LeaveRequest {
     @Id
@@ -45,6 +48,9 @@ public class LeaveRequest {
     @Column(name = "status")
     private LeaveStatus status = LeaveStatus.PENDING;
 
+    @Column(name = "approver", length = 191)
+    private String approver;
+
     @Column(name = "approved_by")
     private String approvedBy;
 
@@ -62,6 +68,10 @@ public class LeaveRequest {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
     // Constructors
     public LeaveRequest() {}
 
@@ -90,6 +100,9 @@ public class LeaveRequest {
     public LeaveStatus getStatus() { return status; }
     public void setStatus(LeaveStatus status) { this.status = status; }
 
+    public String getApprover() { return approver; }
+    public void setApprover(String approver) { this.approver = approver; }
+
     public String getApprovedBy() { return approvedBy; }
     public void setApprovedBy(String approvedBy) { this.approvedBy = approvedBy; }
 
@@ -104,4 +117,7 @@ public class LeaveRequest {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,112 @@
+package com.hrms.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a whole number of minor units (cents), so sums are exact.
+ * <p>
+ * Stored as {@code DECIMAL(15,2)} through {@link MoneyConverter} and written to JSON as a plain
+ * number with two decimals. Hot paths such as payroll computation work on the {@code long} minor
+ * units directly with the static helpers and only wrap the result.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return amount != null ? ofMinor(toMinor(amount)) : null;
+    }
+
+    public static Money parse(String amount) {
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinor(-minorUnits);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    // Primitive helpers on minor units
+
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * {@code minorUnits * factor}, rounded half away from zero to whole minor units.
+     */
+    public static long multiply(long minorUnits, double factor) {
+        double product = minorUnits * factor;
+        return (long) (product < 0 ? product - 0.5 : product + 0.5);
+    }
+
+    /**
+     * {@code minorUnits * numerator / denominator}, rounded half away from zero, without going
+     * through floating point.
+     */
+    public static long multiply(long minorUnits, long numerator, long denominator) {
+        long product = Math.multiplyExact(minorUnits, numerator);
+        long half = denominator / 2;
+        return product < 0 ? (product - half) / denominator : (product + half) / denominator;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money && ((Money) o).minorUnits == minorUnits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
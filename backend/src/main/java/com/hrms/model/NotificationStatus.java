@@ -0,0 +1,8 @@
+package com.hrms.model;
+
+public enum NotificationStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
@@ -4,33 +4,78 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "payroll")
+@Table(name = "payroll", indexes = {
+        @Index(name = "idx_payroll_employee_date", columnList = "employee_id, date"),
+        @Index(name = "idx_payroll_date", columnList = "date")
+}, uniqueConstraints = {
+        // One row per employee per payroll run; rows entered by hand have no run
+        @UniqueConstraint(name = "uk_payroll_run_employee", columnNames = {"run_id", "employee_id"})
+})
 public class Payroll {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // References employees(id); the foreign key is added by PayrollService on startup
+    @Column(name = "employee_id")
+    private Long employeeId;
+    
     @Column(name = "employee_name", nullable = false)
     private String employeeName;
     
-    @Column(name = "gross_salary", nullable = false)
-    private Double grossSalary;
+    // Employee's department when the row was written, the department it is aggregated under
+    @Column(name = "department")
+    private String department;
+    
+    @Column(name = "run_id")
+    private Long runId;
+    
+    // Components of the gross salary, filled in by payroll runs
+    @Column(name = "base_salary", precision = 15, scale = 2)
+    private Money baseSalary;
+    
+    @Column(name = "overtime_pay", precision = 15, scale = 2)
+    private Money overtimePay;
     
-    @Column(name = "tax_deductions", nullable = false)
-    private Double taxDeductions;
+    @Column(name = "unpaid_leave_deduction", precision = 15, scale = 2)
+    private Money unpaidLeaveDeduction;
     
-    @Column(name = "net_pay", nullable = false)
-    private Double netPay;
+    @Column(name = "gross_salary", nullable = false, precision = 15, scale = 2)
+    private Money grossSalary;
+    
+    @Column(name = "tax_deductions", nullable = false, precision = 15, scale = 2)
+    private Money taxDeductions;
+    
+    @Column(name = "net_pay", nullable = false, precision = 15, scale = 2)
+    private Money netPay;
     
     @Column(name = "date", nullable = false)
     private LocalDate date;
     
+    // SHA-256 of the record's figures, see PayrollHashService
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    // Inputs a payroll run computed the record from, so retro pay can tell what changed
+    @Column(name = "input_salary", precision = 15, scale = 2)
+    private Money inputSalary;
+    
+    @Column(name = "overtime_hours")
+    private Double overtimeHours;
+    
+    @Column(name = "unpaid_leave_days")
+    private Integer unpaidLeaveDays;
+    
+    // Pay period (yyyy-MM) a retro pay adjustment corrects, see RetroPayService
+    @Column(name = "retro_period", length = 7)
+    private String retroPeriod;
+    
     // Default constructor
     public Payroll() {}
     
     // Constructor with parameters
-    public Payroll(String employeeName, Double grossSalary, Double taxDeductions, Double netPay, LocalDate date) {
+    public Payroll(String employeeName, Money grossSalary, Money taxDeductions, Money netPay, LocalDate date) {
         this.employeeName = employeeName;
         this.grossSalary = grossSalary;
         this.taxDeductions = taxDeductions;
@@ -47,6 +92,14 @@ public class Payroll {
         this.id = id;
     }
     
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+    
+    public void setEmployeeId(Long employeeId) {
+        this.employeeId = employeeId;
+    }
+    
     public String getEmployeeName() {
         return employeeName;
     }
@@ -55,27 +108,67 @@ public class Payroll {
         this.employeeName = employeeName;
     }
     
-    public Double getGrossSalary() {
+    public String getDepartment() {
+        return department;
+    }
+    
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+    
+    public Long getRunId() {
+        return runId;
+    }
+    
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+    
+    public Money getBaseSalary() {
+        return baseSalary;
+    }
+    
+    public void setBaseSalary(Money baseSalary) {
+        this.baseSalary = baseSalary;
+    }
+    
+    public Money getOvertimePay() {
+        return overtimePay;
+    }
+    
+    public void setOvertimePay(Money overtimePay) {
+        this.overtimePay = overtimePay;
+    }
+    
+    public Money getUnpaidLeaveDeduction() {
+        return unpaidLeaveDeduction;
+    }
+    
+    public void setUnpaidLeaveDeduction(Money unpaidLeaveDeduction) {
+        this.unpaidLeaveDeduction = unpaidLeaveDeduction;
+    }
+    
+    public Money getGrossSalary() {
         return grossSalary;
     }
     
-    public void setGrossSalary(Double grossSalary) {
+    public void setGrossSalary(Money grossSalary) {
         this.grossSalary = grossSalary;
     }
     
-    public Double getTaxDeductions() {
+    public Money getTaxDeductions() {
         return taxDeductions;
     }
     
-    public void setTaxDeductions(Double taxDeductions) {
+    public void setTaxDeductions(Money taxDeductions) {
         this.taxDeductions = taxDeductions;
     }
     
-    public Double getNetPay() {
+    public Money getNetPay() {
         return netPay;
     }
     
-    public void setNetPay(Double netPay) {
+    public void setNetPay(Money netPay) {
         this.netPay = netPay;
     }
     
@@ -87,11 +180,53 @@ public class Payroll {
         this.date = date;
     }
     
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
+    public Money getInputSalary() {
+        return inputSalary;
+    }
+    
+    public void setInputSalary(Money inputSalary) {
+        this.inputSalary = inputSalary;
+    }
+    
+    public Double getOvertimeHours() {
+        return overtimeHours;
+    }
+    
+    public void setOvertimeHours(Double overtimeHours) {
+        this.overtimeHours = overtimeHours;
+    }
+    
+    public Integer getUnpaidLeaveDays() {
+        return unpaidLeaveDays;
+    }
+    
+    public void setUnpaidLeaveDays(Integer unpaidLeaveDays) {
+        this.unpaidLeaveDays = unpaidLeaveDays;
+    }
+    
+    public String getRetroPeriod() {
+        return retroPeriod;
+    }
+    
+    public void setRetroPeriod(String retroPeriod) {
+        this.retroPeriod = retroPeriod;
+    }
+    
     @Override
     public String toString() {
         return "Payroll{" +
                 "id=" + id +
+                ", employeeId=" + employeeId +
                 ", employeeName='" + employeeName + '\'' +
+                ", runId=" + runId +
                 ", grossSalary=" + grossSalary +
                 ", taxDeductions=" + taxDeductions +
                 ", netPay=" + netPay +
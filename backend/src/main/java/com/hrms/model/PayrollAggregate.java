@@ -0,0 +1,69 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Payroll totals per pay period and department, kept in step with the payroll table in the same
+ * transaction as every change to it. Rows of a payroll run are only counted once the run completes.
+ */
+@Entity
+@Table(name = "payroll_aggregates", uniqueConstraints = @UniqueConstraint(
+        name = "uk_payroll_aggregate", columnNames = {"pay_period", "department"}))
+public class PayrollAggregate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // yyyy-MM of the payroll date
+    @Column(name = "pay_period", nullable = false, length = 7)
+    private String period;
+
+    // Empty for payroll not linked to an employee with a department
+    @Column(name = "department", nullable = false)
+    private String department;
+
+    @Column(name = "gross_salary", nullable = false, precision = 15, scale = 2)
+    private Money grossSalary;
+
+    @Column(name = "tax_deductions", nullable = false, precision = 15, scale = 2)
+    private Money taxDeductions;
+
+    @Column(name = "net_pay", nullable = false, precision = 15, scale = 2)
+    private Money netPay;
+
+    // Payroll records in the cell, retro pay adjustments included
+    @Column(name = "records")
+    private Long records;
+
+    // Regular payroll records in the cell, one per employee paid; retro pay adjustments are left out
+    @Column(name = "headcount", nullable = false)
+    private Long headcount;
+
+    // Constructors
+    public PayrollAggregate() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public Money getGrossSalary() { return grossSalary; }
+    public void setGrossSalary(Money grossSalary) { this.grossSalary = grossSalary; }
+
+    public Money getTaxDeductions() { return taxDeductions; }
+    public void setTaxDeductions(Money taxDeductions) { this.taxDeductions = taxDeductions; }
+
+    public Money getNetPay() { return netPay; }
+    public void setNetPay(Money netPay) { this.netPay = netPay; }
+
+    public Long getRecords() { return records; }
+    public void setRecords(Long records) { this.records = records; }
+
+    public Long getHeadcount() { return headcount; }
+    public void setHeadcount(Long headcount) { this.headcount = headcount; }
+}
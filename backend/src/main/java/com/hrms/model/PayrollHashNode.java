@@ -0,0 +1,77 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+
+/**
+ * A node of a payroll run's hash tree. Leaves hold one employee's row hash, bucket nodes roll up
+ * the leaves of a department whose employee ids fall in the same bucket, and department nodes roll
+ * up their buckets. The run's root hash rolls up its departments.
+ * <p>
+ * Nodes are kept after a run is superseded and its payroll rows are removed, so a new run can be
+ * compared with the one it replaced.
+ */
+@Entity
+@Table(name = "payroll_hash_nodes", indexes = {
+        @Index(name = "idx_payroll_hash_node", columnList = "run_id, node_level, department, bucket")
+})
+public class PayrollHashNode {
+    public static final int LEAF = 0;
+    public static final int BUCKET = 1;
+    public static final int DEPARTMENT = 2;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "node_level", nullable = false)
+    private int level;
+
+    // '' for employees without a department
+    @Column(name = "department", nullable = false)
+    private String department;
+
+    // -1 on department nodes
+    @Column(name = "bucket", nullable = false)
+    private int bucket;
+
+    // Set on leaves only
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    @Column(name = "row_count", nullable = false)
+    private long rowCount;
+
+    @Column(name = "hash", nullable = false, length = 64)
+    private String hash;
+
+    // Constructors
+    public PayrollHashNode() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+
+    public int getLevel() { return level; }
+    public void setLevel(int level) { this.level = level; }
+
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public int getBucket() { return bucket; }
+    public void setBucket(int bucket) { this.bucket = bucket; }
+
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
+    public long getRowCount() { return rowCount; }
+    public void setRowCount(long rowCount) { this.rowCount = rowCount; }
+
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+}
@@ -0,0 +1,55 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An employee whose pay for a closed period needs recomputing because one of the inputs it was
+ * derived from changed after the period's payroll run completed. Marks are cleared by the retro pay
+ * job once it has written the adjustment.
+ */
+@Entity
+@Table(name = "payroll_retro_marks", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payroll_retro_mark", columnNames = {"employee_id", "pay_period"})
+}, indexes = {
+        @Index(name = "idx_payroll_retro_mark_marked", columnList = "marked_at")
+})
+public class PayrollRetroMark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    // yyyy-MM
+    @Column(name = "pay_period", nullable = false, length = 7)
+    private String payPeriod;
+
+    // What changed most recently, e.g. ATTENDANCE, LEAVE or SALARY
+    @Column(name = "reason", length = 20)
+    private String reason;
+
+    @Column(name = "marked_at", nullable = false)
+    private LocalDateTime markedAt;
+
+    // Constructors
+    public PayrollRetroMark() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
+    public String getPayPeriod() { return payPeriod; }
+    public void setPayPeriod(String payPeriod) { this.payPeriod = payPeriod; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public LocalDateTime getMarkedAt() { return markedAt; }
+    public void setMarkedAt(LocalDateTime markedAt) { this.markedAt = markedAt; }
+}
@@ -0,0 +1,110 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One computation of payroll for a pay period. Its payroll rows carry its id.
+ * <p>
+ * {@code activePeriod} holds the period while the run is unfinished and is unique, so a period can
+ * never have two unfinished runs. A later completed run for the same period supersedes this one.
+ */
+@Entity
+@Table(name = "payroll_runs", indexes = {
+        @Index(name = "idx_payroll_run_period", columnList = "pay_period, id")
+})
+public class PayrollRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // yyyy-MM
+    @Column(name = "pay_period", nullable = false, length = 7)
+    private String period;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private PayrollRunStatus status;
+
+    @Column(name = "active_period", length = 7, unique = true)
+    private String activePeriod;
+
+    @Column(name = "first_employee_id")
+    private Long firstEmployeeId;
+
+    @Column(name = "last_employee_id")
+    private Long lastEmployeeId;
+
+    // Every employee id up to this one has been processed
+    @Column(name = "checkpoint_id")
+    private Long checkpointId;
+
+    @Column(name = "employees_paid", nullable = false)
+    private long employeesPaid;
+
+    @Column(name = "employees_skipped", nullable = false)
+    private long employeesSkipped;
+
+    // Root of the run's hash tree, set when the run completes
+    @Column(name = "root_hash", length = 64)
+    private String rootHash;
+
+    @Column(name = "error", length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Constructors
+    public PayrollRun() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public PayrollRunStatus getStatus() { return status; }
+    public void setStatus(PayrollRunStatus status) { this.status = status; }
+
+    public String getActivePeriod() { return activePeriod; }
+    public void setActivePeriod(String activePeriod) { this.activePeriod = activePeriod; }
+
+    public Long getFirstEmployeeId() { return firstEmployeeId; }
+    public void setFirstEmployeeId(Long firstEmployeeId) { this.firstEmployeeId = firstEmployeeId; }
+
+    public Long getLastEmployeeId() { return lastEmployeeId; }
+    public void setLastEmployeeId(Long lastEmployeeId) { this.lastEmployeeId = lastEmployeeId; }
+
+    public Long getCheckpointId() { return checkpointId; }
+    public void setCheckpointId(Long checkpointId) { this.checkpointId = checkpointId; }
+
+    public long getEmployeesPaid() { return employeesPaid; }
+    public void setEmployeesPaid(long employeesPaid) { this.employeesPaid = employeesPaid; }
+
+    public long getEmployeesSkipped() { return employeesSkipped; }
+    public void setEmployeesSkipped(long employeesSkipped) { this.employeesSkipped = employeesSkipped; }
+
+    public String getRootHash() { return rootHash; }
+    public void setRootHash(String rootHash) { this.rootHash = rootHash; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
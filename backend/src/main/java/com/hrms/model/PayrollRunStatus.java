@@ -0,0 +1,9 @@
+package com.hrms.model;
+
+public enum PayrollRunStatus {
+    RUNNING,
+    STOPPED,
+    FAILED,
+    COMPLETED,
+    SUPERSEDED
+}
@@ -0,0 +1,70 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Year-to-date payroll totals per employee and fiscal year, kept in step with the payroll table in
+ * the same transaction as every change to it, like {@link PayrollAggregate}. A fiscal year is
+ * numbered by the calendar year it starts in.
+ */
+@Entity
+@Table(name = "payroll_ytd", uniqueConstraints = @UniqueConstraint(
+        name = "uk_payroll_ytd", columnNames = {"employee_id", "fiscal_year"}))
+public class PayrollYtd {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "fiscal_year", nullable = false)
+    private Integer fiscalYear;
+
+    @Column(name = "gross_salary", nullable = false, precision = 15, scale = 2)
+    private Money grossSalary;
+
+    @Column(name = "tax_deductions", nullable = false, precision = 15, scale = 2)
+    private Money taxDeductions;
+
+    @Column(name = "net_pay", nullable = false, precision = 15, scale = 2)
+    private Money netPay;
+
+    // Payroll records counted, including retro pay adjustments
+    @Column(name = "payments", nullable = false)
+    private Long payments;
+
+    // Constructors
+    public PayrollYtd() {}
+
+    public PayrollYtd(Long employeeId, Integer fiscalYear) {
+        this.employeeId = employeeId;
+        this.fiscalYear = fiscalYear;
+        this.grossSalary = Money.ZERO;
+        this.taxDeductions = Money.ZERO;
+        this.netPay = Money.ZERO;
+        this.payments = 0L;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
+    public Integer getFiscalYear() { return fiscalYear; }
+    public void setFiscalYear(Integer fiscalYear) { this.fiscalYear = fiscalYear; }
+
+    public Money getGrossSalary() { return grossSalary; }
+    public void setGrossSalary(Money grossSalary) { this.grossSalary = grossSalary; }
+
+    public Money getTaxDeductions() { return taxDeductions; }
+    public void setTaxDeductions(Money taxDeductions) { this.taxDeductions = taxDeductions; }
+
+    public Money getNetPay() { return netPay; }
+    public void setNetPay(Money netPay) { this.netPay = netPay; }
+
+    public Long getPayments() { return payments; }
+    public void setPayments(Long payments) { this.payments = payments; }
+}
@@ -0,0 +1,6 @@
+package com.hrms.model;
+
+public enum PunchDirection {
+    IN,
+    OUT
+}
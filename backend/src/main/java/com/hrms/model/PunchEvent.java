@@ -0,0 +1,68 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A single clock-in or clock-out from a kiosk. Rows are only ever inserted; daily
+ * {@link Attendance} records are derived from them by the punch projector.
+ */
+@Entity
+@Table(name = "punch_events", indexes = {
+        @Index(name = "idx_punch_employee_date", columnList = "employee_id, attendance_date")
+})
+public class PunchEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @NotNull
+    @Column(name = "attendance_date", nullable = false)
+    private LocalDate attendanceDate;
+
+    @NotNull
+    @Column(name = "punched_at", nullable = false)
+    private LocalDateTime punchedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "direction", nullable = false)
+    private PunchDirection direction;
+
+    @Column(name = "source")
+    private String source;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    // Constructors
+    public PunchEvent() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
+    public LocalDate getAttendanceDate() { return attendanceDate; }
+    public void setAttendanceDate(LocalDate attendanceDate) { this.attendanceDate = attendanceDate; }
+
+    public LocalDateTime getPunchedAt() { return punchedAt; }
+    public void setPunchedAt(LocalDateTime punchedAt) { this.punchedAt = punchedAt; }
+
+    public PunchDirection getDirection() { return direction; }
+    public void setDirection(PunchDirection direction) { this.direction = direction; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
+}
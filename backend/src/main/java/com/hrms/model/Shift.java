@@ -0,0 +1,65 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "shifts")
+public class Shift {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(name = "name", unique = true)
+    private String name;
+
+    @NotNull
+    @Column(name = "start_time")
+    private LocalTime startTime;
+
+    @NotNull
+    @Column(name = "end_time")
+    private LocalTime endTime;
+
+    @Column(name = "crosses_midnight")
+    private boolean crossesMidnight;
+
+    @Column(name = "standard_hours")
+    private Double standardHours;
+
+    // Constructors
+    public Shift() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public LocalTime getStartTime() { return startTime; }
+    public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+
+    public LocalTime getEndTime() { return endTime; }
+    public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+
+    public boolean isCrossesMidnight() { return crossesMidnight; }
+    public void setCrossesMidnight(boolean crossesMidnight) { this.crossesMidnight = crossesMidnight; }
+
+    public Double getStandardHours() { return standardHours; }
+    public void setStandardHours(Double standardHours) { this.standardHours = standardHours; }
+
+    // Scheduled length of the shift, used when no explicit standard hours are configured
+    public double getScheduledHours() {
+        long minutes = Duration.between(startTime, endTime).toMinutes();
+        if (crossesMidnight || minutes < 0) {
+            minutes += 24 * 60;
+        }
+        return minutes / 60.0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One bracket of a region's progressive tax table for a year: monthly gross pay above
+ * {@code threshold} is taxed at {@code rate}, up to the next bracket's threshold.
+ */
+@Entity
+@Table(name = "tax_brackets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_tax_bracket_region_year_threshold", columnNames = {"region", "tax_year", "threshold"})
+})
+public class TaxBracket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "region", nullable = false)
+    private String region;
+
+    @Column(name = "tax_year", nullable = false)
+    private Integer taxYear;
+
+    @NotNull
+    @Column(name = "threshold", nullable = false, precision = 15, scale = 2)
+    private Money threshold;
+
+    @NotNull
+    @Column(name = "rate", nullable = false)
+    private Double rate;
+
+    // Constructors
+    public TaxBracket() {}
+
+    public TaxBracket(String region, Integer taxYear, Money threshold, Double rate) {
+        this.region = region;
+        this.taxYear = taxYear;
+        this.threshold = threshold;
+        this.rate = rate;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getRegion() { return region; }
+    public void setRegion(String region) { this.region = region; }
+
+    public Integer getTaxYear() { return taxYear; }
+    public void setTaxYear(Integer taxYear) { this.taxYear = taxYear; }
+
+    public Money getThreshold() { return threshold; }
+    public void setThreshold(Money threshold) { this.threshold = threshold; }
+
+    public Double getRate() { return rate; }
+    public void setRate(Double rate) { this.rate = rate; }
+}
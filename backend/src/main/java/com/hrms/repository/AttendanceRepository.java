@@ -6,11 +6,15 @@ import com.hrms.model.Employee;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,4 +42,53 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     List<Attendance> findByEmployeeIdAndDateRange(@Param("employeeId") Long employeeId, 
                                                   @Param("startDate") LocalDate startDate, 
                                                   @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT a FROM Attendance a JOIN FETCH a.employee WHERE a.employee.id = :employeeId AND a.attendanceDate = :date")
+    Optional<Attendance> findWithEmployee(@Param("employeeId") Long employeeId, @Param("date") LocalDate date);
+
+    @Query("SELECT a FROM Attendance a JOIN FETCH a.employee WHERE a.employee.id IN :employeeIds " +
+           "AND a.attendanceDate BETWEEN :startDate AND :endDate")
+    List<Attendance> findByEmployeeIdsAndDateRange(@Param("employeeIds") Collection<Long> employeeIds,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+
+    // Closes an open attendance record in one statement. Hours are computed against the employee's
+    // shift; a check-out earlier than the check-in means the shift ran past midnight.
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE attendance a JOIN employees e ON e.id = a.employee_id " +
+                   "LEFT JOIN shifts s ON s.id = e.shift_id " +
+                   "SET a.check_out_time = :checkOut, " +
+                   "a.working_hours = FLOOR((TIME_TO_SEC(:checkOut) - TIME_TO_SEC(a.check_in_time) " +
+                   "+ IF(:checkOut < a.check_in_time, 86400, 0)) / 60) / 60, " +
+                   "a.overtime_hours = GREATEST(0, FLOOR((TIME_TO_SEC(:checkOut) - TIME_TO_SEC(a.check_in_time) " +
+                   "+ IF(:checkOut < a.check_in_time, 86400, 0)) / 60) / 60 - COALESCE(s.standard_hours, :defaultHours)) " +
+                   "WHERE a.employee_id = :employeeId AND a.attendance_date = :date " +
+                   "AND a.check_in_time IS NOT NULL AND a.check_out_time IS NULL",
+           nativeQuery = true)
+    int checkOut(@Param("employeeId") Long employeeId,
+                 @Param("date") LocalDate date,
+                 @Param("checkOut") LocalTime checkOut,
+                 @Param("defaultHours") double defaultHours);
+
+    // Marks every active employee in the id range absent for the date unless they already have a
+    // record, an approved leave covering it, or a public holiday in their region. Safe to re-run for
+    // the same date. A check-in committed after the NOT EXISTS read hits the unique key instead and
+    // is left as it is.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO attendance (employee_id, attendance_date, status, notes, created_at) " +
+                   "SELECT e.id, :date, 'ABSENT', :notes, NOW(6) FROM employees e " +
+                   "WHERE e.id BETWEEN :fromId AND :toId AND e.status = 'ACTIVE' AND e.hire_date <= :date " +
+                   "AND COALESCE(e.region, :defaultRegion) NOT IN (:holidayRegions) " +
+                   "AND NOT EXISTS (SELECT 1 FROM attendance a WHERE a.employee_id = e.id AND a.attendance_date = :date) " +
+                   "AND NOT EXISTS (SELECT 1 FROM leave_requests lr WHERE lr.employee_id = e.id AND lr.status = 'APPROVED' " +
+                   "AND lr.start_date <= :date AND lr.end_date >= :date) " +
+                   "ON DUPLICATE KEY UPDATE attendance.id = attendance.id",
+           nativeQuery = true)
+    int insertAbsentForMissingEmployees(@Param("date") LocalDate date,
+                                        @Param("fromId") Long fromId,
+                                        @Param("toId") Long toId,
+                                        @Param("defaultRegion") String defaultRegion,
+                                        @Param("holidayRegions") Collection<String> holidayRegions,
+                                        @Param("notes") String notes);
 }
@@ -36,6 +36,15 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     @Query("SELECT COUNT(e) FROM Employee e WHERE e.status = :status")
     Long countByStatus(@Param("status") EmployeeStatus status);
 
+    @Query("SELECT e FROM Employee e WHERE CONCAT(e.firstName, ' ', e.lastName) = :fullName OR (e.lastName IS NULL AND e.firstName = :fullName)")
+    List<Employee> findByFullName(@Param("fullName") String fullName);
+
+    @Query("SELECT MIN(e.id), MAX(e.id) FROM Employee e")
+    List<Object[]> getIdRange();
+
     @Query("SELECT e.department, COUNT(e) FROM Employee e GROUP BY e.department")
     List<Object[]> countByDepartment();
+
+    @Query("SELECT e.department, COUNT(e) FROM Employee e WHERE e.status = 'ACTIVE' GROUP BY e.department")
+    List<Object[]> countActiveByDepartment();
 }
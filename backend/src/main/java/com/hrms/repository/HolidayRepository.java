@@ -0,0 +1,28 @@
+package com.hrms.repository;
+
+import com.hrms.model.Holiday;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface HolidayRepository extends JpaRepository<Holiday, Long> {
+
+    List<Holiday> findByRegion(String region);
+
+    @Query("SELECT h FROM Holiday h WHERE h.region = :region AND h.holidayDate BETWEEN :startDate AND :endDate ORDER BY h.holidayDate")
+    List<Holiday> findByRegionAndDateRange(@Param("region") String region,
+                                           @Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM Holiday h WHERE h.region = :region AND h.holidayDate BETWEEN :startDate AND :endDate")
+    int deleteByRegionAndDateRange(@Param("region") String region,
+                                   @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+}
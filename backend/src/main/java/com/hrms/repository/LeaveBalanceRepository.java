@@ -0,0 +1,64 @@
+package com.hrms.repository;
+
+import com.hrms.model.LeaveBalance;
+import com.hrms.model.LeaveType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long> {
+
+    @Query("SELECT b FROM LeaveBalance b WHERE b.employee.id = :employeeId AND b.leaveType = :leaveType AND b.year = :year")
+    Optional<LeaveBalance> findBalance(@Param("employeeId") Long employeeId,
+                                       @Param("leaveType") LeaveType leaveType,
+                                       @Param("year") Integer year);
+
+    @Query("SELECT b FROM LeaveBalance b WHERE b.employee.id = :employeeId AND b.year = :year ORDER BY b.leaveType")
+    List<LeaveBalance> findByEmployeeAndYear(@Param("employeeId") Long employeeId, @Param("year") Integer year);
+
+    // Creates the balance row with its opening entitlement unless it already exists
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO leave_balances (employee_id, leave_type, leave_year, entitled, accrued, adjusted, consumed, pending, updated_at) " +
+                   "VALUES (:employeeId, :leaveType, :year, :entitled, 0, 0, 0, 0, NOW(6))",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("employeeId") Long employeeId,
+                       @Param("leaveType") String leaveType,
+                       @Param("year") Integer year,
+                       @Param("entitled") double entitled);
+
+    // Moves days between pending and consumed. Any net increase is only applied if enough balance
+    // is left, so concurrent requests cannot overdraw it. Pending never drops below zero, in case a
+    // request was made before its hold was recorded.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.pending = GREATEST(b.pending + :pendingDelta, 0), b.consumed = b.consumed + :consumedDelta, " +
+           "b.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE b.employee.id = :employeeId AND b.leaveType = :leaveType AND b.year = :year " +
+           "AND (:pendingDelta + :consumedDelta <= 0 " +
+           "OR b.entitled + b.accrued + b.adjusted - b.consumed - b.pending >= :pendingDelta + :consumedDelta)")
+    int applyLeaveDelta(@Param("employeeId") Long employeeId,
+                        @Param("leaveType") LeaveType leaveType,
+                        @Param("year") Integer year,
+                        @Param("pendingDelta") double pendingDelta,
+                        @Param("consumedDelta") double consumedDelta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.accrued = b.accrued + :accruedDelta, b.adjusted = b.adjusted + :adjustedDelta, " +
+           "b.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE b.employee.id = :employeeId AND b.leaveType = :leaveType AND b.year = :year")
+    int applyCredit(@Param("employeeId") Long employeeId,
+                    @Param("leaveType") LeaveType leaveType,
+                    @Param("year") Integer year,
+                    @Param("accruedDelta") double accruedDelta,
+                    @Param("adjustedDelta") double adjustedDelta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.pending = :pending, b.consumed = :consumed, b.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE b.id = :id")
+    int setLeaveTotals(@Param("id") Long id, @Param("pending") double pending, @Param("consumed") double consumed);
+}
@@ -0,0 +1,20 @@
+package com.hrms.repository;
+
+import com.hrms.model.LeaveLedgerEntry;
+import com.hrms.model.LeaveType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LeaveLedgerEntryRepository extends JpaRepository<LeaveLedgerEntry, Long> {
+
+    @Query("SELECT e FROM LeaveLedgerEntry e WHERE e.employee.id = :employeeId AND e.leaveType = :leaveType " +
+           "AND e.year = :year ORDER BY e.id")
+    List<LeaveLedgerEntry> findByEmployeeTypeAndYear(@Param("employeeId") Long employeeId,
+                                                    @Param("leaveType") LeaveType leaveType,
+                                                    @Param("year") Integer year);
+}
@@ -7,11 +7,15 @@ import com.hrms.model.LeaveType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,6 +24,12 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
     List<LeaveRequest> findByStatus(LeaveStatus status);
     List<LeaveRequest> findByLeaveType(LeaveType leaveType);
     
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.employee WHERE lr.status IN :statuses")
+    List<LeaveRequest> findWithEmployeeByStatusIn(@Param("statuses") Collection<LeaveStatus> statuses);
+
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.employee WHERE lr.id IN :ids")
+    List<LeaveRequest> findWithEmployeeByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT lr FROM LeaveRequest lr WHERE lr.employee.id = :employeeId")
     List<LeaveRequest> findByEmployeeId(@Param("employeeId") Long employeeId);
     
@@ -36,9 +46,55 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
                                                     @Param("startDate") LocalDate startDate, 
                                                     @Param("endDate") LocalDate endDate);
     
+    // status, leave type, department, year, month, count, days
+    @Query("SELECT lr.status, lr.leaveType, e.department, YEAR(lr.startDate), MONTH(lr.startDate), COUNT(lr), SUM(lr.daysRequested) " +
+           "FROM LeaveRequest lr JOIN lr.employee e " +
+           "GROUP BY lr.status, lr.leaveType, e.department, YEAR(lr.startDate), MONTH(lr.startDate)")
+    List<Object[]> aggregateByStatusTypeDepartmentAndMonth();
+
+    @Query("SELECT lr.status, lr.leaveType, e.department, YEAR(lr.startDate), MONTH(lr.startDate), COUNT(lr), SUM(lr.daysRequested) " +
+           "FROM LeaveRequest lr JOIN lr.employee e WHERE e.id = :employeeId " +
+           "GROUP BY lr.status, lr.leaveType, e.department, YEAR(lr.startDate), MONTH(lr.startDate)")
+    List<Object[]> aggregateByStatusTypeDepartmentAndMonth(@Param("employeeId") Long employeeId);
+
+    // Keyset pages of an approver's pending queue, served by idx_leave_approver_queue
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.employee WHERE lr.approver = :approver AND lr.status = 'PENDING' " +
+           "ORDER BY lr.createdAt, lr.id")
+    List<LeaveRequest> findApproverQueue(@Param("approver") String approver, Pageable pageable);
+
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.employee WHERE lr.approver = :approver AND lr.status = 'PENDING' " +
+           "AND (lr.createdAt > :afterCreatedAt OR (lr.createdAt = :afterCreatedAt AND lr.id > :afterId)) " +
+           "ORDER BY lr.createdAt, lr.id")
+    List<LeaveRequest> findApproverQueueAfter(@Param("approver") String approver,
+                                              @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    @Query("SELECT lr.approver, COUNT(lr) FROM LeaveRequest lr WHERE lr.status = 'PENDING' AND lr.approver IS NOT NULL GROUP BY lr.approver")
+    List<Object[]> countPendingByApprover();
+
+    // Routes pending requests created before approver routing existed
+    @Modifying
+    @Transactional
+    @Query("UPDATE LeaveRequest lr SET lr.approver = :approver WHERE lr.approver IS NULL AND lr.status = 'PENDING' " +
+           "AND lr.employee.id IN (SELECT e.id FROM Employee e WHERE e.department = :department)")
+    int assignApproverForDepartment(@Param("department") String department, @Param("approver") String approver);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE LeaveRequest lr SET lr.approver = :approver WHERE lr.approver IS NULL AND lr.status = 'PENDING'")
+    int assignApproverToUnrouted(@Param("approver") String approver);
+
     @Query("SELECT COUNT(lr) FROM LeaveRequest lr WHERE lr.status = :status")
     Long countByStatus(@Param("status") LeaveStatus status);
     
     @Query("SELECT lr.leaveType, COUNT(lr) FROM LeaveRequest lr WHERE lr.status = 'APPROVED' GROUP BY lr.leaveType")
     List<Object[]> getLeaveStatsByType();
+
+    // Days held (PENDING) and consumed (APPROVED) per employee, leave type and year the leave starts in
+    @Query("SELECT lr.employee.id, lr.leaveType, YEAR(lr.startDate), lr.status, SUM(lr.daysRequested) FROM LeaveRequest lr " +
+           "WHERE lr.status IN (com.hrms.model.LeaveStatus.PENDING, com.hrms.model.LeaveStatus.APPROVED) " +
+           "AND lr.leaveType IS NOT NULL AND lr.startDate IS NOT NULL " +
+           "GROUP BY lr.employee.id, lr.leaveType, YEAR(lr.startDate), lr.status")
+    List<Object[]> sumDaysByBalance();
 }
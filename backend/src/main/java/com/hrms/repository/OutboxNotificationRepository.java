@@ -0,0 +1,19 @@
+package com.hrms.repository;
+
+import com.hrms.model.OutboxNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxNotificationRepository extends JpaRepository<OutboxNotification, Long> {
+
+    @Query("SELECT n FROM OutboxNotification n WHERE n.claimToken = :claimToken AND n.status = 'SENDING' ORDER BY n.id")
+    List<OutboxNotification> findClaimed(@Param("claimToken") String claimToken);
+
+    @Query("SELECT n.status, COUNT(n) FROM OutboxNotification n GROUP BY n.status")
+    List<Object[]> countByStatus();
+}
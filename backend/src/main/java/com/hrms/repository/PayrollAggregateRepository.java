@@ -0,0 +1,74 @@
+package com.hrms.repository;
+
+import com.hrms.model.PayrollAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface PayrollAggregateRepository extends JpaRepository<PayrollAggregate, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO payroll_aggregates (pay_period, department, gross_salary, tax_deductions, net_pay, records, headcount) " +
+                   "VALUES (:period, :department, :gross, :tax, :net, :records, :headcount) " +
+                   "ON DUPLICATE KEY UPDATE gross_salary = gross_salary + VALUES(gross_salary), " +
+                   "tax_deductions = tax_deductions + VALUES(tax_deductions), net_pay = net_pay + VALUES(net_pay), " +
+                   "records = records + VALUES(records), headcount = headcount + VALUES(headcount)",
+           nativeQuery = true)
+    int applyDelta(@Param("period") String period,
+                   @Param("department") String department,
+                   @Param("gross") BigDecimal gross,
+                   @Param("tax") BigDecimal tax,
+                   @Param("net") BigDecimal net,
+                   @Param("records") long records,
+                   @Param("headcount") long headcount);
+
+    // Adds (sign 1) or removes (sign -1) all rows of a payroll run, grouped in the database
+    @Modifying
+    @Query(value = "INSERT INTO payroll_aggregates (pay_period, department, gross_salary, tax_deductions, net_pay, records, headcount) " +
+                   "SELECT DATE_FORMAT(p.date, '%Y-%m'), COALESCE(p.department, ''), :sign * SUM(p.gross_salary), " +
+                   ":sign * SUM(p.tax_deductions), :sign * SUM(p.net_pay), :sign * COUNT(*), :sign * SUM(p.retro_period IS NULL) " +
+                   "FROM payroll p WHERE p.run_id = :runId GROUP BY DATE_FORMAT(p.date, '%Y-%m'), COALESCE(p.department, '') " +
+                   "ON DUPLICATE KEY UPDATE gross_salary = gross_salary + VALUES(gross_salary), " +
+                   "tax_deductions = tax_deductions + VALUES(tax_deductions), net_pay = net_pay + VALUES(net_pay), " +
+                   "records = records + VALUES(records), headcount = headcount + VALUES(headcount)",
+           nativeQuery = true)
+    int applyRun(@Param("runId") Long runId, @Param("sign") int sign);
+
+    @Modifying
+    @Query(value = "DELETE FROM payroll_aggregates WHERE records <= 0", nativeQuery = true)
+    int deleteEmpty();
+
+    // Cells written before records were counted
+    @Query(value = "SELECT COUNT(*) FROM payroll_aggregates WHERE records IS NULL", nativeQuery = true)
+    long countWithoutRecords();
+
+    @Modifying
+    @Query(value = "DELETE FROM payroll_aggregates", nativeQuery = true)
+    int deleteAllCells();
+
+    // Manual rows and rows of completed runs; unfinished runs are not counted yet
+    @Modifying
+    @Query(value = "INSERT INTO payroll_aggregates (pay_period, department, gross_salary, tax_deductions, net_pay, records, headcount) " +
+                   "SELECT DATE_FORMAT(p.date, '%Y-%m'), COALESCE(p.department, ''), SUM(p.gross_salary), " +
+                   "SUM(p.tax_deductions), SUM(p.net_pay), COUNT(*), SUM(p.retro_period IS NULL) " +
+                   "FROM payroll p LEFT JOIN payroll_runs r ON r.id = p.run_id " +
+                   "WHERE p.run_id IS NULL OR r.status = 'COMPLETED' " +
+                   "GROUP BY DATE_FORMAT(p.date, '%Y-%m'), COALESCE(p.department, '')",
+           nativeQuery = true)
+    int insertFromPayroll();
+
+    @Query("SELECT a FROM PayrollAggregate a WHERE a.period BETWEEN :fromPeriod AND :toPeriod " +
+           "AND (:department IS NULL OR a.department = :department) ORDER BY a.period, a.department")
+    List<PayrollAggregate> findByPeriodRange(@Param("fromPeriod") String fromPeriod,
+                                             @Param("toPeriod") String toPeriod,
+                                             @Param("department") String department);
+
+    @Query("SELECT SUM(a.grossSalary), SUM(a.taxDeductions), SUM(a.netPay), SUM(a.records) FROM PayrollAggregate a")
+    List<Object[]> getTotals();
+}
@@ -2,8 +2,11 @@ package com.hrms.repository;
 
 //import com.hrms.f.Payroll;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hrms.model.Payroll;
 
@@ -13,8 +16,13 @@ import java.util.List;
 @Repository
 public interface PayrollRepository extends JpaRepository<Payroll, Long> {
     
-    // Find payrolls by employee name
-    List<Payroll> findByEmployeeNameContainingIgnoreCase(String employeeName);
+    // Find payrolls by exact employee name, for rows that could not be linked to an employee
+    List<Payroll> findByEmployeeNameOrderByDateDesc(String employeeName);
+    
+    // Employee's payroll history, newest first; a range scan on idx_payroll_employee_date
+    List<Payroll> findByEmployeeIdOrderByDateDesc(Long employeeId);
+    
+    List<Payroll> findByEmployeeIdAndDateBetweenOrderByDateDesc(Long employeeId, LocalDate startDate, LocalDate endDate);
     
     // Find payrolls by date range
     List<Payroll> findByDateBetween(LocalDate startDate, LocalDate endDate);
@@ -22,18 +30,24 @@ public interface PayrollRepository extends JpaRepository<Payroll, Long> {
     // Find payrolls by specific date
     List<Payroll> findByDate(LocalDate date);
     
-    // Custom query to get total salary disbursed
-    @Query("SELECT SUM(p.netPay) FROM Payroll p")
-    Double getTotalSalaryDisbursed();
+    @Query("SELECT MIN(p.id), MAX(p.id) FROM Payroll p")
+    List<Object[]> getIdRange();
     
-    // Custom query to get total tax deductions
-    @Query("SELECT SUM(p.taxDeductions) FROM Payroll p")
-    Double getTotalTaxDeductions();
+    // Links unlinked rows in the id range to the employee whose full name matches exactly. Names
+    // shared by more than one employee are left unlinked.
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE payroll p JOIN (" +
+                   "SELECT CONCAT_WS(' ', first_name, last_name) AS full_name, MIN(id) AS id, MIN(department) AS department " +
+                   "FROM employees GROUP BY full_name HAVING COUNT(*) = 1) e ON e.full_name = TRIM(p.employee_name) " +
+                   "SET p.employee_id = e.id, p.department = e.department " +
+                   "WHERE p.id BETWEEN :fromId AND :toId AND p.employee_id IS NULL",
+           nativeQuery = true)
+    int linkEmployeesByName(@Param("fromId") Long fromId, @Param("toId") Long toId);
     
-    // Get distinct employee names
-    @Query("SELECT DISTINCT p.employeeName FROM Payroll p")
-    List<String> getDistinctEmployeeNames();
+    @Query("SELECT COUNT(p) FROM Payroll p WHERE p.employeeId IS NULL")
+    long countUnlinked();
     
-    // Get recent payrolls (last 10)
+    // Get recent payrolls (last 10), read from idx_payroll_date
     List<Payroll> findTop10ByOrderByDateDesc();
 }
@@ -0,0 +1,15 @@
+package com.hrms.repository;
+
+import com.hrms.model.PayrollRetroMark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PayrollRetroMarkRepository extends JpaRepository<PayrollRetroMark, Long> {
+
+    List<PayrollRetroMark> findAllByOrderByPayPeriodAscEmployeeIdAsc();
+
+    List<PayrollRetroMark> findByEmployeeIdOrderByPayPeriod(Long employeeId);
+}
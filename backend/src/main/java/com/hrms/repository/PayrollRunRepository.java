@@ -0,0 +1,28 @@
+package com.hrms.repository;
+
+import com.hrms.model.PayrollRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollRunRepository extends JpaRepository<PayrollRun, Long> {
+
+    Optional<PayrollRun> findByActivePeriod(String activePeriod);
+
+    List<PayrollRun> findByPeriodOrderByIdDesc(String period);
+
+    List<PayrollRun> findTop20ByOrderByIdDesc();
+
+    // Runs that were executing when the application went down
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollRun r SET r.status = 'STOPPED', r.error = 'Interrupted by shutdown' WHERE r.status = 'RUNNING'")
+    int markInterrupted();
+}
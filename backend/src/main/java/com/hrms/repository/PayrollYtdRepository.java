@@ -0,0 +1,74 @@
+package com.hrms.repository;
+
+import com.hrms.model.PayrollYtd;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollYtdRepository extends JpaRepository<PayrollYtd, Long> {
+
+    Optional<PayrollYtd> findByEmployeeIdAndFiscalYear(Long employeeId, Integer fiscalYear);
+
+    List<PayrollYtd> findByEmployeeIdOrderByFiscalYearDesc(Long employeeId);
+
+    Page<PayrollYtd> findByFiscalYearOrderByEmployeeId(Integer fiscalYear, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO payroll_ytd (employee_id, fiscal_year, gross_salary, tax_deductions, net_pay, payments) " +
+                   "VALUES (:employeeId, :fiscalYear, :gross, :tax, :net, :payments) " +
+                   "ON DUPLICATE KEY UPDATE gross_salary = gross_salary + VALUES(gross_salary), " +
+                   "tax_deductions = tax_deductions + VALUES(tax_deductions), net_pay = net_pay + VALUES(net_pay), " +
+                   "payments = payments + VALUES(payments)",
+           nativeQuery = true)
+    int applyDelta(@Param("employeeId") Long employeeId,
+                   @Param("fiscalYear") int fiscalYear,
+                   @Param("gross") BigDecimal gross,
+                   @Param("tax") BigDecimal tax,
+                   @Param("net") BigDecimal net,
+                   @Param("payments") long payments);
+
+    // Adds (sign 1) or removes (sign -1) all rows of a payroll run; the fiscal year of a date is the
+    // calendar year of the date moved back by monthOffset months
+    @Modifying
+    @Query(value = "INSERT INTO payroll_ytd (employee_id, fiscal_year, gross_salary, tax_deductions, net_pay, payments) " +
+                   "SELECT p.employee_id, YEAR(DATE_SUB(p.date, INTERVAL :monthOffset MONTH)) AS fy, :sign * SUM(p.gross_salary), " +
+                   ":sign * SUM(p.tax_deductions), :sign * SUM(p.net_pay), :sign * COUNT(*) " +
+                   "FROM payroll p WHERE p.run_id = :runId AND p.employee_id IS NOT NULL GROUP BY p.employee_id, fy " +
+                   "ON DUPLICATE KEY UPDATE gross_salary = gross_salary + VALUES(gross_salary), " +
+                   "tax_deductions = tax_deductions + VALUES(tax_deductions), net_pay = net_pay + VALUES(net_pay), " +
+                   "payments = payments + VALUES(payments)",
+           nativeQuery = true)
+    int applyRun(@Param("runId") Long runId, @Param("sign") int sign, @Param("monthOffset") int monthOffset);
+
+    // One row per employee and fiscal year, so this reads far fewer rows than the payroll table
+    @Query(value = "SELECT COUNT(DISTINCT employee_id) FROM payroll_ytd", nativeQuery = true)
+    long countEmployees();
+
+    @Modifying
+    @Query(value = "DELETE FROM payroll_ytd WHERE payments <= 0", nativeQuery = true)
+    int deleteEmpty();
+
+    @Modifying
+    @Query(value = "DELETE FROM payroll_ytd", nativeQuery = true)
+    int deleteAllRows();
+
+    // Manual rows and rows of completed runs that are linked to an employee
+    @Modifying
+    @Query(value = "INSERT INTO payroll_ytd (employee_id, fiscal_year, gross_salary, tax_deductions, net_pay, payments) " +
+                   "SELECT p.employee_id, YEAR(DATE_SUB(p.date, INTERVAL :monthOffset MONTH)) AS fy, SUM(p.gross_salary), " +
+                   "SUM(p.tax_deductions), SUM(p.net_pay), COUNT(*) " +
+                   "FROM payroll p LEFT JOIN payroll_runs r ON r.id = p.run_id " +
+                   "WHERE p.employee_id IS NOT NULL AND (p.run_id IS NULL OR r.status = 'COMPLETED') " +
+                   "GROUP BY p.employee_id, fy",
+           nativeQuery = true)
+    int insertFromPayroll(@Param("monthOffset") int monthOffset);
+}
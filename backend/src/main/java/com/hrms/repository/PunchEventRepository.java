@@ -0,0 +1,28 @@
+package com.hrms.repository;
+
+import com.hrms.model.PunchEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PunchEventRepository extends JpaRepository<PunchEvent, Long> {
+
+    @Query("SELECT p FROM PunchEvent p WHERE p.id > :afterId ORDER BY p.id")
+    List<PunchEvent> findUnprojected(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT p FROM PunchEvent p WHERE p.id BETWEEN :fromId AND :toId ORDER BY p.id")
+    List<PunchEvent> findByIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("SELECT p FROM PunchEvent p WHERE p.employeeId IN :employeeIds " +
+           "AND p.attendanceDate BETWEEN :startDate AND :endDate ORDER BY p.punchedAt, p.id")
+    List<PunchEvent> findByEmployeesAndDateRange(@Param("employeeIds") Collection<Long> employeeIds,
+                                                 @Param("startDate") LocalDate startDate,
+                                                 @Param("endDate") LocalDate endDate);
+}
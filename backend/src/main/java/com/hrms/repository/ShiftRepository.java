@@ -0,0 +1,10 @@
+package com.hrms.repository;
+
+import com.hrms.model.Shift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ShiftRepository extends JpaRepository<Shift, Long> {
+    Boolean existsByName(String name);
+}
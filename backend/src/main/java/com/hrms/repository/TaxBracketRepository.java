@@ -0,0 +1,25 @@
+package com.hrms.repository;
+
+import com.hrms.model.TaxBracket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaxBracketRepository extends JpaRepository<TaxBracket, Long> {
+
+    List<TaxBracket> findByRegionAndTaxYearOrderByThreshold(String region, Integer taxYear);
+
+    List<TaxBracket> findByRegionOrderByTaxYearAscThresholdAsc(String region);
+
+    @Query("SELECT DISTINCT b.region FROM TaxBracket b")
+    List<String> findRegions();
+
+    @Modifying
+    @Query("DELETE FROM TaxBracket b WHERE b.region = :region AND b.taxYear = :taxYear")
+    int deleteByRegionAndTaxYear(@Param("region") String region, @Param("taxYear") Integer taxYear);
+}
@@ -0,0 +1,303 @@
+package com.hrms.service;
+
+import com.hrms.dto.AbsenceForecastDTO;
+import com.hrms.dto.LeaveCalendarEntryDTO;
+import com.hrms.model.Employee;
+import com.hrms.repository.EmployeeRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-department count of pending and approved leaves for each day of a rolling window starting
+ * today, used for the absence forecast and to enforce the absence cap when leave is requested.
+ * <p>
+ * The counts are rebuilt daily by sweeping every leave's start and end over a difference array,
+ * and in between are kept current by listening to {@link LeaveCalendarIndex}, which already sees
+ * every committed leave change. Checking a day against the cap is a single array read.
+ * <p>
+ * The counts only see committed leaves, so a request that passes them is checked again inside its
+ * own transaction: it locks its department's row in {@code leave_capacity_locks} and recounts the
+ * department's leaves from the database. Only working days count against the cap.
+ */
+@Component
+public class AbsenceCapacityService implements LeaveCalendarIndex.Listener {
+
+    @Autowired
+    private LeaveCalendarIndex leaveCalendarIndex;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private HolidayCalendarService holidayCalendarService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${hrms.leave.capacity.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hrms.leave.capacity.horizon-days:92}")
+    private int horizonDays;
+
+    @Value("${hrms.leave.capacity.max-absent-ratio:0.2}")
+    private double maxAbsentRatio;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private LocalDate windowStart = LocalDate.now();
+    private Map<String, int[]> absentByDepartment = new HashMap<>();
+    private volatile Map<String, Integer> headcountByDepartment = Map.of();
+
+    @PostConstruct
+    public void init() {
+        leaveCalendarIndex.addListener(this);
+        rebuild();
+    }
+
+    /**
+     * Moves the window to start today and recounts it from the leave index.
+     */
+    @Scheduled(cron = "${hrms.leave.capacity.rebuild-cron:0 5 0 * * *}")
+    public void rebuild() {
+        refreshHeadcount();
+        leaveCalendarIndex.withAllEntries(entries -> {
+            LocalDate start = LocalDate.now();
+            Map<String, int[]> sweep = new HashMap<>();
+            for (LeaveCalendarEntryDTO entry : entries) {
+                int from = dayIndex(start, entry.getStartDate());
+                int to = dayIndex(start, entry.getEndDate());
+                if (to < 0 || from >= horizonDays) {
+                    continue;
+                }
+                int[] events = sweep.computeIfAbsent(entry.getDepartment(), d -> new int[horizonDays + 1]);
+                events[Math.max(from, 0)]++;
+                events[Math.min(to, horizonDays - 1) + 1]--;
+            }
+            Map<String, int[]> counts = new HashMap<>();
+            sweep.forEach((department, events) -> {
+                int[] absent = new int[horizonDays];
+                int running = 0;
+                for (int day = 0; day < horizonDays; day++) {
+                    running += events[day];
+                    absent[day] = running;
+                }
+                counts.put(department, absent);
+            });
+
+            lock.writeLock().lock();
+            try {
+                windowStart = start;
+                absentByDepartment = counts;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void refreshHeadcount() {
+        Map<String, Integer> headcount = new HashMap<>();
+        for (Object[] row : employeeRepository.countActiveByDepartment()) {
+            headcount.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        headcountByDepartment = Collections.unmodifiableMap(headcount);
+    }
+
+    @Override
+    public void entryAdded(LeaveCalendarEntryDTO entry) {
+        apply(entry, 1);
+    }
+
+    @Override
+    public void entryRemoved(LeaveCalendarEntryDTO entry) {
+        apply(entry, -1);
+    }
+
+    /**
+     * Most people in the department who may be absent on the same day; at least one so small teams
+     * can still take leave.
+     */
+    public int getMaxAbsent(String department) {
+        int headcount = headcountByDepartment.getOrDefault(department, 0);
+        return Math.max(1, (int) Math.floor(headcount * maxAbsentRatio));
+    }
+
+    /**
+     * Rejects a leave that would push the employee's department over its absence cap on any of the
+     * employee's working days. Must run inside the transaction that saves the leave: the department
+     * stays locked until it commits. {@code excludeLeaveId} is the leave being edited, counted in
+     * the window over {@code [excludeStart, excludeEnd]}.
+     */
+    public void checkCapacity(Employee employee, LocalDate startDate, LocalDate endDate,
+                              Long excludeLeaveId, LocalDate excludeStart, LocalDate excludeEnd) {
+        if (!enabled || startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            return;
+        }
+        String department = employee.getDepartment();
+        String region = holidayCalendarService.regionOf(employee);
+        int maxAbsent = getMaxAbsent(department);
+
+        // Cheap rejection from the window before taking the department lock
+        lock.readLock().lock();
+        try {
+            int[] absent = absentByDepartment.get(department);
+            if (absent != null) {
+                int from = Math.max(dayIndex(windowStart, startDate), 0);
+                int to = Math.min(dayIndex(windowStart, endDate), horizonDays - 1);
+                for (int day = from; day <= to; day++) {
+                    LocalDate date = windowStart.plusDays(day);
+                    if (excludeStart != null && !date.isBefore(excludeStart) && !date.isAfter(excludeEnd)) {
+                        continue;
+                    }
+                    if (absent[day] + 1 > maxAbsent && holidayCalendarService.isWorkingDay(region, date)) {
+                        throw overCapacity(department, absent[day], maxAbsent, date);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (department == null) {
+            return;
+        }
+        lockDepartment(department);
+        int[] absent = countAbsent(department, startDate, endDate, excludeLeaveId);
+        for (int day = 0; day < absent.length; day++) {
+            LocalDate date = startDate.plusDays(day);
+            if (absent[day] + 1 > maxAbsent && holidayCalendarService.isWorkingDay(region, date)) {
+                throw overCapacity(department, absent[day], maxAbsent, date);
+            }
+        }
+    }
+
+    /**
+     * Blocks until no other transaction holds the department, and holds it until this one ends.
+     * The upsert takes the row's exclusive lock whether it inserts or updates.
+     */
+    private void lockDepartment(String department) {
+        jdbcTemplate.update(
+                "INSERT INTO leave_capacity_locks (department, locked_at) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE locked_at = VALUES(locked_at)",
+                department, LocalDateTime.now());
+    }
+
+    /**
+     * Pending and approved leaves in the department on each day of {@code [startDate, endDate]}.
+     * The read locks the rows so it sees leaves committed after this transaction's snapshot.
+     */
+    private int[] countAbsent(String department, LocalDate startDate, LocalDate endDate, Long excludeLeaveId) {
+        int length = dayIndex(startDate, endDate) + 1;
+        int[] events = new int[length + 1];
+        jdbcTemplate.query(
+                "SELECT l.id, l.start_date, l.end_date FROM leave_requests l JOIN employees e ON e.id = l.employee_id " +
+                "WHERE e.department = ? AND l.status IN ('PENDING', 'APPROVED') AND l.start_date <= ? AND l.end_date >= ? " +
+                "FOR UPDATE",
+                rs -> {
+                    if (excludeLeaveId != null && excludeLeaveId == rs.getLong("id")) {
+                        return;
+                    }
+                    int from = Math.max(dayIndex(startDate, rs.getDate("start_date").toLocalDate()), 0);
+                    int to = Math.min(dayIndex(startDate, rs.getDate("end_date").toLocalDate()), length - 1);
+                    events[from]++;
+                    events[to + 1]--;
+                },
+                department, endDate, startDate);
+        int[] absent = new int[length];
+        int running = 0;
+        for (int day = 0; day < length; day++) {
+            running += events[day];
+            absent[day] = running;
+        }
+        return absent;
+    }
+
+    private static RuntimeException overCapacity(String department, int absent, int maxAbsent, LocalDate date) {
+        return new RuntimeException(String.format(
+                "%s already has %d of %d allowed absences on %s", department, absent, maxAbsent, date));
+    }
+
+    /**
+     * Daily absences in the department from today; days off in the default region's calendar
+     * show as none.
+     */
+    public AbsenceForecastDTO getForecast(String department, int days) {
+        String region = holidayCalendarService.getDefaultRegion();
+        lock.readLock().lock();
+        try {
+            int length = Math.max(0, Math.min(days, horizonDays));
+            int[] absent = absentByDepartment.get(department);
+            List<Integer> daily = new ArrayList<>(length);
+            int peak = 0;
+            int peakDay = 0;
+            for (int day = 0; day < length; day++) {
+                int count = absent != null && holidayCalendarService.isWorkingDay(region, windowStart.plusDays(day))
+                        ? absent[day] : 0;
+                daily.add(count);
+                if (count > peak) {
+                    peak = count;
+                    peakDay = day;
+                }
+            }
+
+            AbsenceForecastDTO dto = new AbsenceForecastDTO();
+            dto.setDepartment(department);
+            dto.setHeadcount(headcountByDepartment.getOrDefault(department, 0));
+            dto.setMaxAbsent(getMaxAbsent(department));
+            dto.setStartDate(windowStart);
+            dto.setDailyAbsent(daily);
+            dto.setPeakAbsent(peak);
+            dto.setPeakDate(length > 0 ? windowStart.plusDays(peakDay) : null);
+            return dto;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<AbsenceForecastDTO> getForecasts(int days) {
+        Set<String> departments = new TreeSet<>(headcountByDepartment.keySet());
+        lock.readLock().lock();
+        try {
+            departments.addAll(absentByDepartment.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<AbsenceForecastDTO> forecasts = new ArrayList<>();
+        for (String department : departments) {
+            forecasts.add(getForecast(department, days));
+        }
+        return forecasts;
+    }
+
+    private void apply(LeaveCalendarEntryDTO entry, int delta) {
+        lock.writeLock().lock();
+        try {
+            int from = Math.max(dayIndex(windowStart, entry.getStartDate()), 0);
+            int to = Math.min(dayIndex(windowStart, entry.getEndDate()), horizonDays - 1);
+            if (from > to) {
+                return;
+            }
+            int[] absent = absentByDepartment.computeIfAbsent(entry.getDepartment(), d -> new int[horizonDays]);
+            for (int day = from; day <= to; day++) {
+                absent[day] += delta;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int dayIndex(LocalDate windowStart, LocalDate date) {
+        long days = ChronoUnit.DAYS.between(windowStart, date);
+        return (int) Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, days));
+    }
+}
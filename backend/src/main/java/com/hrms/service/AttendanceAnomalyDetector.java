@@ -0,0 +1,248 @@
+package com.hrms.service;
+
+import com.hrms.model.Attendance;
+import com.hrms.model.AttendanceStatus;
+import com.hrms.model.Shift;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.hrms.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Incremental detector for attendance anomalies, fed by every attendance write.
+ * <p>
+ * For late arrivals each employee keeps a ring buffer of the epoch days of their most recent late
+ * arrivals, sized to the alert threshold plus one. When the buffer is full and its oldest entry is
+ * still inside the rolling window, the employee has been late more than the threshold allows.
+ * Each event therefore costs O(1) regardless of attendance history. A row is flagged for
+ * implausible working hours when a write first makes them implausible. Writes are counted only
+ * once their transaction commits. Alerts are collected and mailed in batches, and the windows are
+ * persisted to disk so restarts do not reset them.
+ */
+@Component
+public class AttendanceAnomalyDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceAnomalyDetector.class);
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Value("${hrms.attendance.anomaly.late-threshold:3}")
+    private int lateThreshold;
+
+    @Value("${hrms.attendance.anomaly.window-days:30}")
+    private int windowDays;
+
+    @Value("${hrms.attendance.anomaly.grace-minutes:10}")
+    private int graceMinutes;
+
+    @Value("${hrms.attendance.anomaly.default-start-time:09:00}")
+    private String defaultStartTime;
+
+    @Value("${hrms.attendance.anomaly.max-working-hours:16}")
+    private double maxWorkingHours;
+
+    @Value("${hrms.attendance.anomaly.alert-recipient:hr@hrms.local}")
+    private String alertRecipient;
+
+    @Value("${hrms.attendance.anomaly.state-file:data/attendance-anomaly.state}")
+    private String stateFile;
+
+    private final Map<Long, LateWindow> windows = new ConcurrentHashMap<>();
+    private final Queue<String> pendingAlerts = new ConcurrentLinkedQueue<>();
+    // Attendance rows last seen with implausible hours, by id, with their epoch day
+    private final Map<Long, Integer> implausibleRows = new ConcurrentHashMap<>();
+
+    /**
+     * Called after an attendance row has been written, in the writer's transaction. The row is
+     * judged now and counted once the transaction commits, so rolled-back writes raise no alerts.
+     */
+    public void onAttendance(Attendance attendance) {
+        Long attendanceId = attendance.getId();
+        Long employeeId = attendance.getEmployee().getId();
+        String employee = attendance.getEmployee().getFullName() + " (" + attendance.getEmployee().getEmployeeId() + ")";
+        LocalDate date = attendance.getAttendanceDate();
+        Double workingHours = attendance.getWorkingHours();
+        boolean implausible = workingHours != null && (workingHours < 0 || workingHours > maxWorkingHours);
+        boolean late = isLate(attendance);
+        afterCommit(() -> record(attendanceId, employeeId, employee, date, workingHours, implausible, late));
+    }
+
+    private void record(Long attendanceId, Long employeeId, String employee, LocalDate date, Double workingHours,
+                        boolean implausible, boolean late) {
+        // A row is rewritten on every update and punch, so only its change to implausible alerts
+        if (!implausible) {
+            if (attendanceId != null) {
+                implausibleRows.remove(attendanceId);
+            }
+        } else if (attendanceId == null || implausibleRows.put(attendanceId, (int) date.toEpochDay()) == null) {
+            pendingAlerts.add(String.format("%s: implausible working hours %.2f on %s", employee, workingHours, date));
+        }
+
+        if (late) {
+            int day = (int) date.toEpochDay();
+            LateWindow window = windows.computeIfAbsent(employeeId, id -> new LateWindow(lateThreshold + 1));
+            boolean exceeded;
+            synchronized (window) {
+                exceeded = window.record(day, windowDays);
+            }
+            if (exceeded) {
+                pendingAlerts.add(String.format("%s: late more than %d times in %d days (latest %s)",
+                        employee, lateThreshold, windowDays, date));
+            }
+        }
+    }
+
+    private boolean isLate(Attendance attendance) {
+        if (attendance.getStatus() == AttendanceStatus.LATE) {
+            return true;
+        }
+        if (attendance.getCheckInTime() == null || attendance.getStatus() == AttendanceStatus.WORK_FROM_HOME) {
+            return false;
+        }
+        LocalTime start = shiftService.getShift(attendance.getEmployee().getShiftId())
+                .map(Shift::getStartTime)
+                .orElseGet(() -> LocalTime.parse(defaultStartTime));
+        LocalTime latest = start.plusMinutes(graceMinutes);
+        // Night shifts starting late in the evening would wrap past midnight
+        return latest.isAfter(start) && attendance.getCheckInTime().isAfter(latest);
+    }
+
+    @Scheduled(fixedDelayString = "${hrms.attendance.anomaly.alert-interval-ms:300000}")
+    public void flushAlerts() {
+        int oldest = (int) LocalDate.now().minusDays(windowDays).toEpochDay();
+        implausibleRows.values().removeIf(day -> day < oldest);
+        List<String> alerts = new ArrayList<>();
+        String alert;
+        while ((alert = pendingAlerts.poll()) != null) {
+            alerts.add(alert);
+        }
+        if (!alerts.isEmpty()) {
+            notificationService.enqueue(alertRecipient, "Attendance anomalies (" + alerts.size() + ")", String.join("\n", alerts));
+        }
+    }
+
+    @PostConstruct
+    public void loadState() {
+        Path path = Path.of(stateFile);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int employees = in.readInt();
+            for (int i = 0; i < employees; i++) {
+                long employeeId = in.readLong();
+                windows.put(employeeId, LateWindow.read(in, lateThreshold + 1));
+            }
+        } catch (IOException e) {
+            log.warn("Could not restore attendance anomaly state from {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${hrms.attendance.anomaly.snapshot-interval-ms:600000}")
+    public void saveState() {
+        flushAlerts();
+        Path path = Path.of(stateFile);
+        try {
+            Path dir = path.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                List<Map.Entry<Long, LateWindow>> entries = new ArrayList<>(windows.entrySet());
+                out.writeInt(entries.size());
+                for (Map.Entry<Long, LateWindow> entry : entries) {
+                    out.writeLong(entry.getKey());
+                    synchronized (entry.getValue()) {
+                        entry.getValue().write(out);
+                    }
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not save attendance anomaly state to {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Ring buffer of epoch days on which an employee arrived late.
+     */
+    static final class LateWindow {
+        private final int[] days;
+        private int head;
+        private int size;
+        private int lastAlertDay = Integer.MIN_VALUE;
+
+        LateWindow(int capacity) {
+            this.days = new int[capacity];
+        }
+
+        /**
+         * Records a late day and returns whether the window now holds more late days than allowed.
+         */
+        boolean record(int day, int windowDays) {
+            // The same day can be written several times (mark, update, check-out); count it once.
+            // Days older than the newest one are corrections and do not move the window.
+            if (size > 0 && day <= days[(head + size - 1) % days.length]) {
+                return false;
+            }
+            if (size == days.length) {
+                head = (head + 1) % days.length;
+                size--;
+            }
+            days[(head + size) % days.length] = day;
+            size++;
+
+            int oldest = days[head];
+            if (size == days.length && day - oldest < windowDays && (long) day - lastAlertDay >= windowDays) {
+                lastAlertDay = day;
+                return true;
+            }
+            return false;
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeInt(lastAlertDay);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(days[(head + i) % days.length]);
+            }
+        }
+
+        static LateWindow read(DataInput in, int capacity) throws IOException {
+            LateWindow window = new LateWindow(capacity);
+            window.lastAlertDay = in.readInt();
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                int day = in.readInt();
+                // Keep only the most recent entries if the threshold was lowered since the snapshot
+                if (i >= size - capacity) {
+                    window.days[window.size++] = day;
+                }
+            }
+            return window;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.hrms.service;
+
+import com.hrms.dto.AttendanceDTO;
+import com.hrms.model.AttendanceStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Column-oriented archive files for attendance months that have been dropped from the hot table.
+ * Each month is one zip file holding one gzip-compressed stream per column, so a month can be
+ * written while streaming rows out of the database and read back without loading it fully.
+ */
+@Component
+public class AttendanceArchiveStore {
+
+    private static final String[] COLUMNS = {
+            "id", "employee_id", "attendance_date", "check_in_time", "check_out_time",
+            "status", "working_hours", "overtime_hours", "notes", "created_at"
+    };
+
+    private static final AttendanceStatus[] STATUSES = AttendanceStatus.values();
+
+    private final Path archiveDir;
+
+    public AttendanceArchiveStore(@Value("${hrms.attendance.archive.dir:archive/attendance}") String archiveDir) {
+        this.archiveDir = Path.of(archiveDir);
+    }
+
+    public boolean isArchived(YearMonth month) {
+        return Files.exists(fileFor(month));
+    }
+
+    /**
+     * Streams rows (in the column order of {@code attendance}) into the archive file for the month.
+     * The file is written under a temporary name and moved into place only once complete.
+     */
+    public ColumnWriter openWriter(YearMonth month) throws IOException {
+        Files.createDirectories(archiveDir);
+        return new ColumnWriter(month);
+    }
+
+    /**
+     * Reads back the rows of an archived month that match the filter. Employee names are not
+     * stored in the archive and are left for the caller to fill in.
+     */
+    public List<AttendanceDTO> read(YearMonth month, Predicate<AttendanceDTO> filter) throws IOException {
+        List<AttendanceDTO> result = new ArrayList<>();
+        Path file = fileFor(month);
+        if (!Files.exists(file)) {
+            return result;
+        }
+
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            DataInputStream[] in = new DataInputStream[COLUMNS.length];
+            try {
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    in[i] = new DataInputStream(new BufferedInputStream(
+                            new GZIPInputStream(zip.getInputStream(zip.getEntry(COLUMNS[i])))));
+                }
+                long rows;
+                try (DataInputStream meta = new DataInputStream(zip.getInputStream(zip.getEntry("rows")))) {
+                    rows = meta.readLong();
+                }
+                for (long r = 0; r < rows; r++) {
+                    AttendanceDTO dto = new AttendanceDTO();
+                    dto.setId(in[0].readLong());
+                    dto.setEmployeeId(in[1].readLong());
+                    dto.setAttendanceDate(LocalDate.ofEpochDay(in[2].readInt()));
+                    long checkIn = in[3].readLong();
+                    dto.setCheckInTime(checkIn < 0 ? null : LocalTime.ofNanoOfDay(checkIn));
+                    long checkOut = in[4].readLong();
+                    dto.setCheckOutTime(checkOut < 0 ? null : LocalTime.ofNanoOfDay(checkOut));
+                    byte status = in[5].readByte();
+                    dto.setStatus(status < 0 ? null : STATUSES[status]);
+                    double workingHours = in[6].readDouble();
+                    dto.setWorkingHours(Double.isNaN(workingHours) ? null : workingHours);
+                    double overtimeHours = in[7].readDouble();
+                    dto.setOvertimeHours(Double.isNaN(overtimeHours) ? null : overtimeHours);
+                    dto.setNotes(in[8].readBoolean() ? in[8].readUTF() : null);
+                    long createdAt = in[9].readLong();
+                    dto.setCreatedAt(LocalDateTime.ofEpochSecond(createdAt / 1000, (int) (createdAt % 1000) * 1_000_000, ZoneOffset.UTC));
+                    if (filter.test(dto)) {
+                        result.add(dto);
+                    }
+                }
+            } finally {
+                for (DataInputStream stream : in) {
+                    if (stream != null) {
+                        stream.close();
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private Path fileFor(YearMonth month) {
+        return archiveDir.resolve(String.format("attendance-%04d-%02d.zip", month.getYear(), month.getMonthValue()));
+    }
+
+    public class ColumnWriter implements Closeable {
+        private final YearMonth month;
+        private final Path[] columnFiles = new Path[COLUMNS.length];
+        private final DataOutputStream[] out = new DataOutputStream[COLUMNS.length];
+        private long rows;
+        private boolean completed;
+
+        private ColumnWriter(YearMonth month) throws IOException {
+            this.month = month;
+            for (int i = 0; i < COLUMNS.length; i++) {
+                columnFiles[i] = Files.createTempFile(archiveDir, COLUMNS[i], ".col");
+                out[i] = new DataOutputStream(new BufferedOutputStream(
+                        new GZIPOutputStream(Files.newOutputStream(columnFiles[i]))));
+            }
+        }
+
+        public void write(ResultSet rs) throws SQLException, IOException {
+            out[0].writeLong(rs.getLong("id"));
+            out[1].writeLong(rs.getLong("employee_id"));
+            out[2].writeInt((int) rs.getDate("attendance_date").toLocalDate().toEpochDay());
+            Time checkIn = rs.getTime("check_in_time");
+            out[3].writeLong(checkIn == null ? -1 : checkIn.toLocalTime().toNanoOfDay());
+            Time checkOut = rs.getTime("check_out_time");
+            out[4].writeLong(checkOut == null ? -1 : checkOut.toLocalTime().toNanoOfDay());
+            String status = rs.getString("status");
+            out[5].writeByte(status == null ? -1 : AttendanceStatus.valueOf(status).ordinal());
+            double workingHours = rs.getDouble("working_hours");
+            out[6].writeDouble(rs.wasNull() ? Double.NaN : workingHours);
+            double overtimeHours = rs.getDouble("overtime_hours");
+            out[7].writeDouble(rs.wasNull() ? Double.NaN : overtimeHours);
+            String notes = rs.getString("notes");
+            out[8].writeBoolean(notes != null);
+            if (notes != null) {
+                out[8].writeUTF(notes);
+            }
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            out[9].writeLong(createdAt.toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli());
+            rows++;
+        }
+
+        public long getRows() { return rows; }
+
+        /**
+         * Packs the column streams into the month's archive file. Only after this returns is it safe
+         * to drop the source partition.
+         */
+        public void complete() throws IOException {
+            for (DataOutputStream stream : out) {
+                stream.close();
+            }
+
+            Path target = fileFor(month);
+            Path tmp = Files.createTempFile(archiveDir, target.getFileName().toString(), ".tmp");
+            try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                // Columns are already gzip-compressed, so store them as-is
+                zip.setLevel(0);
+                zip.putNextEntry(new ZipEntry("rows"));
+                new DataOutputStream(zip).writeLong(rows);
+                zip.closeEntry();
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    zip.putNextEntry(new ZipEntry(COLUMNS[i]));
+                    Files.copy(columnFiles[i], zip);
+                    zip.closeEntry();
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            completed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!completed) {
+                for (DataOutputStream stream : out) {
+                    stream.close();
+                }
+            }
+            for (Path file : columnFiles) {
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
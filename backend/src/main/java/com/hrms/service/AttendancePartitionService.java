@@ -0,0 +1,219 @@
+package com.hrms.service;
+
+import com.hrms.model.JobCheckpoint;
+import com.hrms.repository.JobCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@code attendance} table range-partitioned by month on {@code attendance_date}.
+ * <p>
+ * On startup the table is converted to monthly partitions if it is not partitioned yet, and
+ * partitions are kept created a few months ahead. A monthly retention run exports partitions
+ * older than the configured horizon to {@link AttendanceArchiveStore} and then drops them, so
+ * queries against the table only ever touch recent months. The last month dropped is recorded as
+ * a job checkpoint; only months up to it are read from the archive, so attendance is read from
+ * the table whenever partitioning is off, failed, or has not archived a month yet.
+ */
+@Service
+public class AttendancePartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendancePartitionService.class);
+
+    private static final String TABLE = "attendance";
+    private static final String MAX_PARTITION = "pmax";
+    private static final String ARCHIVE_JOB = "attendance-archive";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AttendanceArchiveStore archiveStore;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Value("${hrms.attendance.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hrms.attendance.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${hrms.attendance.archive.retention-months:24}")
+    private int retentionMonths;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializePartitions() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!isPartitioned()) {
+                partitionTable();
+            }
+            ensureFuturePartitions();
+            recordEarlierArchive();
+        } catch (RuntimeException e) {
+            log.warn("Could not set up attendance partitions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Last month whose partition has been exported and dropped, or null if none has been. Attendance
+     * up to and including this month is only in the archive, everything later only in the table.
+     */
+    public YearMonth getArchivedThrough() {
+        return checkpointRepository.findById(ARCHIVE_JOB)
+                .map(checkpoint -> YearMonth.parse(checkpoint.getCheckpoint()))
+                .orElse(null);
+    }
+
+    @Scheduled(cron = "${hrms.attendance.archive.cron:0 30 2 1 * *}")
+    public void archiveExpiredPartitions() {
+        if (!enabled || !isPartitioned()) {
+            return;
+        }
+        ensureFuturePartitions();
+
+        YearMonth horizon = YearMonth.now().minusMonths(retentionMonths);
+        for (String partition : getMonthPartitions()) {
+            YearMonth month = toMonth(partition);
+            if (!month.isBefore(horizon)) {
+                continue;
+            }
+            long rows = exportPartition(partition, month);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition);
+            // Partitions are dropped oldest first, so every earlier month is archived too
+            checkpointRepository.save(new JobCheckpoint(ARCHIVE_JOB, month.toString()));
+            log.info("Archived attendance partition {} ({} rows)", partition, rows);
+        }
+    }
+
+    // Months archived before the checkpoint was kept end just before the oldest partition
+    private void recordEarlierArchive() {
+        if (checkpointRepository.existsById(ARCHIVE_JOB)) {
+            return;
+        }
+        List<String> partitions = getMonthPartitions();
+        if (!partitions.isEmpty()) {
+            YearMonth previous = toMonth(partitions.get(0)).minusMonths(1);
+            if (archiveStore.isArchived(previous)) {
+                checkpointRepository.save(new JobCheckpoint(ARCHIVE_JOB, previous.toString()));
+            }
+        }
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+                Integer.class, TABLE);
+        return count != null && count > 0;
+    }
+
+    private void partitionTable() {
+        // MySQL requires every unique key, including the primary key, to contain the partitioning
+        // column and does not support foreign keys on partitioned tables.
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS " +
+                "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                String.class, TABLE);
+        for (String foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP FOREIGN KEY " + foreignKey);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " MODIFY attendance_date DATE NOT NULL, " +
+                "DROP PRIMARY KEY, ADD PRIMARY KEY (id, attendance_date)");
+
+        LocalDate oldest = jdbcTemplate.queryForObject("SELECT MIN(attendance_date) FROM " + TABLE, LocalDate.class);
+        YearMonth first = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+
+        StringBuilder ddl = new StringBuilder("ALTER TABLE " + TABLE + " PARTITION BY RANGE COLUMNS(attendance_date) (");
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            ddl.append(partitionDefinition(month)).append(", ");
+        }
+        ddl.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+        jdbcTemplate.execute(ddl.toString());
+        log.info("Partitioned attendance by month from {} to {}", first, last);
+    }
+
+    private void ensureFuturePartitions() {
+        List<String> partitions = getMonthPartitions();
+        YearMonth next = partitions.isEmpty()
+                ? YearMonth.now()
+                : toMonth(partitions.get(partitions.size() - 1)).plusMonths(1);
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        if (next.isAfter(last)) {
+            return;
+        }
+
+        StringBuilder ddl = new StringBuilder("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO (");
+        for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+            ddl.append(partitionDefinition(month)).append(", ");
+        }
+        ddl.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+        jdbcTemplate.execute(ddl.toString());
+    }
+
+    private List<String> getMonthPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, TABLE).stream()
+                .filter(name -> !MAX_PARTITION.equals(name))
+                .collect(Collectors.toList());
+    }
+
+    private long exportPartition(String partition, YearMonth month) {
+        try (AttendanceArchiveStore.ColumnWriter writer = archiveStore.openWriter(month)) {
+            jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement(
+                        "SELECT id, employee_id, attendance_date, check_in_time, check_out_time, status, " +
+                        "working_hours, overtime_hours, notes, created_at FROM " + TABLE + " PARTITION (" + partition + ") " +
+                        "ORDER BY id");
+                // Stream rows instead of buffering the whole month in the driver
+                statement.setFetchSize(Integer.MIN_VALUE);
+                return statement;
+            }, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new SQLException("Failed to write attendance archive for " + month, e);
+                }
+            });
+            writer.complete();
+            return writer.getRows();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String partitionDefinition(YearMonth month) {
+        return "PARTITION " + partitionName(month) + " VALUES LESS THAN ('" + Date.valueOf(month.plusMonths(1).atDay(1)) + "')";
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static YearMonth toMonth(String partitionName) {
+        return YearMonth.of(Integer.parseInt(partitionName.substring(1, 5)), Integer.parseInt(partitionName.substring(5, 7)));
+    }
+}
@@ -0,0 +1,264 @@
+package com.hrms.service;
+
+import com.hrms.model.JobCheckpoint;
+import com.hrms.repository.JobCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admin-triggered job that recomputes {@code working_hours} and {@code overtime_hours} for
+ * historical attendance with the current rules.
+ * <p>
+ * Only closed days entered as a single check-in and check-out are recomputed. Days still open keep
+ * their values, and days with punch events are owned by {@link PunchProjectionService}, whose hours
+ * are the sum of the punch intervals rather than check-out minus check-in.
+ * <p>
+ * The table is walked by id range. A bounded pool of workers claims chunks from a shared cursor,
+ * and each worker writes back only the rows whose values changed, using one batched update per
+ * chunk that also marks the affected paid periods for retro pay in the same transaction. Workers pause between chunks so the job does not starve regular traffic. The highest id
+ * below which every chunk has completed is checkpointed, so a stopped or crashed run resumes
+ * from there.
+ */
+@Service
+public class AttendanceRecomputeService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceRecomputeService.class);
+
+    private static final String JOB_NAME = "attendance-recompute";
+    private static final double EPSILON = 1e-9;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private RetroPayTracker retroPayTracker;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${hrms.attendance.recompute.parallelism:4}")
+    private int parallelism;
+
+    @Value("${hrms.attendance.recompute.chunk-size:5000}")
+    private long chunkSize;
+
+    @Value("${hrms.attendance.recompute.pause-ms-per-chunk:50}")
+    private long pauseMsPerChunk;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean stopRequested = new AtomicBoolean();
+
+    private final AtomicLong scannedRows = new AtomicLong();
+    private final AtomicLong changedRows = new AtomicLong();
+    private final AtomicLong completedChunks = new AtomicLong();
+    private volatile long firstId;
+    private volatile long lastId;
+    private volatile long checkpointId;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    // Completed chunk start ids above the checkpoint, waiting for the chunks before them
+    private final TreeSet<Long> completedAhead = new TreeSet<>();
+
+    /**
+     * Starts a run in the background, resuming from the last checkpoint unless {@code restart} is set.
+     *
+     * @return false if a run is already in progress
+     */
+    public boolean start(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            if (restart) {
+                checkpointRepository.deleteById(JOB_NAME);
+            }
+            long resumeAfter = checkpointRepository.findById(JOB_NAME)
+                    .map(checkpoint -> Long.parseLong(checkpoint.getCheckpoint()))
+                    .orElse(0L);
+            Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM attendance");
+
+            firstId = Math.max(resumeAfter + 1, range.get("min_id") != null ? ((Number) range.get("min_id")).longValue() : 1);
+            lastId = range.get("max_id") != null ? ((Number) range.get("max_id")).longValue() : 0;
+            checkpointId = firstId - 1;
+            scannedRows.set(0);
+            changedRows.set(0);
+            completedChunks.set(0);
+            completedAhead.clear();
+            stopRequested.set(false);
+            startedAt = LocalDateTime.now();
+            finishedAt = null;
+            error = null;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        Thread coordinator = new Thread(this::run, "attendance-recompute");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return true;
+    }
+
+    public void stop() {
+        stopRequested.set(true);
+    }
+
+    public Map<String, Object> getStatus() {
+        long totalChunks = lastId >= firstId ? (lastId - firstId) / chunkSize + 1 : 0;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("firstId", firstId);
+        status.put("lastId", lastId);
+        status.put("checkpointId", checkpointId);
+        status.put("completedChunks", completedChunks.get());
+        status.put("totalChunks", totalChunks);
+        status.put("scannedRows", scannedRows.get());
+        status.put("changedRows", changedRows.get());
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("error", error);
+        return status;
+    }
+
+    private void run() {
+        AtomicLong cursor = new AtomicLong(firstId);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                pool.submit(() -> work(cursor));
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            if (error == null && !stopRequested.get()) {
+                log.info("Attendance recompute finished: {} rows scanned, {} changed", scannedRows.get(), changedRows.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void work(AtomicLong cursor) {
+        try {
+            long from;
+            while (!stopRequested.get() && error == null && (from = cursor.getAndAdd(chunkSize)) <= lastId) {
+                recomputeChunk(from, from + chunkSize - 1);
+                markCompleted(from);
+                if (pauseMsPerChunk > 0) {
+                    Thread.sleep(pauseMsPerChunk);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Attendance recompute failed", e);
+            error = e.getMessage();
+        }
+    }
+
+    private void recomputeChunk(long fromId, long toId) {
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT a.id, a.employee_id, a.attendance_date, a.check_in_time, a.check_out_time, a.working_hours, a.overtime_hours, e.shift_id " +
+                "FROM attendance a JOIN employees e ON e.id = a.employee_id " +
+                // Days built from punches are summed per interval by the projector and are left to it
+                "WHERE a.id BETWEEN ? AND ? AND a.check_in_time IS NOT NULL AND a.check_out_time IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM punch_events p WHERE p.employee_id = a.employee_id AND p.attendance_date = a.attendance_date)",
+                rs -> {
+                    scannedRows.incrementAndGet();
+                    Time checkIn = rs.getTime("check_in_time");
+                    Time checkOut = rs.getTime("check_out_time");
+                    Double workingHours = rs.getObject("working_hours", Double.class);
+                    Double overtimeHours = rs.getObject("overtime_hours", Double.class);
+                    Long shiftId = rs.getObject("shift_id", Long.class);
+
+                    Double newWorkingHours = ShiftService.calculateWorkingHours(checkIn.toLocalTime(), checkOut.toLocalTime());
+                    Double newOvertimeHours = shiftService.calculateOvertimeHours(newWorkingHours, shiftId);
+
+                    if (!same(workingHours, newWorkingHours) || !same(overtimeHours, newOvertimeHours)) {
+                        updates.add(new Object[]{newWorkingHours, newOvertimeHours, rs.getLong("id"), rs.getDate("attendance_date"),
+                                rs.getLong("employee_id")});
+                    }
+                },
+                fromId, toId);
+
+        if (!updates.isEmpty()) {
+            Map<Long, Set<YearMonth>> changedPeriods = new HashMap<>();
+            for (Object[] row : updates) {
+                changedPeriods.computeIfAbsent((Long) row[4], id -> new HashSet<>())
+                        .add(YearMonth.from(((Date) row[3]).toLocalDate()));
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                // attendance_date is part of the key, so each update is pruned to a single partition
+                jdbcTemplate.batchUpdate(
+                        "UPDATE attendance SET working_hours = ?, overtime_hours = ? WHERE id = ? AND attendance_date = ?",
+                        updates, updates.size(), (ps, row) -> {
+                            ps.setObject(1, row[0]);
+                            ps.setObject(2, row[1]);
+                            ps.setLong(3, (Long) row[2]);
+                            ps.setDate(4, (Date) row[3]);
+                        });
+                retroPayTracker.periodsChanged(changedPeriods, RetroPayTracker.ATTENDANCE);
+            });
+            changedRows.addAndGet(updates.size());
+        }
+        completedChunks.incrementAndGet();
+    }
+
+    private synchronized void markCompleted(long chunkStart) {
+        completedAhead.add(chunkStart);
+        long next = checkpointId + 1;
+        boolean advanced = false;
+        while (!completedAhead.isEmpty() && completedAhead.first() == next) {
+            completedAhead.pollFirst();
+            checkpointId = Math.min(next + chunkSize - 1, lastId);
+            next = checkpointId + 1;
+            advanced = true;
+        }
+        if (advanced) {
+            checkpointRepository.save(new JobCheckpoint(JOB_NAME, String.valueOf(checkpointId)));
+        }
+    }
+
+    private static boolean same(Double a, Double b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return Math.abs(a - b) < EPSILON;
+    }
+}
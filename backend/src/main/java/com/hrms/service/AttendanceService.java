@@ -12,11 +12,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +35,21 @@ public class AttendanceService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private AttendancePartitionService partitionService;
+
+    @Autowired
+    private AttendanceArchiveStore archiveStore;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private AttendanceAnomalyDetector anomalyDetector;
+
+    @Autowired
+    private RetroPayTracker retroPayTracker;
+
     public List<AttendanceDTO> getAllAttendance() {
         return attendanceRepository.findAll().stream()
                 .map(this::convertToDTO)
@@ -54,7 +75,37 @@ public class AttendanceService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Attendance for an employee within a date range. Months whose partition has been archived and
+     * dropped are read from the archive, the rest from the table, so no row is read twice.
+     */
+    public List<AttendanceDTO> getAttendanceByEmployee(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        if (!employeeRepository.existsById(employeeId)) {
+            throw new RuntimeException("Employee not found with id: " + employeeId);
+        }
+
+        List<AttendanceDTO> result = new ArrayList<>();
+        LocalDate tableStart = startDate;
+        YearMonth archivedThrough = partitionService.getArchivedThrough();
+        if (archivedThrough != null && !YearMonth.from(startDate).isAfter(archivedThrough)) {
+            LocalDate archiveEnd = archivedThrough.atEndOfMonth();
+            result = readArchive(startDate, endDate.isBefore(archiveEnd) ? endDate : archiveEnd,
+                    dto -> dto.getEmployeeId().equals(employeeId));
+            tableStart = archiveEnd.plusDays(1);
+        }
+        if (!tableStart.isAfter(endDate)) {
+            result.addAll(attendanceRepository.findByEmployeeIdAndDateRange(employeeId, tableStart, endDate).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList()));
+        }
+        return result;
+    }
+
     public List<AttendanceDTO> getAttendanceByDate(LocalDate date) {
+        YearMonth archivedThrough = partitionService.getArchivedThrough();
+        if (archivedThrough != null && !YearMonth.from(date).isAfter(archivedThrough)) {
+            return readArchive(date, date, dto -> true);
+        }
         return attendanceRepository.findByAttendanceDate(date).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -91,6 +142,8 @@ public class AttendanceService {
         }
 
         Attendance savedAttendance = attendanceRepository.save(attendance);
+        anomalyDetector.onAttendance(savedAttendance);
+        retroPayTracker.inputsChanged(employee.getId(), savedAttendance.getAttendanceDate(), null, RetroPayTracker.ATTENDANCE);
         return convertToDTO(savedAttendance);
     }
 
@@ -98,6 +151,7 @@ public class AttendanceService {
         Attendance attendance = attendanceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Attendance not found with id: " + id));
 
+        LocalDate previousDate = attendance.getAttendanceDate();
         updateAttendanceFromDTO(attendance, attendanceDTO);
         
         // Recalculate working hours
@@ -106,32 +160,43 @@ public class AttendanceService {
         }
 
         Attendance updatedAttendance = attendanceRepository.save(attendance);
+        anomalyDetector.onAttendance(updatedAttendance);
+        Long employeeId = updatedAttendance.getEmployee().getId();
+        retroPayTracker.inputsChanged(employeeId, previousDate, null, RetroPayTracker.ATTENDANCE);
+        if (!previousDate.equals(updatedAttendance.getAttendanceDate())) {
+            retroPayTracker.inputsChanged(employeeId, updatedAttendance.getAttendanceDate(), null, RetroPayTracker.ATTENDANCE);
+        }
         return convertToDTO(updatedAttendance);
     }
 
+    /**
+     * Checks out in a single conditional UPDATE that computes the hours in the database, so
+     * concurrent check-outs cannot overwrite each other. MySQL cannot return the updated row, so it
+     * is then read back once: to return it, or to tell the caller why nothing was updated. For
+     * shifts that cross midnight {@code date} is the day the shift started.
+     */
     public AttendanceDTO checkOut(Long employeeId, LocalDate date) {
-        Employee employee = employeeRepository.findById(employeeId)
-                .orElseThrow(() -> new RuntimeException("Employee not found with id: " + employeeId));
-
-        Attendance attendance = attendanceRepository.findByEmployeeAndAttendanceDate(employee, date)
+        int updated = attendanceRepository.checkOut(employeeId, date, LocalTime.now(), shiftService.getDefaultStandardHours());
+        Attendance attendance = attendanceRepository.findWithEmployee(employeeId, date)
                 .orElseThrow(() -> new RuntimeException("No check-in record found for this date"));
-
-        if (attendance.getCheckOutTime() != null) {
-            throw new RuntimeException("Already checked out for this date");
+        if (updated == 0) {
+            if (attendance.getCheckOutTime() != null) {
+                throw new RuntimeException("Already checked out for this date");
+            }
+            throw new RuntimeException("No check-in time recorded for this date");
         }
 
-        attendance.setCheckOutTime(LocalTime.now());
-        calculateWorkingHours(attendance);
-
-        Attendance updatedAttendance = attendanceRepository.save(attendance);
-        return convertToDTO(updatedAttendance);
+        anomalyDetector.onAttendance(attendance);
+        retroPayTracker.inputsChanged(employeeId, date, null, RetroPayTracker.ATTENDANCE);
+        return convertToDTO(attendance);
     }
 
     public void deleteAttendance(Long id) {
-        if (!attendanceRepository.existsById(id)) {
-            throw new RuntimeException("Attendance not found with id: " + id);
-        }
-        attendanceRepository.deleteById(id);
+        Attendance attendance = attendanceRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Attendance not found with id: " + id));
+        attendanceRepository.delete(attendance);
+        retroPayTracker.inputsChanged(attendance.getEmployee().getId(), attendance.getAttendanceDate(), null,
+                RetroPayTracker.ATTENDANCE);
     }
 
     public Long getAttendanceCountByDateAndStatus(LocalDate date, AttendanceStatus status) {
@@ -142,18 +207,43 @@ public class AttendanceService {
         return attendanceRepository.getAttendanceStatsByDate(date);
     }
 
+    private List<AttendanceDTO> readArchive(LocalDate startDate, LocalDate endDate, Predicate<AttendanceDTO> filter) {
+        List<AttendanceDTO> result = new ArrayList<>();
+        YearMonth last = YearMonth.from(endDate);
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(last); month = month.plusMonths(1)) {
+            if (!archiveStore.isArchived(month)) {
+                continue;
+            }
+            try {
+                result.addAll(archiveStore.read(month, dto -> !dto.getAttendanceDate().isBefore(startDate)
+                        && !dto.getAttendanceDate().isAfter(endDate) && filter.test(dto)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read attendance archive for " + month, e);
+            }
+        }
+        if (result.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, Employee> employees = employeeRepository.findAllById(result.stream()
+                        .map(AttendanceDTO::getEmployeeId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        for (AttendanceDTO dto : result) {
+            Employee employee = employees.get(dto.getEmployeeId());
+            if (employee != null) {
+                dto.setEmployeeName(employee.getFullName());
+                dto.setEmployeeId_str(employee.getEmployeeId());
+            }
+        }
+        return result;
+    }
+
     private void calculateWorkingHours(Attendance attendance) {
         if (attendance.getCheckInTime() != null && attendance.getCheckOutTime() != null) {
-            Duration duration = Duration.between(attendance.getCheckInTime(), attendance.getCheckOutTime());
-            double hours = duration.toMinutes() / 60.0;
+            double hours = ShiftService.calculateWorkingHours(attendance.getCheckInTime(), attendance.getCheckOutTime());
             attendance.setWorkingHours(hours);
-
-            // Calculate overtime (assuming 8 hours is standard)
-            if (hours > 8) {
-                attendance.setOvertimeHours(hours - 8);
-            } else {
-                attendance.setOvertimeHours(0.0);
-            }
+            attendance.setOvertimeHours(shiftService.calculateOvertimeHours(hours, attendance.getEmployee().getShiftId()));
         }
     }
 
@@ -0,0 +1,138 @@
+package com.hrms.service;
+
+import com.hrms.model.JobCheckpoint;
+import com.hrms.repository.AttendanceRepository;
+import com.hrms.repository.EmployeeRepository;
+import com.hrms.repository.JobCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * End-of-day job that marks every active employee without an attendance record, approved leave or
+ * regional public holiday as ABSENT. The work is done by one set-based INSERT ... SELECT per
+ * employee id chunk, and the last completed date is checkpointed so days missed during downtime
+ * are caught up on the next run.
+ * <p>
+ * The unique key on employee and date keeps the job and a concurrent check-in from both writing a
+ * record for the same day.
+ */
+@Service
+public class AutoAbsenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(AutoAbsenceService.class);
+
+    private static final String JOB_NAME = "auto-absence";
+    private static final String NOTES = "Auto-marked absent";
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private HolidayCalendarService holidayCalendarService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${hrms.attendance.auto-absence.chunk-size:10000}")
+    private long chunkSize;
+
+    @Value("${hrms.attendance.auto-absence.max-catch-up-days:31}")
+    private int maxCatchUpDays;
+
+    @Value("${hrms.attendance.auto-absence.skip-weekends:true}")
+    private boolean skipWeekends;
+
+    /**
+     * Hibernate's schema update cannot add the unique key while a table holds duplicate records
+     * for an employee and date, and only logs the failure. Duplicates are removed here first,
+     * keeping the record with a check-in, otherwise the earliest, and the key is added.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureUniqueEmployeeDate() {
+        try {
+            Integer keys = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'attendance' AND INDEX_NAME = 'uk_attendance_employee_date'",
+                    Integer.class);
+            if (keys != null && keys > 0) {
+                return;
+            }
+            int removed = jdbcTemplate.update(
+                    "DELETE a FROM attendance a JOIN attendance b " +
+                    "ON b.employee_id = a.employee_id AND b.attendance_date = a.attendance_date AND b.id <> a.id " +
+                    "WHERE (b.check_in_time IS NOT NULL AND a.check_in_time IS NULL) " +
+                    "OR ((b.check_in_time IS NULL) = (a.check_in_time IS NULL) AND b.id < a.id)");
+            jdbcTemplate.execute("ALTER TABLE attendance ADD CONSTRAINT uk_attendance_employee_date " +
+                    "UNIQUE (employee_id, attendance_date)");
+            log.info("Removed {} duplicate attendance records and added uk_attendance_employee_date", removed);
+        } catch (RuntimeException e) {
+            log.warn("Could not add uk_attendance_employee_date to attendance", e);
+        }
+    }
+
+    @Scheduled(cron = "${hrms.attendance.auto-absence.cron:0 55 23 * * *}")
+    public void runScheduled() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = checkpointRepository.findById(JOB_NAME)
+                .map(checkpoint -> LocalDate.parse(checkpoint.getCheckpoint()).plusDays(1))
+                .orElse(today);
+        if (from.isBefore(today.minusDays(maxCatchUpDays))) {
+            from = today.minusDays(maxCatchUpDays);
+        }
+
+        for (LocalDate date = from; !date.isAfter(today); date = date.plusDays(1)) {
+            markAbsent(date);
+            checkpointRepository.save(new JobCheckpoint(JOB_NAME, date.toString()));
+        }
+    }
+
+    /**
+     * Marks absences for a single date. Re-running for a date that was already processed inserts
+     * nothing.
+     *
+     * @return number of ABSENT rows inserted
+     */
+    public int markAbsent(LocalDate date) {
+        if (skipWeekends && holidayCalendarService.isWeekend(date)) {
+            return 0;
+        }
+        Set<String> holidayRegions = holidayCalendarService.getRegionsWithHolidayOn(date);
+        if (holidayRegions.isEmpty()) {
+            // NOT IN () is not valid SQL
+            holidayRegions = Set.of("");
+        }
+
+        List<Object[]> range = employeeRepository.getIdRange();
+        if (range.isEmpty() || range.get(0)[0] == null) {
+            return 0;
+        }
+        long minId = ((Number) range.get(0)[0]).longValue();
+        long maxId = ((Number) range.get(0)[1]).longValue();
+
+        int inserted = 0;
+        for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+            // Each chunk commits on its own so locks on attendance are held only briefly
+            inserted += attendanceRepository.insertAbsentForMissingEmployees(date, fromId, fromId + chunkSize - 1,
+                    holidayCalendarService.getDefaultRegion(), holidayRegions, NOTES);
+        }
+        log.info("Auto-marked {} employees absent for {}", inserted, date);
+        return inserted;
+    }
+}
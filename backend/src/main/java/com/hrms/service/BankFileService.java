@@ -0,0 +1,344 @@
+package com.hrms.service;
+
+import com.hrms.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bank disbursement files that pay a period's net salaries.
+ * <p>
+ * The control totals (record count and amount) are computed first and written in the header, then
+ * the payroll rows are streamed from a server-side cursor straight into a fixed-size buffer that is
+ * drained to a file, so memory stays constant however many employees are paid. A file is only
+ * handed out once its rows have been checked against the control totals. Both reads run in
+ * one read-only transaction and therefore see the same snapshot; the trailer repeats the totals as
+ * counted while writing.
+ * <p>
+ * Only rows with a positive net pay whose employee has bank details are paid, from hand-entered
+ * records and completed payroll runs, as on the dashboard. Rows skipped for missing bank details
+ * are counted in the totals and logged so they can be paid another way.
+ * <p>
+ * In the fixed-width format every record is {@value #RECORD_WIDTH} characters. Header: "H",
+ * originator id (10), originator name (30), period (7), value date yyyyMMdd (8), record count (10),
+ * total in minor units (18), currency (3). Detail: "D", sequence (10), bank code (11), account
+ * number (34), amount in minor units (15), payroll id (12), employee name (35). Trailer: "T",
+ * record count (10), total in minor units (18). Text is left-aligned and space-padded, numbers are
+ * zero-padded, and characters outside ASCII are written as '?'. The CSV format has the same fields.
+ */
+@Service
+public class BankFileService {
+
+    private static final Logger log = LoggerFactory.getLogger(BankFileService.class);
+
+    public enum Format { FIXED, CSV }
+
+    static final int RECORD_WIDTH = 120;
+
+    private static final String PAID_ROWS =
+            "FROM payroll p JOIN employees e ON e.id = p.employee_id LEFT JOIN payroll_runs r ON r.id = p.run_id " +
+            "WHERE p.date BETWEEN ? AND ? AND (p.run_id IS NULL OR r.status = 'COMPLETED') AND p.net_pay > 0";
+
+    private static final String HAS_BANK_DETAILS = "e.bank_account_number IS NOT NULL AND e.bank_account_number <> ''";
+
+    private static final DateTimeFormatter VALUE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${hrms.payroll.bank-files.dir:data/bank-files}")
+    private String dir;
+
+    @Value("${hrms.payroll.bank-files.originator-id:HRMS}")
+    private String originatorId;
+
+    @Value("${hrms.payroll.bank-files.originator-name:HRMS Payroll}")
+    private String originatorName;
+
+    @Value("${hrms.payroll.bank-files.currency:USD}")
+    private String currency;
+
+    @Value("${hrms.payroll.bank-files.buffer-size:65536}")
+    private int bufferSize;
+
+    /**
+     * Writes the period's file to the bank files directory, replacing any earlier one once it is
+     * complete, and returns its totals.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> export(YearMonth period, Format format) {
+        Path directory = Path.of(dir);
+        Path file = directory.resolve(fileName(period, format));
+        Path part = null;
+        try {
+            Files.createDirectories(directory);
+            part = Files.createTempFile(directory, "bank-" + period, ".part");
+            Map<String, Object> totals = writeTo(part, period, format);
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            part = null;
+            totals.put("file", file.toString());
+            log.info("Wrote bank file {} with {} payments", file, totals.get("recordCount"));
+            return totals;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(part);
+        }
+    }
+
+    /**
+     * Writes the period's file to a temporary file, which the caller deletes once it has been sent.
+     * The bank files directory is left untouched.
+     */
+    @Transactional(readOnly = true)
+    public Path writeTemporary(YearMonth period, Format format) {
+        Path part = null;
+        try {
+            part = Files.createTempFile("bank-" + period, format == Format.CSV ? ".csv" : ".txt");
+            writeTo(part, period, format);
+            Path file = part;
+            part = null;
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(part);
+        }
+    }
+
+    public void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private Map<String, Object> writeTo(Path file, YearMonth period, Format format) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return write(period, format, channel);
+        }
+    }
+
+    /**
+     * Streams the period's file to the channel, which the caller closes, and returns its totals. The
+     * control totals are only checked at the end, so the channel should not reach the bank until
+     * this returns.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> write(YearMonth period, Format format, WritableByteChannel channel) {
+        Date from = Date.valueOf(period.atDay(1));
+        Date to = Date.valueOf(period.atEndOfMonth());
+        Map<String, Object> control = jdbcTemplate.queryForMap(
+                "SELECT COALESCE(SUM(CASE WHEN " + HAS_BANK_DETAILS + " THEN 1 ELSE 0 END), 0) AS record_count, " +
+                "COALESCE(SUM(CASE WHEN " + HAS_BANK_DETAILS + " THEN p.net_pay ELSE 0 END), 0) AS total, " +
+                "COALESCE(SUM(CASE WHEN " + HAS_BANK_DETAILS + " THEN 0 ELSE 1 END), 0) AS skipped_count, " +
+                "COALESCE(SUM(CASE WHEN " + HAS_BANK_DETAILS + " THEN 0 ELSE p.net_pay END), 0) AS skipped_total " +
+                PAID_ROWS, from, to);
+        long recordCount = ((Number) control.get("record_count")).longValue();
+        long total = toMinor(control.get("total"));
+        long skippedCount = ((Number) control.get("skipped_count")).longValue();
+        long skippedTotal = toMinor(control.get("skipped_total"));
+        if (skippedCount > 0) {
+            log.warn("Bank file for {} leaves out {} payments totalling {} for employees without bank details",
+                    period, skippedCount, Money.ofMinor(skippedTotal));
+        }
+
+        RecordWriter out = new RecordWriter(channel, ByteBuffer.allocate(bufferSize), format);
+        LocalDate valueDate = period.atEndOfMonth();
+        out.begin('H');
+        out.text(originatorId, 10);
+        out.text(originatorName, 30);
+        out.text(period.toString(), 7);
+        out.text(valueDate.format(VALUE_DATE), 8);
+        out.number(recordCount, 10);
+        out.number(total, 18);
+        out.text(currency, 3);
+        out.end();
+
+        long[] written = new long[2];
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(
+                    "SELECT p.id, p.employee_name, p.net_pay, e.bank_code, e.bank_account_number " + PAID_ROWS +
+                    " AND " + HAS_BANK_DETAILS + " ORDER BY p.id");
+            // Stream rows instead of buffering the whole period in the driver
+            statement.setFetchSize(Integer.MIN_VALUE);
+            statement.setDate(1, from);
+            statement.setDate(2, to);
+            return statement;
+        }, rs -> {
+            long amount = toMinor(rs.getBigDecimal("net_pay"));
+            written[0]++;
+            written[1] += amount;
+            try {
+                out.begin('D');
+                out.number(written[0], 10);
+                out.text(rs.getString("bank_code"), 11);
+                out.text(rs.getString("bank_account_number"), 34);
+                out.number(amount, 15);
+                out.number(rs.getLong("id"), 12);
+                out.text(rs.getString("employee_name"), 35);
+                out.end();
+            } catch (UncheckedIOException e) {
+                throw new SQLException("Failed to write bank file for " + period, e.getCause());
+            }
+        });
+
+        out.begin('T');
+        out.number(written[0], 10);
+        out.number(written[1], 18);
+        out.end();
+        out.flush();
+        if (written[0] != recordCount || written[1] != total) {
+            throw new IllegalStateException("Bank file for " + period + " does not match its control totals");
+        }
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("period", period.toString());
+        totals.put("format", format.name());
+        totals.put("recordCount", recordCount);
+        totals.put("totalAmount", Money.ofMinor(total));
+        totals.put("currency", currency);
+        totals.put("skippedCount", skippedCount);
+        totals.put("skippedAmount", Money.ofMinor(skippedTotal));
+        return totals;
+    }
+
+    public Path getFile(YearMonth period, Format format) {
+        Path file = Path.of(dir).resolve(fileName(period, format));
+        return Files.exists(file) ? file : null;
+    }
+
+    public String fileName(YearMonth period, Format format) {
+        return String.format("bank-%04d-%02d.%s", period.getYear(), period.getMonthValue(), format == Format.CSV ? "csv" : "txt");
+    }
+
+    private static long toMinor(Object amount) {
+        return Money.toMinor(amount instanceof BigDecimal decimal ? decimal : new BigDecimal(amount.toString()));
+    }
+
+    /**
+     * Encodes records into a reused buffer, draining it to the channel whenever a record might not
+     * fit. Nothing is allocated per field.
+     */
+    static final class RecordWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final Format format;
+        private int recordStart;
+
+        RecordWriter(WritableByteChannel channel, ByteBuffer buffer, Format format) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.format = format;
+        }
+
+        void begin(char type) {
+            // A CSV record can be up to twice as long when every character of a name is a quote
+            if (buffer.remaining() < RECORD_WIDTH * 2 + 1) {
+                flush();
+            }
+            recordStart = buffer.position();
+            buffer.put((byte) type);
+        }
+
+        void text(String value, int width) {
+            if (format == Format.CSV) {
+                separator();
+                buffer.put((byte) '"');
+                for (int i = 0, n = value != null ? Math.min(value.length(), width) : 0; i < n; i++) {
+                    byte b = ascii(value.charAt(i));
+                    if (b == '"') {
+                        buffer.put(b);
+                    }
+                    buffer.put(b);
+                }
+                buffer.put((byte) '"');
+                return;
+            }
+            int length = value != null ? Math.min(value.length(), width) : 0;
+            for (int i = 0; i < length; i++) {
+                buffer.put(ascii(value.charAt(i)));
+            }
+            for (int i = length; i < width; i++) {
+                buffer.put((byte) ' ');
+            }
+        }
+
+        void number(long value, int width) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Negative value in bank file: " + value);
+            }
+            if (format == Format.CSV) {
+                separator();
+                width = 1;
+                for (long rest = value / 10; rest > 0; rest /= 10) {
+                    width++;
+                }
+            }
+            int end = buffer.position() + width;
+            for (int i = end - 1; i >= end - width; i--) {
+                buffer.put(i, (byte) ('0' + value % 10));
+                value /= 10;
+            }
+            if (value != 0) {
+                throw new IllegalArgumentException("Value too large for a " + width + "-digit bank file field");
+            }
+            buffer.position(end);
+        }
+
+        void end() {
+            if (format == Format.FIXED) {
+                while (buffer.position() - recordStart < RECORD_WIDTH) {
+                    buffer.put((byte) ' ');
+                }
+            }
+            buffer.put((byte) '\n');
+        }
+
+        void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+
+        // The record type is always the first field
+        private void separator() {
+            buffer.put((byte) ',');
+        }
+
+        private static byte ascii(char c) {
+            return c >= 32 && c < 127 ? (byte) c : (byte) '?';
+        }
+    }
+}
@@ -1,10 +1,124 @@
 package com.hrms.service;
 
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mail transport used by {@link NotificationDispatcher}. Application code should enqueue through
+ * {@link NotificationService} instead of calling this directly.
+ * <p>
+ * When no SMTP server is configured ({@code spring.mail.host} unset) messages are written to the
+ * log instead, which stands in for a mail server in local development.
+ */
 @Service
 public class EmailService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
+    @Autowired
+    private ObjectProvider<JavaMailSender> mailSender;
+
+    @Value("${hrms.notifications.from:hrms@hrms.local}")
+    private String from;
+
     public void send(String to, String subject, String body) {
-        System.out.printf("Sending email to %s: %s - %s%n", to, subject, body);
+        Map<Message, String> failures = sendBatch(List.of(new Message(to, subject, body)));
+        if (!failures.isEmpty()) {
+            throw new RuntimeException("Failed to send email to " + to + ": " + failures.values().iterator().next());
+        }
+    }
+
+    /**
+     * Sends the messages over a single SMTP connection. A message the server or the address parser
+     * rejects fails on its own; the rest are still sent.
+     *
+     * @return the messages that could not be sent, with the reason
+     */
+    public Map<Message, String> sendBatch(List<Message> messages) {
+        Map<Message, String> failures = new HashMap<>();
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (sender == null) {
+            for (Message message : messages) {
+                log.info("Sending email to {}: {} - {}", message.getTo(), message.getSubject(), message.getBody());
+            }
+            return failures;
+        }
+
+        // Converted one by one so an address that does not parse fails only its own message
+        Map<MimeMessage, Message> byMimeMessage = new IdentityHashMap<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            SimpleMailMessage mailMessage = new SimpleMailMessage();
+            mailMessage.setFrom(from);
+            mailMessage.setTo(message.getTo());
+            mailMessage.setSubject(message.getSubject());
+            mailMessage.setText(message.getBody());
+            MimeMessage mimeMessage = sender.createMimeMessage();
+            try {
+                mailMessage.copyTo(new MimeMailMessage(mimeMessage));
+            } catch (MailParseException e) {
+                failures.put(message, e.getMessage());
+                continue;
+            }
+            mimeMessages.add(mimeMessage);
+            byMimeMessage.put(mimeMessage, message);
+        }
+        if (mimeMessages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            sender.send(mimeMessages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                byMimeMessage.values().forEach(message -> failures.put(message, e.getMessage()));
+            }
+            e.getFailedMessages().forEach((failed, cause) -> {
+                Message message = byMimeMessage.get(failed);
+                if (message != null) {
+                    failures.put(message, cause.getMessage());
+                }
+            });
+        } catch (MailException e) {
+            byMimeMessage.values().forEach(message -> failures.put(message, e.getMessage()));
+        }
+        return failures;
+    }
+
+    public static final class Message {
+        private final String to;
+        private final String subject;
+        private final String body;
+
+        public Message(String to, String subject, String body) {
+            this.to = to;
+            this.subject = subject;
+            this.body = body;
+        }
+
+        public String getTo() { return to; }
+        public String getSubject() { return subject; }
+        public String getBody() { return body; }
     }
 }
@@ -3,14 +3,18 @@ package com.hrms.service;
 import com.hrms.dto.EmployeeDTO;
 import com.hrms.model.Employee;
 import com.hrms.model.EmployeeStatus;
+import com.hrms.model.Money;
 import com.hrms.repository.EmployeeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -21,6 +25,23 @@ public class EmployeeService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private LeaveCalendarIndex leaveCalendarIndex;
+
+    @Autowired
+    private LeaveAnalyticsCube leaveAnalyticsCube;
+
+    @Autowired
+    private AbsenceCapacityService absenceCapacityService;
+
+    @Autowired
+    private RetroPayTracker retroPayTracker;
+
+    // Paid periods a salary change is treated as correcting, counting back from the current month.
+    // Off by default: salaries have no effective date, so an ordinary raise must not be backdated
+    @Value("${hrms.payroll.retro.salary-correction-months:0}")
+    private int salaryCorrectionMonths;
+
     public List<EmployeeDTO> getAllEmployees() {
         return employeeRepository.findAll().stream()
                 .map(this::convertToDTO)
@@ -60,6 +81,7 @@ public class EmployeeService {
         Employee employee = convertToEntity(employeeDTO);
         employee.setStatus(EmployeeStatus.ACTIVE);
         Employee savedEmployee = employeeRepository.save(employee);
+        absenceCapacityService.refreshHeadcount();
         return convertToDTO(savedEmployee);
     }
 
@@ -99,8 +121,25 @@ public class EmployeeService {
             throw new RuntimeException("Email already exists: " + employeeDTO.getEmail());
         }
 
+        String previousName = employee.getFullName();
+        String previousDepartment = employee.getDepartment();
+        EmployeeStatus previousStatus = employee.getStatus();
+        Money previousSalary = employee.getSalary();
+
         updateEmployeeFromDTO(employee, employeeDTO);
         Employee updatedEmployee = employeeRepository.save(employee);
+        if (!previousName.equals(updatedEmployee.getFullName()) || !previousDepartment.equals(updatedEmployee.getDepartment())) {
+            leaveCalendarIndex.employeeChanged(updatedEmployee);
+            leaveAnalyticsCube.departmentChanged(updatedEmployee.getId(), previousDepartment, updatedEmployee.getDepartment());
+        }
+        if (!previousDepartment.equals(updatedEmployee.getDepartment()) || previousStatus != updatedEmployee.getStatus()) {
+            absenceCapacityService.refreshHeadcount();
+        }
+        if (salaryCorrectionMonths > 0 && !Objects.equals(previousSalary, updatedEmployee.getSalary())) {
+            LocalDate today = LocalDate.now();
+            retroPayTracker.inputsChanged(updatedEmployee.getId(), today.minusMonths(salaryCorrectionMonths).withDayOfMonth(1),
+                    today, RetroPayTracker.SALARY);
+        }
         return convertToDTO(updatedEmployee);
     }
 
@@ -111,6 +150,7 @@ public class EmployeeService {
         // Soft delete by changing status
         employee.setStatus(EmployeeStatus.TERMINATED);
         employeeRepository.save(employee);
+        absenceCapacityService.refreshHeadcount();
     }
 
     public Page<EmployeeDTO> searchEmployees(String searchTerm, Pageable pageable) {
@@ -154,6 +194,10 @@ public class EmployeeService {
         dto.setStatus(employee.getStatus());
         dto.setSalary(employee.getSalary());
         dto.setAddress(employee.getAddress());
+        dto.setShiftId(employee.getShiftId());
+        dto.setRegion(employee.getRegion());
+        dto.setBankCode(employee.getBankCode());
+        dto.setBankAccountNumber(employee.getBankAccountNumber());
         dto.setCreatedAt(employee.getCreatedAt());
         dto.setUpdatedAt(employee.getUpdatedAt());
         return dto;
@@ -180,5 +224,9 @@ public class EmployeeService {
         }
         employee.setSalary(dto.getSalary());
         employee.setAddress(dto.getAddress());
+        employee.setShiftId(dto.getShiftId());
+        employee.setRegion(dto.getRegion());
+        employee.setBankCode(dto.getBankCode());
+        employee.setBankAccountNumber(dto.getBankAccountNumber());
     }
 }
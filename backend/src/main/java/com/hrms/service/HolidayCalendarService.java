@@ -0,0 +1,225 @@
+package com.hrms.service;
+
+import com.hrms.model.Employee;
+import com.hrms.model.Holiday;
+import com.hrms.repository.HolidayRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.hrms.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Working-day calendar per region: configured weekend days plus the region's public holidays.
+ * <p>
+ * Each region keeps, per year, a prefix array where entry {@code i} is the number of working days
+ * from 1 January up to day-of-year {@code i}, so counting working days between two dates is two
+ * array lookups per year spanned. The arrays live in an immutable snapshot that is rebuilt and
+ * swapped whenever holidays change, so readers never wait on an upload.
+ * <p>
+ * Employees without a region use {@code hrms.calendar.default-region}.
+ */
+@Service
+@Transactional
+public class HolidayCalendarService {
+
+    @Autowired
+    private HolidayRepository holidayRepository;
+
+    @Value("${hrms.calendar.default-region:DEFAULT}")
+    private String defaultRegion;
+
+    @Value("${hrms.calendar.weekend-days:SATURDAY,SUNDAY}")
+    private String weekendDaysConfig;
+
+    @Value("${hrms.calendar.precomputed-years:2}")
+    private int precomputedYears;
+
+    private Set<DayOfWeek> weekendDays;
+    private volatile Map<String, RegionCalendar> regions = Map.of();
+    private volatile RegionCalendar weekendsOnly;
+
+    @PostConstruct
+    public synchronized void reload() {
+        weekendDays = Arrays.stream(weekendDaysConfig.split(","))
+                .map(String::trim)
+                .filter(day -> !day.isEmpty())
+                .map(DayOfWeek::valueOf)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(DayOfWeek.class)));
+        weekendsOnly = build(Set.of());
+
+        Map<String, Set<LocalDate>> holidaysByRegion = holidayRepository.findAll().stream()
+                .collect(Collectors.groupingBy(Holiday::getRegion,
+                        Collectors.mapping(Holiday::getHolidayDate, Collectors.toSet())));
+        Map<String, RegionCalendar> rebuilt = new HashMap<>();
+        holidaysByRegion.forEach((region, dates) -> rebuilt.put(region, build(dates)));
+        regions = Collections.unmodifiableMap(rebuilt);
+    }
+
+    public String getDefaultRegion() {
+        return defaultRegion;
+    }
+
+    public String regionOf(Employee employee) {
+        return employee.getRegion() != null ? employee.getRegion() : defaultRegion;
+    }
+
+    public boolean isWorkingDay(String region, LocalDate date) {
+        return calendar(region).isWorkingDay(date);
+    }
+
+    /**
+     * Working days from {@code startDate} to {@code endDate}, both inclusive.
+     */
+    public int countWorkingDays(String region, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+        RegionCalendar calendar = calendar(region);
+        int total = 0;
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            int[] prefix = calendar.prefix(year);
+            int from = year == startDate.getYear() ? startDate.getDayOfYear() : 1;
+            int to = year == endDate.getYear() ? endDate.getDayOfYear() : prefix.length - 1;
+            total += prefix[to] - prefix[from - 1];
+        }
+        return total;
+    }
+
+    /**
+     * Regions that have a public holiday on the date.
+     */
+    public Set<String> getRegionsWithHolidayOn(LocalDate date) {
+        Set<String> result = new HashSet<>();
+        regions.forEach((region, calendar) -> {
+            if (calendar.holidays.contains(date)) {
+                result.add(region);
+            }
+        });
+        return result;
+    }
+
+    public boolean isWeekend(LocalDate date) {
+        return weekendDays.contains(date.getDayOfWeek());
+    }
+
+    public List<Holiday> getHolidays(String region, int year) {
+        return holidayRepository.findByRegionAndDateRange(region, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+    }
+
+    /**
+     * Replaces all of a region's holidays for the year and swaps in the rebuilt calendar once the
+     * transaction commits.
+     */
+    public List<Holiday> replaceHolidays(String region, int year, List<Holiday> holidays) {
+        LocalDate startDate = LocalDate.of(year, 1, 1);
+        LocalDate endDate = LocalDate.of(year, 12, 31);
+        Set<LocalDate> seen = new HashSet<>();
+        List<Holiday> toSave = new ArrayList<>();
+        for (Holiday holiday : holidays) {
+            if (holiday.getHolidayDate() == null || holiday.getHolidayDate().getYear() != year) {
+                throw new RuntimeException("Holiday date must be in " + year + ": " + holiday.getHolidayDate());
+            }
+            if (seen.add(holiday.getHolidayDate())) {
+                toSave.add(new Holiday(region, holiday.getHolidayDate(), holiday.getName()));
+            }
+        }
+
+        holidayRepository.deleteByRegionAndDateRange(region, startDate, endDate);
+        holidayRepository.flush();
+        List<Holiday> saved = holidayRepository.saveAll(toSave);
+        holidayRepository.flush();
+        reloadRegion(region);
+        return saved;
+    }
+
+    public Holiday addHoliday(Holiday holiday) {
+        if (!holidayRepository.findByRegionAndDateRange(holiday.getRegion(), holiday.getHolidayDate(), holiday.getHolidayDate()).isEmpty()) {
+            throw new RuntimeException("Holiday already exists for " + holiday.getRegion() + " on " + holiday.getHolidayDate());
+        }
+        holiday.setId(null);
+        Holiday saved = holidayRepository.saveAndFlush(holiday);
+        reloadRegion(saved.getRegion());
+        return saved;
+    }
+
+    public void deleteHoliday(Long id) {
+        Holiday holiday = holidayRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Holiday not found with id: " + id));
+        holidayRepository.delete(holiday);
+        holidayRepository.flush();
+        reloadRegion(holiday.getRegion());
+    }
+
+    // Builds the region's calendar from the holidays as this transaction sees them and swaps it in
+    // once the transaction commits, so a rollback never shows up in the calendar
+    private void reloadRegion(String region) {
+        Set<LocalDate> dates = holidayRepository.findByRegion(region).stream()
+                .map(Holiday::getHolidayDate)
+                .collect(Collectors.toSet());
+        RegionCalendar calendar = dates.isEmpty() ? null : build(dates);
+        afterCommit(() -> swapRegion(region, calendar));
+    }
+
+    private synchronized void swapRegion(String region, RegionCalendar calendar) {
+        Map<String, RegionCalendar> rebuilt = new HashMap<>(regions);
+        if (calendar == null) {
+            rebuilt.remove(region);
+        } else {
+            rebuilt.put(region, calendar);
+        }
+        regions = Collections.unmodifiableMap(rebuilt);
+    }
+
+    private RegionCalendar calendar(String region) {
+        RegionCalendar calendar = regions.get(region != null ? region : defaultRegion);
+        return calendar != null ? calendar : weekendsOnly;
+    }
+
+    // Precomputes the years around now plus every year that has a holiday
+    private RegionCalendar build(Set<LocalDate> holidays) {
+        RegionCalendar calendar = new RegionCalendar(Set.copyOf(holidays), weekendDays);
+        int currentYear = LocalDate.now().getYear();
+        for (int year = currentYear - precomputedYears; year <= currentYear + precomputedYears; year++) {
+            calendar.prefix(year);
+        }
+        holidays.forEach(date -> calendar.prefix(date.getYear()));
+        return calendar;
+    }
+
+    private static final class RegionCalendar {
+        private final Set<LocalDate> holidays;
+        private final Set<DayOfWeek> weekendDays;
+        // Derived from the immutable fields above, so years outside the precomputed range can be
+        // filled in lazily without affecting readers
+        private final Map<Integer, int[]> prefixByYear = new ConcurrentHashMap<>();
+
+        RegionCalendar(Set<LocalDate> holidays, Set<DayOfWeek> weekendDays) {
+            this.holidays = holidays;
+            this.weekendDays = weekendDays;
+        }
+
+        boolean isWorkingDay(LocalDate date) {
+            return !weekendDays.contains(date.getDayOfWeek()) && !holidays.contains(date);
+        }
+
+        int[] prefix(int year) {
+            return prefixByYear.computeIfAbsent(year, y -> {
+                LocalDate date = LocalDate.of(y, 1, 1);
+                int[] prefix = new int[date.lengthOfYear() + 1];
+                for (int day = 1; day < prefix.length; day++, date = date.plusDays(1)) {
+                    prefix[day] = prefix[day - 1] + (isWorkingDay(date) ? 1 : 0);
+                }
+                return prefix;
+            });
+        }
+    }
+}
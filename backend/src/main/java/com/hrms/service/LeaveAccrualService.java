@@ -0,0 +1,446 @@
+package com.hrms.service;
+
+import com.hrms.model.JobCheckpoint;
+import com.hrms.model.LeaveType;
+import com.hrms.repository.JobCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Monthly leave accrual. For every leave type under {@code hrms.leave.accrual.types}, each active
+ * employee is credited a twelfth of the annual days for their tenure, prorated in the month they
+ * were hired.
+ * <p>
+ * A run splits the employee id range on a bounded fork-join pool down to chunks of
+ * {@code chunk-size} ids. Each chunk is one transaction that reads its active employees and the
+ * credits already recorded for the period, then writes the missing credits, balance increments and
+ * ledger entries as batched statements. Because a credit is only written once per employee, leave
+ * type and period, a run that crashed or was stopped can simply be started again.
+ * <p>
+ * A type that starts accruing was granted up front until then. Balances that still hold an up-front
+ * entitlement are not credited, so the current year is not granted twice. With
+ * {@code migrate-balances} on, the first start instead gives those entitlements back with an
+ * offsetting ledger entry and accrues the months of the year that have already passed, then
+ * reports the balances left below zero by leave already taken.
+ */
+@Service
+public class LeaveAccrualService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveAccrualService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Value("${hrms.leave.accrual.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hrms.leave.accrual.parallelism:4}")
+    private int parallelism;
+
+    @Value("${hrms.leave.accrual.chunk-size:1000}")
+    private long chunkSize;
+
+    @Value("${hrms.leave.accrual.migrate-balances:false}")
+    private boolean migrateBalances;
+
+    // Annual days by completed years of service, per accruing leave type
+    private Map<LeaveType, NavigableMap<Integer, Double>> rates = Map.of();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean stopRequested = new AtomicBoolean();
+
+    private final AtomicLong scannedEmployees = new AtomicLong();
+    private final AtomicLong creditsWritten = new AtomicLong();
+    private final AtomicLong creditsSkipped = new AtomicLong();
+    private final AtomicLong completedChunks = new AtomicLong();
+    private final DoubleAdder daysCredited = new DoubleAdder();
+    private volatile YearMonth firstPeriod;
+    private volatile YearMonth period;
+    private volatile YearMonth lastPeriod;
+    private volatile long firstId;
+    private volatile long lastId;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    // Year of the balances to report on once the migration's catch-up run finishes
+    private volatile Integer migratedYear;
+    private volatile Long negativeBalances;
+
+    @PostConstruct
+    public void loadRates() {
+        Map<LeaveType, NavigableMap<Integer, Double>> loaded = new EnumMap<>(LeaveType.class);
+        for (LeaveType leaveType : LeaveType.values()) {
+            String tiers = environment.getProperty("hrms.leave.accrual.types." + leaveType.name());
+            if (tiers == null || tiers.isBlank()) {
+                continue;
+            }
+            NavigableMap<Integer, Double> byTenure = new TreeMap<>();
+            for (String tier : tiers.split(",")) {
+                String[] parts = tier.trim().split(":");
+                if (parts.length != 2) {
+                    throw new IllegalStateException("Invalid accrual tier for " + leaveType + ": " + tier);
+                }
+                byTenure.put(Integer.parseInt(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+            }
+            loaded.put(leaveType, byTenure);
+        }
+        rates = Collections.unmodifiableMap(loaded);
+    }
+
+    /**
+     * Moves balances of newly accruing types off their up-front entitlement, once per set of types,
+     * when {@code migrate-balances} is on. Otherwise only reports how many balances keep theirs.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateToAccrual() {
+        if (!enabled || rates.isEmpty()) {
+            return;
+        }
+        String migrated = String.join(",", rates.keySet().stream().map(LeaveType::name).toList());
+        String jobName = "leave-accrual-migration:" + migrated;
+        if (checkpointRepository.existsById(jobName)) {
+            return;
+        }
+        int year = YearMonth.now().getYear();
+        String types = String.join(",", Collections.nCopies(rates.size(), "?"));
+        List<Object> args = new ArrayList<>(rates.keySet().stream().map(LeaveType::name).toList());
+        args.add(year);
+        if (!migrateBalances) {
+            Long granted = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM leave_balances WHERE leave_type IN (" + types + ") AND leave_year >= ? AND entitled <> 0",
+                    Long.class, args.toArray());
+            if (granted != null && granted > 0) {
+                log.warn("{} leave balances of {} keep their up-front entitlement and are not accrued until next year; " +
+                        "set hrms.leave.accrual.migrate-balances=true to move them to monthly accrual", granted, migrated);
+            }
+            return;
+        }
+        try {
+            int zeroed = transactionTemplate.execute(status -> {
+                jdbcTemplate.update(
+                        "INSERT INTO leave_ledger_entries (employee_id, leave_type, leave_year, entry_type, days, note, created_at) " +
+                        "SELECT employee_id, leave_type, leave_year, 'ENTITLEMENT', -entitled, 'Moved to monthly accrual', NOW(6) " +
+                        "FROM leave_balances WHERE leave_type IN (" + types + ") AND leave_year >= ? AND entitled <> 0",
+                        args.toArray());
+                int updated = jdbcTemplate.update(
+                        "UPDATE leave_balances SET entitled = 0, updated_at = NOW(6) " +
+                        "WHERE leave_type IN (" + types + ") AND leave_year >= ? AND entitled <> 0",
+                        args.toArray());
+                checkpointRepository.save(new JobCheckpoint(jobName, LocalDateTime.now().toString()));
+                return updated;
+            });
+            log.info("Moved {} leave balances of {} to monthly accrual", zeroed, migrated);
+
+            YearMonth through = YearMonth.now().minusMonths(1);
+            if (through.getYear() != year) {
+                reportNegativeBalances(year);
+            } else {
+                migratedYear = year;
+                if (!start(YearMonth.of(year, 1), through)) {
+                    migratedYear = null;
+                    log.warn("Could not accrue {} to {}, a run is already in progress", YearMonth.of(year, 1), through);
+                    reportNegativeBalances(year);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not move leave balances to monthly accrual: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Credits the month that just ended.
+     */
+    @Scheduled(cron = "${hrms.leave.accrual.cron:0 0 2 1 * *}")
+    public void accrueLastMonth() {
+        if (enabled && !start(YearMonth.now().minusMonths(1))) {
+            log.warn("Skipping scheduled leave accrual, a run is already in progress");
+        }
+    }
+
+    /**
+     * Starts crediting the period in the background. Employees already credited for the period are
+     * skipped, so a period can be run again to finish an interrupted run.
+     *
+     * @return false if a run is already in progress
+     */
+    public boolean start(YearMonth accrualPeriod) {
+        return start(accrualPeriod, accrualPeriod);
+    }
+
+    /**
+     * Starts crediting every period from {@code fromPeriod} to {@code toPeriod}, oldest first.
+     *
+     * @return false if a run is already in progress
+     */
+    public boolean start(YearMonth fromPeriod, YearMonth toPeriod) {
+        if (toPeriod.isAfter(YearMonth.now())) {
+            throw new RuntimeException("Cannot accrue leave for a future period: " + toPeriod);
+        }
+        if (fromPeriod.isAfter(toPeriod)) {
+            throw new RuntimeException("Accrual period " + fromPeriod + " is after " + toPeriod);
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM employees");
+            firstPeriod = fromPeriod;
+            period = fromPeriod;
+            lastPeriod = toPeriod;
+            firstId = range.get("min_id") != null ? ((Number) range.get("min_id")).longValue() : 1;
+            lastId = range.get("max_id") != null ? ((Number) range.get("max_id")).longValue() : 0;
+            scannedEmployees.set(0);
+            creditsWritten.set(0);
+            creditsSkipped.set(0);
+            completedChunks.set(0);
+            daysCredited.reset();
+            stopRequested.set(false);
+            startedAt = LocalDateTime.now();
+            finishedAt = null;
+            error = null;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        Thread coordinator = new Thread(this::run, "leave-accrual");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return true;
+    }
+
+    public void stop() {
+        stopRequested.set(true);
+    }
+
+    public Map<String, Object> getStatus() {
+        long months = firstPeriod != null ? ChronoUnit.MONTHS.between(firstPeriod, lastPeriod) + 1 : 0;
+        long totalChunks = lastId >= firstId ? ((lastId - firstId) / chunkSize + 1) * months : 0;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("period", period != null ? period.toString() : null);
+        status.put("lastPeriod", lastPeriod != null ? lastPeriod.toString() : null);
+        status.put("completedChunks", completedChunks.get());
+        status.put("totalChunks", totalChunks);
+        status.put("scannedEmployees", scannedEmployees.get());
+        status.put("creditsWritten", creditsWritten.get());
+        status.put("creditsSkipped", creditsSkipped.get());
+        status.put("daysCredited", Math.round(daysCredited.sum() * 100) / 100.0);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("error", error);
+        status.put("negativeBalancesAfterMigration", negativeBalances);
+        return status;
+    }
+
+    // Leave taken before the migration can exceed what has been accrued back since
+    private void reportNegativeBalances(int year) {
+        List<Object> args = new ArrayList<>(rates.keySet().stream().map(LeaveType::name).toList());
+        args.add(year);
+        List<String> negative = jdbcTemplate.query(
+                "SELECT employee_id, leave_type, entitled + accrued + adjusted - consumed - pending AS available " +
+                "FROM leave_balances WHERE leave_type IN (" + String.join(",", Collections.nCopies(rates.size(), "?")) + ") " +
+                "AND leave_year = ? AND entitled + accrued + adjusted - consumed - pending < 0 ORDER BY employee_id, leave_type",
+                (rs, rowNum) -> "employee " + rs.getLong("employee_id") + " " + rs.getString("leave_type") + " " + rs.getDouble("available"),
+                args.toArray());
+        negativeBalances = (long) negative.size();
+        if (!negative.isEmpty()) {
+            log.warn("Moving to monthly accrual left {} leave balances for {} below zero: {}{}", negative.size(), year,
+                    String.join(", ", negative.subList(0, Math.min(negative.size(), 50))), negative.size() > 50 ? ", ..." : "");
+        }
+    }
+
+    private void run() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (YearMonth next = firstPeriod; !next.isAfter(lastPeriod) && error == null && !stopRequested.get(); next = next.plusMonths(1)) {
+                period = next;
+                if (!rates.isEmpty() && lastId >= firstId) {
+                    pool.invoke(new AccrualRange(firstId, lastId));
+                }
+            }
+            if (error == null && !stopRequested.get()) {
+                log.info("Leave accrual through {} finished: {} credits written, {} already present",
+                        lastPeriod, creditsWritten.get(), creditsSkipped.get());
+            }
+            Integer year = migratedYear;
+            if (year != null) {
+                migratedYear = null;
+                try {
+                    reportNegativeBalances(year);
+                } catch (RuntimeException e) {
+                    log.warn("Could not report leave balances below zero: {}", e.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdown();
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private final class AccrualRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long fromId;
+        private final long toId;
+
+        AccrualRange(long fromId, long toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected void compute() {
+            if (stopRequested.get() || error != null) {
+                return;
+            }
+            if (toId - fromId < chunkSize) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> accrueChunk(period, fromId, toId));
+                    completedChunks.incrementAndGet();
+                } catch (RuntimeException e) {
+                    log.error("Leave accrual failed for employees {}-{}", fromId, toId, e);
+                    error = e.getMessage();
+                }
+                return;
+            }
+            // Split on a chunk boundary so the chunks match the progress count
+            long chunks = (toId - fromId + chunkSize) / chunkSize;
+            long middle = fromId + (chunks / 2) * chunkSize;
+            invokeAll(new AccrualRange(fromId, middle - 1), new AccrualRange(middle, toId));
+        }
+    }
+
+    private void accrueChunk(YearMonth accrualPeriod, long fromId, long toId) {
+        String periodKey = accrualPeriod.toString();
+        LocalDate periodStart = accrualPeriod.atDay(1);
+        LocalDate periodEnd = accrualPeriod.atEndOfMonth();
+
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query(
+                "SELECT employee_id, leave_type FROM leave_accrual_credits WHERE accrual_period = ? AND employee_id BETWEEN ? AND ?",
+                rs -> {
+                    existing.add(rs.getLong("employee_id") + ":" + rs.getString("leave_type"));
+                },
+                periodKey, fromId, toId);
+        // Still granted up front for the year, see migrateToAccrual
+        jdbcTemplate.query(
+                "SELECT employee_id, leave_type FROM leave_balances WHERE leave_year = ? AND entitled <> 0 AND employee_id BETWEEN ? AND ?",
+                rs -> {
+                    existing.add(rs.getLong("employee_id") + ":" + rs.getString("leave_type"));
+                },
+                accrualPeriod.getYear(), fromId, toId);
+
+        List<Object[]> credits = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT id, hire_date FROM employees WHERE status = 'ACTIVE' AND id BETWEEN ? AND ? " +
+                "AND (hire_date IS NULL OR hire_date <= ?)",
+                rs -> {
+                    scannedEmployees.incrementAndGet();
+                    long employeeId = rs.getLong("id");
+                    Date hired = rs.getDate("hire_date");
+                    LocalDate hireDate = hired != null ? hired.toLocalDate() : null;
+                    int tenureYears = hireDate != null ? Period.between(hireDate, periodEnd).getYears() : 0;
+                    // Share of the month employed, for the month of hire
+                    double share = hireDate != null && hireDate.isAfter(periodStart)
+                            ? (ChronoUnit.DAYS.between(hireDate, periodEnd) + 1) / (double) accrualPeriod.lengthOfMonth()
+                            : 1.0;
+
+                    rates.forEach((leaveType, byTenure) -> {
+                        if (existing.contains(employeeId + ":" + leaveType.name())) {
+                            creditsSkipped.incrementAndGet();
+                            return;
+                        }
+                        Map.Entry<Integer, Double> tier = byTenure.floorEntry(tenureYears);
+                        double days = tier != null ? Math.round(tier.getValue() / 12 * share * 100) / 100.0 : 0;
+                        if (days > 0) {
+                            credits.add(new Object[]{employeeId, leaveType.name(), tenureYears, days});
+                        }
+                    });
+                },
+                fromId, toId, periodEnd);
+
+        if (credits.isEmpty()) {
+            return;
+        }
+        String note = "Accrual " + periodKey;
+        int year = accrualPeriod.getYear();
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO leave_accrual_credits (employee_id, leave_type, accrual_period, tenure_years, days, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, NOW(6))",
+                credits, credits.size(), (ps, credit) -> {
+                    ps.setLong(1, (Long) credit[0]);
+                    ps.setString(2, (String) credit[1]);
+                    ps.setString(3, periodKey);
+                    ps.setInt(4, (Integer) credit[2]);
+                    ps.setDouble(5, (Double) credit[3]);
+                });
+        // Accruing types open at zero, see LeaveBalanceService
+        jdbcTemplate.batchUpdate(
+                "INSERT IGNORE INTO leave_balances (employee_id, leave_type, leave_year, entitled, accrued, adjusted, consumed, pending, updated_at) " +
+                "VALUES (?, ?, ?, 0, 0, 0, 0, 0, NOW(6))",
+                credits, credits.size(), (ps, credit) -> {
+                    ps.setLong(1, (Long) credit[0]);
+                    ps.setString(2, (String) credit[1]);
+                    ps.setInt(3, year);
+                });
+        jdbcTemplate.batchUpdate(
+                "UPDATE leave_balances SET accrued = accrued + ?, updated_at = NOW(6) " +
+                "WHERE employee_id = ? AND leave_type = ? AND leave_year = ?",
+                credits, credits.size(), (ps, credit) -> {
+                    ps.setDouble(1, (Double) credit[3]);
+                    ps.setLong(2, (Long) credit[0]);
+                    ps.setString(3, (String) credit[1]);
+                    ps.setInt(4, year);
+                });
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO leave_ledger_entries (employee_id, leave_type, leave_year, entry_type, days, note, created_at) " +
+                "VALUES (?, ?, ?, 'ACCRUAL', ?, ?, NOW(6))",
+                credits, credits.size(), (ps, credit) -> {
+                    ps.setLong(1, (Long) credit[0]);
+                    ps.setString(2, (String) credit[1]);
+                    ps.setInt(3, year);
+                    ps.setDouble(4, (Double) credit[3]);
+                    ps.setString(5, note);
+                });
+
+        creditsWritten.addAndGet(credits.size());
+        for (Object[] credit : credits) {
+            daysCredited.add((Double) credit[3]);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.hrms.service;
+
+import com.hrms.dto.LeaveAnalyticsRowDTO;
+import com.hrms.model.LeaveRequest;
+import com.hrms.model.LeaveStatus;
+import com.hrms.model.LeaveType;
+import com.hrms.repository.LeaveRequestRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.hrms.util.TransactionCallbacks.afterCommit;
+
+/**
+ * In-memory aggregate of leave requests by status, leave type, department and month (of the start
+ * date), holding a request count and a day sum per cell.
+ * <p>
+ * It is bootstrapped with one grouped query and then adjusted by {@link LeaveService} with the
+ * before and after state of every change, applied after commit. Slices and roll-ups are computed
+ * from the cells alone, so the stats endpoints never query {@code leave_requests}.
+ */
+@Component
+public class LeaveAnalyticsCube {
+
+    public enum Dimension {
+        STATUS, LEAVE_TYPE, DEPARTMENT, MONTH
+    }
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    private final Map<Cell, long[]> cells = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void load() {
+        List<Object[]> rows = leaveRequestRepository.aggregateByStatusTypeDepartmentAndMonth();
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            for (Object[] row : rows) {
+                add(cellOf(row, (String) row[2]), ((Number) row[5]).longValue(), row[6] != null ? ((Number) row[6]).longValue() : 0, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves a leave from its previous state to its new one. {@code before} is null for a new
+     * request and {@code after} is null for a deleted one.
+     */
+    public void leaveChanged(Fact before, Fact after) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (before != null) {
+                    add(before.cell, 1, before.days, -1);
+                }
+                if (after != null) {
+                    add(after.cell, 1, after.days, 1);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void leaveChanged(Fact before, LeaveRequest after) {
+        leaveChanged(before, after != null ? Fact.of(after) : null);
+    }
+
+    /**
+     * Moves an employee's leaves between departments. Reads the employee's own leaves grouped, since
+     * the cube does not keep per-employee detail.
+     */
+    public void departmentChanged(Long employeeId, String previousDepartment, String department) {
+        if (Objects.equals(previousDepartment, department)) {
+            return;
+        }
+        List<Object[]> rows = leaveRequestRepository.aggregateByStatusTypeDepartmentAndMonth(employeeId);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    long count = ((Number) row[5]).longValue();
+                    long days = row[6] != null ? ((Number) row[6]).longValue() : 0;
+                    add(cellOf(row, previousDepartment), count, days, -1);
+                    add(cellOf(row, department), count, days, 1);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Counts and day sums for the cells matching every non-null filter, grouped by the given
+     * dimensions. Dimensions not grouped by are rolled up and returned as null.
+     */
+    public List<LeaveAnalyticsRowDTO> query(LeaveStatus status, LeaveType leaveType, String department,
+                                            YearMonth fromMonth, YearMonth toMonth, Set<Dimension> groupBy) {
+        Map<Cell, long[]> grouped = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Cell, long[]> entry : cells.entrySet()) {
+                Cell cell = entry.getKey();
+                if ((status != null && cell.status != status)
+                        || (leaveType != null && cell.leaveType != leaveType)
+                        || (department != null && !department.equals(cell.department))
+                        || (fromMonth != null && (cell.month == null || cell.month.isBefore(fromMonth)))
+                        || (toMonth != null && (cell.month == null || cell.month.isAfter(toMonth)))) {
+                    continue;
+                }
+                Cell key = new Cell(
+                        groupBy.contains(Dimension.STATUS) ? cell.status : null,
+                        groupBy.contains(Dimension.LEAVE_TYPE) ? cell.leaveType : null,
+                        groupBy.contains(Dimension.DEPARTMENT) ? cell.department : null,
+                        groupBy.contains(Dimension.MONTH) ? cell.month : null);
+                long[] totals = grouped.computeIfAbsent(key, k -> new long[2]);
+                totals[0] += entry.getValue()[0];
+                totals[1] += entry.getValue()[1];
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<LeaveAnalyticsRowDTO> result = new ArrayList<>(grouped.size());
+        grouped.forEach((cell, totals) -> result.add(
+                new LeaveAnalyticsRowDTO(cell.status, cell.leaveType, cell.department, cell.month, totals[0], totals[1])));
+        result.sort(Comparator.comparing(LeaveAnalyticsRowDTO::getStatus, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(LeaveAnalyticsRowDTO::getLeaveType, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(LeaveAnalyticsRowDTO::getDepartment, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(LeaveAnalyticsRowDTO::getMonth, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    public long count(LeaveStatus status) {
+        List<LeaveAnalyticsRowDTO> rows = query(status, null, null, null, null, EnumSet.noneOf(Dimension.class));
+        return rows.isEmpty() ? 0 : rows.get(0).getCount();
+    }
+
+    private void add(Cell cell, long count, long days, int sign) {
+        long[] totals = cells.computeIfAbsent(cell, c -> new long[2]);
+        totals[0] += sign * count;
+        totals[1] += sign * days;
+        if (totals[0] == 0 && totals[1] == 0) {
+            cells.remove(cell);
+        }
+    }
+
+    private static Cell cellOf(Object[] row, String department) {
+        YearMonth month = row[3] != null ? YearMonth.of(((Number) row[3]).intValue(), ((Number) row[4]).intValue()) : null;
+        return new Cell((LeaveStatus) row[0], (LeaveType) row[1], department, month);
+    }
+
+    /**
+     * What one leave request contributes to the cube, captured before it is modified.
+     */
+    public static final class Fact {
+        private final Cell cell;
+        private final long days;
+
+        private Fact(Cell cell, long days) {
+            this.cell = cell;
+            this.days = days;
+        }
+
+        public static Fact of(LeaveRequest leave) {
+            YearMonth month = leave.getStartDate() != null ? YearMonth.from(leave.getStartDate()) : null;
+            return new Fact(new Cell(leave.getStatus(), leave.getLeaveType(), leave.getEmployee().getDepartment(), month),
+                    leave.getDaysRequested() != null ? leave.getDaysRequested() : 0);
+        }
+
+        public LeaveStatus getStatus() {
+            return cell.status;
+        }
+
+        public Fact withStatus(LeaveStatus status) {
+            return new Fact(new Cell(status, cell.leaveType, cell.department, cell.month), days);
+        }
+    }
+
+    private static final class Cell {
+        private final LeaveStatus status;
+        private final LeaveType leaveType;
+        private final String department;
+        private final YearMonth month;
+
+        Cell(LeaveStatus status, LeaveType leaveType, String department, YearMonth month) {
+            this.status = status;
+            this.leaveType = leaveType;
+            this.department = department;
+            this.month = month;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Cell)) return false;
+            Cell other = (Cell) o;
+            return status == other.status && leaveType == other.leaveType
+                    && Objects.equals(department, other.department) && Objects.equals(month, other.month);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(status, leaveType, department, month);
+        }
+    }
+}
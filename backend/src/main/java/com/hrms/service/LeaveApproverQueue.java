@@ -0,0 +1,93 @@
+package com.hrms.service;
+
+import com.hrms.model.Employee;
+import com.hrms.model.LeaveStatus;
+import com.hrms.repository.LeaveRequestRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hrms.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Decides who approves a leave request and keeps a running count of each approver's pending
+ * queue, so an inbox badge never has to count rows.
+ * <p>
+ * A request goes to the approver named on it, else to the approver configured for the employee's
+ * department under {@code hrms.leave.approvers.departments}, else to
+ * {@code hrms.leave.approvers.default}.
+ */
+@Component
+public class LeaveApproverQueue {
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${hrms.leave.approvers.default:HR Manager}")
+    private String defaultApprover;
+
+    private Map<String, String> departmentApprovers = Map.of();
+    private final Map<String, AtomicLong> pendingCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        departmentApprovers = Binder.get(environment)
+                .bind("hrms.leave.approvers.departments", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+
+        departmentApprovers.forEach((department, approver) ->
+                leaveRequestRepository.assignApproverForDepartment(department, approver));
+        leaveRequestRepository.assignApproverToUnrouted(defaultApprover);
+
+        pendingCounts.clear();
+        for (Object[] row : leaveRequestRepository.countPendingByApprover()) {
+            pendingCounts.put((String) row[0], new AtomicLong(((Number) row[1]).longValue()));
+        }
+    }
+
+    public String route(Employee employee, String requestedApprover) {
+        if (requestedApprover != null && !requestedApprover.isBlank()) {
+            return requestedApprover.trim();
+        }
+        return departmentApprovers.getOrDefault(employee.getDepartment(), defaultApprover);
+    }
+
+    public long getPendingCount(String approver) {
+        AtomicLong count = pendingCounts.get(approver);
+        return count != null ? count.get() : 0;
+    }
+
+    public Map<String, Long> getPendingCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        pendingCounts.forEach((approver, count) -> {
+            if (count.get() > 0) {
+                counts.put(approver, count.get());
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Adjusts the approver's pending count once the transaction commits. Either status may be null
+     * for a request that is being created or deleted.
+     */
+    public void statusChanged(String approver, LeaveStatus before, LeaveStatus after) {
+        int delta = (after == LeaveStatus.PENDING ? 1 : 0) - (before == LeaveStatus.PENDING ? 1 : 0);
+        if (approver == null || delta == 0) {
+            return;
+        }
+        afterCommit(() -> pendingCounts.computeIfAbsent(approver, a -> new AtomicLong()).addAndGet(delta));
+    }
+}
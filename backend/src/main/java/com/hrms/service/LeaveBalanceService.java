@@ -0,0 +1,302 @@
+package com.hrms.service;
+
+import com.hrms.dto.LeaveBalanceDTO;
+import com.hrms.model.*;
+import com.hrms.repository.EmployeeRepository;
+import com.hrms.repository.JobCheckpointRepository;
+import com.hrms.repository.LeaveBalanceRepository;
+import com.hrms.repository.LeaveLedgerEntryRepository;
+import com.hrms.repository.LeaveRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Leave balances backed by an append-only ledger. Every ledger entry is paired with an atomic
+ * increment of the matching {@link LeaveBalance} row in the same transaction, so reading or
+ * checking a balance is a single-row lookup.
+ * <p>
+ * Only leave types with a configured entitlement ({@code hrms.leave.entitlements.<TYPE>}) are
+ * tracked; other types, such as unpaid leave, are not limited.
+ * <p>
+ * Requests made before balances existed are not in any balance, so on first start, and on demand,
+ * pending and consumed days are rebuilt from the leave requests themselves.
+ */
+@Service
+@Transactional
+public class LeaveBalanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveBalanceService.class);
+
+    private static final String REBUILD_JOB = "leave-balance-rebuild";
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private LeaveLedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private Environment environment;
+
+    public boolean isTracked(LeaveType leaveType) {
+        return leaveType != null && (getEntitlement(leaveType) != null || isAccrued(leaveType));
+    }
+
+    /**
+     * Whether the type is earned month by month by {@link LeaveAccrualService} rather than granted
+     * up front. Balances of accruing types open at zero.
+     */
+    public boolean isAccrued(LeaveType leaveType) {
+        return environment.containsProperty("hrms.leave.accrual.types." + leaveType.name());
+    }
+
+    public Double getEntitlement(LeaveType leaveType) {
+        return environment.getProperty("hrms.leave.entitlements." + leaveType.name(), Double.class);
+    }
+
+    /**
+     * Applies the balance effect of a leave request moving from {@code before} to its current
+     * state: days held while pending, days consumed once approved, and the reversal of either
+     * when it is rejected, cancelled or edited.
+     */
+    public void applyTransition(LeaveState before, LeaveRequest leave) {
+        applyTransition(leave.getEmployee(), leave.getId(), before, LeaveState.of(leave));
+    }
+
+    public void applyTransition(Employee employee, Long leaveRequestId, LeaveState before, LeaveState after) {
+        if (before != null && !before.sameBucket(after)) {
+            apply(employee, before, -before.pendingDays(), -before.consumedDays(), leaveRequestId);
+            apply(employee, after, after.pendingDays(), after.consumedDays(), leaveRequestId);
+        } else {
+            double pendingDelta = after.pendingDays() - (before != null ? before.pendingDays() : 0);
+            double consumedDelta = after.consumedDays() - (before != null ? before.consumedDays() : 0);
+            apply(employee, after, pendingDelta, consumedDelta, leaveRequestId);
+        }
+    }
+
+    /**
+     * Releases whatever a leave request holds when it is deleted.
+     */
+    public void applyRemoval(LeaveRequest leave) {
+        LeaveState state = LeaveState.of(leave);
+        apply(leave.getEmployee(), state, -state.pendingDays(), -state.consumedDays(), leave.getId());
+    }
+
+    private void apply(Employee employee, LeaveState state, double pendingDelta, double consumedDelta, Long leaveRequestId) {
+        if (!isTracked(state.leaveType) || (pendingDelta == 0 && consumedDelta == 0)) {
+            return;
+        }
+        ensureBalance(employee, state.leaveType, state.year);
+
+        int updated = leaveBalanceRepository.applyLeaveDelta(employee.getId(), state.leaveType, state.year, pendingDelta, consumedDelta);
+        if (updated == 0) {
+            throw new RuntimeException("Insufficient " + state.leaveType + " leave balance for " + state.year);
+        }
+        if (consumedDelta != 0) {
+            ledgerEntryRepository.save(new LeaveLedgerEntry(employee, state.leaveType, state.year,
+                    LeaveLedgerEntryType.CONSUMPTION, consumedDelta, leaveRequestId, null));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnFirstStart() {
+        if (checkpointRepository.existsById(REBUILD_JOB)) {
+            return;
+        }
+        try {
+            log.info("Rebuilt {} leave balances from existing leave requests", rebuild());
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild leave balances: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sets the pending and consumed days of every tracked balance to what its pending and approved
+     * leave requests add up to, creating balances that do not exist yet. A change in consumed days
+     * is recorded as a consumption entry so the ledger still adds up to the balance.
+     *
+     * @return the number of balances changed
+     */
+    public int rebuild() {
+        // {pending, consumed} by employee, leave type and year
+        Map<String, double[]> totals = new HashMap<>();
+        for (Object[] row : leaveRequestRepository.sumDaysByBalance()) {
+            LeaveType leaveType = (LeaveType) row[1];
+            if (!isTracked(leaveType) || row[4] == null) {
+                continue;
+            }
+            Long employeeId = (Long) row[0];
+            int year = ((Number) row[2]).intValue();
+            double[] total = totals.computeIfAbsent(balanceKey(employeeId, leaveType, year), key -> {
+                ensureBalance(employeeRepository.getReferenceById(employeeId), leaveType, year);
+                return new double[2];
+            });
+            total[row[3] == LeaveStatus.PENDING ? 0 : 1] += ((Number) row[4]).doubleValue();
+        }
+
+        int changed = 0;
+        for (LeaveBalance balance : leaveBalanceRepository.findAll()) {
+            if (!isTracked(balance.getLeaveType())) {
+                continue;
+            }
+            Employee employee = balance.getEmployee();
+            double[] total = totals.getOrDefault(balanceKey(employee.getId(), balance.getLeaveType(), balance.getYear()), new double[2]);
+            double consumedDelta = total[1] - balance.getConsumed();
+            if (total[0] == balance.getPending() && consumedDelta == 0) {
+                continue;
+            }
+            leaveBalanceRepository.setLeaveTotals(balance.getId(), total[0], total[1]);
+            if (consumedDelta != 0) {
+                ledgerEntryRepository.save(new LeaveLedgerEntry(employee, balance.getLeaveType(), balance.getYear(),
+                        LeaveLedgerEntryType.CONSUMPTION, consumedDelta, null, "Rebuilt from leave requests"));
+            }
+            changed++;
+        }
+        checkpointRepository.save(new JobCheckpoint(REBUILD_JOB, LocalDateTime.now().toString()));
+        return changed;
+    }
+
+    private static String balanceKey(Long employeeId, LeaveType leaveType, int year) {
+        return employeeId + ":" + leaveType.name() + ":" + year;
+    }
+
+    public LeaveBalanceDTO adjust(Long employeeId, LeaveType leaveType, int year, double days, String note) {
+        Employee employee = employeeRepository.findById(employeeId)
+                .orElseThrow(() -> new RuntimeException("Employee not found with id: " + employeeId));
+        if (!isTracked(leaveType)) {
+            throw new RuntimeException("Leave type " + leaveType + " has no balance");
+        }
+        credit(employee, leaveType, year, LeaveLedgerEntryType.ADJUSTMENT, days, note);
+        return getBalance(employeeId, leaveType, year);
+    }
+
+    /**
+     * Records an accrual or adjustment and adds it to the balance.
+     */
+    public void credit(Employee employee, LeaveType leaveType, int year, LeaveLedgerEntryType entryType, double days, String note) {
+        ensureBalance(employee, leaveType, year);
+        leaveBalanceRepository.applyCredit(employee.getId(), leaveType, year,
+                entryType == LeaveLedgerEntryType.ACCRUAL ? days : 0,
+                entryType == LeaveLedgerEntryType.ADJUSTMENT ? days : 0);
+        ledgerEntryRepository.save(new LeaveLedgerEntry(employee, leaveType, year, entryType, days, null, note));
+    }
+
+    public LeaveBalanceDTO getBalance(Long employeeId, LeaveType leaveType, int year) {
+        return leaveBalanceRepository.findBalance(employeeId, leaveType, year)
+                .map(this::convertToDTO)
+                .orElseGet(() -> openingBalance(employeeId, leaveType, year));
+    }
+
+    public List<LeaveBalanceDTO> getBalances(Long employeeId, int year) {
+        return leaveBalanceRepository.findByEmployeeAndYear(employeeId, year).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    public List<LeaveLedgerEntry> getLedger(Long employeeId, LeaveType leaveType, int year) {
+        return ledgerEntryRepository.findByEmployeeTypeAndYear(employeeId, leaveType, year);
+    }
+
+    private void ensureBalance(Employee employee, LeaveType leaveType, int year) {
+        double opening = openingEntitlement(leaveType);
+        if (leaveBalanceRepository.insertIfAbsent(employee.getId(), leaveType.name(), year, opening) == 1 && opening != 0) {
+            ledgerEntryRepository.save(new LeaveLedgerEntry(employee, leaveType, year,
+                    LeaveLedgerEntryType.ENTITLEMENT, opening, null, "Opening entitlement"));
+        }
+    }
+
+    // What the balance will be once it is first used, without creating the row on a read
+    private LeaveBalanceDTO openingBalance(Long employeeId, LeaveType leaveType, int year) {
+        double entitlement = openingEntitlement(leaveType);
+        LeaveBalanceDTO dto = new LeaveBalanceDTO();
+        dto.setEmployeeId(employeeId);
+        dto.setLeaveType(leaveType);
+        dto.setYear(year);
+        dto.setEntitled(entitlement);
+        dto.setAccrued(0.0);
+        dto.setAdjusted(0.0);
+        dto.setConsumed(0.0);
+        dto.setPending(0.0);
+        dto.setAvailable(entitlement);
+        return dto;
+    }
+
+    private double openingEntitlement(LeaveType leaveType) {
+        Double entitlement = getEntitlement(leaveType);
+        return entitlement != null && !isAccrued(leaveType) ? entitlement : 0.0;
+    }
+
+    private LeaveBalanceDTO convertToDTO(LeaveBalance balance) {
+        LeaveBalanceDTO dto = new LeaveBalanceDTO();
+        dto.setEmployeeId(balance.getEmployee().getId());
+        dto.setLeaveType(balance.getLeaveType());
+        dto.setYear(balance.getYear());
+        dto.setEntitled(balance.getEntitled());
+        dto.setAccrued(balance.getAccrued());
+        dto.setAdjusted(balance.getAdjusted());
+        dto.setConsumed(balance.getConsumed());
+        dto.setPending(balance.getPending());
+        dto.setAvailable(balance.getAvailable());
+        return dto;
+    }
+
+    /**
+     * The parts of a leave request that affect balances, captured before it is modified.
+     * Leaves are charged to the year they start in.
+     */
+    public static final class LeaveState {
+        private final LeaveType leaveType;
+        private final int year;
+        private final LeaveStatus status;
+        private final double days;
+
+        private LeaveState(LeaveType leaveType, int year, LeaveStatus status, double days) {
+            this.leaveType = leaveType;
+            this.year = year;
+            this.status = status;
+            this.days = days;
+        }
+
+        public static LeaveState of(LeaveRequest leave) {
+            return new LeaveState(leave.getLeaveType(), leave.getStartDate().getYear(), leave.getStatus(),
+                    leave.getDaysRequested() != null ? leave.getDaysRequested() : 0);
+        }
+
+        public LeaveState withStatus(LeaveStatus newStatus) {
+            return new LeaveState(leaveType, year, newStatus, days);
+        }
+
+        double pendingDays() {
+            return status == LeaveStatus.PENDING ? days : 0;
+        }
+
+        double consumedDays() {
+            return status == LeaveStatus.APPROVED ? days : 0;
+        }
+
+        boolean sameBucket(LeaveState other) {
+            return leaveType == other.leaveType && year == other.year;
+        }
+    }
+}
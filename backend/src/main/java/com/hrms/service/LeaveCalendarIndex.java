@@ -0,0 +1,239 @@
+package com.hrms.service;
+
+import com.hrms.dto.LeaveCalendarEntryDTO;
+import com.hrms.model.Employee;
+import com.hrms.model.LeaveRequest;
+import com.hrms.model.LeaveStatus;
+import com.hrms.repository.LeaveRequestRepository;
+import com.hrms.util.IntervalTree;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static com.hrms.util.TransactionCallbacks.afterCommit;
+
+/**
+ * In-memory interval index of pending and approved leaves, per employee and per department.
+ * <p>
+ * It is loaded once at startup and kept current by {@link LeaveService} after each commit, so
+ * overlap validation and team calendars are answered without a database round trip.
+ */
+@Component
+public class LeaveCalendarIndex {
+
+    private static final Set<LeaveStatus> INDEXED_STATUSES = EnumSet.of(LeaveStatus.PENDING, LeaveStatus.APPROVED);
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    private final Map<Long, IntervalTree<LeaveCalendarEntryDTO>> byEmployee = new HashMap<>();
+    private final Map<String, IntervalTree<LeaveCalendarEntryDTO>> byDepartment = new HashMap<>();
+    private final Map<Long, LeaveCalendarEntryDTO> byLeaveId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Told about every entry added to or removed from the index, while the index write lock is held.
+     */
+    public interface Listener {
+        void entryAdded(LeaveCalendarEntryDTO entry);
+
+        void entryRemoved(LeaveCalendarEntryDTO entry);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Runs the action over every indexed entry with changes held off until it returns, so a
+     * listener can rebuild its own state without missing or double-counting an update.
+     */
+    public void withAllEntries(Consumer<Collection<LeaveCalendarEntryDTO>> action) {
+        lock.readLock().lock();
+        try {
+            action.accept(Collections.unmodifiableCollection(byLeaveId.values()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        List<LeaveRequest> leaves = leaveRequestRepository.findWithEmployeeByStatusIn(INDEXED_STATUSES);
+        lock.writeLock().lock();
+        try {
+            byEmployee.clear();
+            byDepartment.clear();
+            byLeaveId.clear();
+            for (LeaveRequest leave : leaves) {
+                add(toEntry(leave));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean hasOverlap(Long employeeId, LocalDate startDate, LocalDate endDate, LeaveStatus status, Long excludeLeaveId) {
+        lock.readLock().lock();
+        try {
+            IntervalTree<LeaveCalendarEntryDTO> tree = byEmployee.get(employeeId);
+            return tree != null && tree.anyOverlap(day(startDate), day(endDate),
+                    entry -> entry.getStatus() == status && !entry.getLeaveId().equals(excludeLeaveId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Everyone in the department with a pending or approved leave overlapping the range.
+     */
+    public List<LeaveCalendarEntryDTO> getDepartmentCalendar(String department, LocalDate startDate, LocalDate endDate) {
+        List<LeaveCalendarEntryDTO> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            IntervalTree<LeaveCalendarEntryDTO> tree = byDepartment.get(department);
+            if (tree != null) {
+                tree.collectOverlaps(day(startDate), day(endDate), result);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparing(LeaveCalendarEntryDTO::getStartDate).thenComparing(LeaveCalendarEntryDTO::getLeaveId));
+        return result;
+    }
+
+    /**
+     * Re-indexes the leave once the current transaction commits, or drops it if it is no longer
+     * pending or approved.
+     */
+    public void leaveChanged(LeaveRequest leave) {
+        LeaveCalendarEntryDTO entry = toEntry(leave);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(entry.getLeaveId());
+                if (INDEXED_STATUSES.contains(entry.getStatus())) {
+                    add(entry);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Applies one status change to many leaves once the current transaction commits.
+     */
+    public void leavesStatusChanged(Collection<Long> leaveIds, LeaveStatus status) {
+        List<Long> ids = new ArrayList<>(leaveIds);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (Long leaveId : ids) {
+                    LeaveCalendarEntryDTO entry = remove(leaveId);
+                    if (entry != null && INDEXED_STATUSES.contains(status)) {
+                        add(new LeaveCalendarEntryDTO(leaveId, entry.getEmployeeId(), entry.getEmployeeName(),
+                                entry.getDepartment(), entry.getLeaveType(), status, entry.getStartDate(), entry.getEndDate()));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void leaveDeleted(Long leaveId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(leaveId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Moves an employee's leaves when their name or department changes.
+     */
+    public void employeeChanged(Employee employee) {
+        Long employeeId = employee.getId();
+        String name = employee.getFullName();
+        String department = employee.getDepartment();
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                IntervalTree<LeaveCalendarEntryDTO> tree = byEmployee.get(employeeId);
+                if (tree == null) {
+                    return;
+                }
+                List<LeaveCalendarEntryDTO> entries = new ArrayList<>();
+                tree.collectOverlaps(Integer.MIN_VALUE, Integer.MAX_VALUE, entries);
+                for (LeaveCalendarEntryDTO entry : entries) {
+                    remove(entry.getLeaveId());
+                    add(new LeaveCalendarEntryDTO(entry.getLeaveId(), employeeId, name, department,
+                            entry.getLeaveType(), entry.getStatus(), entry.getStartDate(), entry.getEndDate()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void add(LeaveCalendarEntryDTO entry) {
+        int start = day(entry.getStartDate());
+        int end = day(entry.getEndDate());
+        byEmployee.computeIfAbsent(entry.getEmployeeId(), id -> new IntervalTree<>())
+                .insert(start, end, entry.getLeaveId(), entry);
+        byDepartment.computeIfAbsent(entry.getDepartment(), d -> new IntervalTree<>())
+                .insert(start, end, entry.getLeaveId(), entry);
+        byLeaveId.put(entry.getLeaveId(), entry);
+        for (Listener listener : listeners) {
+            listener.entryAdded(entry);
+        }
+    }
+
+    private LeaveCalendarEntryDTO remove(Long leaveId) {
+        LeaveCalendarEntryDTO entry = byLeaveId.remove(leaveId);
+        if (entry == null) {
+            return null;
+        }
+        int start = day(entry.getStartDate());
+        IntervalTree<LeaveCalendarEntryDTO> employeeTree = byEmployee.get(entry.getEmployeeId());
+        if (employeeTree != null) {
+            employeeTree.remove(start, leaveId);
+            if (employeeTree.isEmpty()) {
+                byEmployee.remove(entry.getEmployeeId());
+            }
+        }
+        IntervalTree<LeaveCalendarEntryDTO> departmentTree = byDepartment.get(entry.getDepartment());
+        if (departmentTree != null) {
+            departmentTree.remove(start, leaveId);
+            if (departmentTree.isEmpty()) {
+                byDepartment.remove(entry.getDepartment());
+            }
+        }
+        for (Listener listener : listeners) {
+            listener.entryRemoved(entry);
+        }
+        return entry;
+    }
+
+    private static LeaveCalendarEntryDTO toEntry(LeaveRequest leave) {
+        Employee employee = leave.getEmployee();
+        return new LeaveCalendarEntryDTO(leave.getId(), employee.getId(), employee.getFullName(), employee.getDepartment(),
+                leave.getLeaveType(), leave.getStatus(), leave.getStartDate(), leave.getEndDate());
+    }
+
+    private static int day(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+}
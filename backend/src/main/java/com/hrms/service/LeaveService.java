@@ -1,21 +1,33 @@
 package com.hrms.service;
 
+import com.hrms.dto.AbsenceForecastDTO;
+import com.hrms.dto.LeaveAnalyticsRowDTO;
+import com.hrms.dto.LeaveCalendarEntryDTO;
+import com.hrms.dto.LeaveDecisionRequestDTO;
+import com.hrms.dto.LeaveDecisionResultDTO;
+import com.hrms.dto.LeaveQueuePageDTO;
 import com.hrms.dto.LeaveRequestDTO;
 import com.hrms.model.Employee;
 import com.hrms.model.LeaveRequest;
 import com.hrms.model.LeaveStatus;
+import com.hrms.model.LeaveType;
 import com.hrms.repository.EmployeeRepository;
 import com.hrms.repository.LeaveRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
-import java.util.Optional;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +40,33 @@ public class LeaveService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private LeaveCalendarIndex leaveCalendarIndex;
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private LeaveAnalyticsCube leaveAnalyticsCube;
+
+    @Autowired
+    private AbsenceCapacityService absenceCapacityService;
+
+    @Autowired
+    private LeaveApproverQueue leaveApproverQueue;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private HolidayCalendarService holidayCalendarService;
+
+    @Autowired
+    private RetroPayTracker retroPayTracker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     public List<LeaveRequestDTO> getAllLeaveRequests() {
         return leaveRequestRepository.findAll().stream()
                 .map(this::convertToDTO)
@@ -60,22 +99,28 @@ public class LeaveService {
                 .orElseThrow(() -> new RuntimeException("Employee not found with id: " + leaveRequestDTO.getEmployeeId()));
 
         // Check for overlapping approved leaves
-        List<LeaveRequest> overlappingLeaves = leaveRequestRepository.findApprovedOverlappingLeaves(
-                employee.getId(), leaveRequestDTO.getStartDate(), leaveRequestDTO.getEndDate());
-
-        if (!overlappingLeaves.isEmpty()) {
+        if (leaveCalendarIndex.hasOverlap(employee.getId(), leaveRequestDTO.getStartDate(),
+                leaveRequestDTO.getEndDate(), LeaveStatus.APPROVED, null)) {
             throw new RuntimeException("Leave request overlaps with existing approved leave");
         }
+        // Department absence cap, holding the department until this transaction ends
+        absenceCapacityService.checkCapacity(employee, leaveRequestDTO.getStartDate(),
+                leaveRequestDTO.getEndDate(), null, null, null);
 
         LeaveRequest leaveRequest = convertToEntity(leaveRequestDTO);
         leaveRequest.setEmployee(employee);
         leaveRequest.setStatus(LeaveStatus.PENDING);
+        leaveRequest.setApprover(leaveApproverQueue.route(employee, leaveRequestDTO.getApprover()));
         
-        // Calculate days requested
-        long days = ChronoUnit.DAYS.between(leaveRequest.getStartDate(), leaveRequest.getEndDate()) + 1;
-        leaveRequest.setDaysRequested((int) days);
+        // Calculate days requested, counting only working days
+        leaveRequest.setDaysRequested(countWorkingDays(leaveRequest));
 
         LeaveRequest savedLeaveRequest = leaveRequestRepository.save(leaveRequest);
+        // Holds the days as pending, failing if the balance cannot cover them
+        leaveBalanceService.applyTransition(null, savedLeaveRequest);
+        leaveCalendarIndex.leaveChanged(savedLeaveRequest);
+        leaveAnalyticsCube.leaveChanged(null, savedLeaveRequest);
+        leaveApproverQueue.statusChanged(savedLeaveRequest.getApprover(), null, LeaveStatus.PENDING);
         return convertToDTO(savedLeaveRequest);
     }
 
@@ -86,14 +131,27 @@ public class LeaveService {
         if (leaveRequest.getStatus() != LeaveStatus.PENDING) {
             throw new RuntimeException("Cannot update leave request that is not pending");
         }
+        if (leaveRequestDTO.getVersion() != null && !leaveRequestDTO.getVersion().equals(leaveRequest.getVersion())) {
+            throw new RuntimeException("Leave request was modified by someone else, reload and try again");
+        }
 
+        LeaveBalanceService.LeaveState before = LeaveBalanceService.LeaveState.of(leaveRequest);
+        LeaveAnalyticsCube.Fact previous = LeaveAnalyticsCube.Fact.of(leaveRequest);
+        LocalDate previousStart = leaveRequest.getStartDate();
+        LocalDate previousEnd = leaveRequest.getEndDate();
         updateLeaveRequestFromDTO(leaveRequest, leaveRequestDTO);
+        absenceCapacityService.checkCapacity(leaveRequest.getEmployee(), leaveRequest.getStartDate(),
+                leaveRequest.getEndDate(), leaveRequest.getId(), previousStart, previousEnd);
         
         // Recalculate days requested
-        long days = ChronoUnit.DAYS.between(leaveRequest.getStartDate(), leaveRequest.getEndDate()) + 1;
-        leaveRequest.setDaysRequested((int) days);
+        leaveRequest.setDaysRequested(countWorkingDays(leaveRequest));
 
         LeaveRequest updatedLeaveRequest = leaveRequestRepository.save(leaveRequest);
+        leaveBalanceService.applyTransition(before, updatedLeaveRequest);
+        leaveCalendarIndex.leaveChanged(updatedLeaveRequest);
+        leaveAnalyticsCube.leaveChanged(previous, updatedLeaveRequest);
+        leaveApproverQueue.statusChanged(updatedLeaveRequest.getApprover(), previous.getStatus(), updatedLeaveRequest.getStatus());
+        unpaidLeaveChanged(updatedLeaveRequest, previous.getStatus());
         return convertToDTO(updatedLeaveRequest);
     }
 
@@ -105,11 +163,19 @@ public class LeaveService {
             throw new RuntimeException("Leave request is not pending approval");
         }
 
+        LeaveBalanceService.LeaveState before = LeaveBalanceService.LeaveState.of(leaveRequest);
+        LeaveAnalyticsCube.Fact previous = LeaveAnalyticsCube.Fact.of(leaveRequest);
         leaveRequest.setStatus(LeaveStatus.APPROVED);
         leaveRequest.setApprovedBy(approvedBy);
         leaveRequest.setApprovalDate(LocalDateTime.now());
 
         LeaveRequest updatedLeaveRequest = leaveRequestRepository.save(leaveRequest);
+        leaveBalanceService.applyTransition(before, updatedLeaveRequest);
+        leaveCalendarIndex.leaveChanged(updatedLeaveRequest);
+        leaveAnalyticsCube.leaveChanged(previous, updatedLeaveRequest);
+        leaveApproverQueue.statusChanged(updatedLeaveRequest.getApprover(), previous.getStatus(), updatedLeaveRequest.getStatus());
+        unpaidLeaveChanged(updatedLeaveRequest, previous.getStatus());
+        queueNotification(decisionNotification(updatedLeaveRequest, updatedLeaveRequest.getStatus(), updatedLeaveRequest.getRejectionReason()));
         return convertToDTO(updatedLeaveRequest);
     }
 
@@ -121,12 +187,126 @@ public class LeaveService {
             throw new RuntimeException("Leave request is not pending approval");
         }
 
+        LeaveBalanceService.LeaveState before = LeaveBalanceService.LeaveState.of(leaveRequest);
+        LeaveAnalyticsCube.Fact previous = LeaveAnalyticsCube.Fact.of(leaveRequest);
         leaveRequest.setStatus(LeaveStatus.REJECTED);
         leaveRequest.setRejectionReason(rejectionReason);
         leaveRequest.setApprovedBy(rejectedBy);
         leaveRequest.setApprovalDate(LocalDateTime.now());
 
         LeaveRequest updatedLeaveRequest = leaveRequestRepository.save(leaveRequest);
+        leaveBalanceService.applyTransition(before, updatedLeaveRequest);
+        leaveCalendarIndex.leaveChanged(updatedLeaveRequest);
+        leaveAnalyticsCube.leaveChanged(previous, updatedLeaveRequest);
+        leaveApproverQueue.statusChanged(updatedLeaveRequest.getApprover(), previous.getStatus(), updatedLeaveRequest.getStatus());
+        queueNotification(decisionNotification(updatedLeaveRequest, updatedLeaveRequest.getStatus(), updatedLeaveRequest.getRejectionReason()));
+        return convertToDTO(updatedLeaveRequest);
+    }
+
+    /**
+     * Approves or rejects many pending leave requests in one transaction.
+     * <p>
+     * The requests are read once, then every decision is sent as a single JDBC batch of
+     * conditional updates guarded by {@code status = 'PENDING'} and the version that was read, so
+     * a request decided concurrently by someone else is reported as a conflict instead of being
+     * overwritten. Employee notifications are queued in the outbox as one batch.
+     */
+    public List<LeaveDecisionResultDTO> decideLeaves(LeaveDecisionRequestDTO request) {
+        LeaveStatus decision = request.getDecision();
+        if (decision != LeaveStatus.APPROVED && decision != LeaveStatus.REJECTED) {
+            throw new RuntimeException("Decision must be APPROVED or REJECTED");
+        }
+        if (decision == LeaveStatus.REJECTED && (request.getRejectionReason() == null || request.getRejectionReason().trim().isEmpty())) {
+            throw new RuntimeException("Rejection reason is required");
+        }
+        String decidedBy = request.getDecidedBy() != null ? request.getDecidedBy() : "HR Manager";
+        String rejectionReason = decision == LeaveStatus.REJECTED ? request.getRejectionReason() : null;
+        LocalDateTime decidedAt = LocalDateTime.now();
+
+        List<Long> ids = request.getIds().stream().distinct().collect(Collectors.toList());
+        Map<Long, LeaveRequest> leaves = leaveRequestRepository.findWithEmployeeByIdIn(ids).stream()
+                .collect(Collectors.toMap(LeaveRequest::getId, Function.identity()));
+
+        Map<Long, LeaveDecisionResultDTO> results = new LinkedHashMap<>();
+        List<LeaveRequest> candidates = new ArrayList<>();
+        for (Long id : ids) {
+            LeaveRequest leave = leaves.get(id);
+            if (leave == null) {
+                results.put(id, new LeaveDecisionResultDTO(id, LeaveDecisionResultDTO.Outcome.NOT_FOUND, null,
+                        "Leave request not found with id: " + id));
+            } else if (leave.getStatus() != LeaveStatus.PENDING) {
+                results.put(id, new LeaveDecisionResultDTO(id, LeaveDecisionResultDTO.Outcome.NOT_PENDING, leave.getStatus(),
+                        "Leave request is not pending approval"));
+            } else {
+                results.put(id, null);
+                candidates.add(leave);
+            }
+        }
+
+        int[] counts = candidates.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(
+                "UPDATE leave_requests SET status = ?, approved_by = ?, approval_date = ?, rejection_reason = ?, " +
+                "updated_at = ?, version = version + 1 WHERE id = ? AND status = 'PENDING' AND version = ?",
+                candidates, candidates.size(), (ps, leave) -> {
+                    ps.setString(1, decision.name());
+                    ps.setString(2, decidedBy);
+                    ps.setTimestamp(3, Timestamp.valueOf(decidedAt));
+                    ps.setString(4, rejectionReason);
+                    ps.setTimestamp(5, Timestamp.valueOf(decidedAt));
+                    ps.setLong(6, leave.getId());
+                    ps.setLong(7, leave.getVersion() != null ? leave.getVersion() : 0);
+                })[0];
+
+        List<Long> appliedIds = new ArrayList<>();
+        List<EmailService.Message> notifications = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            LeaveRequest leave = candidates.get(i);
+            if (counts[i] == 0) {
+                results.put(leave.getId(), new LeaveDecisionResultDTO(leave.getId(), LeaveDecisionResultDTO.Outcome.CONFLICT, null,
+                        "Leave request was modified by someone else"));
+                continue;
+            }
+            LeaveBalanceService.LeaveState before = LeaveBalanceService.LeaveState.of(leave);
+            leaveBalanceService.applyTransition(leave.getEmployee(), leave.getId(), before, before.withStatus(decision));
+            LeaveAnalyticsCube.Fact previous = LeaveAnalyticsCube.Fact.of(leave);
+            leaveAnalyticsCube.leaveChanged(previous, previous.withStatus(decision));
+            leaveApproverQueue.statusChanged(leave.getApprover(), LeaveStatus.PENDING, decision);
+            appliedIds.add(leave.getId());
+            results.put(leave.getId(), new LeaveDecisionResultDTO(leave.getId(), LeaveDecisionResultDTO.Outcome.APPLIED, decision, null));
+            notifications.add(decisionNotification(leave, decision, rejectionReason));
+            if (decision == LeaveStatus.APPROVED && leave.getLeaveType() == LeaveType.UNPAID) {
+                retroPayTracker.inputsChanged(leave.getEmployee().getId(), leave.getStartDate(), leave.getEndDate(), RetroPayTracker.LEAVE);
+            }
+        }
+
+        leaveCalendarIndex.leavesStatusChanged(appliedIds, decision);
+        // One batched insert into the outbox; the dispatcher merges several leaves for the same
+        // employee into one email
+        notificationService.enqueueAll(notifications);
+        return new ArrayList<>(results.values());
+    }
+
+    /**
+     * Cancels a pending or approved leave and gives the days back to the balance.
+     */
+    public LeaveRequestDTO cancelLeave(Long id) {
+        LeaveRequest leaveRequest = leaveRequestRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Leave request not found with id: " + id));
+
+        if (leaveRequest.getStatus() != LeaveStatus.PENDING && leaveRequest.getStatus() != LeaveStatus.APPROVED) {
+            throw new RuntimeException("Only pending or approved leave requests can be cancelled");
+        }
+
+        LeaveBalanceService.LeaveState before = LeaveBalanceService.LeaveState.of(leaveRequest);
+        LeaveAnalyticsCube.Fact previous = LeaveAnalyticsCube.Fact.of(leaveRequest);
+        leaveRequest.setStatus(LeaveStatus.CANCELLED);
+
+        LeaveRequest updatedLeaveRequest = leaveRequestRepository.save(leaveRequest);
+        leaveBalanceService.applyTransition(before, updatedLeaveRequest);
+        leaveCalendarIndex.leaveChanged(updatedLeaveRequest);
+        leaveAnalyticsCube.leaveChanged(previous, updatedLeaveRequest);
+        leaveApproverQueue.statusChanged(updatedLeaveRequest.getApprover(), previous.getStatus(), updatedLeaveRequest.getStatus());
+        unpaidLeaveChanged(updatedLeaveRequest, previous.getStatus());
+        queueNotification(decisionNotification(updatedLeaveRequest, LeaveStatus.CANCELLED, null));
         return convertToDTO(updatedLeaveRequest);
     }
 
@@ -138,15 +318,114 @@ public class LeaveService {
             throw new RuntimeException("Cannot delete approved leave request");
         }
 
+        leaveBalanceService.applyRemoval(leaveRequest);
+        leaveAnalyticsCube.leaveChanged(LeaveAnalyticsCube.Fact.of(leaveRequest), (LeaveAnalyticsCube.Fact) null);
+        leaveApproverQueue.statusChanged(leaveRequest.getApprover(), leaveRequest.getStatus(), null);
         leaveRequestRepository.deleteById(id);
+        leaveCalendarIndex.leaveDeleted(id);
+    }
+
+    public List<LeaveCalendarEntryDTO> getTeamCalendar(String department, LocalDate startDate, LocalDate endDate) {
+        return leaveCalendarIndex.getDepartmentCalendar(department, startDate, endDate);
+    }
+
+    /**
+     * One page of the approver's pending queue, oldest first. Pass the previous page's
+     * {@code nextCursor} to continue; each page is a single index range scan however many requests
+     * are open elsewhere.
+     */
+    public LeaveQueuePageDTO getApproverQueue(String approver, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<LeaveRequest> leaves;
+        if (cursor == null || cursor.isBlank()) {
+            leaves = leaveRequestRepository.findApproverQueue(approver, limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            leaves = leaveRequestRepository.findApproverQueueAfter(approver, LocalDateTime.parse(position[0]),
+                    Long.parseLong(position[1]), limit);
+        }
+
+        String nextCursor = null;
+        if (leaves.size() > pageSize) {
+            leaves = leaves.subList(0, pageSize);
+            LeaveRequest last = leaves.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        List<LeaveRequestDTO> items = leaves.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new LeaveQueuePageDTO(approver, leaveApproverQueue.getPendingCount(approver), items, nextCursor);
+    }
+
+    public Map<String, Long> getPendingCountsByApprover() {
+        return leaveApproverQueue.getPendingCounts();
+    }
+
+    private static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String position = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    public List<AbsenceForecastDTO> getCapacityForecast(String department, int days) {
+        if (department != null) {
+            return List.of(absenceCapacityService.getForecast(department, days));
+        }
+        return absenceCapacityService.getForecasts(days);
     }
 
     public Long getLeaveRequestCountByStatus(LeaveStatus status) {
-        return leaveRequestRepository.countByStatus(status);
+        return leaveAnalyticsCube.count(status);
     }
 
+    // Approved requests per leave type, as [leaveType, count] pairs
     public List<Object[]> getLeaveStatsByType() {
-        return leaveRequestRepository.getLeaveStatsByType();
+        return leaveAnalyticsCube.query(LeaveStatus.APPROVED, null, null, null, null, EnumSet.of(LeaveAnalyticsCube.Dimension.LEAVE_TYPE))
+                .stream()
+                .map(row -> new Object[]{row.getLeaveType(), row.getCount()})
+                .collect(Collectors.toList());
+    }
+
+    public List<LeaveAnalyticsRowDTO> getLeaveAnalytics(LeaveStatus status, LeaveType leaveType, String department,
+                                                        YearMonth fromMonth, YearMonth toMonth,
+                                                        Set<LeaveAnalyticsCube.Dimension> groupBy) {
+        return leaveAnalyticsCube.query(status, leaveType, department, fromMonth, toMonth, groupBy);
+    }
+
+    private int countWorkingDays(LeaveRequest leaveRequest) {
+        int days = holidayCalendarService.countWorkingDays(holidayCalendarService.regionOf(leaveRequest.getEmployee()),
+                leaveRequest.getStartDate(), leaveRequest.getEndDate());
+        if (days == 0) {
+            throw new RuntimeException("Leave request does not include any working days");
+        }
+        return days;
+    }
+
+    private void queueNotification(EmailService.Message message) {
+        notificationService.enqueue(message.getTo(), message.getSubject(), message.getBody());
+    }
+
+    private static EmailService.Message decisionNotification(LeaveRequest leave, LeaveStatus status, String rejectionReason) {
+        String outcome = status == LeaveStatus.APPROVED ? "approved"
+                : status == LeaveStatus.REJECTED ? "rejected (" + rejectionReason + ")"
+                : "cancelled";
+        String subject = "Leave request " + (status == LeaveStatus.REJECTED ? "rejected" : outcome);
+        String body = String.format("%s leave %s to %s: %s", leave.getLeaveType(), leave.getStartDate(), leave.getEndDate(), outcome);
+        return new EmailService.Message(leave.getEmployee().getEmail(), subject, body);
     }
 
     // Conversion methods
@@ -163,13 +442,23 @@ public class LeaveService {
         dto.setReason(leaveRequest.getReason());
         dto.setStatus(leaveRequest.getStatus());
         dto.setApprovedBy(leaveRequest.getApprovedBy());
+        dto.setApprover(leaveRequest.getApprover());
         dto.setApprovalDate(leaveRequest.getApprovalDate());
         dto.setRejectionReason(leaveRequest.getRejectionReason());
         dto.setCreatedAt(leaveRequest.getCreatedAt());
         dto.setUpdatedAt(leaveRequest.getUpdatedAt());
+        dto.setVersion(leaveRequest.getVersion());
         return dto;
     }
 
+    // Approved unpaid leave is deducted from pay, so approving or withdrawing it can change a paid period
+    private void unpaidLeaveChanged(LeaveRequest leave, LeaveStatus previousStatus) {
+        if (leave.getLeaveType() == LeaveType.UNPAID
+                && (previousStatus == LeaveStatus.APPROVED) != (leave.getStatus() == LeaveStatus.APPROVED)) {
+            retroPayTracker.inputsChanged(leave.getEmployee().getId(), leave.getStartDate(), leave.getEndDate(), RetroPayTracker.LEAVE);
+        }
+    }
+
     private LeaveRequest convertToEntity(LeaveRequestDTO dto) {
         LeaveRequest leaveRequest = new LeaveRequest();
         updateLeaveRequestFromDTO(leaveRequest, dto);
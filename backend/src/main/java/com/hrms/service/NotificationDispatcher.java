@@ -0,0 +1,155 @@
+package com.hrms.service;
+
+import com.hrms.model.OutboxNotification;
+import com.hrms.repository.OutboxNotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Background job that drains the notification outbox.
+ * <p>
+ * Each pass claims a batch of due rows with a single UPDATE tagged with a claim token, so several
+ * application instances never send the same row. Notifications for the same recipient are merged
+ * into one digest, and the batch goes out over one SMTP connection. Failed rows are retried with
+ * exponential backoff until {@code max-attempts}, after which they are left as FAILED. Rows claimed
+ * by an instance that died mid-send are picked up again after {@code claim-timeout-ms}, which
+ * counts as an attempt, so a message that keeps crashing the sender still ends up FAILED.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxNotificationRepository outboxRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Value("${hrms.notifications.batch-size:200}")
+    private int batchSize;
+
+    @Value("${hrms.notifications.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${hrms.notifications.backoff-base-ms:30000}")
+    private long backoffBaseMs;
+
+    @Value("${hrms.notifications.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${hrms.notifications.claim-timeout-ms:600000}")
+    private long claimTimeoutMs;
+
+    @Scheduled(fixedDelayString = "${hrms.notifications.dispatch-interval-ms:2000}")
+    public void dispatch() {
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize);
+    }
+
+    /**
+     * Claims and sends one batch.
+     *
+     * @return number of outbox rows claimed
+     */
+    public int dispatchBatch() {
+        String claimToken = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        // A stale claim means an earlier send never finished, so reclaiming it counts as an attempt.
+        // MySQL applies the assignments in order, so attempts must be set while status is unchanged.
+        int claimed = jdbcTemplate.update(
+                "UPDATE notification_outbox SET attempts = attempts + CASE WHEN status = 'SENDING' THEN 1 ELSE 0 END, " +
+                "status = 'SENDING', claim_token = ?, claimed_at = ? " +
+                "WHERE (status = 'PENDING' AND next_attempt_at <= ?) OR (status = 'SENDING' AND claimed_at < ?) " +
+                "ORDER BY id LIMIT ?",
+                claimToken, Timestamp.valueOf(now), Timestamp.valueOf(now),
+                Timestamp.valueOf(now.minusNanos(claimTimeoutMs * 1_000_000)), batchSize);
+        if (claimed == 0) {
+            return 0;
+        }
+
+        List<OutboxNotification> notifications = new ArrayList<>();
+        List<Object[]> exhausted = new ArrayList<>();
+        for (OutboxNotification notification : outboxRepository.findClaimed(claimToken)) {
+            if (notification.getAttempts() >= maxAttempts) {
+                exhausted.add(new Object[]{"FAILED", notification.getAttempts(), Timestamp.valueOf(now),
+                        "Claim expired while sending", notification.getId()});
+            } else {
+                notifications.add(notification);
+            }
+        }
+        Map<String, List<OutboxNotification>> byRecipient = notifications.stream()
+                .collect(Collectors.groupingBy(OutboxNotification::getRecipient, LinkedHashMap::new, Collectors.toList()));
+
+        Map<EmailService.Message, List<OutboxNotification>> sources = new LinkedHashMap<>();
+        byRecipient.forEach((recipient, pending) -> sources.put(digest(recipient, pending), pending));
+
+        Map<EmailService.Message, String> failures = emailService.sendBatch(new ArrayList<>(sources.keySet()));
+
+        List<Long> sent = new ArrayList<>();
+        List<Object[]> retries = new ArrayList<>(exhausted);
+        sources.forEach((message, pending) -> {
+            String error = failures.get(message);
+            for (OutboxNotification notification : pending) {
+                if (error == null) {
+                    sent.add(notification.getId());
+                } else {
+                    int attempts = notification.getAttempts() + 1;
+                    retries.add(new Object[]{
+                            attempts >= maxAttempts ? "FAILED" : "PENDING",
+                            attempts,
+                            Timestamp.valueOf(LocalDateTime.now().plusNanos(backoffMs(attempts) * 1_000_000)),
+                            error.length() > 1000 ? error.substring(0, 1000) : error,
+                            notification.getId()});
+                }
+            }
+        });
+
+        if (!sent.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE notification_outbox SET status = 'SENT', sent_at = NOW(6), claim_token = NULL WHERE id = ?",
+                    sent, sent.size(), (ps, id) -> ps.setLong(1, id));
+        }
+        if (!retries.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE notification_outbox SET status = ?, attempts = ?, next_attempt_at = ?, last_error = ?, claim_token = NULL WHERE id = ?",
+                    retries);
+            log.warn("Failed to send {} notifications, will retry", retries.size());
+        }
+        log.debug("Dispatched {} notifications as {} emails", sent.size(), sources.size() - failures.size());
+        return claimed;
+    }
+
+    private long backoffMs(int attempts) {
+        long backoff = backoffBaseMs << Math.min(attempts - 1, 20);
+        return Math.min(backoff, backoffMaxMs);
+    }
+
+    private static EmailService.Message digest(String recipient, List<OutboxNotification> pending) {
+        if (pending.size() == 1) {
+            OutboxNotification notification = pending.get(0);
+            return new EmailService.Message(recipient, notification.getSubject(), notification.getBody());
+        }
+        StringBuilder body = new StringBuilder();
+        for (OutboxNotification notification : pending) {
+            body.append(notification.getSubject()).append('\n')
+                    .append(notification.getBody() != null ? notification.getBody() : "").append("\n\n");
+        }
+        return new EmailService.Message(recipient, pending.size() + " notifications", body.toString().trim());
+    }
+}
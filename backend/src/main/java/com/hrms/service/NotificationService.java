@@ -0,0 +1,78 @@
+package com.hrms.service;
+
+import com.hrms.model.NotificationStatus;
+import com.hrms.model.OutboxNotification;
+import com.hrms.repository.OutboxNotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Queues emails in the {@code notification_outbox} table as part of the caller's transaction, so a
+ * notification is recorded exactly when the change it describes commits. Delivery happens later in
+ * {@link NotificationDispatcher} and never adds mail server latency to a request.
+ */
+@Service
+@Transactional
+public class NotificationService {
+
+    @Autowired
+    private OutboxNotificationRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void enqueue(String to, String subject, String body) {
+        if (to == null || to.isBlank()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        OutboxNotification notification = new OutboxNotification();
+        notification.setRecipient(to);
+        notification.setSubject(subject);
+        notification.setBody(body);
+        notification.setStatus(NotificationStatus.PENDING);
+        notification.setNextAttemptAt(now);
+        notification.setCreatedAt(now);
+        outboxRepository.save(notification);
+    }
+
+    /**
+     * Queues many notifications with one batched insert.
+     */
+    public void enqueueAll(List<EmailService.Message> messages) {
+        List<EmailService.Message> valid = messages.stream()
+                .filter(message -> message.getTo() != null && !message.getTo().isBlank())
+                .collect(Collectors.toList());
+        if (valid.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO notification_outbox (recipient, subject, body, status, attempts, next_attempt_at, created_at) " +
+                "VALUES (?, ?, ?, 'PENDING', 0, NOW(6), NOW(6))",
+                valid, valid.size(), (ps, message) -> {
+                    ps.setString(1, message.getTo());
+                    ps.setString(2, message.getSubject());
+                    ps.setString(3, message.getBody());
+                });
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Long> getOutboxCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (NotificationStatus status : NotificationStatus.values()) {
+            counts.put(status.name(), 0L);
+        }
+        for (Object[] row : outboxRepository.countByStatus()) {
+            counts.put(((NotificationStatus) row[0]).name(), (Long) row[1]);
+        }
+        return counts;
+    }
+}
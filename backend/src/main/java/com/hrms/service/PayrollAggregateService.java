@@ -0,0 +1,192 @@
+package com.hrms.service;
+
+import com.hrms.dto.PayrollTrendDTO;
+import com.hrms.model.Money;
+import com.hrms.model.Payroll;
+import com.hrms.model.PayrollAggregate;
+import com.hrms.repository.PayrollAggregateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Maintains {@link PayrollAggregate} cells so the dashboard and trend endpoints read a table that
+ * grows by one row per department per month, however much payroll history accumulates.
+ * <p>
+ * Each change to a payroll row is applied as an atomic upsert of its deltas in the caller's
+ * transaction. Payroll runs are added with a single grouped statement when they complete. The
+ * per-employee {@link PayrollYtdService} accumulators are updated alongside.
+ */
+@Service
+@Transactional
+public class PayrollAggregateService {
+
+    @Autowired
+    private PayrollAggregateRepository payrollAggregateRepository;
+
+    @Autowired
+    private PayrollYtdService payrollYtdService;
+
+    public void rowAdded(Payroll payroll) {
+        apply(payroll, 1);
+        payrollYtdService.rowAdded(payroll);
+    }
+
+    public void rowRemoved(Payroll payroll) {
+        apply(payroll, -1);
+        payrollAggregateRepository.deleteEmpty();
+        payrollYtdService.rowRemoved(payroll);
+    }
+
+    public void runAdded(Long runId) {
+        payrollAggregateRepository.applyRun(runId, 1);
+        payrollYtdService.runAdded(runId);
+    }
+
+    public void runRemoved(Long runId) {
+        payrollAggregateRepository.applyRun(runId, -1);
+        payrollAggregateRepository.deleteEmpty();
+        payrollYtdService.runRemoved(runId);
+    }
+
+    /**
+     * Whether the cells have to be rebuilt: there are none yet, or some predate the record count.
+     */
+    public boolean needsRebuild() {
+        return payrollAggregateRepository.count() == 0 || payrollAggregateRepository.countWithoutRecords() > 0;
+    }
+
+    /**
+     * Recomputes every cell from the payroll table.
+     */
+    public int rebuild() {
+        payrollAggregateRepository.deleteAllCells();
+        return payrollAggregateRepository.insertFromPayroll();
+    }
+
+    public Map<String, Object> getTotals() {
+        Object[] totals = payrollAggregateRepository.getTotals().get(0);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalSalaryDisbursed", money(totals[2]));
+        result.put("totalTaxDeductions", money(totals[1]));
+        result.put("payrollCount", totals[3] != null ? ((Number) totals[3]).longValue() : 0L);
+        return result;
+    }
+
+    /**
+     * Totals per period from {@code from} to {@code to}, for one department or all of them, with
+     * the change against the previous period and the year-to-date totals.
+     */
+    public List<PayrollTrendDTO> getTrends(YearMonth from, YearMonth to, String department) {
+        // Start early enough to cover the previous period and January of the first year
+        YearMonth loadFrom = from.minusMonths(1);
+        YearMonth january = YearMonth.of(from.getYear(), 1);
+        if (january.isBefore(loadFrom)) {
+            loadFrom = january;
+        }
+        // Gross, tax and net in minor units, then headcount
+        Map<YearMonth, long[]> byPeriod = new TreeMap<>();
+        for (PayrollAggregate cell : payrollAggregateRepository.findByPeriodRange(loadFrom.toString(), to.toString(), department)) {
+            long[] totals = byPeriod.computeIfAbsent(YearMonth.parse(cell.getPeriod()), p -> new long[4]);
+            add(totals, cell);
+            totals[3] += cell.getHeadcount();
+        }
+
+        List<PayrollTrendDTO> trends = new ArrayList<>();
+        long[] ytd = new long[3];
+        int ytdYear = loadFrom.getYear();
+        for (YearMonth period = loadFrom; !period.isAfter(to); period = period.plusMonths(1)) {
+            if (period.getYear() != ytdYear) {
+                ytd = new long[3];
+                ytdYear = period.getYear();
+            }
+            long[] totals = byPeriod.getOrDefault(period, new long[4]);
+            ytd[0] += totals[0];
+            ytd[1] += totals[1];
+            ytd[2] += totals[2];
+            if (period.isBefore(from)) {
+                continue;
+            }
+
+            PayrollTrendDTO dto = new PayrollTrendDTO();
+            dto.setPeriod(period);
+            dto.setDepartment(department);
+            dto.setGrossSalary(Money.ofMinor(totals[0]));
+            dto.setTaxDeductions(Money.ofMinor(totals[1]));
+            dto.setNetPay(Money.ofMinor(totals[2]));
+            dto.setHeadcount(totals[3]);
+            long[] previous = byPeriod.get(period.minusMonths(1));
+            if (previous != null) {
+                dto.setNetPayChange(Money.ofMinor(totals[2] - previous[2]));
+                dto.setNetPayChangePercent(previous[2] != 0
+                        ? Math.round((totals[2] - previous[2]) * 10000.0 / previous[2]) / 100.0
+                        : null);
+            }
+            dto.setYtdGrossSalary(Money.ofMinor(ytd[0]));
+            dto.setYtdTaxDeductions(Money.ofMinor(ytd[1]));
+            dto.setYtdNetPay(Money.ofMinor(ytd[2]));
+            trends.add(dto);
+        }
+        return trends;
+    }
+
+    /**
+     * Year-to-date totals per department, up to and including {@code through}.
+     */
+    public List<PayrollTrendDTO> getYtdByDepartment(YearMonth through) {
+        Map<String, long[]> byDepartment = new TreeMap<>();
+        for (PayrollAggregate cell : payrollAggregateRepository.findByPeriodRange(
+                YearMonth.of(through.getYear(), 1).toString(), through.toString(), null)) {
+            long[] totals = byDepartment.computeIfAbsent(cell.getDepartment(), d -> new long[4]);
+            add(totals, cell);
+            if (cell.getPeriod().equals(through.toString())) {
+                totals[3] += cell.getHeadcount();
+            }
+        }
+
+        List<PayrollTrendDTO> result = new ArrayList<>();
+        byDepartment.forEach((department, totals) -> {
+            PayrollTrendDTO dto = new PayrollTrendDTO();
+            dto.setPeriod(through);
+            dto.setDepartment(department.isEmpty() ? null : department);
+            dto.setHeadcount(totals[3]);
+            dto.setYtdGrossSalary(Money.ofMinor(totals[0]));
+            dto.setYtdTaxDeductions(Money.ofMinor(totals[1]));
+            dto.setYtdNetPay(Money.ofMinor(totals[2]));
+            result.add(dto);
+        });
+        return result;
+    }
+
+    private void apply(Payroll payroll, int sign) {
+        if (payroll.getDate() == null) {
+            return;
+        }
+        payrollAggregateRepository.applyDelta(YearMonth.from(payroll.getDate()).toString(),
+                payroll.getDepartment() != null ? payroll.getDepartment() : "",
+                signed(payroll.getGrossSalary(), sign), signed(payroll.getTaxDeductions(), sign),
+                signed(payroll.getNetPay(), sign), sign, payroll.getRetroPeriod() == null ? sign : 0);
+    }
+
+    private static void add(long[] totals, PayrollAggregate cell) {
+        totals[0] += cell.getGrossSalary().getMinorUnits();
+        totals[1] += cell.getTaxDeductions().getMinorUnits();
+        totals[2] += cell.getNetPay().getMinorUnits();
+    }
+
+    // SUM over a converted attribute may come back converted or as the raw column type
+    private static Money money(Object sum) {
+        if (sum == null) {
+            return Money.ZERO;
+        }
+        return sum instanceof Money money ? money : Money.of(new BigDecimal(sum.toString()));
+    }
+
+    private static BigDecimal signed(Money amount, int sign) {
+        return BigDecimal.valueOf(amount != null ? sign * amount.getMinorUnits() : 0, Money.SCALE);
+    }
+}
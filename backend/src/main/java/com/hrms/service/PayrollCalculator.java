@@ -0,0 +1,98 @@
+package com.hrms.service;
+
+import com.hrms.model.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes one employee's pay for a period from already loaded inputs. It does no I/O, so payroll
+ * runs can call it for every employee of a chunk after bulk-loading the inputs.
+ * <p>
+ * {@code Employee.salary} is the monthly salary. The daily rate is the salary divided by the
+ * working days in the period, and the hourly rate is the daily rate divided by the standard hours
+ * of the employee's shift. Tax comes from the {@link TaxBracketService} table of the employee's
+ * region for the year, either on the month alone or cumulatively over the fiscal year to date.
+ */
+@Component
+public class PayrollCalculator {
+
+    @Value("${hrms.payroll.overtime-multiplier:1.5}")
+    private double overtimeMultiplier;
+
+    @Autowired
+    private TaxBracketService taxBracketService;
+
+    /**
+     * Fills {@code result} with the pay in minor units. Only primitive arithmetic is used, so the
+     * calculation itself allocates nothing; a batch that keeps every employee's pay needs one
+     * {@link Result} per employee rather than one object per amount.
+     *
+     * @param payableDays working days in the period on which the employee was employed
+     */
+    public void calculate(long monthlySalary, int workingDays, int payableDays, double standardHours,
+                          double overtimeHours, int unpaidLeaveDays, String region, int year, Result result) {
+        calculate(monthlySalary, workingDays, payableDays, standardHours, overtimeHours, unpaidLeaveDays,
+                region, year, 0, 0, 0, result);
+    }
+
+    /**
+     * Like {@link #calculate(long, int, int, double, double, int, String, int, Result)}, but when
+     * {@code fiscalPeriod} is positive the tax is withheld cumulatively: the tax owed on the fiscal
+     * year's gross pay so far, this month included, less the tax already withheld. When more was
+     * withheld than is owed, after a drop in pay, the month's tax is zero rather than a refund, so
+     * net pay never exceeds gross; the surplus lowers the tax of the following months instead.
+     *
+     * @param year tax table year, the fiscal year when withholding cumulatively
+     * @param fiscalPeriod month of the fiscal year being paid, from 1, or 0 to tax the month alone
+     * @param ytdGrossSalary gross pay of the fiscal year before this month
+     * @param ytdTaxDeductions tax withheld in the fiscal year before this month
+     */
+    public void calculate(long monthlySalary, int workingDays, int payableDays, double standardHours,
+                          double overtimeHours, int unpaidLeaveDays, String region, int year,
+                          int fiscalPeriod, long ytdGrossSalary, long ytdTaxDeductions, Result result) {
+        result.clear();
+        if (workingDays <= 0) {
+            return;
+        }
+        result.baseSalary = Money.multiply(monthlySalary, Math.min(payableDays, workingDays), workingDays);
+        result.overtimePay = standardHours > 0
+                ? Money.multiply(monthlySalary, overtimeHours * overtimeMultiplier / (workingDays * standardHours))
+                : 0;
+        result.unpaidLeaveDeduction = Math.min(result.baseSalary, Money.multiply(monthlySalary, unpaidLeaveDays, workingDays));
+        result.grossSalary = result.baseSalary + result.overtimePay - result.unpaidLeaveDeduction;
+        result.taxDeductions = fiscalPeriod > 0
+                ? Math.max(0, taxBracketService.calculateCumulativeTax(region, year, ytdGrossSalary + result.grossSalary, fiscalPeriod)
+                        - ytdTaxDeductions)
+                : taxBracketService.calculateTax(region, year, result.grossSalary);
+        result.netPay = result.grossSalary - result.taxDeductions;
+    }
+
+    /**
+     * One employee's pay, in minor units.
+     */
+    public static final class Result {
+        private long baseSalary;
+        private long overtimePay;
+        private long unpaidLeaveDeduction;
+        private long grossSalary;
+        private long taxDeductions;
+        private long netPay;
+
+        void clear() {
+            baseSalary = 0;
+            overtimePay = 0;
+            unpaidLeaveDeduction = 0;
+            grossSalary = 0;
+            taxDeductions = 0;
+            netPay = 0;
+        }
+
+        public long getBaseSalary() { return baseSalary; }
+        public long getOvertimePay() { return overtimePay; }
+        public long getUnpaidLeaveDeduction() { return unpaidLeaveDeduction; }
+        public long getGrossSalary() { return grossSalary; }
+        public long getTaxDeductions() { return taxDeductions; }
+        public long getNetPay() { return netPay; }
+    }
+}
@@ -0,0 +1,489 @@
+package com.hrms.service;
+
+import com.hrms.dto.PayrollDiffEntryDTO;
+import com.hrms.dto.PayrollRunDiffDTO;
+import com.hrms.model.Money;
+import com.hrms.model.Payroll;
+import com.hrms.model.PayrollHashNode;
+import com.hrms.model.PayrollRun;
+import com.hrms.model.PayrollRunStatus;
+import com.hrms.repository.PayrollRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Content hashes of payroll rows and a hash tree per payroll run, used to find the employees whose
+ * figures changed between two runs and to detect rows edited outside the application.
+ * <p>
+ * Every row carries the SHA-256 of its figures, computed when it is written. When a run completes,
+ * its row hashes are copied into {@link PayrollHashNode} leaves and rolled up per bucket of
+ * employee ids within each department, per department, and into the run's root hash. Comparing two
+ * runs descends only into departments and then buckets whose hashes differ, so the work is
+ * proportional to what changed rather than to the number of employees paid. Rows edited or deleted
+ * through the application update their leaf and its path to the root in the same transaction.
+ */
+@Service
+@Transactional
+public class PayrollHashService {
+
+    // Fixed, so trees of runs built at different times stay comparable
+    static final int BUCKETS = 256;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(PayrollHashService::newDigest);
+
+    @Autowired
+    private PayrollRunRepository payrollRunRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * The content hash of a payroll row. Amounts are in minor units; components that are not set
+     * hash as empty.
+     */
+    public static String rowHash(Long employeeId, String employeeName, String department, Long baseSalary,
+                                 Long overtimePay, Long unpaidLeaveDeduction, long grossSalary, long taxDeductions,
+                                 long netPay, LocalDate date) {
+        String content = (employeeId != null ? employeeId : "") + "|" + (employeeName != null ? employeeName : "") +
+                "|" + (department != null ? department : "") + "|" + (baseSalary != null ? baseSalary : "") +
+                "|" + (overtimePay != null ? overtimePay : "") +
+                "|" + (unpaidLeaveDeduction != null ? unpaidLeaveDeduction : "") +
+                "|" + grossSalary + "|" + taxDeductions + "|" + netPay + "|" + date;
+        MessageDigest digest = DIGESTS.get();
+        digest.reset();
+        return HEX.formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static String rowHash(Payroll payroll) {
+        return rowHash(payroll.getEmployeeId(), payroll.getEmployeeName(), payroll.getDepartment(),
+                minor(payroll.getBaseSalary()), minor(payroll.getOvertimePay()), minor(payroll.getUnpaidLeaveDeduction()),
+                payroll.getGrossSalary().getMinorUnits(), payroll.getTaxDeductions().getMinorUnits(),
+                payroll.getNetPay().getMinorUnits(), payroll.getDate());
+    }
+
+    /**
+     * Builds the run's tree from its rows and records the root on the run. Rows written before
+     * rows were hashed get their hash first.
+     */
+    public String buildTree(long runId) {
+        hashUnhashedRows(runId);
+        jdbcTemplate.update("DELETE FROM payroll_hash_nodes WHERE run_id = ?", runId);
+        jdbcTemplate.update(
+                "INSERT INTO payroll_hash_nodes (run_id, node_level, department, bucket, employee_id, row_count, hash) " +
+                "SELECT run_id, " + PayrollHashNode.LEAF + ", COALESCE(department, ''), MOD(employee_id, " + BUCKETS + "), " +
+                "employee_id, 1, content_hash FROM payroll WHERE run_id = ?",
+                runId);
+
+        TreeBuilder tree = rollUp(runId);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO payroll_hash_nodes (run_id, node_level, department, bucket, row_count, hash) VALUES (?, ?, ?, ?, ?, ?)",
+                tree.nodes, 500, (ps, node) -> {
+                    ps.setLong(1, runId);
+                    ps.setInt(2, (Integer) node[0]);
+                    ps.setString(3, (String) node[1]);
+                    ps.setInt(4, (Integer) node[2]);
+                    ps.setLong(5, (Long) node[3]);
+                    ps.setString(6, (String) node[4]);
+                });
+        jdbcTemplate.update("UPDATE payroll_runs SET root_hash = ? WHERE id = ?", tree.root, runId);
+        return tree.root;
+    }
+
+    /**
+     * Brings a run's tree in step with one of its rows edited or deleted through the application,
+     * in the caller's transaction. The employee's leaf is replaced, or removed when {@code row} is
+     * null, and only the buckets and departments it was or now is in are rolled up again, followed
+     * by the root. Runs without a tree are left alone, as theirs is built from the rows on first use.
+     *
+     * @param previousEmployeeId the employee the row belonged to before the change
+     */
+    public void rowChanged(long runId, Long previousEmployeeId, Payroll row) {
+        List<String> roots = jdbcTemplate.queryForList(
+                "SELECT root_hash FROM payroll_runs WHERE id = ? FOR UPDATE", String.class, runId);
+        if (roots.isEmpty() || roots.get(0) == null) {
+            return;
+        }
+
+        // department, bucket of every leaf touched
+        Set<List<Object>> buckets = new LinkedHashSet<>();
+        if (previousEmployeeId != null) {
+            jdbcTemplate.query(
+                    "SELECT department, bucket FROM payroll_hash_nodes WHERE run_id = ? AND node_level = " + PayrollHashNode.LEAF +
+                    " AND employee_id = ?",
+                    rs -> {
+                        buckets.add(List.of(rs.getString("department"), rs.getInt("bucket")));
+                    },
+                    runId, previousEmployeeId);
+            jdbcTemplate.update("DELETE FROM payroll_hash_nodes WHERE run_id = ? AND node_level = " + PayrollHashNode.LEAF +
+                    " AND employee_id = ?", runId, previousEmployeeId);
+        }
+        if (row != null && row.getEmployeeId() != null) {
+            String department = row.getDepartment() != null ? row.getDepartment() : "";
+            int bucket = (int) Math.floorMod(row.getEmployeeId(), (long) BUCKETS);
+            jdbcTemplate.update(
+                    "INSERT INTO payroll_hash_nodes (run_id, node_level, department, bucket, employee_id, row_count, hash) " +
+                    "VALUES (?, " + PayrollHashNode.LEAF + ", ?, ?, ?, 1, ?)",
+                    runId, department, bucket, row.getEmployeeId(), row.getContentHash());
+            buckets.add(List.of(department, bucket));
+        }
+
+        Set<String> departments = new LinkedHashSet<>();
+        for (List<Object> bucket : buckets) {
+            String department = (String) bucket.get(0);
+            rollUpNode(runId, PayrollHashNode.BUCKET, department, (Integer) bucket.get(1),
+                    "SELECT employee_id AS child, row_count, hash FROM payroll_hash_nodes WHERE run_id = ? AND node_level = " +
+                    PayrollHashNode.LEAF + " AND department = ? AND bucket = ? ORDER BY employee_id",
+                    runId, department, bucket.get(1));
+            departments.add(department);
+        }
+        for (String department : departments) {
+            rollUpNode(runId, PayrollHashNode.DEPARTMENT, department, -1,
+                    "SELECT bucket AS child, row_count, hash FROM payroll_hash_nodes WHERE run_id = ? AND node_level = " +
+                    PayrollHashNode.BUCKET + " AND department = ? ORDER BY bucket",
+                    runId, department);
+        }
+
+        MessageDigest rootDigest = newDigest();
+        jdbcTemplate.query(
+                "SELECT department, hash FROM payroll_hash_nodes WHERE run_id = ? AND node_level = " + PayrollHashNode.DEPARTMENT +
+                " ORDER BY department",
+                rs -> {
+                    TreeBuilder.update(rootDigest, rs.getString("department") + ":" + rs.getString("hash") + "\n");
+                },
+                runId);
+        jdbcTemplate.update("UPDATE payroll_runs SET root_hash = ? WHERE id = ?", HEX.formatHex(rootDigest.digest()), runId);
+    }
+
+    // Replaces a bucket or department node with the hash of its children, the same way TreeBuilder
+    // rolls them up, or drops it when it has none left
+    private void rollUpNode(long runId, int level, String department, int bucket, String childrenSql, Object... args) {
+        MessageDigest digest = newDigest();
+        long[] rows = new long[1];
+        jdbcTemplate.query(childrenSql,
+                rs -> {
+                    TreeBuilder.update(digest, rs.getLong("child") + ":" + rs.getString("hash") + "\n");
+                    rows[0] += rs.getLong("row_count");
+                },
+                args);
+        jdbcTemplate.update("DELETE FROM payroll_hash_nodes WHERE run_id = ? AND node_level = ? AND department = ? AND bucket = ?",
+                runId, level, department, bucket);
+        if (rows[0] > 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO payroll_hash_nodes (run_id, node_level, department, bucket, row_count, hash) VALUES (?, ?, ?, ?, ?, ?)",
+                    runId, level, department, bucket, rows[0], HEX.formatHex(digest.digest()));
+        }
+    }
+
+    /**
+     * Removes the trees of a period's superseded runs except the latest, which later runs are
+     * compared against.
+     */
+    public void pruneSuperseded(String period, long keepRunId) {
+        jdbcTemplate.update(
+                "DELETE n FROM payroll_hash_nodes n JOIN payroll_runs r ON r.id = n.run_id " +
+                "WHERE r.pay_period = ? AND r.status = 'SUPERSEDED' AND r.id <> ?",
+                period, keepRunId);
+    }
+
+    /**
+     * Employees whose figures differ between the run and an earlier run of its period, by default
+     * the latest one before it.
+     */
+    public PayrollRunDiffDTO diff(Long runId, Long previousRunId) {
+        PayrollRun run = withTree(runId);
+        if (previousRunId == null) {
+            previousRunId = jdbcTemplate.query(
+                    "SELECT id FROM payroll_runs WHERE pay_period = ? AND id < ? AND root_hash IS NOT NULL ORDER BY id DESC LIMIT 1",
+                    rs -> {
+                        return rs.next() ? rs.getLong(1) : null;
+                    },
+                    run.getPeriod(), runId);
+            if (previousRunId == null) {
+                throw new RuntimeException("No earlier payroll run of " + run.getPeriod() + " to compare with");
+            }
+        }
+        PayrollRun previous = withTree(previousRunId);
+
+        PayrollRunDiffDTO diff = new PayrollRunDiffDTO();
+        diff.setRunId(runId);
+        diff.setPreviousRunId(previousRunId);
+        diff.setIdentical(run.getRootHash().equals(previous.getRootHash()));
+        diff.setChangedDepartments(new ArrayList<>());
+        diff.setChanges(new ArrayList<>());
+        if (diff.isIdentical()) {
+            return diff;
+        }
+
+        Map<String, String> departments = departmentHashes(runId);
+        Map<String, String> previousDepartments = departmentHashes(previousRunId);
+        Set<String> allDepartments = new TreeSet<>(departments.keySet());
+        allDepartments.addAll(previousDepartments.keySet());
+
+        // Leaves of the changed buckets on each side, by employee
+        Map<Long, String[]> leaves = new HashMap<>();
+        Map<Long, String[]> previousLeaves = new HashMap<>();
+        int bucketsCompared = 0;
+        for (String department : allDepartments) {
+            if (Objects.equals(departments.get(department), previousDepartments.get(department))) {
+                continue;
+            }
+            diff.getChangedDepartments().add(department);
+            Map<Integer, String> buckets = bucketHashes(runId, department);
+            Map<Integer, String> previousBuckets = bucketHashes(previousRunId, department);
+            List<Integer> changedBuckets = new ArrayList<>();
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                if (!Objects.equals(buckets.get(bucket), previousBuckets.get(bucket))) {
+                    changedBuckets.add(bucket);
+                }
+            }
+            bucketsCompared += changedBuckets.size();
+            loadLeaves(runId, department, changedBuckets, leaves);
+            loadLeaves(previousRunId, department, changedBuckets, previousLeaves);
+        }
+        diff.setBucketsCompared(bucketsCompared);
+
+        // An employee who moved department is in a changed bucket on both sides
+        Set<Long> employeeIds = new TreeSet<>(leaves.keySet());
+        employeeIds.addAll(previousLeaves.keySet());
+        for (Long employeeId : employeeIds) {
+            String[] leaf = leaves.get(employeeId);
+            String[] previousLeaf = previousLeaves.get(employeeId);
+            if (leaf == null) {
+                diff.getChanges().add(new PayrollDiffEntryDTO(employeeId, null, department(previousLeaf[0]), "REMOVED"));
+            } else if (previousLeaf == null) {
+                diff.getChanges().add(new PayrollDiffEntryDTO(employeeId, department(leaf[0]), null, "ADDED"));
+            } else if (!leaf[1].equals(previousLeaf[1])) {
+                diff.getChanges().add(new PayrollDiffEntryDTO(employeeId, department(leaf[0]), department(previousLeaf[0]), "CHANGED"));
+            }
+        }
+        diff.setChangedDepartments(diff.getChangedDepartments().stream().map(PayrollHashService::department).toList());
+        return diff;
+    }
+
+    /**
+     * Checks a completed run's rows against their content hashes and its tree, reporting rows that
+     * were changed, removed or added other than through the application.
+     */
+    public Map<String, Object> verify(Long runId) {
+        PayrollRun run = withTree(runId);
+        if (run.getStatus() != PayrollRunStatus.COMPLETED) {
+            throw new RuntimeException("Payroll run " + runId + " is " + run.getStatus() + "; only completed runs have rows to verify");
+        }
+
+        long[] rowsChecked = new long[1];
+        List<Long> modified = new ArrayList<>();
+        List<Long> added = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT p.employee_id, p.employee_name, p.department, p.base_salary, p.overtime_pay, p.unpaid_leave_deduction, " +
+                "p.gross_salary, p.tax_deductions, p.net_pay, p.date, p.content_hash, n.hash AS leaf_hash " +
+                "FROM payroll p LEFT JOIN payroll_hash_nodes n ON n.run_id = p.run_id AND n.node_level = " + PayrollHashNode.LEAF +
+                " AND n.employee_id = p.employee_id WHERE p.run_id = ?",
+                rs -> {
+                    rowsChecked[0]++;
+                    long employeeId = rs.getLong("employee_id");
+                    String hash = rowHash(employeeId, rs.getString("employee_name"), rs.getString("department"),
+                            minor(rs.getBigDecimal("base_salary")), minor(rs.getBigDecimal("overtime_pay")),
+                            minor(rs.getBigDecimal("unpaid_leave_deduction")), Money.toMinor(rs.getBigDecimal("gross_salary")),
+                            Money.toMinor(rs.getBigDecimal("tax_deductions")), Money.toMinor(rs.getBigDecimal("net_pay")),
+                            rs.getDate("date").toLocalDate());
+                    String leafHash = rs.getString("leaf_hash");
+                    if (leafHash == null) {
+                        added.add(employeeId);
+                    } else if (!hash.equals(rs.getString("content_hash")) || !hash.equals(leafHash)) {
+                        modified.add(employeeId);
+                    }
+                },
+                runId);
+        List<Long> removed = jdbcTemplate.queryForList(
+                "SELECT n.employee_id FROM payroll_hash_nodes n " +
+                "LEFT JOIN payroll p ON p.run_id = n.run_id AND p.employee_id = n.employee_id " +
+                "WHERE n.run_id = ? AND n.node_level = " + PayrollHashNode.LEAF + " AND p.id IS NULL",
+                Long.class, runId);
+        boolean treeIntact = rollUp(runId).root.equals(run.getRootHash());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("runId", runId);
+        result.put("rowsChecked", rowsChecked[0]);
+        result.put("intact", modified.isEmpty() && added.isEmpty() && removed.isEmpty() && treeIntact);
+        result.put("modifiedEmployees", modified);
+        result.put("addedEmployees", added);
+        result.put("removedEmployees", removed);
+        result.put("treeIntact", treeIntact);
+        return result;
+    }
+
+    // Runs that completed before trees were kept get theirs on first use
+    private PayrollRun withTree(Long runId) {
+        PayrollRun run = payrollRunRepository.findById(runId)
+                .orElseThrow(() -> new RuntimeException("Payroll run not found with id: " + runId));
+        if (run.getRootHash() == null) {
+            if (run.getStatus() != PayrollRunStatus.COMPLETED) {
+                throw new RuntimeException("Payroll run " + runId + " is " + run.getStatus() + " and has no hash tree");
+            }
+            run.setRootHash(buildTree(runId));
+        }
+        return run;
+    }
+
+    private void hashUnhashedRows(long runId) {
+        List<Object[]> hashes = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT id, employee_id, employee_name, department, base_salary, overtime_pay, unpaid_leave_deduction, " +
+                "gross_salary, tax_deductions, net_pay, date FROM payroll WHERE run_id = ? AND content_hash IS NULL",
+                rs -> {
+                    hashes.add(new Object[]{rowHash(rs.getLong("employee_id"), rs.getString("employee_name"),
+                            rs.getString("department"), minor(rs.getBigDecimal("base_salary")),
+                            minor(rs.getBigDecimal("overtime_pay")), minor(rs.getBigDecimal("unpaid_leave_deduction")),
+                            Money.toMinor(rs.getBigDecimal("gross_salary")), Money.toMinor(rs.getBigDecimal("tax_deductions")),
+                            Money.toMinor(rs.getBigDecimal("net_pay")), rs.getDate("date").toLocalDate()),
+                            rs.getLong("id")});
+                },
+                runId);
+        if (!hashes.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE payroll SET content_hash = ? WHERE id = ?", hashes);
+        }
+    }
+
+    // Streams the run's leaves in tree order, rolling them up without loading them all
+    private TreeBuilder rollUp(long runId) {
+        TreeBuilder tree = new TreeBuilder();
+        jdbcTemplate.query(
+                "SELECT department, bucket, employee_id, hash FROM payroll_hash_nodes " +
+                "WHERE run_id = ? AND node_level = " + PayrollHashNode.LEAF + " ORDER BY department, bucket, employee_id",
+                rs -> {
+                    tree.leaf(rs.getString("department"), rs.getInt("bucket"), rs.getLong("employee_id"), rs.getString("hash"));
+                },
+                runId);
+        tree.finish();
+        return tree;
+    }
+
+    private Map<String, String> departmentHashes(long runId) {
+        Map<String, String> hashes = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT department, hash FROM payroll_hash_nodes WHERE run_id = ? AND node_level = " + PayrollHashNode.DEPARTMENT,
+                rs -> {
+                    hashes.put(rs.getString("department"), rs.getString("hash"));
+                },
+                runId);
+        return hashes;
+    }
+
+    private Map<Integer, String> bucketHashes(long runId, String department) {
+        Map<Integer, String> hashes = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT bucket, hash FROM payroll_hash_nodes WHERE run_id = ? AND node_level = " + PayrollHashNode.BUCKET +
+                " AND department = ?",
+                rs -> {
+                    hashes.put(rs.getInt("bucket"), rs.getString("hash"));
+                },
+                runId, department);
+        return hashes;
+    }
+
+    private void loadLeaves(long runId, String department, List<Integer> buckets, Map<Long, String[]> leaves) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(List.of(runId, department));
+        args.addAll(buckets);
+        jdbcTemplate.query(
+                "SELECT employee_id, hash FROM payroll_hash_nodes WHERE run_id = ? AND node_level = " + PayrollHashNode.LEAF +
+                " AND department = ? AND bucket IN (" + String.join(", ", Collections.nCopies(buckets.size(), "?")) + ")",
+                rs -> {
+                    leaves.put(rs.getLong("employee_id"), new String[]{department, rs.getString("hash")});
+                },
+                args.toArray());
+    }
+
+    private static String department(String key) {
+        return key.isEmpty() ? null : key;
+    }
+
+    private static Long minor(Money amount) {
+        return amount != null ? amount.getMinorUnits() : null;
+    }
+
+    private static Long minor(BigDecimal amount) {
+        return amount != null ? Money.toMinor(amount) : null;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Rolls up leaves given in department, bucket, employee order into bucket and department nodes
+     * and the root.
+     */
+    private static final class TreeBuilder {
+        // level, department, bucket, row count, hash
+        private final List<Object[]> nodes = new ArrayList<>();
+        private final MessageDigest bucketDigest = newDigest();
+        private final MessageDigest departmentDigest = newDigest();
+        private final MessageDigest rootDigest = newDigest();
+        private String department;
+        private int bucket = -1;
+        private long bucketRows;
+        private long departmentRows;
+        private String root;
+
+        void leaf(String leafDepartment, int leafBucket, long employeeId, String hash) {
+            if (!leafDepartment.equals(department)) {
+                closeDepartment();
+                department = leafDepartment;
+            } else if (leafBucket != bucket) {
+                closeBucket();
+            }
+            bucket = leafBucket;
+            update(bucketDigest, employeeId + ":" + hash + "\n");
+            bucketRows++;
+            departmentRows++;
+        }
+
+        void finish() {
+            closeDepartment();
+            root = HEX.formatHex(rootDigest.digest());
+        }
+
+        private void closeBucket() {
+            if (bucketRows == 0) {
+                return;
+            }
+            String hash = HEX.formatHex(bucketDigest.digest());
+            nodes.add(new Object[]{PayrollHashNode.BUCKET, department, bucket, bucketRows, hash});
+            update(departmentDigest, bucket + ":" + hash + "\n");
+            bucketRows = 0;
+        }
+
+        private void closeDepartment() {
+            closeBucket();
+            if (departmentRows == 0) {
+                return;
+            }
+            String hash = HEX.formatHex(departmentDigest.digest());
+            nodes.add(new Object[]{PayrollHashNode.DEPARTMENT, department, -1, departmentRows, hash});
+            update(rootDigest, department + ":" + hash + "\n");
+            departmentRows = 0;
+        }
+
+        private static void update(MessageDigest digest, String value) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
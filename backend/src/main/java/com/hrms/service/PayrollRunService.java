@@ -0,0 +1,496 @@
+package com.hrms.service;
+
+import com.hrms.model.Money;
+import com.hrms.model.PayrollRun;
+import com.hrms.model.PayrollRunStatus;
+import com.hrms.repository.EmployeeRepository;
+import com.hrms.repository.PayrollRunRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes payroll for every active employee for a pay period.
+ * <p>
+ * The employee id range is split into chunks that a bounded pool of workers claims from a shared
+ * cursor. Each chunk bulk-loads its employees, their overtime hours and their approved unpaid leave
+ * with one query each, computes pay with {@link PayrollCalculator} and writes the rows with one
+ * batched insert, all in one transaction. The highest employee id below which every chunk has
+ * completed is checkpointed on the run, and employees that already have a row in the run are
+ * skipped, so a stopped, failed or interrupted run resumes without paying anyone twice.
+ * <p>
+ * Only one run per period can be unfinished at a time. When a run completes, the rows of the
+ * period's previous run are removed and that run is marked superseded, and the payroll aggregates
+ * are moved from the old run to the new one in the same transaction. The run's
+ * {@link PayrollHashService} tree is built in that transaction too, so it can be compared with the
+ * run it replaced. The period's payslips are then generated by {@link PayslipService}.
+ * <p>
+ * Each row records the salary, overtime hours and unpaid leave days it was computed from. Inputs
+ * that change after an employee has been paid are tracked by {@link RetroPayTracker}, and
+ * {@link RetroPayService} recomputes just those employees with {@link #computePay}.
+ */
+@Service
+public class PayrollRunService {
+
+    private static final Logger log = LoggerFactory.getLogger(PayrollRunService.class);
+
+    // Year-to-date gross and tax of employees paid nothing yet this fiscal year
+    private static final long[] NOTHING_PAID = new long[2];
+
+    @Autowired
+    private PayrollRunRepository payrollRunRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PayrollCalculator payrollCalculator;
+
+    @Autowired
+    private HolidayCalendarService holidayCalendarService;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private PayrollAggregateService payrollAggregateService;
+
+    @Autowired
+    private PayslipService payslipService;
+
+    @Autowired
+    private PayrollHashService payrollHashService;
+
+    @Autowired
+    private RetroPayTracker retroPayTracker;
+
+    @Autowired
+    private PayrollYtdService payrollYtdService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${hrms.payroll.runs.parallelism:8}")
+    private int parallelism;
+
+    @Value("${hrms.payroll.runs.chunk-size:1000}")
+    private long chunkSize;
+
+    @Value("${hrms.payroll.payslips.generate-after-run:true}")
+    private boolean generatePayslips;
+
+    @Value("${hrms.payroll.tax.cumulative:false}")
+    private boolean cumulativeTax;
+
+    private final AtomicBoolean executing = new AtomicBoolean();
+    private final AtomicBoolean stopRequested = new AtomicBoolean();
+
+    private final AtomicLong employeesPaid = new AtomicLong();
+    private final AtomicLong employeesSkipped = new AtomicLong();
+    private volatile Long executingRunId;
+    private volatile long checkpointId;
+    private volatile String error;
+
+    // Completed chunk start ids above the checkpoint, waiting for the chunks before them
+    private final TreeSet<Long> completedAhead = new TreeSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedRuns() {
+        int interrupted = payrollRunRepository.markInterrupted();
+        if (interrupted > 0) {
+            log.warn("{} payroll run(s) were interrupted by a shutdown and can be resumed", interrupted);
+        }
+    }
+
+    /**
+     * Creates a run for the period and starts it in the background.
+     */
+    public PayrollRun start(YearMonth period) {
+        if (period.isAfter(YearMonth.now())) {
+            throw new RuntimeException("Cannot run payroll for a future period: " + period);
+        }
+        if (!executing.compareAndSet(false, true)) {
+            throw new RuntimeException("Another payroll run is in progress");
+        }
+        try {
+            PayrollRun run = createRun(period);
+            execute(run);
+            return run;
+        } catch (RuntimeException e) {
+            executing.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Continues a stopped or failed run from its checkpoint.
+     */
+    public PayrollRun resume(Long runId) {
+        if (!executing.compareAndSet(false, true)) {
+            throw new RuntimeException("Another payroll run is in progress");
+        }
+        try {
+            PayrollRun run = getRun(runId);
+            if (run.getStatus() != PayrollRunStatus.STOPPED && run.getStatus() != PayrollRunStatus.FAILED) {
+                throw new RuntimeException("Payroll run " + runId + " is " + run.getStatus() + " and cannot be resumed");
+            }
+            run.setStatus(PayrollRunStatus.RUNNING);
+            run.setError(null);
+            run.setStartedAt(LocalDateTime.now());
+            run.setFinishedAt(null);
+            run = payrollRunRepository.saveAndFlush(run);
+            execute(run);
+            return run;
+        } catch (RuntimeException e) {
+            executing.set(false);
+            throw e;
+        }
+    }
+
+    private PayrollRun createRun(YearMonth period) {
+        List<Object[]> range = employeeRepository.getIdRange();
+        boolean empty = range.isEmpty() || range.get(0)[0] == null;
+        PayrollRun run = new PayrollRun();
+        run.setPeriod(period.toString());
+        run.setActivePeriod(period.toString());
+        run.setStatus(PayrollRunStatus.RUNNING);
+        run.setFirstEmployeeId(empty ? 1L : ((Number) range.get(0)[0]).longValue());
+        run.setLastEmployeeId(empty ? 0L : ((Number) range.get(0)[1]).longValue());
+        run.setCheckpointId(run.getFirstEmployeeId() - 1);
+        run.setCreatedAt(LocalDateTime.now());
+        run.setStartedAt(LocalDateTime.now());
+        try {
+            run = payrollRunRepository.saveAndFlush(run);
+        } catch (DataIntegrityViolationException e) {
+            Long unfinished = payrollRunRepository.findByActivePeriod(period.toString()).map(PayrollRun::getId).orElse(null);
+            throw new RuntimeException("Payroll run " + unfinished + " for " + period + " is not finished; resume it instead");
+        }
+        return run;
+    }
+
+    public void stop(Long runId) {
+        if (!runId.equals(executingRunId)) {
+            throw new RuntimeException("Payroll run " + runId + " is not running");
+        }
+        stopRequested.set(true);
+    }
+
+    public PayrollRun getRun(Long runId) {
+        return payrollRunRepository.findById(runId)
+                .orElseThrow(() -> new RuntimeException("Payroll run not found with id: " + runId));
+    }
+
+    public List<PayrollRun> getRuns(YearMonth period) {
+        return period != null
+                ? payrollRunRepository.findByPeriodOrderByIdDesc(period.toString())
+                : payrollRunRepository.findTop20ByOrderByIdDesc();
+    }
+
+    // Called with the executing flag already taken
+    private void execute(PayrollRun run) {
+        executingRunId = run.getId();
+        checkpointId = run.getCheckpointId();
+        employeesPaid.set(run.getEmployeesPaid());
+        employeesSkipped.set(run.getEmployeesSkipped());
+        completedAhead.clear();
+        stopRequested.set(false);
+        error = null;
+
+        YearMonth period = YearMonth.parse(run.getPeriod());
+        long runId = run.getId();
+        long lastId = run.getLastEmployeeId();
+        Thread coordinator = new Thread(() -> run(runId, period, lastId), "payroll-run-" + runId);
+        coordinator.setDaemon(true);
+        coordinator.start();
+    }
+
+    private void run(long runId, YearMonth period, long lastId) {
+        AtomicLong cursor = new AtomicLong(checkpointId + 1);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                pool.submit(() -> work(runId, period, lastId, cursor));
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+            if (error != null) {
+                finish(runId, PayrollRunStatus.FAILED, error);
+            } else if (stopRequested.get()) {
+                finish(runId, PayrollRunStatus.STOPPED, null);
+            } else {
+                complete(runId, period);
+                log.info("Payroll run {} for {} completed: {} employees paid, {} skipped",
+                        runId, period, employeesPaid.get(), employeesSkipped.get());
+                if (generatePayslips) {
+                    generatePayslips(period);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        } catch (RuntimeException e) {
+            log.error("Payroll run {} could not be finalized", runId, e);
+            finish(runId, PayrollRunStatus.FAILED, e.getMessage());
+        } finally {
+            executingRunId = null;
+            executing.set(false);
+        }
+    }
+
+    private void work(long runId, YearMonth period, long lastId, AtomicLong cursor) {
+        try {
+            long from;
+            while (!stopRequested.get() && error == null && (from = cursor.getAndAdd(chunkSize)) <= lastId) {
+                long fromId = from;
+                transactionTemplate.executeWithoutResult(status -> payChunk(runId, period, fromId, fromId + chunkSize - 1));
+                markCompleted(runId, from, lastId);
+            }
+        } catch (RuntimeException e) {
+            log.error("Payroll run {} failed", runId, e);
+            error = e.getMessage();
+        }
+    }
+
+    private void payChunk(long runId, YearMonth period, long fromId, long toId) {
+        Set<Long> alreadyPaid = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT employee_id FROM payroll WHERE run_id = ? AND employee_id BETWEEN ? AND ?",
+                Long.class, runId, fromId, toId));
+
+        List<EmployeePay> rows = new ArrayList<>();
+        for (EmployeePay employeePay : computePay(period, "BETWEEN ? AND ?", new Object[]{fromId, toId}, true)) {
+            if (alreadyPaid.contains(employeePay.employeeId)) {
+                continue;
+            }
+            if (employeePay.pay == null) {
+                employeesSkipped.incrementAndGet();
+                continue;
+            }
+            rows.add(employeePay);
+        }
+
+        if (!rows.isEmpty()) {
+            LocalDate periodEnd = period.atEndOfMonth();
+            Date payDate = Date.valueOf(periodEnd);
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO payroll (run_id, employee_id, employee_name, department, base_salary, overtime_pay, " +
+                    "unpaid_leave_deduction, gross_salary, tax_deductions, net_pay, date, content_hash, " +
+                    "input_salary, overtime_hours, unpaid_leave_days) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    rows, rows.size(), (ps, row) -> {
+                        PayrollCalculator.Result pay = row.pay;
+                        ps.setLong(1, runId);
+                        ps.setLong(2, row.employeeId);
+                        ps.setString(3, row.employeeName);
+                        ps.setString(4, row.department);
+                        ps.setBigDecimal(5, BigDecimal.valueOf(pay.getBaseSalary(), Money.SCALE));
+                        ps.setBigDecimal(6, BigDecimal.valueOf(pay.getOvertimePay(), Money.SCALE));
+                        ps.setBigDecimal(7, BigDecimal.valueOf(pay.getUnpaidLeaveDeduction(), Money.SCALE));
+                        ps.setBigDecimal(8, BigDecimal.valueOf(pay.getGrossSalary(), Money.SCALE));
+                        ps.setBigDecimal(9, BigDecimal.valueOf(pay.getTaxDeductions(), Money.SCALE));
+                        ps.setBigDecimal(10, BigDecimal.valueOf(pay.getNetPay(), Money.SCALE));
+                        ps.setDate(11, payDate);
+                        ps.setString(12, PayrollHashService.rowHash(row.employeeId, row.employeeName, row.department,
+                                pay.getBaseSalary(), pay.getOvertimePay(), pay.getUnpaidLeaveDeduction(),
+                                pay.getGrossSalary(), pay.getTaxDeductions(), pay.getNetPay(), periodEnd));
+                        ps.setBigDecimal(13, BigDecimal.valueOf(row.salary, Money.SCALE));
+                        ps.setDouble(14, row.overtimeHours);
+                        ps.setInt(15, row.unpaidLeaveDays);
+                    });
+            employeesPaid.addAndGet(rows.size());
+        }
+    }
+
+    /**
+     * Computes the period's pay of the employees whose id matches {@code idCondition} (such as
+     * {@code "BETWEEN ? AND ?"} or {@code "IN (?, ?)"}) and who were hired by the end of the period.
+     * Inputs are bulk-loaded with one query each, as are the year-to-date totals when tax is
+     * withheld cumulatively. Employees without a salary are returned without pay.
+     *
+     * @param activeOnly whether to leave out employees who are no longer active
+     */
+    List<EmployeePay> computePay(YearMonth period, String idCondition, Object[] idArgs, boolean activeOnly) {
+        LocalDate periodStart = period.atDay(1);
+        LocalDate periodEnd = period.atEndOfMonth();
+
+        Map<Long, Double> overtimeHours = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT employee_id, SUM(overtime_hours) AS overtime FROM attendance " +
+                "WHERE employee_id " + idCondition + " AND attendance_date BETWEEN ? AND ? AND overtime_hours IS NOT NULL " +
+                "GROUP BY employee_id",
+                rs -> {
+                    overtimeHours.put(rs.getLong("employee_id"), rs.getDouble("overtime"));
+                },
+                args(idArgs, Date.valueOf(periodStart), Date.valueOf(periodEnd)));
+
+        Map<Long, List<LocalDate[]>> unpaidLeaves = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT employee_id, start_date, end_date FROM leave_requests " +
+                "WHERE employee_id " + idCondition + " AND status = 'APPROVED' AND leave_type = 'UNPAID' " +
+                "AND start_date <= ? AND end_date >= ?",
+                rs -> {
+                    LocalDate start = rs.getDate("start_date").toLocalDate();
+                    LocalDate end = rs.getDate("end_date").toLocalDate();
+                    unpaidLeaves.computeIfAbsent(rs.getLong("employee_id"), id -> new ArrayList<>()).add(new LocalDate[]{
+                            start.isBefore(periodStart) ? periodStart : start,
+                            end.isAfter(periodEnd) ? periodEnd : end});
+                },
+                args(idArgs, Date.valueOf(periodEnd), Date.valueOf(periodStart)));
+
+        int fiscalPeriod = cumulativeTax ? payrollYtdService.periodsElapsed(period) : 0;
+        // A cumulative total is taxed with one table for the whole fiscal year
+        int taxYear = cumulativeTax ? payrollYtdService.fiscalYear(period) : period.getYear();
+        Map<Long, long[]> paidBefore = cumulativeTax ? payrollYtdService.getPaidBefore(period, idCondition, idArgs) : Map.of();
+
+        Map<String, Integer> workingDaysByRegion = new HashMap<>();
+        List<EmployeePay> result = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT id, first_name, last_name, department, salary, region, shift_id, hire_date FROM employees " +
+                "WHERE id " + idCondition + (activeOnly ? " AND status = 'ACTIVE'" : "") +
+                " AND (hire_date IS NULL OR hire_date <= ?)",
+                rs -> {
+                    EmployeePay employeePay = new EmployeePay();
+                    employeePay.employeeId = rs.getLong("id");
+                    String lastName = rs.getString("last_name");
+                    employeePay.employeeName = lastName != null ? rs.getString("first_name") + " " + lastName : rs.getString("first_name");
+                    employeePay.department = rs.getString("department");
+                    result.add(employeePay);
+                    BigDecimal salary = rs.getBigDecimal("salary");
+                    if (salary == null) {
+                        return;
+                    }
+                    String region = rs.getString("region") != null ? rs.getString("region") : holidayCalendarService.getDefaultRegion();
+                    Date hired = rs.getDate("hire_date");
+                    LocalDate payableFrom = hired != null && hired.toLocalDate().isAfter(periodStart) ? hired.toLocalDate() : periodStart;
+
+                    int workingDays = workingDaysByRegion.computeIfAbsent(region,
+                            r -> holidayCalendarService.countWorkingDays(r, periodStart, periodEnd));
+                    int payableDays = payableFrom.equals(periodStart)
+                            ? workingDays
+                            : holidayCalendarService.countWorkingDays(region, payableFrom, periodEnd);
+                    int unpaidDays = 0;
+                    for (LocalDate[] leave : unpaidLeaves.getOrDefault(employeePay.employeeId, List.of())) {
+                        unpaidDays += holidayCalendarService.countWorkingDays(region, leave[0], leave[1]);
+                    }
+                    long shiftId = rs.getLong("shift_id");
+                    double standardHours = shiftService.getStandardHours(rs.wasNull() ? null : shiftId);
+
+                    employeePay.salary = Money.toMinor(salary);
+                    employeePay.overtimeHours = overtimeHours.getOrDefault(employeePay.employeeId, 0.0);
+                    employeePay.unpaidLeaveDays = unpaidDays;
+                    long[] ytd = paidBefore.getOrDefault(employeePay.employeeId, NOTHING_PAID);
+                    employeePay.pay = new PayrollCalculator.Result();
+                    payrollCalculator.calculate(employeePay.salary, workingDays, payableDays, standardHours,
+                            employeePay.overtimeHours, unpaidDays, region, taxYear,
+                            fiscalPeriod, ytd[0], ytd[1], employeePay.pay);
+                },
+                args(idArgs, Date.valueOf(periodEnd)));
+        return result;
+    }
+
+    private static Object[] args(Object[] idArgs, Object... more) {
+        Object[] args = Arrays.copyOf(idArgs, idArgs.length + more.length);
+        System.arraycopy(more, 0, args, idArgs.length, more.length);
+        return args;
+    }
+
+    // Advances the checkpoint past every chunk completed without a gap before it
+    synchronized void markCompleted(long runId, long chunkStart, long lastId) {
+        completedAhead.add(chunkStart);
+        long next = checkpointId + 1;
+        boolean advanced = false;
+        while (!completedAhead.isEmpty() && completedAhead.first() == next) {
+            completedAhead.pollFirst();
+            checkpointId = Math.min(next + chunkSize - 1, lastId);
+            next = checkpointId + 1;
+            advanced = true;
+        }
+        if (advanced) {
+            jdbcTemplate.update("UPDATE payroll_runs SET checkpoint_id = ?, employees_paid = ?, employees_skipped = ? WHERE id = ?",
+                    checkpointId, employeesPaid.get(), employeesSkipped.get(), runId);
+        }
+    }
+
+    // Replaces the period's previous run and releases the period, in one transaction
+    private void complete(long runId, YearMonth period) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> previousRuns = jdbcTemplate.queryForList(
+                    "SELECT id FROM payroll_runs WHERE pay_period = ? AND status = 'COMPLETED' AND id <> ?",
+                    Long.class, period.toString(), runId);
+            for (Long previousRun : previousRuns) {
+                payrollAggregateService.runRemoved(previousRun);
+                jdbcTemplate.update("DELETE FROM payroll WHERE run_id = ?", previousRun);
+                jdbcTemplate.update("UPDATE payroll_runs SET status = 'SUPERSEDED' WHERE id = ?", previousRun);
+            }
+            payrollAggregateService.runAdded(runId);
+            payrollHashService.buildTree(runId);
+            if (!previousRuns.isEmpty()) {
+                payrollHashService.pruneSuperseded(period.toString(), Collections.max(previousRuns));
+            }
+            retroPayTracker.runCompleted(period, jdbcTemplate.queryForObject(
+                    "SELECT created_at FROM payroll_runs WHERE id = ?", LocalDateTime.class, runId));
+            // Counted from the rows, since chunks redone after a resume are not counted twice
+            Long paid = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payroll WHERE run_id = ?", Long.class, runId);
+            employeesPaid.set(paid != null ? paid : 0);
+            jdbcTemplate.update(
+                    "UPDATE payroll_runs SET status = 'COMPLETED', active_period = NULL, checkpoint_id = last_employee_id, " +
+                    "employees_paid = ?, employees_skipped = ?, error = NULL, finished_at = ? WHERE id = ?",
+                    employeesPaid.get(), employeesSkipped.get(), LocalDateTime.now(), runId);
+        });
+    }
+
+    // The run stays completed whatever happens here; payslips can be generated again by hand
+    private void generatePayslips(YearMonth period) {
+        try {
+            if (!payslipService.start(period)) {
+                log.warn("Payslips for {} were not generated, another generation is in progress", period);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not start generating payslips for {}: {}", period, e.getMessage());
+        }
+    }
+
+    private void finish(long runId, PayrollRunStatus status, String message) {
+        jdbcTemplate.update(
+                "UPDATE payroll_runs SET status = ?, checkpoint_id = ?, employees_paid = ?, employees_skipped = ?, error = ?, finished_at = ? " +
+                "WHERE id = ?",
+                status.name(), checkpointId, employeesPaid.get(), employeesSkipped.get(),
+                message != null && message.length() > 1000 ? message.substring(0, 1000) : message, LocalDateTime.now(), runId);
+    }
+
+    /**
+     * One employee's computed pay for a period and the inputs it was derived from.
+     */
+    static final class EmployeePay {
+        long employeeId;
+        String employeeName;
+        String department;
+        // Minor units
+        long salary;
+        double overtimeHours;
+        int unpaidLeaveDays;
+        // Null when the employee has no salary
+        PayrollCalculator.Result pay;
+    }
+}
@@ -0,0 +1,287 @@
+package com.hrms.service;
+
+import com.hrms.model.Employee;
+import com.hrms.model.Money;
+import com.hrms.model.Payroll;
+import com.hrms.model.PayrollRunStatus;
+import com.hrms.repository.EmployeeRepository;
+import com.hrms.repository.PayrollRepository;
+import com.hrms.repository.PayrollRunRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Payroll records linked to employees by id.
+ * <p>
+ * Older records only carried the employee's name. On startup those are linked to the employee
+ * with exactly that full name, in id-range chunks, and the foreign key from
+ * {@code payroll.employee_id} to {@code employees.id} is added if missing. Names that match no
+ * employee or several are left unlinked and are still counted and searchable by name.
+ * <p>
+ * Tax and net pay of records created or updated by hand are computed from the gross salary with
+ * the {@link TaxBracketService} table of the employee's region, whatever the client sent.
+ * <p>
+ * Creating, updating and deleting a record adjusts the {@link PayrollAggregateService} totals in
+ * the same transaction.
+ */
+@Service
+@Transactional
+public class PayrollService {
+
+    private static final Logger log = LoggerFactory.getLogger(PayrollService.class);
+
+    private static final String EMPLOYEE_FOREIGN_KEY = "fk_payroll_employee";
+
+    // Money columns created as DOUBLE before amounts were stored as fixed-point decimals
+    private static final String[][] MONEY_COLUMNS = {
+            {"payroll", "gross_salary", "NOT NULL"},
+            {"payroll", "tax_deductions", "NOT NULL"},
+            {"payroll", "net_pay", "NOT NULL"},
+            {"payroll", "base_salary", "NULL"},
+            {"payroll", "overtime_pay", "NULL"},
+            {"payroll", "unpaid_leave_deduction", "NULL"},
+            {"payroll_aggregates", "gross_salary", "NOT NULL"},
+            {"payroll_aggregates", "tax_deductions", "NOT NULL"},
+            {"payroll_aggregates", "net_pay", "NOT NULL"},
+            {"employees", "salary", "NULL"}
+    };
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PayrollRunRepository payrollRunRepository;
+
+    @Autowired
+    private PayrollAggregateService payrollAggregateService;
+
+    @Autowired
+    private PayrollYtdService payrollYtdService;
+
+    @Autowired
+    private TaxBracketService taxBracketService;
+
+    @Autowired
+    private PayrollHashService payrollHashService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${hrms.payroll.link-chunk-size:10000}")
+    private long linkChunkSize;
+
+    @Value("${hrms.payroll.tax.cumulative:false}")
+    private boolean cumulativeTax;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void linkEmployees() {
+        try {
+            ensureDecimalMoneyColumns();
+            ensureEmployeeForeignKey();
+            int linked = 0;
+            List<Object[]> range = payrollRepository.getIdRange();
+            if (!range.isEmpty() && range.get(0)[0] != null && payrollRepository.countUnlinked() > 0) {
+                long minId = ((Number) range.get(0)[0]).longValue();
+                long maxId = ((Number) range.get(0)[1]).longValue();
+                for (long fromId = minId; fromId <= maxId; fromId += linkChunkSize) {
+                    // Each chunk commits on its own so payroll rows are locked only briefly
+                    linked += payrollRepository.linkEmployeesByName(fromId, fromId + linkChunkSize - 1);
+                }
+                log.info("Linked {} payroll records to employees by name, {} left unlinked", linked, payrollRepository.countUnlinked());
+            }
+            // First start with aggregates, built once the departments are known
+            if (payrollAggregateService.needsRebuild()) {
+                payrollAggregateService.rebuild();
+            }
+            // Rows just linked to an employee were not counted in any accumulator
+            if (linked > 0 || payrollYtdService.isEmpty()) {
+                payrollYtdService.rebuild();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not link payroll records to employees: {}", e.getMessage());
+        }
+    }
+
+    public List<Payroll> getPayrollsByEmployeeId(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        if (startDate != null || endDate != null) {
+            return payrollRepository.findByEmployeeIdAndDateBetweenOrderByDateDesc(employeeId,
+                    startDate != null ? startDate : LocalDate.of(1900, 1, 1),
+                    endDate != null ? endDate : LocalDate.of(9999, 12, 31));
+        }
+        return payrollRepository.findByEmployeeIdOrderByDateDesc(employeeId);
+    }
+
+    public List<Payroll> getPayrollsByEmployeeName(String employeeName) {
+        return payrollRepository.findByEmployeeNameOrderByDateDesc(employeeName.trim());
+    }
+
+    public Payroll createPayroll(Payroll payroll) {
+        payroll.setId(null);
+        payroll.setRunId(null);
+        if (payroll.getDate() == null) {
+            payroll.setDate(LocalDate.now());
+        }
+        applyTax(payroll, linkEmployee(payroll), null);
+        payroll.setContentHash(PayrollHashService.rowHash(payroll));
+        Payroll saved = payrollRepository.save(payroll);
+        payrollAggregateService.rowAdded(saved);
+        return saved;
+    }
+
+    public Payroll updatePayroll(Long id, Payroll payroll) {
+        Payroll existing = payrollRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Payroll not found with id: " + id));
+        if (payroll.getDate() == null) {
+            payroll.setDate(existing.getDate());
+        }
+        boolean aggregated = isAggregated(existing);
+        Long previousEmployeeId = existing.getEmployeeId();
+        applyTax(payroll, linkEmployee(payroll), aggregated ? existing : null);
+        if (aggregated) {
+            payrollAggregateService.rowRemoved(existing);
+        }
+        existing.setEmployeeId(payroll.getEmployeeId());
+        existing.setEmployeeName(payroll.getEmployeeName());
+        existing.setDepartment(payroll.getDepartment());
+        existing.setGrossSalary(payroll.getGrossSalary());
+        existing.setTaxDeductions(payroll.getTaxDeductions());
+        existing.setNetPay(payroll.getNetPay());
+        existing.setDate(payroll.getDate());
+        existing.setContentHash(PayrollHashService.rowHash(existing));
+        Payroll saved = payrollRepository.save(existing);
+        if (aggregated) {
+            payrollAggregateService.rowAdded(saved);
+        }
+        if (saved.getRunId() != null) {
+            payrollHashService.rowChanged(saved.getRunId(), previousEmployeeId, saved);
+        }
+        return saved;
+    }
+
+    public void deletePayroll(Long id) {
+        Payroll existing = payrollRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Payroll not found with id: " + id));
+        if (isAggregated(existing)) {
+            payrollAggregateService.rowRemoved(existing);
+        }
+        if (existing.getRunId() != null) {
+            payrollHashService.rowChanged(existing.getRunId(), existing.getEmployeeId(), null);
+        }
+        payrollRepository.delete(existing);
+    }
+
+    /**
+     * Fills in the employee link before a record is saved: the name comes from the employee when an
+     * id is given, otherwise the id is looked up from an unambiguous full name. The department is
+     * taken from the linked employee.
+     */
+    private Employee linkEmployee(Payroll payroll) {
+        Employee employee = null;
+        if (payroll.getEmployeeId() != null) {
+            employee = employeeRepository.findById(payroll.getEmployeeId())
+                    .orElseThrow(() -> new RuntimeException("Employee not found with id: " + payroll.getEmployeeId()));
+            if (payroll.getEmployeeName() == null || payroll.getEmployeeName().isBlank()) {
+                payroll.setEmployeeName(fullName(employee));
+            }
+        } else if (payroll.getEmployeeName() != null) {
+            List<Employee> matches = employeeRepository.findByFullName(payroll.getEmployeeName().trim());
+            if (matches.size() == 1) {
+                employee = matches.get(0);
+                payroll.setEmployeeId(employee.getId());
+            }
+        }
+        payroll.setDepartment(employee != null ? employee.getDepartment() : null);
+        return employee;
+    }
+
+    // Tax and net pay are always computed here rather than taken from the client. With cumulative
+    // tax, the record is taxed together with everything else paid in the fiscal year through its
+    // period, less the record it replaces.
+    private void applyTax(Payroll payroll, Employee employee, Payroll replaced) {
+        if (payroll.getGrossSalary() == null) {
+            throw new RuntimeException("Gross salary is required");
+        }
+        long gross = payroll.getGrossSalary().getMinorUnits();
+        String region = employee != null ? employee.getRegion() : null;
+        long tax;
+        if (cumulativeTax && employee != null) {
+            YearMonth period = YearMonth.from(payroll.getDate());
+            long[] ytd = payrollYtdService.getPaidThrough(period, "= ?", new Object[]{employee.getId()})
+                    .getOrDefault(employee.getId(), new long[2]);
+            if (replaced != null && employee.getId().equals(replaced.getEmployeeId())
+                    && payrollYtdService.fiscalYear(replaced.getDate()) == payrollYtdService.fiscalYear(period)
+                    && !YearMonth.from(replaced.getDate()).isAfter(period)) {
+                ytd[0] -= replaced.getGrossSalary().getMinorUnits();
+                ytd[1] -= replaced.getTaxDeductions().getMinorUnits();
+            }
+            // Never a refund, as in PayrollCalculator, so net pay stays within gross
+            tax = Math.max(0, taxBracketService.calculateCumulativeTax(region, payrollYtdService.fiscalYear(period),
+                    ytd[0] + gross, payrollYtdService.periodsElapsed(period)) - ytd[1]);
+        } else {
+            tax = taxBracketService.calculateTax(region, payroll.getDate().getYear(), gross);
+        }
+        payroll.setTaxDeductions(Money.ofMinor(tax));
+        payroll.setNetPay(Money.ofMinor(gross - tax));
+    }
+
+    // Rows of unfinished payroll runs are only aggregated once the run completes
+    private boolean isAggregated(Payroll payroll) {
+        return payroll.getRunId() == null || payrollRunRepository.findById(payroll.getRunId())
+                .map(run -> run.getStatus() == PayrollRunStatus.COMPLETED)
+                .orElse(false);
+    }
+
+    /**
+     * Hibernate's schema update never changes a column's type, so columns still stored as DOUBLE are
+     * converted here. MySQL rounds each value to the nearest cent.
+     */
+    private void ensureDecimalMoneyColumns() {
+        for (String[] column : MONEY_COLUMNS) {
+            String dataType = jdbcTemplate.query(
+                    "SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?",
+                    rs -> {
+                        return rs.next() ? rs.getString(1) : null;
+                    },
+                    column[0], column[1]);
+            if ("double".equalsIgnoreCase(dataType)) {
+                jdbcTemplate.execute("ALTER TABLE " + column[0] + " MODIFY " + column[1] + " DECIMAL(15,2) " + column[2]);
+                log.info("Converted {}.{} to DECIMAL(15,2)", column[0], column[1]);
+            }
+        }
+    }
+
+    private void ensureEmployeeForeignKey() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.TABLE_CONSTRAINTS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'payroll' AND CONSTRAINT_NAME = ?",
+                Integer.class, EMPLOYEE_FOREIGN_KEY);
+        if (existing == null || existing == 0) {
+            // Deleting an employee keeps their payroll history, identified by name
+            jdbcTemplate.execute("ALTER TABLE payroll ADD CONSTRAINT " + EMPLOYEE_FOREIGN_KEY +
+                    " FOREIGN KEY (employee_id) REFERENCES employees (id) ON DELETE SET NULL");
+        }
+    }
+
+    private static String fullName(Employee employee) {
+        return employee.getLastName() != null
+                ? employee.getFirstName() + " " + employee.getLastName()
+                : employee.getFirstName();
+    }
+}
@@ -0,0 +1,205 @@
+package com.hrms.service;
+
+import com.hrms.model.Money;
+import com.hrms.model.Payroll;
+import com.hrms.model.PayrollYtd;
+import com.hrms.repository.PayrollYtdRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the {@link PayrollYtd} accumulators, so an employee's year-to-date totals are one
+ * unique-key lookup however many periods have been paid.
+ * <p>
+ * Changes are applied by {@link PayrollAggregateService} together with the payroll aggregates: an
+ * atomic upsert of each row's deltas, or one grouped statement when a payroll run completes or is
+ * superseded. Rows without an employee are not counted. Totals are by payment date, so a retro pay
+ * adjustment counts in the year it is paid.
+ */
+@Service
+@Transactional
+public class PayrollYtdService {
+
+    @Autowired
+    private PayrollYtdRepository payrollYtdRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${hrms.payroll.fiscal-year-start-month:1}")
+    private int fiscalYearStartMonth;
+
+    @PostConstruct
+    public void validate() {
+        if (fiscalYearStartMonth < 1 || fiscalYearStartMonth > 12) {
+            throw new IllegalStateException("hrms.payroll.fiscal-year-start-month must be 1 to 12: " + fiscalYearStartMonth);
+        }
+    }
+
+    /**
+     * The fiscal year a date falls in, numbered by the calendar year it starts in.
+     */
+    public int fiscalYear(LocalDate date) {
+        return date.minusMonths(fiscalYearStartMonth - 1).getYear();
+    }
+
+    public int fiscalYear(YearMonth period) {
+        return period.minusMonths(fiscalYearStartMonth - 1).getYear();
+    }
+
+    /**
+     * Pay periods of the fiscal year up to and including {@code period}, from 1 to 12.
+     */
+    public int periodsElapsed(YearMonth period) {
+        return (period.getMonthValue() - fiscalYearStartMonth + 12) % 12 + 1;
+    }
+
+    public void rowAdded(Payroll payroll) {
+        apply(payroll, 1);
+    }
+
+    public void rowRemoved(Payroll payroll) {
+        apply(payroll, -1);
+        payrollYtdRepository.deleteEmpty();
+    }
+
+    public void runAdded(Long runId) {
+        payrollYtdRepository.applyRun(runId, 1, fiscalYearStartMonth - 1);
+    }
+
+    public void runRemoved(Long runId) {
+        payrollYtdRepository.applyRun(runId, -1, fiscalYearStartMonth - 1);
+        payrollYtdRepository.deleteEmpty();
+    }
+
+    public boolean isEmpty() {
+        return payrollYtdRepository.count() == 0;
+    }
+
+    /**
+     * Recomputes every accumulator from the payroll table.
+     */
+    public int rebuild() {
+        payrollYtdRepository.deleteAllRows();
+        return payrollYtdRepository.insertFromPayroll(fiscalYearStartMonth - 1);
+    }
+
+    /**
+     * The employee's totals for the fiscal year, zero when nothing has been paid.
+     */
+    @Transactional(readOnly = true)
+    public PayrollYtd getYtd(Long employeeId, int fiscalYear) {
+        return payrollYtdRepository.findByEmployeeIdAndFiscalYear(employeeId, fiscalYear)
+                .orElseGet(() -> new PayrollYtd(employeeId, fiscalYear));
+    }
+
+    /**
+     * Distinct employees ever paid, counting manual records and completed payroll runs.
+     */
+    @Transactional(readOnly = true)
+    public long getEmployeeCount() {
+        return payrollYtdRepository.countEmployees();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PayrollYtd> getHistory(Long employeeId) {
+        return payrollYtdRepository.findByEmployeeIdOrderByFiscalYearDesc(employeeId);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<PayrollYtd> getFiscalYear(int fiscalYear, Pageable pageable) {
+        return payrollYtdRepository.findByFiscalYearOrderByEmployeeId(fiscalYear, pageable);
+    }
+
+    /**
+     * Gross pay and tax in minor units paid in the fiscal year before {@code period} to the
+     * employees whose id matches {@code idCondition}, for cumulative tax. These are the
+     * accumulators less whatever was paid for {@code period} or later, which is nothing when the
+     * latest period is paid for the first time. Employees paid nothing are left out.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, long[]> getPaidBefore(YearMonth period, String idCondition, Object[] idArgs) {
+        return getPaid(fiscalYear(period), period, idCondition, idArgs);
+    }
+
+    /**
+     * Like {@link #getPaidBefore}, but including what was already paid for {@code period} itself.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, long[]> getPaidThrough(YearMonth period, String idCondition, Object[] idArgs) {
+        return getPaid(fiscalYear(period), period.plusMonths(1), idCondition, idArgs);
+    }
+
+    // Paid in the fiscal year for periods before cutoff, which may be the first month of the next year
+    private Map<Long, long[]> getPaid(int fiscalYear, YearMonth cutoff, String idCondition, Object[] idArgs) {
+        Map<Long, long[]> paid = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT employee_id, gross_salary, tax_deductions FROM payroll_ytd WHERE fiscal_year = ? AND employee_id " + idCondition,
+                rs -> {
+                    paid.put(rs.getLong("employee_id"), new long[]{
+                            minor(rs.getBigDecimal("gross_salary")), minor(rs.getBigDecimal("tax_deductions"))});
+                },
+                args(new Object[]{fiscalYear}, idArgs));
+        if (paid.isEmpty()) {
+            return paid;
+        }
+
+        // Retro pay adjustments count towards the period they correct, not the one they were paid in
+        LocalDate fiscalYearEnd = YearMonth.of(fiscalYear, fiscalYearStartMonth).plusMonths(11).atEndOfMonth();
+        if (!cutoff.atDay(1).isAfter(fiscalYearEnd)) {
+            jdbcTemplate.query(
+                    "SELECT p.employee_id, SUM(p.gross_salary) AS gross_salary, SUM(p.tax_deductions) AS tax_deductions " +
+                    "FROM payroll p LEFT JOIN payroll_runs r ON r.id = p.run_id " +
+                    "WHERE p.employee_id " + idCondition + " AND p.date BETWEEN ? AND ? " +
+                    "AND (p.retro_period IS NULL OR p.retro_period >= ?) AND (p.run_id IS NULL OR r.status = 'COMPLETED') " +
+                    "GROUP BY p.employee_id",
+                    rs -> {
+                        long[] amounts = paid.get(rs.getLong("employee_id"));
+                        if (amounts != null) {
+                            amounts[0] -= minor(rs.getBigDecimal("gross_salary"));
+                            amounts[1] -= minor(rs.getBigDecimal("tax_deductions"));
+                        }
+                    },
+                    args(idArgs, Date.valueOf(cutoff.atDay(1)), Date.valueOf(fiscalYearEnd), cutoff.toString()));
+        }
+        return paid;
+    }
+
+    private void apply(Payroll payroll, int sign) {
+        if (payroll.getEmployeeId() == null || payroll.getDate() == null) {
+            return;
+        }
+        payrollYtdRepository.applyDelta(payroll.getEmployeeId(), fiscalYear(payroll.getDate()),
+                signed(payroll.getGrossSalary(), sign), signed(payroll.getTaxDeductions(), sign),
+                signed(payroll.getNetPay(), sign), sign);
+    }
+
+    private static Object[] args(Object[] first, Object... more) {
+        Object[] args = Arrays.copyOf(first, first.length + more.length);
+        System.arraycopy(more, 0, args, first.length, more.length);
+        return args;
+    }
+
+    private static long minor(BigDecimal amount) {
+        return amount != null ? Money.toMinor(amount) : 0;
+    }
+
+    private static BigDecimal signed(Money amount, int sign) {
+        return BigDecimal.valueOf(amount != null ? sign * amount.getMinorUnits() : 0, Money.SCALE);
+    }
+}
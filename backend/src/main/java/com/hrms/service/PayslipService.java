@@ -0,0 +1,316 @@
+package com.hrms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders one payslip per payroll record of a period into a zip archive on local disk.
+ * <p>
+ * A reader thread pages through the period's payroll rows by id and hands each row to a bounded
+ * pool of renderers. Rendered payslips go through a bounded queue to a single writer that streams
+ * them into the archive. When either queue is full the stage before it waits, so the memory in use
+ * is bounded by {@code page-size} rows plus {@code queue-capacity} pending and rendered payslips,
+ * however many employees are paid. The archive is written under a temporary name and moved into
+ * place only once every counted payslip has been rendered and written, so a download never sees a
+ * partial file.
+ * <p>
+ * Rows of payroll runs that have not completed are left out, as they are from the dashboard totals.
+ */
+@Service
+public class PayslipService {
+
+    private static final Logger log = LoggerFactory.getLogger(PayslipService.class);
+
+    private static final Payslip END = new Payslip(null, null);
+
+    @Autowired
+    private PayslipTemplate payslipTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${hrms.payroll.payslips.dir:data/payslips}")
+    private String dir;
+
+    @Value("${hrms.payroll.payslips.parallelism:4}")
+    private int parallelism;
+
+    @Value("${hrms.payroll.payslips.page-size:1000}")
+    private int pageSize;
+
+    @Value("${hrms.payroll.payslips.queue-capacity:256}")
+    private int queueCapacity;
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean stopRequested = new AtomicBoolean();
+
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile BlockingQueue<Payslip> pending;
+    private volatile YearMonth period;
+    private volatile long totalPayslips;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    /**
+     * Starts generating the period's payslips in the background, replacing its archive once done.
+     *
+     * @return false if payslips are already being generated
+     */
+    public boolean start(YearMonth payPeriod) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            Long count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM payroll p LEFT JOIN payroll_runs r ON r.id = p.run_id " +
+                    "WHERE p.date BETWEEN ? AND ? AND (p.run_id IS NULL OR r.status = 'COMPLETED')",
+                    Long.class, Date.valueOf(payPeriod.atDay(1)), Date.valueOf(payPeriod.atEndOfMonth()));
+            period = payPeriod;
+            totalPayslips = count != null ? count : 0;
+            rendered.set(0);
+            written.set(0);
+            pending = new ArrayBlockingQueue<>(queueCapacity);
+            stopRequested.set(false);
+            startedAt = LocalDateTime.now();
+            finishedAt = null;
+            error = null;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        Thread reader = new Thread(this::run, "payslips-" + payPeriod);
+        reader.setDaemon(true);
+        reader.start();
+        return true;
+    }
+
+    public void stop() {
+        stopRequested.set(true);
+    }
+
+    public Map<String, Object> getStatus() {
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long elapsedMillis = startedAt != null ? Duration.between(startedAt, end).toMillis() : 0;
+        BlockingQueue<Payslip> queue = pending;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("period", period != null ? period.toString() : null);
+        status.put("totalPayslips", totalPayslips);
+        status.put("rendered", rendered.get());
+        status.put("written", written.get());
+        status.put("queued", queue != null ? queue.size() : 0);
+        status.put("payslipsPerSecond", elapsedMillis > 0 ? Math.round(written.get() * 1000.0 / elapsedMillis) : 0);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("error", error);
+        return status;
+    }
+
+    /**
+     * The finished archive for the period, or null if there is none.
+     */
+    public Path getArchive(YearMonth payPeriod) {
+        Path file = fileFor(payPeriod);
+        return Files.exists(file) ? file : null;
+    }
+
+    private Path fileFor(YearMonth payPeriod) {
+        return Path.of(dir).resolve(String.format("payslips-%04d-%02d.zip", payPeriod.getYear(), payPeriod.getMonthValue()));
+    }
+
+    private void run() {
+        YearMonth payPeriod = period;
+        BlockingQueue<Payslip> queue = pending;
+        Path part = null;
+        Thread writer = null;
+        // Rendering runs on the reader thread when the pool's queue is full, which holds back reading
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            Files.createDirectories(Path.of(dir));
+            part = Files.createTempFile(Path.of(dir), "payslips-" + payPeriod, ".part");
+            Path partFile = part;
+            writer = new Thread(() -> write(partFile, queue), "payslips-writer-" + payPeriod);
+            writer.setDaemon(true);
+            writer.start();
+
+            long afterId = 0;
+            List<String[]> page;
+            while (!stopRequested.get() && error == null && !(page = readPage(payPeriod, afterId)).isEmpty()) {
+                for (String[] values : page) {
+                    pool.execute(() -> render(values, queue));
+                }
+                afterId = Long.parseLong(page.get(page.size() - 1)[0]);
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            queue.put(END);
+            writer.join();
+
+            if (error == null && !stopRequested.get() && (rendered.get() != totalPayslips || written.get() != totalPayslips)) {
+                fail("Rendered " + rendered.get() + " and wrote " + written.get() + " of " + totalPayslips + " payslips");
+            }
+            if (error == null && !stopRequested.get()) {
+                Files.move(part, fileFor(payPeriod), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                part = null;
+                log.info("Generated {} payslips for {}", written.get(), payPeriod);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted");
+            pool.shutdownNow();
+        } catch (IOException | RuntimeException e) {
+            log.error("Payslip generation for {} failed", payPeriod, e);
+            fail(e.getMessage());
+            pool.shutdownNow();
+        } finally {
+            if (writer != null && writer.isAlive()) {
+                writer.interrupt();
+            }
+            if (part != null) {
+                try {
+                    Files.deleteIfExists(part);
+                } catch (IOException e) {
+                    log.warn("Could not delete {}: {}", part, e.getMessage());
+                }
+            }
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private List<String[]> readPage(YearMonth payPeriod, long afterId) {
+        String periodKey = payPeriod.toString();
+        List<String[]> page = new ArrayList<>(pageSize);
+        jdbcTemplate.query(
+                "SELECT p.id, p.date, p.employee_name, e.employee_id AS employee_code, p.department, e.position, " +
+                "p.base_salary, p.overtime_pay, p.unpaid_leave_deduction, p.gross_salary, p.tax_deductions, p.net_pay " +
+                "FROM payroll p LEFT JOIN payroll_runs r ON r.id = p.run_id LEFT JOIN employees e ON e.id = p.employee_id " +
+                "WHERE p.date BETWEEN ? AND ? AND (p.run_id IS NULL OR r.status = 'COMPLETED') AND p.id > ? " +
+                "ORDER BY p.id LIMIT ?",
+                rs -> {
+                    // Indexed like PayslipTemplate.FIELDS
+                    page.add(new String[]{
+                            rs.getString("id"), periodKey, rs.getDate("date").toLocalDate().toString(),
+                            rs.getString("employee_name"), rs.getString("employee_code"),
+                            rs.getString("department"), rs.getString("position"),
+                            amount(rs.getBigDecimal("base_salary")), amount(rs.getBigDecimal("overtime_pay")),
+                            amount(rs.getBigDecimal("unpaid_leave_deduction")), amount(rs.getBigDecimal("gross_salary")),
+                            amount(rs.getBigDecimal("tax_deductions")), amount(rs.getBigDecimal("net_pay"))});
+                },
+                Date.valueOf(payPeriod.atDay(1)), Date.valueOf(payPeriod.atEndOfMonth()), afterId, pageSize);
+        return page;
+    }
+
+    private void render(String[] values, BlockingQueue<Payslip> queue) {
+        if (stopRequested.get() || error != null) {
+            return;
+        }
+        // The pool would only hand an exception to its uncaught handler, so record it here
+        try {
+            StringBuilder buffer = buffers.get();
+            buffer.setLength(0);
+            payslipTemplate.render(values, buffer);
+            queue.put(new Payslip(entryName(values[0], values[4]), buffer.toString().getBytes(StandardCharsets.UTF_8)));
+            rendered.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted while rendering payslip for payroll record " + values[0]);
+        } catch (RuntimeException e) {
+            log.error("Could not render payslip for payroll record {}", values[0], e);
+            fail("Could not render payslip for payroll record " + values[0] + ": " + e.getMessage());
+        }
+    }
+
+    // Keeps the first failure, which is the one that stopped the rest
+    private synchronized void fail(String message) {
+        if (error == null) {
+            error = message;
+        }
+    }
+
+    private void write(Path file, BlockingQueue<Payslip> queue) {
+        boolean ended = false;
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024))) {
+            Payslip payslip;
+            while ((payslip = queue.take()) != END) {
+                zip.putNextEntry(new ZipEntry(payslip.entryName));
+                zip.write(payslip.content);
+                zip.closeEntry();
+                written.incrementAndGet();
+            }
+            ended = true;
+        } catch (IOException e) {
+            log.error("Could not write payslip archive {}", file, e);
+            fail(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // Keep draining after a failure so renderers never block on a full queue
+        try {
+            while (!ended && queue.take() != END) {
+                // discard
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The archive entry of a payslip. The employee code is free text, so anything but letters,
+     * digits, dashes and underscores is replaced, which keeps path separators and {@code ..} out of
+     * the name.
+     */
+    static String entryName(String payrollId, String employeeCode) {
+        if (employeeCode == null || employeeCode.isBlank()) {
+            return "payslip-" + payrollId + ".txt";
+        }
+        return "payslip-" + payrollId + "-" + employeeCode.replaceAll("[^A-Za-z0-9_-]", "_") + ".txt";
+    }
+
+    private static String amount(BigDecimal value) {
+        return value != null ? value.setScale(2).toPlainString() : null;
+    }
+
+    private static final class Payslip {
+        private final String entryName;
+        private final byte[] content;
+
+        Payslip(String entryName, byte[] content) {
+            this.entryName = entryName;
+            this.content = content;
+        }
+    }
+}
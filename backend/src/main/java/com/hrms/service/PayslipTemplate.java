@@ -0,0 +1,84 @@
+package com.hrms.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The payslip template, compiled once into alternating literal text and field slots so rendering a
+ * payslip is a single pass of appends. Fields are written as {@code {{name}}} and must be one of
+ * {@link #FIELDS}.
+ */
+@Component
+public class PayslipTemplate {
+
+    public static final String[] FIELDS = {
+            "payrollId", "period", "payDate", "employeeName", "employeeCode", "department", "position",
+            "baseSalary", "overtimePay", "unpaidLeaveDeduction", "grossSalary", "taxDeductions", "netPay"
+    };
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${hrms.payroll.payslips.template:classpath:templates/payslip.txt}")
+    private String location;
+
+    // literals[i] is followed by the value of slots[i]; the last literal has no slot
+    private String[] literals;
+    private int[] slots;
+    private int estimatedLength;
+
+    @PostConstruct
+    public void compile() throws IOException {
+        String source;
+        try (InputStream in = resourceLoader.getResource(location).getInputStream()) {
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> parsedLiterals = new ArrayList<>();
+        List<Integer> parsedSlots = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = source.indexOf("{{", position)) >= 0) {
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalStateException("Unclosed field in payslip template at offset " + open);
+            }
+            String field = source.substring(open + 2, close).trim();
+            int slot = Arrays.asList(FIELDS).indexOf(field);
+            if (slot < 0) {
+                throw new IllegalStateException("Unknown field in payslip template: " + field);
+            }
+            parsedLiterals.add(source.substring(position, open));
+            parsedSlots.add(slot);
+            position = close + 2;
+        }
+        parsedLiterals.add(source.substring(position));
+
+        literals = parsedLiterals.toArray(new String[0]);
+        slots = parsedSlots.stream().mapToInt(Integer::intValue).toArray();
+        estimatedLength = source.length() + slots.length * 16;
+    }
+
+    /**
+     * Appends the payslip for {@code values}, indexed like {@link #FIELDS}, to {@code out}. Null
+     * values are rendered as a dash.
+     */
+    public void render(String[] values, StringBuilder out) {
+        out.ensureCapacity(out.length() + estimatedLength);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            String value = values[slots[i]];
+            out.append(value != null ? value : "-");
+        }
+        out.append(literals[literals.length - 1]);
+    }
+}
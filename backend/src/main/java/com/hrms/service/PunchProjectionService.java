@@ -0,0 +1,296 @@
+package com.hrms.service;
+
+import com.hrms.model.Attendance;
+import com.hrms.model.AttendanceStatus;
+import com.hrms.model.Employee;
+import com.hrms.model.JobCheckpoint;
+import com.hrms.model.PunchDirection;
+import com.hrms.model.PunchEvent;
+import com.hrms.repository.AttendanceRepository;
+import com.hrms.repository.EmployeeRepository;
+import com.hrms.repository.JobCheckpointRepository;
+import com.hrms.repository.PunchEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Folds appended punches into the daily {@link Attendance} rows in micro-batches: first IN becomes
+ * the check-in, last OUT the check-out, and working hours are the sum of the IN/OUT intervals.
+ * <p>
+ * The id of the last projected punch is stored in the same transaction as the attendance rows.
+ * Ids are assigned at insert but become visible at commit, so a punch can appear below the
+ * checkpoint after it has moved on, from a slow batch insert or another instance. Every id skipped
+ * over is therefore kept with the checkpoint, as ranges of ids, and looked up again on every batch
+ * until it shows up or {@code gap-timeout-seconds} pass, which covers inserts that were rolled
+ * back. The timeout must be longer than any transaction that inserts punches; within it a punch is
+ * never lost, and since folding a day is idempotent, projecting it again is harmless.
+ */
+@Service
+public class PunchProjectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PunchProjectionService.class);
+
+    private static final String JOB_NAME = "punch-projection";
+
+    @Autowired
+    private PunchEventRepository punchEventRepository;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ShiftService shiftService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AttendanceAnomalyDetector anomalyDetector;
+
+    @Autowired
+    private RetroPayTracker retroPayTracker;
+
+    @Value("${hrms.attendance.punches.batch-size:1000}")
+    private int batchSize;
+
+    // How long an id skipped over is waited for before it is taken to be a rolled-back insert
+    @Value("${hrms.attendance.punches.gap-timeout-seconds:300}")
+    private long gapTimeoutSeconds;
+
+    /**
+     * Hibernate's schema update never changes a column's type, so a checkpoint column created as
+     * VARCHAR(255) is widened here to hold any number of gaps.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureCheckpointColumn() {
+        try {
+            String dataType = jdbcTemplate.query(
+                    "SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'job_checkpoints' AND COLUMN_NAME = 'checkpoint'",
+                    rs -> {
+                        return rs.next() ? rs.getString(1) : null;
+                    });
+            if ("varchar".equalsIgnoreCase(dataType)) {
+                jdbcTemplate.execute("ALTER TABLE job_checkpoints MODIFY checkpoint TEXT");
+                log.info("Converted job_checkpoints.checkpoint to TEXT");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not widen job_checkpoints.checkpoint", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hrms.attendance.punches.projection-interval-ms:5000}")
+    public void projectPending() {
+        int projected;
+        do {
+            // One transaction per batch, including the checkpoint
+            projected = transactionTemplate.execute(status -> projectBatch());
+        } while (projected == batchSize);
+    }
+
+    /**
+     * Projects the next batch of punches.
+     *
+     * @return number of punches consumed
+     */
+    private int projectBatch() {
+        Progress progress = Progress.parse(checkpointRepository.findById(JOB_NAME)
+                .map(JobCheckpoint::getCheckpoint)
+                .orElse(null));
+        long now = System.currentTimeMillis() / 1000;
+        boolean expired = progress.gaps.values().removeIf(gap -> now - gap[Progress.FIRST_SEEN] > gapTimeoutSeconds);
+
+        // One indexed range scan per gap; a batch insert that commits late is usually a single range
+        List<PunchEvent> late = new ArrayList<>();
+        for (Map.Entry<Long, long[]> gap : progress.gaps.entrySet()) {
+            late.addAll(punchEventRepository.findByIdRange(gap.getKey(), gap.getValue()[Progress.TO]));
+        }
+        List<PunchEvent> fresh = punchEventRepository.findUnprojected(progress.lastId, PageRequest.of(0, batchSize));
+        late.forEach(punch -> progress.found(punch.getId()));
+        for (PunchEvent punch : fresh) {
+            progress.skipped(progress.lastId + 1, punch.getId() - 1, now);
+            progress.lastId = punch.getId();
+        }
+        if (late.isEmpty() && fresh.isEmpty()) {
+            if (expired) {
+                checkpointRepository.save(new JobCheckpoint(JOB_NAME, progress.format()));
+            }
+            return 0;
+        }
+        List<PunchEvent> batch = new ArrayList<>(late);
+        batch.addAll(fresh);
+
+        Set<Long> employeeIds = batch.stream().map(PunchEvent::getEmployeeId).collect(Collectors.toSet());
+        Set<String> touchedDays = batch.stream().map(p -> key(p.getEmployeeId(), p.getAttendanceDate())).collect(Collectors.toSet());
+        LocalDate from = batch.stream().map(PunchEvent::getAttendanceDate).min(Comparator.naturalOrder()).get();
+        LocalDate to = batch.stream().map(PunchEvent::getAttendanceDate).max(Comparator.naturalOrder()).get();
+
+        // Re-fold the full day for every touched (employee, day), not just the new punches
+        Map<String, List<PunchEvent>> punchesByDay = punchEventRepository.findByEmployeesAndDateRange(employeeIds, from, to).stream()
+                .filter(p -> touchedDays.contains(key(p.getEmployeeId(), p.getAttendanceDate())))
+                .collect(Collectors.groupingBy(p -> key(p.getEmployeeId(), p.getAttendanceDate()), LinkedHashMap::new, Collectors.toList()));
+        Map<String, Attendance> existing = attendanceRepository.findByEmployeeIdsAndDateRange(employeeIds, from, to).stream()
+                .collect(Collectors.toMap(a -> key(a.getEmployee().getId(), a.getAttendanceDate()), Function.identity()));
+        Map<Long, Employee> employees = employeeRepository.findAllById(employeeIds).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+
+        List<Attendance> changed = new ArrayList<>();
+        for (List<PunchEvent> punches : punchesByDay.values()) {
+            PunchEvent first = punches.get(0);
+            Employee employee = employees.get(first.getEmployeeId());
+            if (employee == null) {
+                log.warn("Skipping punches for unknown employee {}", first.getEmployeeId());
+                continue;
+            }
+
+            Attendance attendance = existing.get(key(first.getEmployeeId(), first.getAttendanceDate()));
+            if (attendance == null) {
+                attendance = new Attendance(employee, first.getAttendanceDate(), AttendanceStatus.PRESENT);
+            } else if (attendance.getStatus() == AttendanceStatus.ABSENT) {
+                attendance.setStatus(AttendanceStatus.PRESENT);
+            }
+            fold(attendance, punches, employee.getShiftId());
+            changed.add(attendance);
+        }
+
+        attendanceRepository.saveAll(changed);
+        changed.forEach(anomalyDetector::onAttendance);
+        // Punches can arrive late for a day that has already been paid
+        Map<Long, Set<YearMonth>> changedPeriods = new HashMap<>();
+        for (Attendance attendance : changed) {
+            changedPeriods.computeIfAbsent(attendance.getEmployee().getId(), id -> new HashSet<>())
+                    .add(YearMonth.from(attendance.getAttendanceDate()));
+        }
+        retroPayTracker.periodsChanged(changedPeriods, RetroPayTracker.ATTENDANCE);
+        checkpointRepository.save(new JobCheckpoint(JOB_NAME, progress.format()));
+        return fresh.size();
+    }
+
+    private void fold(Attendance attendance, List<PunchEvent> punches, Long shiftId) {
+        LocalDateTime firstIn = null;
+        LocalDateTime lastOut = null;
+        LocalDateTime openIn = null;
+        long workedMinutes = 0;
+
+        for (PunchEvent punch : punches) {
+            if (punch.getDirection() == PunchDirection.IN) {
+                if (firstIn == null) {
+                    firstIn = punch.getPunchedAt();
+                }
+                // A repeated IN without an OUT keeps the earlier one open
+                if (openIn == null) {
+                    openIn = punch.getPunchedAt();
+                }
+            } else {
+                lastOut = punch.getPunchedAt();
+                if (openIn != null) {
+                    workedMinutes += Duration.between(openIn, punch.getPunchedAt()).toMinutes();
+                    openIn = null;
+                }
+            }
+        }
+
+        attendance.setCheckInTime(firstIn != null ? firstIn.toLocalTime() : null);
+        attendance.setCheckOutTime(lastOut != null && openIn == null ? lastOut.toLocalTime() : null);
+        if (attendance.getCheckOutTime() != null) {
+            double hours = workedMinutes / 60.0;
+            attendance.setWorkingHours(hours);
+            attendance.setOvertimeHours(shiftService.calculateOvertimeHours(hours, shiftId));
+        } else {
+            attendance.setWorkingHours(null);
+            attendance.setOvertimeHours(null);
+        }
+    }
+
+    private static String key(Long employeeId, LocalDate date) {
+        return employeeId + "|" + date;
+    }
+
+    /**
+     * The last projected id and the ranges of ids below it that have not been seen yet, with the
+     * epoch second each range was first noticed. Stored as {@code lastId} or
+     * {@code lastId|from-to@second,...}, with {@code from-} left out of single-id ranges.
+     */
+    static final class Progress {
+        // Indexes into a gap's value
+        static final int TO = 0;
+        static final int FIRST_SEEN = 1;
+
+        long lastId;
+        // Range start to {end, first seen}, both ends inclusive
+        final TreeMap<Long, long[]> gaps = new TreeMap<>();
+
+        void skipped(long from, long to, long now) {
+            if (from <= to) {
+                gaps.put(from, new long[]{to, now});
+            }
+        }
+
+        // Splits the range holding the id around it
+        void found(long id) {
+            Map.Entry<Long, long[]> gap = gaps.floorEntry(id);
+            if (gap == null || gap.getValue()[TO] < id) {
+                return;
+            }
+            long from = gap.getKey();
+            long[] range = gaps.remove(from);
+            skipped(from, id - 1, range[FIRST_SEEN]);
+            skipped(id + 1, range[TO], range[FIRST_SEEN]);
+        }
+
+        static Progress parse(String checkpoint) {
+            Progress progress = new Progress();
+            if (checkpoint == null || checkpoint.isEmpty()) {
+                return progress;
+            }
+            int bar = checkpoint.indexOf('|');
+            progress.lastId = Long.parseLong(bar < 0 ? checkpoint : checkpoint.substring(0, bar));
+            if (bar >= 0 && bar < checkpoint.length() - 1) {
+                for (String gap : checkpoint.substring(bar + 1).split(",")) {
+                    int at = gap.indexOf('@');
+                    int dash = gap.indexOf('-');
+                    long to = Long.parseLong(gap.substring(dash + 1, at));
+                    long from = dash < 0 ? to : Long.parseLong(gap.substring(0, dash));
+                    progress.skipped(from, to, Long.parseLong(gap.substring(at + 1)));
+                }
+            }
+            return progress;
+        }
+
+        String format() {
+            if (gaps.isEmpty()) {
+                return String.valueOf(lastId);
+            }
+            StringJoiner joined = new StringJoiner(",", lastId + "|", "");
+            gaps.forEach((from, gap) -> joined.add(
+                    (from == gap[TO] ? "" : from + "-") + gap[TO] + "@" + gap[FIRST_SEEN]));
+            return joined.toString();
+        }
+    }
+}
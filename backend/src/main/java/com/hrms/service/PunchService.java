@@ -0,0 +1,69 @@
+package com.hrms.service;
+
+import com.hrms.dto.PunchDTO;
+import com.hrms.model.PunchEvent;
+import com.hrms.repository.PunchEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Write path for kiosk punches. Punches are appended to {@code punch_events} and never updated;
+ * {@link PunchProjectionService} folds them into daily attendance in the background.
+ */
+@Service
+@Transactional
+public class PunchService {
+
+    @Autowired
+    private PunchEventRepository punchEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public PunchDTO recordPunch(PunchDTO punchDTO) {
+        PunchEvent punch = convertToEntity(punchDTO);
+        PunchEvent savedPunch = punchEventRepository.save(punch);
+        punchDTO.setId(savedPunch.getId());
+        punchDTO.setPunchedAt(savedPunch.getPunchedAt());
+        punchDTO.setAttendanceDate(savedPunch.getAttendanceDate());
+        return punchDTO;
+    }
+
+    /**
+     * Appends many punches with one batched insert, for kiosks that upload buffered punches.
+     */
+    public int recordPunches(List<PunchDTO> punchDTOs) {
+        List<PunchEvent> punches = punchDTOs.stream().map(this::convertToEntity).toList();
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO punch_events (employee_id, attendance_date, punched_at, direction, source, recorded_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)",
+                punches, 500, (ps, punch) -> {
+                    ps.setLong(1, punch.getEmployeeId());
+                    ps.setDate(2, Date.valueOf(punch.getAttendanceDate()));
+                    ps.setTimestamp(3, Timestamp.valueOf(punch.getPunchedAt()));
+                    ps.setString(4, punch.getDirection().name());
+                    ps.setString(5, punch.getSource());
+                    ps.setTimestamp(6, Timestamp.valueOf(punch.getRecordedAt()));
+                });
+        return punches.size();
+    }
+
+    private PunchEvent convertToEntity(PunchDTO dto) {
+        LocalDateTime now = LocalDateTime.now();
+        PunchEvent punch = new PunchEvent();
+        punch.setEmployeeId(dto.getEmployeeId());
+        punch.setDirection(dto.getDirection());
+        punch.setPunchedAt(dto.getPunchedAt() != null ? dto.getPunchedAt() : now);
+        punch.setAttendanceDate(dto.getAttendanceDate() != null ? dto.getAttendanceDate() : punch.getPunchedAt().toLocalDate());
+        punch.setSource(dto.getSource());
+        punch.setRecordedAt(now);
+        return punch;
+    }
+}
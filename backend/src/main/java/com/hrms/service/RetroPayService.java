@@ -0,0 +1,289 @@
+package com.hrms.service;
+
+import com.hrms.model.Money;
+import com.hrms.model.Payroll;
+import com.hrms.model.PayrollRetroMark;
+import com.hrms.repository.PayrollRepository;
+import com.hrms.repository.PayrollRetroMarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recomputes the pay of employees marked by {@link RetroPayTracker} and writes the difference from
+ * what they were already paid as adjustment rows, so a correction costs in proportion to the
+ * employees it affects rather than to the size of the organisation.
+ * <p>
+ * Marks are processed per period in batches of employees, each in one transaction: the batch's
+ * marks are read, pay is recomputed with {@link PayrollRunService#computePay} from the current
+ * inputs, and the amount already paid (the completed run's row plus the adjustments written since
+ * that run) is subtracted. Non-zero differences are written as payroll rows without a run, dated
+ * today and tagged with the period they correct, and each mark is deleted only if it was not
+ * touched again meanwhile, so a change made while its batch is recomputed is picked up next time.
+ * <p>
+ * Periods with an unfinished run are skipped until that run completes.
+ */
+@Service
+public class RetroPayService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetroPayService.class);
+
+    // Indexes of the pay components in an amounts array
+    private static final int BASE = 0;
+    private static final int OVERTIME = 1;
+    private static final int UNPAID = 2;
+    private static final int GROSS = 3;
+    private static final int TAX = 4;
+    private static final int NET = 5;
+    private static final int AMOUNTS = 6;
+
+    @Autowired
+    private PayrollRunService payrollRunService;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayrollRetroMarkRepository payrollRetroMarkRepository;
+
+    @Autowired
+    private PayrollAggregateService payrollAggregateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${hrms.payroll.retro.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean stopRequested = new AtomicBoolean();
+
+    private final AtomicLong periodsProcessed = new AtomicLong();
+    private final AtomicLong periodsDeferred = new AtomicLong();
+    private final AtomicLong employeesRecomputed = new AtomicLong();
+    private final AtomicLong adjustmentsWritten = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+
+    @Scheduled(cron = "${hrms.payroll.retro.cron:0 0 1 * * *}")
+    public void runScheduled() {
+        start();
+    }
+
+    /**
+     * Starts processing the pending marks in the background.
+     *
+     * @return false if retro pay is already being processed
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        periodsProcessed.set(0);
+        periodsDeferred.set(0);
+        employeesRecomputed.set(0);
+        adjustmentsWritten.set(0);
+        stopRequested.set(false);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        error = null;
+
+        Thread worker = new Thread(this::run, "retro-pay");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    public void stop() {
+        stopRequested.set(true);
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("pendingMarks", payrollRetroMarkRepository.count());
+        status.put("periodsProcessed", periodsProcessed.get());
+        status.put("periodsDeferred", periodsDeferred.get());
+        status.put("employeesRecomputed", employeesRecomputed.get());
+        status.put("adjustmentsWritten", adjustmentsWritten.get());
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("error", error);
+        return status;
+    }
+
+    public List<PayrollRetroMark> getMarks(Long employeeId) {
+        return employeeId != null
+                ? payrollRetroMarkRepository.findByEmployeeIdOrderByPayPeriod(employeeId)
+                : payrollRetroMarkRepository.findAllByOrderByPayPeriodAscEmployeeIdAsc();
+    }
+
+    private void run() {
+        try {
+            List<String> periods = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT pay_period FROM payroll_retro_marks ORDER BY pay_period", String.class);
+            for (String period : periods) {
+                if (stopRequested.get()) {
+                    break;
+                }
+                processPeriod(YearMonth.parse(period));
+            }
+            log.info("Retro pay recomputed {} employees and wrote {} adjustments",
+                    employeesRecomputed.get(), adjustmentsWritten.get());
+        } catch (RuntimeException e) {
+            log.error("Retro pay failed", e);
+            error = e.getMessage();
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void processPeriod(YearMonth period) {
+        Long unfinished = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payroll_runs WHERE active_period = ?", Long.class, period.toString());
+        if (unfinished != null && unfinished > 0) {
+            periodsDeferred.incrementAndGet();
+            return;
+        }
+        List<long[]> completed = jdbcTemplate.query(
+                "SELECT r.id, (SELECT MAX(p.id) FROM payroll p WHERE p.run_id = r.id) AS last_row_id " +
+                "FROM payroll_runs r WHERE r.pay_period = ? AND r.status = 'COMPLETED'",
+                (rs, rowNum) -> new long[]{rs.getLong("id"), rs.getLong("last_row_id")}, period.toString());
+        if (completed.isEmpty()) {
+            // Nothing was paid for the period after all
+            jdbcTemplate.update("DELETE FROM payroll_retro_marks WHERE pay_period = ?", period.toString());
+            return;
+        }
+        long runId = completed.get(0)[0];
+        long lastRunRowId = completed.get(0)[1];
+
+        long afterEmployeeId = 0;
+        Long last;
+        while (!stopRequested.get() && (last = processBatch(period, runId, lastRunRowId, afterEmployeeId)) != null) {
+            afterEmployeeId = last;
+        }
+        periodsProcessed.incrementAndGet();
+    }
+
+    // Returns the batch's last employee id, or null when no marks are left
+    private Long processBatch(YearMonth period, long runId, long lastRunRowId, long afterEmployeeId) {
+        return transactionTemplate.execute(status -> {
+            List<Object[]> marks = jdbcTemplate.query(
+                    "SELECT employee_id, marked_at FROM payroll_retro_marks WHERE pay_period = ? AND employee_id > ? " +
+                    "ORDER BY employee_id LIMIT ?",
+                    (rs, rowNum) -> new Object[]{rs.getLong("employee_id"), rs.getTimestamp("marked_at")},
+                    period.toString(), afterEmployeeId, batchSize);
+            if (marks.isEmpty()) {
+                return null;
+            }
+
+            Object[] ids = new Object[marks.size()];
+            StringJoiner in = new StringJoiner(", ", "IN (", ")");
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = marks.get(i)[0];
+                in.add("?");
+            }
+
+            // Amounts already paid for the period, in minor units
+            Map<Long, long[]> paid = new HashMap<>();
+            Object[] paidArgs = Arrays.copyOf(ids, ids.length + 3);
+            paidArgs[ids.length] = runId;
+            paidArgs[ids.length + 1] = period.toString();
+            paidArgs[ids.length + 2] = lastRunRowId;
+            jdbcTemplate.query(
+                    "SELECT employee_id, SUM(COALESCE(base_salary, 0)) AS base_salary, SUM(COALESCE(overtime_pay, 0)) AS overtime_pay, " +
+                    "SUM(COALESCE(unpaid_leave_deduction, 0)) AS unpaid_leave_deduction, SUM(gross_salary) AS gross_salary, " +
+                    "SUM(tax_deductions) AS tax_deductions, SUM(net_pay) AS net_pay FROM payroll " +
+                    "WHERE employee_id " + in + " AND (run_id = ? OR (retro_period = ? AND id > ?)) GROUP BY employee_id",
+                    rs -> {
+                        long[] amounts = new long[AMOUNTS];
+                        amounts[BASE] = minor(rs.getBigDecimal("base_salary"));
+                        amounts[OVERTIME] = minor(rs.getBigDecimal("overtime_pay"));
+                        amounts[UNPAID] = minor(rs.getBigDecimal("unpaid_leave_deduction"));
+                        amounts[GROSS] = minor(rs.getBigDecimal("gross_salary"));
+                        amounts[TAX] = minor(rs.getBigDecimal("tax_deductions"));
+                        amounts[NET] = minor(rs.getBigDecimal("net_pay"));
+                        paid.put(rs.getLong("employee_id"), amounts);
+                    },
+                    paidArgs);
+
+            LocalDate today = LocalDate.now();
+            List<Payroll> adjustments = new ArrayList<>();
+            for (PayrollRunService.EmployeePay employeePay : payrollRunService.computePay(period, in.toString(), ids, false)) {
+                if (employeePay.pay == null) {
+                    // Without a salary there is nothing to recompute from
+                    continue;
+                }
+                PayrollCalculator.Result pay = employeePay.pay;
+                long[] before = paid.getOrDefault(employeePay.employeeId, new long[AMOUNTS]);
+                long[] delta = {
+                        pay.getBaseSalary() - before[BASE], pay.getOvertimePay() - before[OVERTIME],
+                        pay.getUnpaidLeaveDeduction() - before[UNPAID], pay.getGrossSalary() - before[GROSS],
+                        pay.getTaxDeductions() - before[TAX], pay.getNetPay() - before[NET]};
+                employeesRecomputed.incrementAndGet();
+                if (isZero(delta)) {
+                    continue;
+                }
+
+                Payroll adjustment = new Payroll(employeePay.employeeName, Money.ofMinor(delta[GROSS]),
+                        Money.ofMinor(delta[TAX]), Money.ofMinor(delta[NET]), today);
+                adjustment.setEmployeeId(employeePay.employeeId);
+                adjustment.setDepartment(employeePay.department);
+                adjustment.setBaseSalary(Money.ofMinor(delta[BASE]));
+                adjustment.setOvertimePay(Money.ofMinor(delta[OVERTIME]));
+                adjustment.setUnpaidLeaveDeduction(Money.ofMinor(delta[UNPAID]));
+                adjustment.setInputSalary(Money.ofMinor(employeePay.salary));
+                adjustment.setOvertimeHours(employeePay.overtimeHours);
+                adjustment.setUnpaidLeaveDays(employeePay.unpaidLeaveDays);
+                adjustment.setRetroPeriod(period.toString());
+                adjustment.setContentHash(PayrollHashService.rowHash(adjustment));
+                adjustments.add(adjustment);
+            }
+            for (Payroll saved : payrollRepository.saveAll(adjustments)) {
+                payrollAggregateService.rowAdded(saved);
+            }
+            adjustmentsWritten.addAndGet(adjustments.size());
+
+            jdbcTemplate.batchUpdate(
+                    "DELETE FROM payroll_retro_marks WHERE employee_id = ? AND pay_period = ? AND marked_at = ?",
+                    marks, marks.size(), (ps, mark) -> {
+                        ps.setLong(1, (Long) mark[0]);
+                        ps.setString(2, period.toString());
+                        ps.setTimestamp(3, (Timestamp) mark[1]);
+                    });
+            return (Long) marks.get(marks.size() - 1)[0];
+        });
+    }
+
+    private static boolean isZero(long[] amounts) {
+        for (long amount : amounts) {
+            if (amount != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long minor(BigDecimal amount) {
+        return amount != null ? Money.toMinor(amount) : 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.hrms.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Marks employees whose pay for a period may be stale because an input it was derived from
+ * (attendance, unpaid leave or salary) changed after a payroll run computed it. The marks are
+ * picked up by {@link RetroPayService}.
+ * <p>
+ * A change to a period that was never run, which is nearly every change, costs one lookup of the
+ * run periods in range on the {@code payroll_runs} period index. The runs are read from the table
+ * rather than kept in memory so that runs started by other instances are seen at once. Any other
+ * change costs one upsert that marks the employee only if a run that has not been superseded paid
+ * them for the period; that covers changes made while a run is still in progress, after it has paid
+ * the employee. Batch jobs pass all the employees and periods they changed at once, which costs the
+ * same lookup and one upsert per {@value #MAX_PAIRS_PER_STATEMENT} pairs. The marks are written with
+ * the caller's connection, so they commit or roll back with the changes when the caller runs in a
+ * transaction, as every caller does.
+ */
+@Service
+public class RetroPayTracker {
+
+    public static final String ATTENDANCE = "ATTENDANCE";
+    public static final String LEAVE = "LEAVE";
+    public static final String SALARY = "SALARY";
+
+    // Two placeholders a pair, well within MySQL's limit per statement
+    static final int MAX_PAIRS_PER_STATEMENT = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    int pairsPerStatement = MAX_PAIRS_PER_STATEMENT;
+
+    /**
+     * Marks the employee for each period between {@code from} and {@code to} in which a run paid
+     * them.
+     */
+    public void inputsChanged(Long employeeId, LocalDate from, LocalDate to, String reason) {
+        if (employeeId == null || from == null) {
+            return;
+        }
+        Set<YearMonth> periods = new TreeSet<>();
+        YearMonth last = YearMonth.from(to != null && to.isAfter(from) ? to : from);
+        for (YearMonth period = YearMonth.from(from); !period.isAfter(last); period = period.plusMonths(1)) {
+            periods.add(period);
+        }
+        periodsChanged(Map.of(employeeId, periods), reason);
+    }
+
+    /**
+     * Marks each employee for those of their periods in which a run paid them, with one lookup and
+     * one upsert for the whole set.
+     */
+    public void periodsChanged(Map<Long, ? extends Collection<YearMonth>> periodsByEmployee, String reason) {
+        YearMonth first = null;
+        YearMonth last = null;
+        for (Collection<YearMonth> periods : periodsByEmployee.values()) {
+            for (YearMonth period : periods) {
+                first = first == null || period.isBefore(first) ? period : first;
+                last = last == null || period.isAfter(last) ? period : last;
+            }
+        }
+        if (first == null) {
+            return;
+        }
+        // Periods are stored as yyyy-MM, so they sort and compare as strings
+        Set<String> runPeriods = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT pay_period FROM payroll_runs WHERE pay_period BETWEEN ? AND ?",
+                String.class, first.toString(), last.toString()));
+        if (runPeriods.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> pairs = new ArrayList<>();
+        periodsByEmployee.forEach((employeeId, periods) -> {
+            for (YearMonth period : new TreeSet<>(periods)) {
+                if (runPeriods.contains(period.toString())) {
+                    pairs.add(new Object[]{employeeId, period.toString()});
+                }
+            }
+        });
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < pairs.size(); i += pairsPerStatement) {
+            mark(pairs.subList(i, Math.min(i + pairsPerStatement, pairs.size())), reason, now);
+        }
+    }
+
+    private void mark(List<Object[]> pairs, String reason, Timestamp now) {
+        List<Object> args = new ArrayList<>();
+        args.add(reason);
+        args.add(now);
+        StringJoiner changed = new StringJoiner(" UNION ALL ", "(", ")");
+        for (Object[] pair : pairs) {
+            // The first row types the columns, which a bare parameter cannot do on every database
+            changed.add(args.size() == 2 ? "SELECT CAST(? AS SIGNED) AS employee_id, CAST(? AS CHAR(7)) AS pay_period" : "SELECT ?, ?");
+            args.add(pair[0]);
+            args.add(pair[1]);
+        }
+        jdbcTemplate.update(
+                "INSERT INTO payroll_retro_marks (employee_id, pay_period, reason, marked_at) " +
+                "SELECT DISTINCT p.employee_id, r.pay_period, ?, ? FROM " + changed + " c " +
+                "JOIN payroll_runs r ON r.pay_period = c.pay_period AND r.status <> 'SUPERSEDED' " +
+                "JOIN payroll p ON p.run_id = r.id AND p.employee_id = c.employee_id " +
+                "ON DUPLICATE KEY UPDATE reason = VALUES(reason), marked_at = VALUES(marked_at)",
+                args.toArray());
+    }
+
+    /**
+     * Drops the period's marks from before a run that has just completed was created, since the
+     * run was computed from the changes they stand for.
+     */
+    public void runCompleted(YearMonth period, LocalDateTime runCreatedAt) {
+        jdbcTemplate.update("DELETE FROM payroll_retro_marks WHERE pay_period = ? AND marked_at < ?",
+                period.toString(), Timestamp.valueOf(runCreatedAt));
+    }
+}
@@ -0,0 +1,135 @@
+package com.hrms.service;
+
+import com.hrms.model.Shift;
+import com.hrms.repository.ShiftRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.hrms.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Shift definitions, kept in an in-memory snapshot that is swapped whenever a shift changes so
+ * attendance calculations never hit the database for them. The snapshot is built in the changing
+ * transaction and swapped in once it commits, so a rolled-back change never shows up.
+ */
+@Service
+@Transactional
+public class ShiftService {
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Value("${hrms.attendance.default-standard-hours:8}")
+    private double defaultStandardHours;
+
+    private volatile Map<Long, Shift> shifts = Map.of();
+
+    @PostConstruct
+    public void reload() {
+        shifts = load();
+    }
+
+    public List<Shift> getAllShifts() {
+        return new ArrayList<>(shifts.values());
+    }
+
+    public Optional<Shift> getShift(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(shifts.get(id));
+    }
+
+    /**
+     * Standard working hours for the shift, falling back to the company default when the employee
+     * has no shift assigned.
+     */
+    public double getStandardHours(Long shiftId) {
+        return getShift(shiftId)
+                .map(Shift::getStandardHours)
+                .orElse(defaultStandardHours);
+    }
+
+    public double getDefaultStandardHours() {
+        return defaultStandardHours;
+    }
+
+    /**
+     * Hours between check-in and check-out, in whole minutes. A check-out earlier than the
+     * check-in means the shift ran past midnight.
+     */
+    public static double calculateWorkingHours(LocalTime checkInTime, LocalTime checkOutTime) {
+        long seconds = Duration.between(checkInTime, checkOutTime).getSeconds();
+        if (seconds < 0) {
+            seconds += 24 * 60 * 60;
+        }
+        return (seconds / 60) / 60.0;
+    }
+
+    /**
+     * Overtime is anything beyond the standard hours of the employee's shift.
+     */
+    public double calculateOvertimeHours(double workingHours, Long shiftId) {
+        return Math.max(0.0, workingHours - getStandardHours(shiftId));
+    }
+
+    public Shift createShift(Shift shift) {
+        if (shiftRepository.existsByName(shift.getName())) {
+            throw new RuntimeException("Shift already exists: " + shift.getName());
+        }
+        shift.setId(null);
+        return saveAndReload(shift);
+    }
+
+    public Shift updateShift(Long id, Shift shift) {
+        Shift existing = shiftRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Shift not found with id: " + id));
+
+        existing.setName(shift.getName());
+        existing.setStartTime(shift.getStartTime());
+        existing.setEndTime(shift.getEndTime());
+        existing.setCrossesMidnight(shift.isCrossesMidnight());
+        existing.setStandardHours(shift.getStandardHours());
+        return saveAndReload(existing);
+    }
+
+    public void deleteShift(Long id) {
+        if (!shiftRepository.existsById(id)) {
+            throw new RuntimeException("Shift not found with id: " + id);
+        }
+        shiftRepository.deleteById(id);
+        shiftRepository.flush();
+        reloadAfterCommit();
+    }
+
+    private Shift saveAndReload(Shift shift) {
+        if (shift.getEndTime().isBefore(shift.getStartTime())) {
+            shift.setCrossesMidnight(true);
+        }
+        if (shift.getStandardHours() == null) {
+            shift.setStandardHours(shift.getScheduledHours());
+        }
+        Shift saved = shiftRepository.saveAndFlush(shift);
+        reloadAfterCommit();
+        return saved;
+    }
+
+    private void reloadAfterCommit() {
+        Map<Long, Shift> reloaded = load();
+        afterCommit(() -> shifts = reloaded);
+    }
+
+    private Map<Long, Shift> load() {
+        return shiftRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Shift::getId, Function.identity()));
+    }
+}
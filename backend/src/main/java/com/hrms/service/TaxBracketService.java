@@ -0,0 +1,274 @@
+package com.hrms.service;
+
+import com.hrms.model.Money;
+import com.hrms.model.TaxBracket;
+import com.hrms.repository.TaxBracketRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static com.hrms.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Progressive income tax on monthly gross pay, by region and year.
+ * <p>
+ * Each region's bracket tables are compiled into flat arrays of thresholds (in minor units),
+ * marginal rates and the tax owed up to each threshold, so computing a tax is a binary search and
+ * one multiplication with no allocation. A year uses the latest table of its region from that year
+ * or before. Regions without tables use the default region's, and when no table applies the flat
+ * {@code hrms.payroll.tax-rate} is used. With {@code hrms.payroll.tax.cumulative} set, payroll
+ * runs withhold the tax owed on the fiscal year to date instead, using the
+ * {@link PayrollYtdService} accumulators.
+ * <p>
+ * The compiled tables live in an immutable snapshot that is rebuilt and swapped after the commit
+ * that replaces brackets, so calculations never see a half-updated or rolled-back table. The brackets under
+ * {@code hrms.payroll.tax.brackets} seed the table when it is empty.
+ */
+@Service
+@Transactional
+public class TaxBracketService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaxBracketService.class);
+
+    @Autowired
+    private TaxBracketRepository taxBracketRepository;
+
+    @Autowired
+    private HolidayCalendarService holidayCalendarService;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${hrms.payroll.tax-rate:0.1}")
+    private double flatRate;
+
+    private volatile Map<String, RegionTables> regions = Map.of();
+
+    @PostConstruct
+    public void load() {
+        if (taxBracketRepository.count() == 0) {
+            seed();
+        }
+        reload();
+    }
+
+    /**
+     * Tax in minor units on a month's gross pay in minor units.
+     */
+    public long calculateTax(String region, int year, long grossSalary) {
+        if (grossSalary <= 0) {
+            return 0;
+        }
+        TaxTable table = findTable(region, year);
+        return table != null ? table.tax(grossSalary) : Money.multiply(grossSalary, flatRate);
+    }
+
+    /**
+     * Tax in minor units owed on {@code ytdGrossSalary}, the gross pay of the first {@code periods}
+     * months of a fiscal year, with every bracket threshold scaled by {@code periods}. Less the tax
+     * already withheld, this is the tax for the latest month under cumulative withholding, which
+     * evens out the tax of employees whose pay varies from month to month.
+     */
+    public long calculateCumulativeTax(String region, int year, long ytdGrossSalary, int periods) {
+        if (ytdGrossSalary <= 0 || periods <= 0) {
+            return 0;
+        }
+        TaxTable table = findTable(region, year);
+        if (table == null) {
+            return Money.multiply(ytdGrossSalary, flatRate);
+        }
+        // Scaling every threshold by n is the same as n times the tax on the monthly average
+        return (long) (table.exactTax((double) ytdGrossSalary / periods) * periods + 0.5);
+    }
+
+    private TaxTable findTable(String region, int year) {
+        Map<String, RegionTables> snapshot = regions;
+        RegionTables tables = snapshot.get(region != null ? region : holidayCalendarService.getDefaultRegion());
+        TaxTable table = tables != null ? tables.forYear(year) : null;
+        if (table == null) {
+            RegionTables defaults = snapshot.get(holidayCalendarService.getDefaultRegion());
+            table = defaults != null ? defaults.forYear(year) : null;
+        }
+        return table;
+    }
+
+    public List<TaxBracket> getBrackets(String region, Integer year) {
+        return year != null
+                ? taxBracketRepository.findByRegionAndTaxYearOrderByThreshold(region, year)
+                : taxBracketRepository.findByRegionOrderByTaxYearAscThresholdAsc(region);
+    }
+
+    /**
+     * Replaces a region's brackets for the year and swaps in the recompiled tables once the
+     * transaction commits. An empty list removes the year's table.
+     */
+    public List<TaxBracket> replaceBrackets(String region, int year, List<TaxBracket> brackets) {
+        Set<Money> seen = new HashSet<>();
+        List<TaxBracket> toSave = new ArrayList<>();
+        for (TaxBracket bracket : brackets) {
+            if (bracket.getThreshold() == null || bracket.getThreshold().signum() < 0) {
+                throw new RuntimeException("Bracket threshold must be zero or more: " + bracket.getThreshold());
+            }
+            if (bracket.getRate() == null || bracket.getRate() < 0 || bracket.getRate() > 1) {
+                throw new RuntimeException("Bracket rate must be between 0 and 1: " + bracket.getRate());
+            }
+            if (!seen.add(bracket.getThreshold())) {
+                throw new RuntimeException("Duplicate bracket threshold: " + bracket.getThreshold());
+            }
+            toSave.add(new TaxBracket(region, year, bracket.getThreshold(), bracket.getRate()));
+        }
+
+        taxBracketRepository.deleteByRegionAndTaxYear(region, year);
+        taxBracketRepository.flush();
+        List<TaxBracket> saved = taxBracketRepository.saveAll(toSave);
+        taxBracketRepository.flush();
+        reloadRegion(region);
+        return saved;
+    }
+
+    public synchronized void reload() {
+        Map<String, RegionTables> rebuilt = new HashMap<>();
+        for (String region : taxBracketRepository.findRegions()) {
+            rebuilt.put(region, compile(taxBracketRepository.findByRegionOrderByTaxYearAscThresholdAsc(region)));
+        }
+        regions = Collections.unmodifiableMap(rebuilt);
+    }
+
+    // Compiles the region's tables from the brackets as this transaction sees them and swaps them
+    // in once the transaction commits, so a rollback never shows up in calculations
+    private void reloadRegion(String region) {
+        List<TaxBracket> brackets = taxBracketRepository.findByRegionOrderByTaxYearAscThresholdAsc(region);
+        RegionTables tables = brackets.isEmpty() ? null : compile(brackets);
+        afterCommit(() -> swapRegion(region, tables));
+    }
+
+    private synchronized void swapRegion(String region, RegionTables tables) {
+        Map<String, RegionTables> rebuilt = new HashMap<>(regions);
+        if (tables == null) {
+            rebuilt.remove(region);
+        } else {
+            rebuilt.put(region, tables);
+        }
+        regions = Collections.unmodifiableMap(rebuilt);
+    }
+
+    // Brackets ordered by year, then threshold
+    private static RegionTables compile(List<TaxBracket> brackets) {
+        TreeMap<Integer, List<TaxBracket>> byYear = new TreeMap<>();
+        for (TaxBracket bracket : brackets) {
+            byYear.computeIfAbsent(bracket.getTaxYear(), y -> new ArrayList<>()).add(bracket);
+        }
+        int[] years = new int[byYear.size()];
+        TaxTable[] tables = new TaxTable[byYear.size()];
+        int i = 0;
+        for (Map.Entry<Integer, List<TaxBracket>> year : byYear.entrySet()) {
+            years[i] = year.getKey();
+            tables[i] = TaxTable.compile(year.getValue());
+            i++;
+        }
+        return new RegionTables(years, tables);
+    }
+
+    // Bracket strings are "threshold:rate, ..." per year per region
+    private void seed() {
+        Map<String, Map<String, String>> configured = Binder.get(environment)
+                .bind("hrms.payroll.tax.brackets", Bindable.<Map<String, Map<String, String>>>of(ResolvableType.forClassWithGenerics(
+                        Map.class, ResolvableType.forClass(String.class), ResolvableType.forClassWithGenerics(Map.class, String.class, String.class))))
+                .orElse(Map.of());
+        List<TaxBracket> brackets = new ArrayList<>();
+        configured.forEach((region, years) -> years.forEach((year, tiers) -> {
+            for (String tier : tiers.split(",")) {
+                String[] parts = tier.trim().split(":");
+                if (parts.length != 2) {
+                    throw new IllegalStateException("Invalid tax bracket for " + region + " " + year + ": " + tier);
+                }
+                brackets.add(new TaxBracket(region, Integer.parseInt(year.trim()),
+                        Money.of(new BigDecimal(parts[0].trim())), Double.parseDouble(parts[1].trim())));
+            }
+        }));
+        if (!brackets.isEmpty()) {
+            taxBracketRepository.saveAll(brackets);
+            log.info("Seeded {} tax brackets from configuration", brackets.size());
+        }
+    }
+
+    private static final class RegionTables {
+        private final int[] years;
+        private final TaxTable[] tables;
+
+        RegionTables(int[] years, TaxTable[] tables) {
+            this.years = years;
+            this.tables = tables;
+        }
+
+        // The latest table from the year or before it
+        TaxTable forYear(int year) {
+            int index = Arrays.binarySearch(years, year);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            return index >= 0 ? tables[index] : null;
+        }
+    }
+
+    private static final class TaxTable {
+        // thresholds[0] is always 0, so every amount falls in some bracket
+        private final long[] thresholds;
+        private final double[] rates;
+        // Tax owed on the amount up to each threshold, in unrounded minor units
+        private final double[] taxBelow;
+
+        private TaxTable(long[] thresholds, double[] rates, double[] taxBelow) {
+            this.thresholds = thresholds;
+            this.rates = rates;
+            this.taxBelow = taxBelow;
+        }
+
+        // Brackets ordered by threshold
+        static TaxTable compile(List<TaxBracket> brackets) {
+            boolean fromZero = brackets.get(0).getThreshold().isZero();
+            int size = brackets.size() + (fromZero ? 0 : 1);
+            long[] thresholds = new long[size];
+            double[] rates = new double[size];
+            double[] taxBelow = new double[size];
+            int i = fromZero ? 0 : 1;
+            for (TaxBracket bracket : brackets) {
+                thresholds[i] = bracket.getThreshold().getMinorUnits();
+                rates[i] = bracket.getRate();
+                i++;
+            }
+            for (i = 1; i < size; i++) {
+                taxBelow[i] = taxBelow[i - 1] + (thresholds[i] - thresholds[i - 1]) * rates[i - 1];
+            }
+            return new TaxTable(thresholds, rates, taxBelow);
+        }
+
+        long tax(long amount) {
+            return (long) (exactTax(amount) + 0.5);
+        }
+
+        // Unrounded tax in minor units
+        double exactTax(double amount) {
+            // Largest bracket whose threshold is at or below the amount, halving the range each step
+            int low = 0;
+            int length = thresholds.length;
+            while (length > 1) {
+                int half = length >>> 1;
+                low = thresholds[low + half] <= amount ? low + half : low;
+                length -= half;
+            }
+            return taxBelow[low] + (amount - thresholds[low]) * rates[low];
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.hrms.util;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Interval tree over closed integer intervals (for example epoch days), implemented as a treap
+ * ordered by interval start and augmented with the maximum end in each subtree. Insert, remove and
+ * "any overlap" queries are O(log n) expected; listing all overlaps is O(log n + k).
+ * <p>
+ * Not thread-safe; callers guard access.
+ */
+public class IntervalTree<T> {
+
+    private static final class Node<T> {
+        final int start;
+        final int end;
+        final long id;
+        final T value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int maxEnd;
+        Node<T> left;
+        Node<T> right;
+
+        Node(int start, int end, long id, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node<T> root;
+    private int size;
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Adds an interval. {@code id} must be unique within the tree and is used to remove it again.
+     */
+    public void insert(int start, int end, long id, T value) {
+        root = insert(root, new Node<>(start, end, id, value));
+        size++;
+    }
+
+    /**
+     * Removes the interval with the given start and id, returning whether it was present.
+     */
+    public boolean remove(int start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    /**
+     * Whether any interval matching the filter overlaps [start, end].
+     */
+    public boolean anyOverlap(int start, int end, Predicate<T> filter) {
+        return anyOverlap(root, start, end, filter);
+    }
+
+    /**
+     * Collects every interval value overlapping [start, end].
+     */
+    public void collectOverlaps(int start, int end, List<T> result) {
+        collectOverlaps(root, start, end, result);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<T> remove(Node<T> node, int start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private boolean anyOverlap(Node<T> node, int start, int end, Predicate<T> filter) {
+        while (node != null && node.maxEnd >= start) {
+            if (node.start <= end && node.end >= start && filter.test(node.value)) {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd >= start && anyOverlap(node.left, start, end, filter)) {
+                return true;
+            }
+            if (node.start > end) {
+                return false;
+            }
+            node = node.right;
+        }
+        return false;
+    }
+
+    private void collectOverlaps(Node<T> node, int start, int end, List<T> result) {
+        if (node == null || node.maxEnd < start) {
+            return;
+        }
+        collectOverlaps(node.left, start, end, result);
+        if (node.start <= end && node.end >= start) {
+            result.add(node.value);
+        }
+        if (node.start <= end) {
+            collectOverlaps(node.right, start, end, result);
+        }
+    }
+
+    private static <T> int compare(int start, long id, Node<T> node) {
+        int cmp = Integer.compare(start, node.start);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    private static <T> void update(Node<T> node) {
+        int maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > maxEnd) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+}
@@ -0,0 +1,84 @@
+package com.hrms.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void plusAndMinusFailOnOverflow() {
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+        Money min = Money.ofMinor(Long.MIN_VALUE);
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> min.minus(Money.ofMinor(1))).isInstanceOf(ArithmeticException.class);
+        assertThat(max.minus(Money.ofMinor(1)).getMinorUnits()).isEqualTo(Long.MAX_VALUE - 1);
+    }
+
+    @Test
+    void multiplyByFactorRoundsHalfAwayFromZero() {
+        assertThat(Money.multiply(5, 0.5)).isEqualTo(3);
+        assertThat(Money.multiply(-5, 0.5)).isEqualTo(-3);
+        assertThat(Money.multiply(-4, 0.5)).isEqualTo(-2);
+        assertThat(Money.multiply(-149, 0.01)).isEqualTo(-1);
+        assertThat(Money.multiply(-151, 0.01)).isEqualTo(-2);
+        assertThat(Money.multiply(-100_000, 1.5)).isEqualTo(-150_000);
+    }
+
+    @Test
+    void multiplyByFractionRoundsHalfAwayFromZero() {
+        assertThat(Money.multiply(5, 1, 2)).isEqualTo(3);
+        assertThat(Money.multiply(-5, 1, 2)).isEqualTo(-3);
+        assertThat(Money.multiply(-7, 1, 3)).isEqualTo(-2);
+        assertThat(Money.multiply(-8, 1, 3)).isEqualTo(-3);
+        // A month's salary over 21 of 22 working days
+        assertThat(Money.multiply(500_000, 21, 22)).isEqualTo(477_273);
+        assertThat(Money.multiply(-500_000, 21, 22)).isEqualTo(-477_273);
+    }
+
+    @Test
+    void multiplyByFractionFailsOnOverflow() {
+        assertThatThrownBy(() -> Money.multiply(Long.MAX_VALUE / 2, 3, 4)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void toMinorRoundsHalfUpAndRejectsAmountsThatDoNotFit() {
+        assertThat(Money.toMinor(new BigDecimal("1.005"))).isEqualTo(101);
+        assertThat(Money.toMinor(new BigDecimal("-1.005"))).isEqualTo(-101);
+        assertThat(Money.toMinor(new BigDecimal("1.004"))).isEqualTo(100);
+        assertThatThrownBy(() -> Money.toMinor(new BigDecimal("1e30"))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void sumsMatchBigDecimalExactly() {
+        Random random = new Random(42);
+        Money sum = Money.ZERO;
+        BigDecimal expected = BigDecimal.ZERO;
+        double floatingSum = 0;
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(2_000_000) - 500_000, Money.SCALE);
+            sum = sum.plus(Money.of(amount));
+            expected = expected.add(amount);
+            floatingSum += amount.doubleValue();
+        }
+
+        assertThat(sum.toBigDecimal()).isEqualTo(expected.setScale(Money.SCALE));
+        assertThat(Money.parse("0.10").plus(Money.parse("0.20"))).isEqualTo(Money.parse("0.30"));
+        // What the minor units are for: a double drifts off the exact sum
+        assertThat(BigDecimal.valueOf(floatingSum)).isNotEqualByComparingTo(expected);
+    }
+
+    @Test
+    void convertsToAndFromBigDecimal() {
+        assertThat(Money.of(null)).isNull();
+        assertThat(Money.of(new BigDecimal("12.3")).getMinorUnits()).isEqualTo(1230);
+        assertThat(Money.ofMinor(-1230).toBigDecimal()).isEqualTo(new BigDecimal("-12.30"));
+        assertThat(Money.ofMinor(0)).isSameAs(Money.ZERO);
+        assertThat(Money.parse(" 7.50 ").toString()).isEqualTo("7.50");
+    }
+}
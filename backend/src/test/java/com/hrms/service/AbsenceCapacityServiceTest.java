@@ -0,0 +1,267 @@
+package com.hrms.service;
+
+import com.hrms.dto.LeaveCalendarEntryDTO;
+import com.hrms.model.Employee;
+import com.hrms.model.LeaveStatus;
+import com.hrms.model.LeaveType;
+import com.hrms.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the capacity checks against the employee and leave tables in H2 (MySQL mode), outside a
+ * test transaction so concurrent requests commit as they would in the service.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(AbsenceCapacityService.class)
+@TestPropertySource(properties = {
+        "hrms.leave.capacity.horizon-days=10",
+        "hrms.leave.capacity.max-absent-ratio=0.2"
+})
+class AbsenceCapacityServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AbsenceCapacityService capacityService;
+
+    @MockBean
+    private LeaveCalendarIndex leaveCalendarIndex;
+
+    @MockBean
+    private HolidayCalendarService holidayCalendarService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM leave_capacity_locks");
+        jdbcTemplate.update("DELETE FROM leave_requests");
+        jdbcTemplate.update("DELETE FROM employees");
+        when(holidayCalendarService.regionOf(any(Employee.class))).thenReturn("DEFAULT");
+        when(holidayCalendarService.getDefaultRegion()).thenReturn("DEFAULT");
+        when(holidayCalendarService.isWorkingDay(anyString(), any(LocalDate.class))).thenReturn(true);
+        // Five people in Engineering allow one absence a day, one in Sales still allows one
+        for (int i = 1; i <= 5; i++) {
+            employee(i, "Engineering");
+        }
+        employee(6, "Sales");
+        indexHolds();
+        capacityService.rebuild();
+    }
+
+    @Test
+    void rebuildSweepsEveryLeaveIntoTheWindow() {
+        indexHolds(
+                entry(1L, "Engineering", TODAY.minusDays(5), TODAY),
+                entry(2L, "Engineering", TODAY, TODAY.plusDays(2)),
+                entry(3L, "Engineering", TODAY.plusDays(8), TODAY.plusDays(40)),
+                entry(4L, "Sales", TODAY.plusDays(3), TODAY.plusDays(3)),
+                entry(5L, "Sales", TODAY.minusDays(9), TODAY.minusDays(1)),
+                entry(6L, "Sales", TODAY.plusDays(10), TODAY.plusDays(12)));
+
+        capacityService.rebuild();
+
+        assertThat(capacityService.getForecast("Engineering", 10).getDailyAbsent())
+                .containsExactly(2, 1, 1, 0, 0, 0, 0, 0, 1, 1);
+        assertThat(capacityService.getForecast("Sales", 10).getDailyAbsent())
+                .containsExactly(0, 0, 0, 1, 0, 0, 0, 0, 0, 0);
+        assertThat(capacityService.getForecast("Engineering", 10).getHeadcount()).isEqualTo(5);
+        assertThat(capacityService.getForecast("Engineering", 10).getPeakDate()).isEqualTo(TODAY);
+    }
+
+    @Test
+    void applyKeepsTheWindowCurrentBetweenRebuilds() {
+        capacityService.entryAdded(entry(1L, "Engineering", TODAY.plusDays(1), TODAY.plusDays(3)));
+        capacityService.entryAdded(entry(2L, "Engineering", TODAY.minusDays(2), TODAY.plusDays(1)));
+        capacityService.entryAdded(entry(3L, "Engineering", TODAY.plusDays(9), TODAY.plusDays(30)));
+        capacityService.entryAdded(entry(4L, "Engineering", TODAY.plusDays(20), TODAY.plusDays(30)));
+        capacityService.entryRemoved(entry(1L, "Engineering", TODAY.plusDays(1), TODAY.plusDays(3)));
+        capacityService.entryAdded(entry(5L, "Marketing", TODAY.plusDays(4), TODAY.plusDays(5)));
+
+        assertThat(capacityService.getForecast("Engineering", 10).getDailyAbsent())
+                .containsExactly(1, 1, 0, 0, 0, 0, 0, 0, 0, 1);
+        assertThat(capacityService.getForecast("Marketing", 10).getDailyAbsent())
+                .containsExactly(0, 0, 0, 0, 1, 1, 0, 0, 0, 0);
+    }
+
+    @Test
+    void forecastShowsNoAbsencesOnDaysOff() {
+        when(holidayCalendarService.isWorkingDay(anyString(), any(LocalDate.class)))
+                .thenAnswer(invocation -> !invocation.<LocalDate>getArgument(1).equals(TODAY.plusDays(1)));
+        capacityService.entryAdded(entry(1L, "Engineering", TODAY, TODAY.plusDays(2)));
+
+        assertThat(capacityService.getForecast("Engineering", 3).getDailyAbsent()).containsExactly(1, 0, 1);
+    }
+
+    @Test
+    void rejectsFromTheWindowBeforeTouchingTheDatabase() {
+        capacityService.entryAdded(entry(1L, "Engineering", TODAY.plusDays(2), TODAY.plusDays(2)));
+
+        assertThatThrownBy(() -> check(2, TODAY.plusDays(1), TODAY.plusDays(3)))
+                .hasMessage("Engineering already has 1 of 1 allowed absences on " + TODAY.plusDays(2));
+        assertThatCode(() -> check(6, TODAY.plusDays(1), TODAY.plusDays(3))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void recountsLeavesTheWindowHasNotSeenYet() {
+        // Committed by another request whose after-commit update has not reached the window
+        leave(1, TODAY.plusDays(30), TODAY.plusDays(31), LeaveStatus.PENDING);
+
+        assertThatThrownBy(() -> check(2, TODAY.plusDays(31), TODAY.plusDays(35)))
+                .hasMessage("Engineering already has 1 of 1 allowed absences on " + TODAY.plusDays(31));
+        assertThatCode(() -> check(2, TODAY.plusDays(32), TODAY.plusDays(35))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void recountSkipsRejectedLeavesAndTheLeaveBeingEdited() {
+        Long edited = leave(1, TODAY.plusDays(30), TODAY.plusDays(31), LeaveStatus.PENDING);
+        leave(3, TODAY.plusDays(30), TODAY.plusDays(31), LeaveStatus.REJECTED);
+
+        assertThatCode(() -> inTransaction(() -> capacityService.checkCapacity(employee(1), TODAY.plusDays(31),
+                TODAY.plusDays(33), edited, TODAY.plusDays(30), TODAY.plusDays(31)))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void daysOffDoNotCountAgainstTheCap() {
+        when(holidayCalendarService.isWorkingDay(anyString(), any(LocalDate.class))).thenAnswer(invocation -> {
+            DayOfWeek day = invocation.<LocalDate>getArgument(1).getDayOfWeek();
+            return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY;
+        });
+        LocalDate saturday = TODAY.plusDays(30);
+        while (saturday.getDayOfWeek() != DayOfWeek.SATURDAY) {
+            saturday = saturday.plusDays(1);
+        }
+        LocalDate monday = saturday.plusDays(2);
+        leave(1, saturday, monday, LeaveStatus.APPROVED);
+
+        assertThatCode(() -> check(2, monday.minusDays(2), monday.minusDays(1))).doesNotThrowAnyException();
+        assertThatThrownBy(() -> check(2, monday.minusDays(2), monday))
+                .hasMessage("Engineering already has 1 of 1 allowed absences on " + monday);
+    }
+
+    @Test
+    void concurrentRequestsInADepartmentCannotBothPass() throws Exception {
+        CountDownLatch firstChecked = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            capacityService.checkCapacity(employee(1), TODAY.plusDays(30), TODAY.plusDays(30), null, null, null);
+            leave(1, TODAY.plusDays(30), TODAY.plusDays(30), LeaveStatus.PENDING);
+            firstChecked.countDown();
+            await(secondStarted);
+            // Give the second request time to block on the department
+            sleep(200);
+        }));
+        await(firstChecked);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            secondStarted.countDown();
+            capacityService.checkCapacity(employee(2), TODAY.plusDays(30), TODAY.plusDays(30), null, null, null);
+            leave(2, TODAY.plusDays(30), TODAY.plusDays(30), LeaveStatus.PENDING);
+        }));
+
+        first.get(10, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> second.get(10, TimeUnit.SECONDS))
+                .hasRootCauseMessage("Engineering already has 1 of 1 allowed absences on " + TODAY.plusDays(30));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM leave_requests", Long.class)).isEqualTo(1);
+    }
+
+    private void check(int employee, LocalDate startDate, LocalDate endDate) {
+        inTransaction(() -> capacityService.checkCapacity(employee(employee), startDate, endDate, null, null, null));
+    }
+
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+
+    private void employee(int number, String department) {
+        jdbcTemplate.update(
+                "INSERT INTO employees (id, employee_id, first_name, last_name, email, department, position, hire_date, status, created_at) " +
+                "VALUES (?, ?, 'Employee', ?, ?, ?, 'Engineer', ?, 'ACTIVE', ?)",
+                number, "EMP" + number, String.valueOf(number), "employee" + number + "@example.com", department,
+                LocalDate.of(2020, 1, 1), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private Employee employee(int number) {
+        return employeeRepository.findById((long) number).orElseThrow();
+    }
+
+    private Long leave(int employee, LocalDate startDate, LocalDate endDate, LeaveStatus status) {
+        jdbcTemplate.update(
+                "INSERT INTO leave_requests (employee_id, leave_type, start_date, end_date, status, created_at, version) " +
+                "VALUES (?, 'ANNUAL', ?, ?, ?, ?, 0)",
+                employee, startDate, endDate, status.name(), Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM leave_requests", Long.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void indexHolds(LeaveCalendarEntryDTO... entries) {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Collection<LeaveCalendarEntryDTO>>>getArgument(0).accept(List.of(entries));
+            return null;
+        }).when(leaveCalendarIndex).withAllEntries(any(Consumer.class));
+    }
+
+    private static LeaveCalendarEntryDTO entry(Long leaveId, String department, LocalDate startDate, LocalDate endDate) {
+        return new LeaveCalendarEntryDTO(leaveId, leaveId, "Employee " + leaveId, department,
+                LeaveType.ANNUAL, LeaveStatus.APPROVED, startDate, endDate);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.hrms.service;
+
+import com.hrms.model.Attendance;
+import com.hrms.model.AttendanceStatus;
+import com.hrms.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AttendanceAnomalyDetectorTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private ShiftService shiftService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @InjectMocks
+    private AttendanceAnomalyDetector detector;
+
+    private final Employee employee = new Employee();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(detector, "lateThreshold", 3);
+        ReflectionTestUtils.setField(detector, "windowDays", 30);
+        ReflectionTestUtils.setField(detector, "graceMinutes", 10);
+        ReflectionTestUtils.setField(detector, "defaultStartTime", "09:00");
+        ReflectionTestUtils.setField(detector, "maxWorkingHours", 16.0);
+        ReflectionTestUtils.setField(detector, "alertRecipient", "hr@hrms.local");
+        when(shiftService.getShift(any())).thenReturn(Optional.empty());
+        employee.setId(7L);
+        employee.setEmployeeId("EMP7");
+        employee.setFirstName("Jane");
+        employee.setLastName("Doe");
+    }
+
+    @Test
+    void implausibleHoursAlertOnlyWhenARowBecomesImplausible() {
+        Attendance row = attendance(1L, TODAY, LocalTime.of(8, 55), 20.0);
+
+        detector.onAttendance(row);
+        // Rewritten by a later update or punch, still implausible
+        detector.onAttendance(row);
+        assertThat(flushedAlerts()).containsExactly("Jane Doe (EMP7): implausible working hours 20.00 on " + TODAY);
+
+        row.setWorkingHours(8.0);
+        detector.onAttendance(row);
+        row.setWorkingHours(-1.0);
+        detector.onAttendance(row);
+        detector.onAttendance(attendance(2L, TODAY.minusDays(1), LocalTime.of(8, 55), 17.0));
+        assertThat(flushedAlerts()).containsExactly(
+                "Jane Doe (EMP7): implausible working hours -1.00 on " + TODAY,
+                "Jane Doe (EMP7): implausible working hours 17.00 on " + TODAY.minusDays(1));
+    }
+
+    @Test
+    void lateArrivalsPastTheThresholdAlertOnce() {
+        for (int day = 3; day >= 0; day--) {
+            detector.onAttendance(attendance(10L + day, TODAY.minusDays(day), LocalTime.of(9, 30), null));
+        }
+        detector.onAttendance(attendance(10L, TODAY, LocalTime.of(9, 30), 8.0));
+
+        assertThat(flushedAlerts()).containsExactly("Jane Doe (EMP7): late more than 3 times in 30 days (latest " + TODAY + ")");
+    }
+
+    @Test
+    void writesCountOnlyOnceTheirTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            detector.onAttendance(attendance(1L, TODAY, LocalTime.of(8, 55), 20.0));
+            detector.flushAlerts();
+            verify(notificationService, never()).enqueue(anyString(), anyString(), anyString());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(flushedAlerts()).hasSize(1);
+    }
+
+    @Test
+    void rolledBackWritesAreNeverCounted() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            detector.onAttendance(attendance(1L, TODAY, LocalTime.of(8, 55), 20.0));
+            for (int day = 3; day >= 0; day--) {
+                detector.onAttendance(attendance(10L + day, TODAY.minusDays(day), LocalTime.of(9, 30), null));
+            }
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        detector.flushAlerts();
+
+        verify(notificationService, never()).enqueue(anyString(), anyString(), anyString());
+        // The row was never flagged, so committing it later still alerts
+        detector.onAttendance(attendance(1L, TODAY, LocalTime.of(8, 55), 20.0));
+        assertThat(flushedAlerts()).hasSize(1);
+    }
+
+    private Attendance attendance(Long id, LocalDate date, LocalTime checkIn, Double workingHours) {
+        Attendance attendance = new Attendance(employee, date, AttendanceStatus.PRESENT);
+        attendance.setId(id);
+        attendance.setCheckInTime(checkIn);
+        attendance.setWorkingHours(workingHours);
+        return attendance;
+    }
+
+    // Flushes and returns the alerts mailed since the last call
+    private List<String> flushedAlerts() {
+        clearInvocations(notificationService);
+        detector.flushAlerts();
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(notificationService, atMost(1)).enqueue(eq("hr@hrms.local"), anyString(), body.capture());
+        return body.getAllValues().isEmpty() ? List.of() : List.of(body.getValue().split("\n"));
+    }
+}
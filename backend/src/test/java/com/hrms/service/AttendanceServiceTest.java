@@ -0,0 +1,109 @@
+package com.hrms.service;
+
+import com.hrms.dto.AttendanceDTO;
+import com.hrms.model.Attendance;
+import com.hrms.model.AttendanceStatus;
+import com.hrms.model.Employee;
+import com.hrms.repository.AttendanceRepository;
+import com.hrms.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AttendanceServiceTest {
+
+    @Mock
+    private AttendanceRepository attendanceRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private AttendancePartitionService partitionService;
+
+    @Mock
+    private AttendanceArchiveStore archiveStore;
+
+    @InjectMocks
+    private AttendanceService attendanceService;
+
+    private final Employee employee = new Employee();
+
+    @BeforeEach
+    void setUp() {
+        employee.setId(7L);
+        when(employeeRepository.existsById(7L)).thenReturn(true);
+        when(employeeRepository.findAllById(any())).thenReturn(List.of(employee));
+    }
+
+    @Test
+    void readsOldMonthsFromTheTableUntilTheyHaveBeenArchived() throws Exception {
+        // Partitioning is off, or the retention run has not dropped anything yet
+        when(partitionService.getArchivedThrough()).thenReturn(null);
+        LocalDate old = LocalDate.of(2020, 3, 2);
+        when(attendanceRepository.findByAttendanceDate(old)).thenReturn(List.of(row(old)));
+        when(attendanceRepository.findByEmployeeIdAndDateRange(7L, old, old.plusDays(5))).thenReturn(List.of(row(old)));
+
+        assertThat(attendanceService.getAttendanceByDate(old)).extracting(AttendanceDTO::getAttendanceDate).containsExactly(old);
+        assertThat(attendanceService.getAttendanceByEmployee(7L, old, old.plusDays(5))).hasSize(1);
+        verifyNoInteractions(archiveStore);
+    }
+
+    @Test
+    void splitsARangeAtTheLastArchivedMonth() throws Exception {
+        when(partitionService.getArchivedThrough()).thenReturn(YearMonth.of(2024, 5));
+        when(archiveStore.isArchived(any())).thenReturn(true);
+        when(archiveStore.read(eq(YearMonth.of(2024, 5)), any())).thenReturn(List.of(archived(LocalDate.of(2024, 5, 31))));
+        // A partition whose export succeeded but whose drop failed would still be in the table
+        when(attendanceRepository.findByEmployeeIdAndDateRange(7L, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30)))
+                .thenReturn(List.of(row(LocalDate.of(2024, 6, 3))));
+
+        List<AttendanceDTO> result = attendanceService.getAttendanceByEmployee(7L, LocalDate.of(2024, 5, 20), LocalDate.of(2024, 6, 30));
+
+        assertThat(result).extracting(AttendanceDTO::getAttendanceDate)
+                .containsExactly(LocalDate.of(2024, 5, 31), LocalDate.of(2024, 6, 3));
+        verify(archiveStore, never()).read(eq(YearMonth.of(2024, 6)), any());
+    }
+
+    @Test
+    void readsAWholeRangeBeforeTheArchivedMonthFromTheArchive() throws Exception {
+        when(partitionService.getArchivedThrough()).thenReturn(YearMonth.of(2024, 5));
+        when(archiveStore.isArchived(any())).thenReturn(true);
+        when(archiveStore.read(eq(YearMonth.of(2024, 2)), any())).thenReturn(List.of(archived(LocalDate.of(2024, 2, 8))));
+
+        assertThat(attendanceService.getAttendanceByDate(LocalDate.of(2024, 2, 8))).hasSize(1);
+        assertThat(attendanceService.getAttendanceByEmployee(7L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29))).hasSize(1);
+        verify(attendanceRepository, never()).findByEmployeeIdAndDateRange(any(), any(), any());
+        verify(attendanceRepository, never()).findByAttendanceDate(any());
+    }
+
+    private Attendance row(LocalDate date) {
+        return new Attendance(employee, date, AttendanceStatus.PRESENT);
+    }
+
+    private static AttendanceDTO archived(LocalDate date) {
+        AttendanceDTO dto = new AttendanceDTO();
+        dto.setEmployeeId(7L);
+        dto.setAttendanceDate(date);
+        return dto;
+    }
+}
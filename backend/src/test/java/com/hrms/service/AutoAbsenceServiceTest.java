@@ -0,0 +1,76 @@
+package com.hrms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the auto-absence statement against the attendance tables in H2 (MySQL mode).
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AutoAbsenceService.class)
+class AutoAbsenceServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AutoAbsenceService autoAbsenceService;
+
+    @MockBean
+    private HolidayCalendarService holidayCalendarService;
+
+    @BeforeEach
+    void setUp() {
+        when(holidayCalendarService.getDefaultRegion()).thenReturn("DEFAULT");
+        when(holidayCalendarService.getRegionsWithHolidayOn(DATE)).thenReturn(Set.of("UK"));
+    }
+
+    @Test
+    void marksOnlyEmployeesWithNothingElseForTheDay() {
+        employee(1, "ACTIVE", null);
+        employee(2, "ACTIVE", null);
+        employee(3, "ACTIVE", null);
+        employee(4, "ACTIVE", "UK");
+        employee(5, "INACTIVE", null);
+        employee(6, "ACTIVE", "FR");
+        jdbcTemplate.update("INSERT INTO attendance (employee_id, attendance_date, status, check_in_time, created_at) " +
+                "VALUES (2, ?, 'PRESENT', '09:00:00', ?)", DATE, Timestamp.valueOf(LocalDateTime.now()));
+        jdbcTemplate.update("INSERT INTO leave_requests (employee_id, leave_type, start_date, end_date, status, created_at, version) " +
+                "VALUES (3, 'ANNUAL', ?, ?, 'APPROVED', ?, 0)", DATE.minusDays(1), DATE.plusDays(1), Timestamp.valueOf(LocalDateTime.now()));
+
+        assertThat(autoAbsenceService.markAbsent(DATE)).isEqualTo(2);
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT employee_id FROM attendance WHERE attendance_date = ? AND status = 'ABSENT' ORDER BY employee_id",
+                Long.class, DATE)).containsExactly(1L, 6L);
+        assertThat(autoAbsenceService.markAbsent(DATE)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance", Long.class)).isEqualTo(3);
+    }
+
+    private void employee(int id, String status, String region) {
+        jdbcTemplate.update(
+                "INSERT INTO employees (id, employee_id, first_name, last_name, email, department, position, hire_date, status, region, created_at) " +
+                "VALUES (?, ?, 'Employee', ?, ?, 'Engineering', 'Engineer', ?, ?, ?, ?)",
+                id, "EMP" + id, String.valueOf(id), "employee" + id + "@example.com", LocalDate.of(2020, 1, 1), status, region,
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.hrms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BankFileServiceTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Test
+    void fixedWidthRecordsArePaddedToTheRecordWidth() {
+        BankFileService.RecordWriter writer = writer(BankFileService.Format.FIXED, 1024);
+
+        writer.begin('D');
+        writer.number(42, 5);
+        writer.text("Zoë", 6);
+        writer.text(null, 2);
+        writer.text("truncated", 4);
+        writer.end();
+        writer.flush();
+
+        String line = written();
+        assertThat(line).hasSize(BankFileService.RECORD_WIDTH + 1).endsWith("\n");
+        assertThat(line).startsWith("D00042Zo?     trun");
+        assertThat(line.substring(18, BankFileService.RECORD_WIDTH)).isBlank();
+    }
+
+    @Test
+    void numbersThatDoNotFitTheirFieldAreRejected() {
+        BankFileService.RecordWriter writer = writer(BankFileService.Format.FIXED, 1024);
+        writer.begin('D');
+
+        assertThatThrownBy(() -> writer.number(123456, 5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("5-digit");
+        assertThatThrownBy(() -> writer.number(-1, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void csvQuotesTextAndDoublesEmbeddedQuotes() {
+        BankFileService.RecordWriter writer = writer(BankFileService.Format.CSV, 1024);
+
+        writer.begin('D');
+        writer.number(7, 10);
+        writer.text("O\"Brien, \"Pat\"", 35);
+        writer.number(0, 15);
+        writer.text(null, 11);
+        writer.end();
+        writer.flush();
+
+        assertThat(written()).isEqualTo("D,7,\"O\"\"Brien, \"\"Pat\"\"\",0,\"\"\n");
+    }
+
+    @Test
+    void recordsAreDrainedWhenTheBufferFills() {
+        BankFileService.RecordWriter writer = writer(BankFileService.Format.FIXED, BankFileService.RECORD_WIDTH * 2 + 1);
+
+        for (int i = 1; i <= 3; i++) {
+            writer.begin('D');
+            writer.number(i, 10);
+            writer.end();
+        }
+        writer.flush();
+
+        String[] lines = written().split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[2]).startsWith("D0000000003").hasSize(BankFileService.RECORD_WIDTH);
+    }
+
+    private BankFileService.RecordWriter writer(BankFileService.Format format, int bufferSize) {
+        return new BankFileService.RecordWriter(Channels.newChannel(out), ByteBuffer.allocate(bufferSize), format);
+    }
+
+    private String written() {
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+}
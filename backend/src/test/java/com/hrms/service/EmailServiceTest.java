@@ -0,0 +1,111 @@
+package com.hrms.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sends through an in-process SMTP server.
+ */
+class EmailServiceTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP.dynamicPort());
+
+    private final EmailService emailService = new EmailService();
+
+    private final EmailService.Message first = new EmailService.Message("a@example.com", "Leave approved", "Enjoy");
+    private final EmailService.Message second = new EmailService.Message("b@example.com", "Payslip ready", "See attached");
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(greenMail.getSmtp().getPort());
+        useSender(sender);
+        ReflectionTestUtils.setField(emailService, "from", "hrms@hrms.local");
+    }
+
+    @Test
+    void sendsTheBatchOverSmtp() throws Exception {
+        assertThat(emailService.sendBatch(List.of(first, second))).isEmpty();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).extracting(MimeMessage::getSubject).containsExactly("Leave approved", "Payslip ready");
+        assertThat(GreenMailUtil.getAddressList(received[1].getAllRecipients())).isEqualTo("b@example.com");
+        assertThat(GreenMailUtil.getBody(received[0])).isEqualTo("Enjoy");
+    }
+
+    @Test
+    void anAddressThatDoesNotParseFailsOnlyItsOwnMessage() throws Exception {
+        EmailService.Message broken = new EmailService.Message("<jane.doe@example.com", "Leave rejected", "Sorry");
+
+        Map<EmailService.Message, String> failures = emailService.sendBatch(List.of(first, broken, second));
+
+        assertThat(failures).containsOnlyKeys(broken);
+        assertThat(greenMail.getReceivedMessages()).extracting(MimeMessage::getSubject)
+                .containsExactly("Leave approved", "Payslip ready");
+    }
+
+    @Test
+    void anUnreachableServerFailsEveryMessage() {
+        greenMail.stop();
+
+        Map<EmailService.Message, String> failures = emailService.sendBatch(List.of(first, second));
+
+        assertThat(failures).containsOnlyKeys(first, second);
+        assertThatThrownBy(() -> emailService.send("a@example.com", "Hello", "Body"))
+                .hasMessageStartingWith("Failed to send email to a@example.com");
+    }
+
+    @Test
+    void mapsMessagesTheServerRejectedBackToTheirRecipients() {
+        JavaMailSender sender = mock(JavaMailSender.class);
+        when(sender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        doAnswer(invocation -> {
+            MimeMessage rejected = invocation.getArgument(1);
+            throw new MailSendException(Map.of(rejected, new MessagingException("550 Mailbox unavailable")));
+        }).when(sender).send(any(MimeMessage[].class));
+        useSender(sender);
+
+        Map<EmailService.Message, String> failures = emailService.sendBatch(List.of(first, second));
+
+        assertThat(failures).containsExactly(Map.entry(second, "550 Mailbox unavailable"));
+    }
+
+    @Test
+    void logsInsteadWhenNoServerIsConfigured() {
+        useSender(null);
+
+        assertThat(emailService.sendBatch(List.of(first, second))).isEmpty();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void useSender(JavaMailSender sender) {
+        ObjectProvider<JavaMailSender> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(sender);
+        ReflectionTestUtils.setField(emailService, "mailSender", provider);
+    }
+}
@@ -0,0 +1,117 @@
+package com.hrms.service;
+
+import com.hrms.model.Holiday;
+import com.hrms.repository.HolidayRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HolidayCalendarServiceTest {
+
+    private static final LocalDate NEW_YEAR_2026 = LocalDate.of(2026, 1, 1);
+    private static final LocalDate CHRISTMAS_2026 = LocalDate.of(2026, 12, 25);
+    private static final LocalDate LEAP_DAY_2028 = LocalDate.of(2028, 2, 29);
+    private static final LocalDate NEW_YEAR_2040 = LocalDate.of(2040, 1, 2);
+
+    @Mock
+    private HolidayRepository holidayRepository;
+
+    @InjectMocks
+    private HolidayCalendarService calendarService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(calendarService, "defaultRegion", "DEFAULT");
+        ReflectionTestUtils.setField(calendarService, "weekendDaysConfig", "SATURDAY,SUNDAY");
+        ReflectionTestUtils.setField(calendarService, "precomputedYears", 1);
+        when(holidayRepository.findAll()).thenReturn(List.of(
+                new Holiday("UK", NEW_YEAR_2026, "New Year's Day"),
+                new Holiday("UK", CHRISTMAS_2026, "Christmas Day"),
+                new Holiday("UK", LEAP_DAY_2028, "Leap day"),
+                new Holiday("DEFAULT", NEW_YEAR_2040, "New Year's Day")));
+        calendarService.reload();
+    }
+
+    @Test
+    void countsMatchADayByDayScanAcrossYears() {
+        LocalDate[] dates = {
+                LocalDate.of(2025, 12, 20), NEW_YEAR_2026, LocalDate.of(2026, 1, 3), LocalDate.of(2026, 6, 15),
+                CHRISTMAS_2026, LocalDate.of(2026, 12, 31), LocalDate.of(2027, 1, 1), LEAP_DAY_2028,
+                LocalDate.of(2028, 12, 31), LocalDate.of(2039, 12, 30), NEW_YEAR_2040
+        };
+        for (String region : List.of("UK", "DEFAULT", "FR")) {
+            for (LocalDate start : dates) {
+                for (LocalDate end : dates) {
+                    assertThat(calendarService.countWorkingDays(region, start, end))
+                            .as("%s from %s to %s", region, start, end)
+                            .isEqualTo(scan(region, start, end));
+                }
+            }
+        }
+    }
+
+    @Test
+    void holidaysAndWeekendsAreNotWorkingDays() {
+        assertThat(calendarService.isWorkingDay("UK", CHRISTMAS_2026)).isFalse();
+        assertThat(calendarService.isWorkingDay("DEFAULT", CHRISTMAS_2026)).isTrue();
+        assertThat(calendarService.isWorkingDay("UK", LocalDate.of(2026, 12, 26))).isFalse();
+        // A week with Christmas on the Friday
+        assertThat(calendarService.countWorkingDays("UK", LocalDate.of(2026, 12, 21), LocalDate.of(2026, 12, 27))).isEqualTo(4);
+        assertThat(calendarService.countWorkingDays("DEFAULT", LocalDate.of(2026, 12, 21), LocalDate.of(2026, 12, 27))).isEqualTo(5);
+    }
+
+    @Test
+    void noRegionUsesTheDefaultAndUnknownRegionsOnlyWeekends() {
+        // DEFAULT has a holiday in 2040, an unknown region only weekends
+        assertThat(calendarService.isWorkingDay(null, NEW_YEAR_2040)).isFalse();
+        assertThat(calendarService.isWorkingDay("FR", NEW_YEAR_2040)).isTrue();
+    }
+
+    @Test
+    void countsAYearOutsideThePrecomputedRange() {
+        // 2031 has 365 days, 104 of them weekend days
+        assertThat(calendarService.countWorkingDays("UK", LocalDate.of(2031, 1, 1), LocalDate.of(2031, 12, 31))).isEqualTo(261);
+        // 2028 is a leap year starting on a Saturday, and the UK has the leap day off
+        assertThat(calendarService.countWorkingDays("UK", LocalDate.of(2028, 1, 1), LocalDate.of(2028, 12, 31))).isEqualTo(259);
+        assertThat(calendarService.countWorkingDays("DEFAULT", LocalDate.of(2028, 1, 1), LocalDate.of(2028, 12, 31))).isEqualTo(260);
+    }
+
+    @Test
+    void reversedRangeHasNoWorkingDays() {
+        assertThat(calendarService.countWorkingDays("UK", LocalDate.of(2026, 6, 15), LocalDate.of(2026, 6, 14))).isZero();
+        assertThat(calendarService.countWorkingDays("UK", LocalDate.of(2026, 6, 15), LocalDate.of(2026, 6, 15))).isEqualTo(1);
+    }
+
+    @Test
+    void weekendDaysAreConfigurable() {
+        ReflectionTestUtils.setField(calendarService, "weekendDaysConfig", "FRIDAY, SATURDAY");
+        calendarService.reload();
+
+        // Friday 2026-06-19 to Sunday 2026-06-21
+        assertThat(calendarService.countWorkingDays("FR", LocalDate.of(2026, 6, 19), LocalDate.of(2026, 6, 21))).isEqualTo(1);
+        assertThat(calendarService.isWeekend(LocalDate.of(2026, 6, 21))).isFalse();
+        assertThat(calendarService.countWorkingDays("UK", LocalDate.of(2025, 1, 1), LocalDate.of(2030, 12, 31)))
+                .isEqualTo(scan("UK", LocalDate.of(2025, 1, 1), LocalDate.of(2030, 12, 31)));
+    }
+
+    private int scan(String region, LocalDate start, LocalDate end) {
+        int count = 0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            if (calendarService.isWorkingDay(region, date)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,126 @@
+package com.hrms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs accrual and the move to it against the leave tables in H2 (MySQL mode). There is no test
+ * transaction, since runs happen on a background thread in transactions of their own.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(LeaveAccrualService.class)
+@TestPropertySource(properties = "hrms.leave.accrual.types.ANNUAL=0:24")
+class LeaveAccrualServiceTest {
+
+    private static final int YEAR = YearMonth.now().getYear();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LeaveAccrualService accrualService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM leave_ledger_entries");
+        jdbcTemplate.update("DELETE FROM leave_accrual_credits");
+        jdbcTemplate.update("DELETE FROM leave_balances");
+        jdbcTemplate.update("DELETE FROM job_checkpoints");
+        jdbcTemplate.update("DELETE FROM employees");
+        ReflectionTestUtils.setField(accrualService, "migrateBalances", false);
+        employee(1);
+        employee(2);
+        employee(3);
+    }
+
+    @Test
+    void balancesGrantedUpFrontKeepTheirEntitlementAndAreNotAccrued() throws Exception {
+        balance(1, 24, 5);
+
+        accrualService.migrateToAccrual();
+        assertThat(balance(1)).containsEntry("entitled", 24.0).containsEntry("accrued", 0.0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM job_checkpoints", Long.class)).isZero();
+
+        assertThat(accrualService.start(YearMonth.now())).isTrue();
+        awaitFinished();
+
+        assertThat(balance(1)).containsEntry("entitled", 24.0).containsEntry("accrued", 0.0);
+        assertThat(balance(2)).containsEntry("entitled", 0.0).containsEntry("accrued", 2.0);
+        assertThat(accrualService.getStatus()).containsEntry("creditsWritten", 2L).containsEntry("creditsSkipped", 1L);
+    }
+
+    @Test
+    void migrationGivesTheEntitlementBackAndReportsBalancesLeftBelowZero() throws Exception {
+        ReflectionTestUtils.setField(accrualService, "migrateBalances", true);
+        // Used the whole year's leave, more than the catch-up can accrue before December
+        balance(1, 24, 24);
+        balance(2, 24, 0);
+
+        accrualService.migrateToAccrual();
+        awaitFinished();
+
+        int monthsPassed = YearMonth.now().getMonthValue() - 1;
+        assertThat(balance(1)).containsEntry("entitled", 0.0).containsEntry("accrued", 2.0 * monthsPassed);
+        assertThat(balance(2)).containsEntry("entitled", 0.0).containsEntry("accrued", 2.0 * monthsPassed);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT days FROM leave_ledger_entries WHERE entry_type = 'ENTITLEMENT' ORDER BY employee_id", Double.class))
+                .containsExactly(-24.0, -24.0);
+        assertThat(accrualService.getStatus()).containsEntry("negativeBalancesAfterMigration", 1L);
+
+        // Once per set of accruing types
+        jdbcTemplate.update("UPDATE leave_balances SET entitled = 24 WHERE employee_id = 2");
+        accrualService.migrateToAccrual();
+        assertThat(balance(2)).containsEntry("entitled", 24.0);
+    }
+
+    private void employee(int id) {
+        jdbcTemplate.update(
+                "INSERT INTO employees (id, employee_id, first_name, last_name, email, department, position, hire_date, status, created_at) " +
+                "VALUES (?, ?, 'Employee', ?, ?, 'Engineering', 'Engineer', ?, 'ACTIVE', ?)",
+                id, "EMP" + id, String.valueOf(id), "employee" + id + "@example.com", LocalDate.of(2020, 1, 1),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private void balance(int employeeId, double entitled, double consumed) {
+        jdbcTemplate.update(
+                "INSERT INTO leave_balances (employee_id, leave_type, leave_year, entitled, accrued, adjusted, consumed, pending, updated_at) " +
+                "VALUES (?, 'ANNUAL', ?, ?, 0, 0, ?, 0, ?)",
+                employeeId, YEAR, entitled, consumed, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private Map<String, Object> balance(int employeeId) {
+        return jdbcTemplate.queryForMap(
+                "SELECT CAST(entitled AS DOUBLE) AS entitled, CAST(accrued AS DOUBLE) AS accrued FROM leave_balances " +
+                "WHERE employee_id = ? AND leave_type = 'ANNUAL' AND leave_year = ?",
+                employeeId, YEAR);
+    }
+
+    private void awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (Boolean.TRUE.equals(accrualService.getStatus().get("running")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(accrualService.getStatus().get("running")).isEqualTo(false);
+    }
+}
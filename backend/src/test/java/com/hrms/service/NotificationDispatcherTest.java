@@ -0,0 +1,217 @@
+package com.hrms.service;
+
+import com.hrms.model.NotificationStatus;
+import com.hrms.model.OutboxNotification;
+import com.hrms.repository.OutboxNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the dispatcher against the outbox table in H2 (MySQL mode), outside a test transaction so
+ * each statement commits as it does in the scheduled job.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(NotificationDispatcher.class)
+@TestPropertySource(properties = {
+        "hrms.notifications.max-attempts=4",
+        "hrms.notifications.backoff-base-ms=30000",
+        "hrms.notifications.backoff-max-ms=100000",
+        "hrms.notifications.claim-timeout-ms=600000"
+})
+class NotificationDispatcherTest {
+
+    private static final long BACKOFF_BASE_MS = 30_000;
+    private static final long BACKOFF_MAX_MS = 100_000;
+    private static final int MAX_ATTEMPTS = 4;
+
+    @Autowired
+    private OutboxNotificationRepository outboxRepository;
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @MockBean
+    private EmailService emailService;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void claimsDueAndStaleRowsAndCountsTheReclaimAsAnAttempt() {
+        Long due = pending("a@example.com", "Due", 0, now.minusMinutes(1));
+        Long notYetDue = pending("b@example.com", "Later", 1, now.plusMinutes(5));
+        Long stale = sending("c@example.com", "Crashed mid-send", 1, now.minusHours(1));
+        Long inFlight = sending("d@example.com", "Still sending", 1, now.minusSeconds(30));
+        when(emailService.sendBatch(anyList())).thenReturn(Map.of());
+
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(2);
+
+        assertThat(row(due)).satisfies(sent(0));
+        assertThat(row(stale)).satisfies(sent(2));
+        assertThat(row(notYetDue).getStatus()).isEqualTo(NotificationStatus.PENDING);
+        assertThat(row(inFlight).getStatus()).isEqualTo(NotificationStatus.SENDING);
+        assertThat(row(inFlight).getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void nothingDueSendsNothing() {
+        pending("a@example.com", "Later", 0, now.plusMinutes(5));
+
+        assertThat(dispatcher.dispatchBatch()).isZero();
+
+        verify(emailService, never()).sendBatch(anyList());
+    }
+
+    @Test
+    void mergesNotificationsForTheSameRecipientIntoOneDigest() {
+        Long first = pending("a@example.com", "Leave approved", 0, now);
+        Long second = pending("a@example.com", "Payslip ready", 0, now);
+        Long third = pending("b@example.com", "Leave rejected", 0, now);
+        when(emailService.sendBatch(anyList())).thenReturn(Map.of());
+
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(3);
+
+        List<EmailService.Message> messages = sentMessages();
+        assertThat(messages).hasSize(2);
+        assertThat(messages.get(0).getTo()).isEqualTo("a@example.com");
+        assertThat(messages.get(0).getSubject()).isEqualTo("2 notifications");
+        assertThat(messages.get(0).getBody()).contains("Leave approved", "Payslip ready");
+        assertThat(messages.get(1).getSubject()).isEqualTo("Leave rejected");
+        assertThat(List.of(row(first), row(second), row(third))).allSatisfy(sent(0));
+    }
+
+    @Test
+    void failedRecipientsAreRetriedWithExponentialBackoff() {
+        Long first = pending("a@example.com", "First failure", 0, now);
+        Long third = pending("b@example.com", "Third failure", 2, now);
+        Long delivered = pending("c@example.com", "Delivered", 0, now);
+        when(emailService.sendBatch(anyList())).thenAnswer(invocation -> {
+            List<EmailService.Message> messages = invocation.getArgument(0);
+            Map<EmailService.Message, String> failures = new HashMap<>();
+            failures.put(messages.get(0), "Mailbox unavailable");
+            failures.put(messages.get(1), "Mailbox unavailable");
+            return failures;
+        });
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatchBatch();
+
+        assertRetry(row(first), NotificationStatus.PENDING, 1, before.plus(Duration.ofMillis(BACKOFF_BASE_MS)));
+        // 30s << 2 is past the cap
+        assertRetry(row(third), NotificationStatus.PENDING, 3, before.plus(Duration.ofMillis(BACKOFF_MAX_MS)));
+        assertThat(row(first).getLastError()).isEqualTo("Mailbox unavailable");
+        assertThat(row(delivered)).satisfies(sent(0));
+    }
+
+    @Test
+    void lastAttemptFailsTheNotification() {
+        Long last = pending("a@example.com", "Last try", MAX_ATTEMPTS - 1, now);
+        when(emailService.sendBatch(anyList())).thenAnswer(invocation ->
+                Map.of(invocation.<List<EmailService.Message>>getArgument(0).get(0), "Rejected"));
+
+        dispatcher.dispatchBatch();
+
+        OutboxNotification failed = row(last);
+        assertThat(failed.getStatus()).isEqualTo(NotificationStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(failed.getLastError()).isEqualTo("Rejected");
+    }
+
+    @Test
+    void reclaimedNotificationOutOfAttemptsIsFailedWithoutSending() {
+        // The reclaim is the last attempt
+        Long crashing = sending("a@example.com", "Crashed the sender", MAX_ATTEMPTS - 1, now.minusHours(1));
+        Long fine = pending("b@example.com", "Fine", 0, now);
+        when(emailService.sendBatch(anyList())).thenReturn(Map.of());
+
+        dispatcher.dispatchBatch();
+
+        assertThat(sentMessages()).extracting(EmailService.Message::getTo).containsExactly("b@example.com");
+        OutboxNotification failed = row(crashing);
+        assertThat(failed.getStatus()).isEqualTo(NotificationStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(failed.getLastError()).isEqualTo("Claim expired while sending");
+        assertThat(row(fine)).satisfies(sent(0));
+    }
+
+    private Long pending(String recipient, String subject, int attempts, LocalDateTime nextAttemptAt) {
+        return save(recipient, subject, attempts, NotificationStatus.PENDING, nextAttemptAt, null);
+    }
+
+    private Long sending(String recipient, String subject, int attempts, LocalDateTime claimedAt) {
+        return save(recipient, subject, attempts, NotificationStatus.SENDING, claimedAt, claimedAt);
+    }
+
+    private Long save(String recipient, String subject, int attempts, NotificationStatus status,
+                      LocalDateTime nextAttemptAt, LocalDateTime claimedAt) {
+        OutboxNotification notification = new OutboxNotification();
+        notification.setRecipient(recipient);
+        notification.setSubject(subject);
+        notification.setBody(subject + " body");
+        notification.setStatus(status);
+        notification.setAttempts(attempts);
+        notification.setNextAttemptAt(nextAttemptAt);
+        notification.setClaimedAt(claimedAt);
+        notification.setClaimToken(claimedAt != null ? "claimed-elsewhere" : null);
+        notification.setCreatedAt(now.minusHours(2));
+        return outboxRepository.save(notification).getId();
+    }
+
+    private OutboxNotification row(Long id) {
+        return outboxRepository.findById(id).orElseThrow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<EmailService.Message> sentMessages() {
+        ArgumentCaptor<List<EmailService.Message>> messages = ArgumentCaptor.forClass(List.class);
+        verify(emailService).sendBatch(messages.capture());
+        return messages.getValue();
+    }
+
+    private static org.assertj.core.api.ThrowingConsumer<OutboxNotification> sent(int attempts) {
+        return notification -> {
+            assertThat(notification.getStatus()).isEqualTo(NotificationStatus.SENT);
+            assertThat(notification.getAttempts()).isEqualTo(attempts);
+            assertThat(notification.getSentAt()).isNotNull();
+            assertThat(notification.getClaimToken()).isNull();
+        };
+    }
+
+    private static void assertRetry(OutboxNotification retry, NotificationStatus status, int attempts, LocalDateTime nextAttemptAt) {
+        assertThat(retry.getStatus()).isEqualTo(status);
+        assertThat(retry.getAttempts()).isEqualTo(attempts);
+        assertThat(retry.getNextAttemptAt()).isCloseTo(nextAttemptAt, within(5, ChronoUnit.SECONDS));
+        assertThat(retry.getClaimToken()).isNull();
+    }
+}
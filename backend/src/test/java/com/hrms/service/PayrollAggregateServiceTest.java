@@ -0,0 +1,62 @@
+package com.hrms.service;
+
+import com.hrms.model.Money;
+import com.hrms.model.Payroll;
+import com.hrms.repository.PayrollAggregateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PayrollAggregateServiceTest {
+
+    @Mock
+    private PayrollAggregateRepository payrollAggregateRepository;
+
+    @Mock
+    private PayrollYtdService payrollYtdService;
+
+    @InjectMocks
+    private PayrollAggregateService payrollAggregateService;
+
+    @Test
+    void countsARegularRecordAsOneEmployeePaid() {
+        Payroll payroll = payroll("Engineering");
+
+        payrollAggregateService.rowAdded(payroll);
+
+        verify(payrollAggregateRepository).applyDelta("2026-10", "Engineering", new BigDecimal("5000.00"),
+                new BigDecimal("500.00"), new BigDecimal("4500.00"), 1, 1);
+        verify(payrollYtdService).rowAdded(payroll);
+    }
+
+    @Test
+    void leavesRetroAdjustmentsOutOfTheHeadcount() {
+        Payroll adjustment = payroll(null);
+        adjustment.setRetroPeriod("2026-08");
+
+        payrollAggregateService.rowAdded(adjustment);
+        payrollAggregateService.rowRemoved(adjustment);
+
+        verify(payrollAggregateRepository).applyDelta("2026-10", "", new BigDecimal("5000.00"),
+                new BigDecimal("500.00"), new BigDecimal("4500.00"), 1, 0);
+        verify(payrollAggregateRepository).applyDelta("2026-10", "", new BigDecimal("-5000.00"),
+                new BigDecimal("-500.00"), new BigDecimal("-4500.00"), -1, 0);
+        verify(payrollAggregateRepository).deleteEmpty();
+    }
+
+    private static Payroll payroll(String department) {
+        Payroll payroll = new Payroll("Ada Lovelace", Money.parse("5000.00"), Money.parse("500.00"),
+                Money.parse("4500.00"), LocalDate.of(2026, 10, 19));
+        payroll.setEmployeeId(7L);
+        payroll.setDepartment(department);
+        return payroll;
+    }
+}
@@ -0,0 +1,117 @@
+package com.hrms.service;
+
+import com.hrms.model.Money;
+import com.hrms.model.TaxBracket;
+import com.hrms.repository.TaxBracketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PayrollCalculatorTest {
+
+    @Mock
+    private TaxBracketRepository taxBracketRepository;
+
+    @Mock
+    private HolidayCalendarService holidayCalendarService;
+
+    @InjectMocks
+    private TaxBracketService taxBracketService;
+
+    private final PayrollCalculator payrollCalculator = new PayrollCalculator();
+
+    // A fiscal year running April to March
+    private final PayrollYtdService payrollYtdService = new PayrollYtdService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(taxBracketService, "flatRate", 0.1);
+        when(holidayCalendarService.getDefaultRegion()).thenReturn("DEFAULT");
+        when(taxBracketRepository.count()).thenReturn(1L);
+        when(taxBracketRepository.findRegions()).thenReturn(List.of("DEFAULT"));
+        // Monthly thresholds; the 2027 table is used from the fiscal year starting April 2027
+        when(taxBracketRepository.findByRegionOrderByTaxYearAscThresholdAsc("DEFAULT")).thenReturn(List.of(
+                bracket(2026, "0", 0), bracket(2026, "1000", 0.1), bracket(2026, "4000", 0.2),
+                bracket(2027, "0", 0), bracket(2027, "2000", 0.1)));
+        taxBracketService.load();
+
+        ReflectionTestUtils.setField(payrollCalculator, "overtimeMultiplier", 1.5);
+        ReflectionTestUtils.setField(payrollCalculator, "taxBracketService", taxBracketService);
+        ReflectionTestUtils.setField(payrollYtdService, "fiscalYearStartMonth", 4);
+    }
+
+    @Test
+    void taxesTheMonthAloneWithoutAFiscalPeriod() {
+        PayrollCalculator.Result result = pay(500_000, 2026, 0, 0, 0);
+
+        assertThat(result.getGrossSalary()).isEqualTo(500_000);
+        // 10% of 3000 and 20% of 1000
+        assertThat(result.getTaxDeductions()).isEqualTo(50_000);
+        assertThat(result.getNetPay()).isEqualTo(450_000);
+    }
+
+    @Test
+    void cumulativeTaxEvensOutUnevenPayAndRestartsWithTheFiscalYear() {
+        // April to December 2026 were paid 3000 a month with 200 withheld each time
+        long ytdGross = 9 * 300_000L;
+        long ytdTax = 9 * 20_000L;
+        // January to March 2027 still belong to that fiscal year. January's 5000 would owe 500 on
+        // its own, February's 500 leaves the year over-withheld and March's 4000 makes up for it
+        long[] salaries = {500_000, 50_000, 400_000};
+        long[] expectedTax = {40_000, 0, 25_000};
+        YearMonth period = YearMonth.of(2027, 1);
+        for (int i = 0; i < salaries.length; i++, period = period.plusMonths(1)) {
+            assertThat(payrollYtdService.fiscalYear(period)).isEqualTo(2026);
+            assertThat(payrollYtdService.periodsElapsed(period)).isEqualTo(10 + i);
+            PayrollCalculator.Result result = pay(salaries[i], payrollYtdService.fiscalYear(period),
+                    payrollYtdService.periodsElapsed(period), ytdGross, ytdTax);
+            assertThat(result.getTaxDeductions()).as(period.toString()).isEqualTo(expectedTax[i]);
+            assertThat(result.getNetPay()).isEqualTo(result.getGrossSalary() - expectedTax[i]);
+            ytdGross += result.getGrossSalary();
+            ytdTax += result.getTaxDeductions();
+        }
+        // By the end of the year exactly the tax on the year's pay has been withheld
+        assertThat(ytdTax).isEqualTo(taxBracketService.calculateCumulativeTax("DEFAULT", 2026, ytdGross, 12));
+
+        // April starts the next fiscal year from nothing, with that year's table
+        assertThat(payrollYtdService.fiscalYear(period)).isEqualTo(2027);
+        assertThat(payrollYtdService.periodsElapsed(period)).isEqualTo(1);
+        PayrollCalculator.Result april = pay(400_000, payrollYtdService.fiscalYear(period),
+                payrollYtdService.periodsElapsed(period), 0, 0);
+        assertThat(april.getTaxDeductions()).isEqualTo(20_000);
+    }
+
+    @Test
+    void overWithholdingIsNeverRefundedAsNegativeTax() {
+        // Three months of 5000 taxed at 500 each, then a month of 1000 that owes less than nothing
+        PayrollCalculator.Result result = pay(100_000, 2026, 4, 1_500_000, 150_000);
+
+        assertThat(result.getTaxDeductions()).isZero();
+        assertThat(result.getNetPay()).isEqualTo(result.getGrossSalary());
+    }
+
+    // Twenty working days, all payable, no overtime or unpaid leave
+    private PayrollCalculator.Result pay(long salary, int year, int fiscalPeriod, long ytdGross, long ytdTax) {
+        PayrollCalculator.Result result = new PayrollCalculator.Result();
+        payrollCalculator.calculate(salary, 20, 20, 8, 0, 0, "DEFAULT", year, fiscalPeriod, ytdGross, ytdTax, result);
+        return result;
+    }
+
+    private static TaxBracket bracket(int year, String threshold, double rate) {
+        return new TaxBracket("DEFAULT", year, Money.parse(threshold), rate);
+    }
+}
@@ -0,0 +1,175 @@
+package com.hrms.service;
+
+import com.hrms.dto.PayrollRunDiffDTO;
+import com.hrms.model.Money;
+import com.hrms.model.Payroll;
+import com.hrms.repository.PayrollRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Builds, edits and compares run trees against the payroll tables in H2 (MySQL mode).
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PayrollHashService.class)
+class PayrollHashServiceTest {
+
+    private static final String PERIOD = "2026-03";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayrollHashService hashService;
+
+    @Test
+    void rowChangesKeepTheTreeEqualToAFreshBuild() {
+        run(1L, "COMPLETED");
+        // Employees 1 and 257 share a bucket
+        Long edited = row(1L, 1L, "Engineering", "4500.00");
+        row(1L, 257L, "Engineering", "4600.00");
+        Long moved = row(1L, 2L, "Engineering", "4700.00");
+        Long deleted = row(1L, 3L, "Sales", "4800.00");
+        row(1L, 4L, null, "4900.00");
+        String built = hashService.buildTree(1L);
+
+        Payroll payroll = payrollRepository.findById(edited).orElseThrow();
+        payroll.setNetPay(Money.parse("4400.00"));
+        save(payroll);
+        hashService.rowChanged(1L, 1L, payroll);
+        String afterEdit = rootHash(1L);
+        assertThat(afterEdit).isNotEqualTo(built);
+
+        // Leaves Sales empty, so its department node goes
+        payrollRepository.deleteById(deleted);
+        payrollRepository.flush();
+        hashService.rowChanged(1L, 3L, null);
+
+        Payroll movedRow = payrollRepository.findById(moved).orElseThrow();
+        movedRow.setDepartment("Finance");
+        save(movedRow);
+        hashService.rowChanged(1L, 2L, movedRow);
+
+        String incremental = rootHash(1L);
+        List<List<Object>> incrementalNodes = nodes(1L);
+        assertThat(incremental).isNotEqualTo(afterEdit);
+        assertThat(hashService.buildTree(1L)).isEqualTo(incremental);
+        assertThat(nodes(1L)).containsExactlyElementsOf(incrementalNodes);
+        assertThat(hashService.verify(1L)).containsEntry("intact", true);
+    }
+
+    @Test
+    void rowChangesLeaveRunsWithoutATreeAlone() {
+        run(1L, "RUNNING");
+        Long id = row(1L, 1L, "Engineering", "4500.00");
+
+        hashService.rowChanged(1L, 1L, payrollRepository.findById(id).orElseThrow());
+
+        assertThat(nodes(1L)).isEmpty();
+        assertThat(rootHash(1L)).isNull();
+    }
+
+    @Test
+    void diffFindsAddedRemovedChangedAndMovedEmployees() {
+        run(1L, "SUPERSEDED");
+        row(1L, 1L, "Engineering", "4500.00");
+        row(1L, 2L, "Engineering", "4600.00");
+        row(1L, 3L, "Engineering", "4700.00");
+        row(1L, 5L, "Engineering", "4800.00");
+        row(1L, 6L, "Sales", "4900.00");
+        run(2L, "COMPLETED");
+        row(2L, 1L, "Engineering", "4500.00");
+        row(2L, 2L, "Engineering", "4650.00");
+        row(2L, 4L, "Engineering", "5000.00");
+        row(2L, 5L, "Sales", "4800.00");
+        row(2L, 6L, "Sales", "4900.00");
+        hashService.buildTree(1L);
+
+        PayrollRunDiffDTO diff = hashService.diff(2L, null);
+
+        assertThat(diff.getPreviousRunId()).isEqualTo(1L);
+        assertThat(diff.isIdentical()).isFalse();
+        assertThat(diff.getChangedDepartments()).containsExactly("Engineering", "Sales");
+        assertThat(diff.getChanges())
+                .extracting("employeeId", "department", "previousDepartment", "change")
+                .containsExactly(
+                        tuple(2L, "Engineering", "Engineering", "CHANGED"),
+                        tuple(3L, null, "Engineering", "REMOVED"),
+                        tuple(4L, "Engineering", null, "ADDED"),
+                        tuple(5L, "Sales", "Engineering", "CHANGED"));
+        // Employees 1 and 6 are unchanged and in buckets of their own, so never compared
+        assertThat(diff.getBucketsCompared()).isEqualTo(5);
+    }
+
+    @Test
+    void runsWithTheSameRowsAreIdentical() {
+        run(1L, "SUPERSEDED");
+        row(1L, 1L, "Engineering", "4500.00");
+        row(1L, 2L, null, "4600.00");
+        run(2L, "COMPLETED");
+        row(2L, 2L, null, "4600.00");
+        row(2L, 1L, "Engineering", "4500.00");
+        hashService.buildTree(1L);
+
+        PayrollRunDiffDTO diff = hashService.diff(2L, 1L);
+
+        assertThat(diff.isIdentical()).isTrue();
+        assertThat(diff.getChanges()).isEmpty();
+        assertThat(diff.getChangedDepartments()).isEmpty();
+    }
+
+    private void run(Long runId, String status) {
+        jdbcTemplate.update(
+                "INSERT INTO payroll_runs (id, pay_period, status, employees_paid, employees_skipped, created_at) VALUES (?, ?, ?, 0, 0, ?)",
+                runId, PERIOD, status, Timestamp.valueOf(LocalDateTime.of(2026, 3, 31, 18, 0)));
+    }
+
+    // Left without a content hash, as rows written before rows were hashed are
+    private Long row(Long runId, Long employeeId, String department, String netPay) {
+        jdbcTemplate.update(
+                "INSERT INTO payroll (employee_id, employee_name, department, run_id, base_salary, overtime_pay, unpaid_leave_deduction, " +
+                "gross_salary, tax_deductions, net_pay, date) VALUES (?, ?, ?, ?, 5000.00, 0, 0, 5000.00, 500.00, ?, ?)",
+                employeeId, "Employee " + employeeId, department, runId, new BigDecimal(netPay),
+                Date.valueOf(LocalDate.of(2026, 3, 31)));
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM payroll", Long.class);
+    }
+
+    // As PayrollService saves an edited row
+    private void save(Payroll payroll) {
+        payroll.setContentHash(PayrollHashService.rowHash(payroll));
+        payrollRepository.saveAndFlush(payroll);
+    }
+
+    private String rootHash(Long runId) {
+        return jdbcTemplate.queryForObject("SELECT root_hash FROM payroll_runs WHERE id = ?", String.class, runId);
+    }
+
+    private List<List<Object>> nodes(Long runId) {
+        return jdbcTemplate.query(
+                "SELECT node_level, department, bucket, employee_id, row_count, hash FROM payroll_hash_nodes WHERE run_id = ? " +
+                "ORDER BY node_level, department, bucket, employee_id",
+                (rs, rowNum) -> Arrays.asList(rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getObject(4), rs.getLong(5), rs.getString(6)),
+                runId);
+    }
+}
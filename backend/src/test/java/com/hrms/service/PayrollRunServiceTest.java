@@ -0,0 +1,87 @@
+package com.hrms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PayrollRunServiceTest {
+
+    private static final long RUN_ID = 9;
+    private static final long LAST_ID = 450;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PayrollRunService payrollRunService;
+
+    // Chunks of 100 ids starting at 1, 101, 201, 301 and 401
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(payrollRunService, "chunkSize", 100L);
+        ReflectionTestUtils.setField(payrollRunService, "checkpointId", 0L);
+        ((AtomicLong) ReflectionTestUtils.getField(payrollRunService, "employeesPaid")).set(120);
+        ((AtomicLong) ReflectionTestUtils.getField(payrollRunService, "employeesSkipped")).set(3);
+    }
+
+    @Test
+    void checkpointWaitsForEveryChunkBeforeIt() {
+        payrollRunService.markCompleted(RUN_ID, 201, LAST_ID);
+        payrollRunService.markCompleted(RUN_ID, 101, LAST_ID);
+
+        assertThat(checkpoint()).isZero();
+        verify(jdbcTemplate, never()).update(anyString(), anyLong(), anyLong(), anyLong(), anyLong());
+
+        payrollRunService.markCompleted(RUN_ID, 1, LAST_ID);
+
+        assertThat(checkpoint()).isEqualTo(300);
+        verify(jdbcTemplate).update(startsWith("UPDATE payroll_runs SET checkpoint_id"), eq(300L), eq(120L), eq(3L), eq(RUN_ID));
+    }
+
+    @Test
+    void lastChunkAdvancesTheCheckpointOnlyToTheLastEmployee() {
+        payrollRunService.markCompleted(RUN_ID, 1, LAST_ID);
+        payrollRunService.markCompleted(RUN_ID, 101, LAST_ID);
+        payrollRunService.markCompleted(RUN_ID, 201, LAST_ID);
+        payrollRunService.markCompleted(RUN_ID, 401, LAST_ID);
+        assertThat(checkpoint()).isEqualTo(300);
+        clearInvocations(jdbcTemplate);
+
+        payrollRunService.markCompleted(RUN_ID, 301, LAST_ID);
+
+        assertThat(checkpoint()).isEqualTo(LAST_ID);
+        verify(jdbcTemplate).update(startsWith("UPDATE payroll_runs SET checkpoint_id"), eq(LAST_ID), eq(120L), eq(3L), eq(RUN_ID));
+    }
+
+    @Test
+    void resumedRunContinuesFromItsCheckpoint() {
+        ReflectionTestUtils.setField(payrollRunService, "checkpointId", 200L);
+
+        payrollRunService.markCompleted(RUN_ID, 301, LAST_ID);
+        assertThat(checkpoint()).isEqualTo(200);
+
+        payrollRunService.markCompleted(RUN_ID, 201, LAST_ID);
+        assertThat(checkpoint()).isEqualTo(400);
+    }
+
+    private long checkpoint() {
+        return (Long) ReflectionTestUtils.getField(payrollRunService, "checkpointId");
+    }
+}
@@ -0,0 +1,129 @@
+package com.hrms.service;
+
+import com.hrms.repository.PayrollYtdRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PayrollYtdServiceTest {
+
+    @Mock
+    private PayrollYtdRepository payrollYtdRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PayrollYtdService payrollYtdService;
+
+    // A fiscal year running April to March
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(payrollYtdService, "fiscalYearStartMonth", 4);
+    }
+
+    @Test
+    void numbersTheFiscalYearByTheCalendarYearItStartsIn() {
+        assertThat(payrollYtdService.fiscalYear(LocalDate.of(2026, 3, 31))).isEqualTo(2025);
+        assertThat(payrollYtdService.fiscalYear(LocalDate.of(2026, 4, 1))).isEqualTo(2026);
+        assertThat(payrollYtdService.fiscalYear(LocalDate.of(2026, 12, 31))).isEqualTo(2026);
+        assertThat(payrollYtdService.fiscalYear(LocalDate.of(2027, 1, 1))).isEqualTo(2026);
+        assertThat(payrollYtdService.fiscalYear(YearMonth.of(2027, 3))).isEqualTo(2026);
+        assertThat(payrollYtdService.fiscalYear(YearMonth.of(2027, 4))).isEqualTo(2027);
+    }
+
+    @Test
+    void countsThePeriodsFromTheStartOfTheFiscalYear() {
+        assertThat(payrollYtdService.periodsElapsed(YearMonth.of(2026, 4))).isEqualTo(1);
+        assertThat(payrollYtdService.periodsElapsed(YearMonth.of(2026, 12))).isEqualTo(9);
+        assertThat(payrollYtdService.periodsElapsed(YearMonth.of(2027, 1))).isEqualTo(10);
+        assertThat(payrollYtdService.periodsElapsed(YearMonth.of(2027, 3))).isEqualTo(12);
+        assertThat(payrollYtdService.periodsElapsed(YearMonth.of(2027, 4))).isEqualTo(1);
+    }
+
+    @Test
+    void aJanuaryStartMatchesTheCalendarYear() {
+        ReflectionTestUtils.setField(payrollYtdService, "fiscalYearStartMonth", 1);
+
+        assertThat(payrollYtdService.fiscalYear(LocalDate.of(2026, 12, 31))).isEqualTo(2026);
+        assertThat(payrollYtdService.fiscalYear(LocalDate.of(2027, 1, 1))).isEqualTo(2027);
+        assertThat(payrollYtdService.periodsElapsed(YearMonth.of(2027, 1))).isEqualTo(1);
+        assertThat(payrollYtdService.periodsElapsed(YearMonth.of(2027, 12))).isEqualTo(12);
+    }
+
+    @Test
+    void rejectsAStartMonthOutsideTheYear() {
+        ReflectionTestUtils.setField(payrollYtdService, "fiscalYearStartMonth", 13);
+
+        assertThatThrownBy(() -> payrollYtdService.validate()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void paidBeforeSubtractsWhatWasPaidForTheRestOfTheFiscalYear() throws Exception {
+        stubAccumulator(2026, "40000.00", "4000.00");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(amounts("9000.00", "900.00"));
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT p.employee_id, SUM"), any(RowCallbackHandler.class),
+                eq(7L), eq(Date.valueOf("2027-01-01")), eq(Date.valueOf("2027-03-31")), eq("2027-01"));
+
+        Map<Long, long[]> paid = payrollYtdService.getPaidBefore(YearMonth.of(2027, 1), "= ?", new Object[]{7L});
+
+        assertThat(paid.get(7L)).containsExactly(3_100_000L, 310_000L);
+    }
+
+    @Test
+    void paidThroughTheLastPeriodIsTheWholeAccumulator() throws Exception {
+        stubAccumulator(2026, "48000.00", "4800.00");
+
+        Map<Long, long[]> paid = payrollYtdService.getPaidThrough(YearMonth.of(2027, 3), "= ?", new Object[]{7L});
+
+        // The cutoff is April, which is already the next fiscal year
+        assertThat(paid.get(7L)).containsExactly(4_800_000L, 480_000L);
+        verify(jdbcTemplate, never()).query(startsWith("SELECT p.employee_id, SUM"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private void stubAccumulator(int fiscalYear, String gross, String tax) throws Exception {
+        ResultSet rs = amounts(gross, tax);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT employee_id, gross_salary, tax_deductions FROM payroll_ytd"),
+                any(RowCallbackHandler.class), eq(fiscalYear), eq(7L));
+    }
+
+    private static ResultSet amounts(String gross, String tax) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("employee_id")).thenReturn(7L);
+        when(rs.getBigDecimal("gross_salary")).thenReturn(new BigDecimal(gross));
+        when(rs.getBigDecimal("tax_deductions")).thenReturn(new BigDecimal(tax));
+        return rs;
+    }
+}
@@ -0,0 +1,184 @@
+package com.hrms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PayslipServiceTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2026, 3);
+    private static final int PAYSLIPS = 1_000;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PayslipService payslipService;
+
+    @TempDir
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        PayslipTemplate template = new PayslipTemplate();
+        ReflectionTestUtils.setField(template, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(template, "location", "classpath:templates/payslip.txt");
+        template.compile();
+
+        ReflectionTestUtils.setField(payslipService, "payslipTemplate", template);
+        ReflectionTestUtils.setField(payslipService, "dir", dir.toString());
+        ReflectionTestUtils.setField(payslipService, "parallelism", 4);
+        ReflectionTestUtils.setField(payslipService, "pageSize", 128);
+        ReflectionTestUtils.setField(payslipService, "queueCapacity", 16);
+    }
+
+    @Test
+    void writesOnePayslipPerRowIntoTheArchive() throws Exception {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn((long) PAYSLIPS);
+        servePayrollRows();
+
+        assertThat(payslipService.start(PERIOD)).isTrue();
+        awaitFinished();
+
+        assertThat(payslipService.getStatus().get("error")).isNull();
+        assertThat(payslipService.getStatus().get("written")).isEqualTo((long) PAYSLIPS);
+        Path archive = payslipService.getArchive(PERIOD);
+        assertThat(archive).isNotNull();
+        try (var files = Files.list(dir)) {
+            assertThat(files).containsExactly(archive);
+        }
+
+        Map<String, String> entries = readArchive(archive);
+        assertThat(entries).hasSize(PAYSLIPS);
+        assertThat(entries.get("payslip-1-EMP1.txt"))
+                .contains("PAYSLIP 2026-03", "Employee:     Employee 1", "Pay date:     2026-03-31",
+                        "Net pay                      901.00", "Payroll record 1");
+        // Employees without a code get a dash in the payslip and no code in the name
+        assertThat(entries.get("payslip-7.txt")).contains("Employee ID:  -");
+        assertThat(entries.keySet()).allSatisfy(name -> assertThat(name).doesNotContain("/", "\\", ".."));
+        assertThat(entries).containsKey("payslip-13-______etc_passwd.txt");
+    }
+
+    @Test
+    void aFailedRenderLeavesNoArchive() throws Exception {
+        PayslipTemplate template = (PayslipTemplate) ReflectionTestUtils.getField(payslipService, "payslipTemplate");
+        ReflectionTestUtils.setField(payslipService, "payslipTemplate", new PayslipTemplate() {
+            @Override
+            public void render(String[] values, StringBuilder out) {
+                if (values[0].equals("500")) {
+                    throw new IllegalStateException("broken template");
+                }
+                template.render(values, out);
+            }
+        });
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn((long) PAYSLIPS);
+        servePayrollRows();
+
+        assertThat(payslipService.start(PERIOD)).isTrue();
+        awaitFinished();
+
+        assertThat((String) payslipService.getStatus().get("error")).contains("payroll record 500", "broken template");
+        assertThat(payslipService.getArchive(PERIOD)).isNull();
+        try (var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void anArchiveMissingCountedPayslipsIsNotPublished() throws Exception {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(PAYSLIPS + 1L);
+        servePayrollRows();
+
+        assertThat(payslipService.start(PERIOD)).isTrue();
+        awaitFinished();
+
+        assertThat((String) payslipService.getStatus().get("error")).contains("of 1001 payslips");
+        assertThat(payslipService.getArchive(PERIOD)).isNull();
+    }
+
+    @Test
+    void entryNameKeepsPathsOutOfTheArchive() {
+        assertThat(PayslipService.entryName("5", "EMP-005")).isEqualTo("payslip-5-EMP-005.txt");
+        assertThat(PayslipService.entryName("5", "../../etc/passwd")).isEqualTo("payslip-5-______etc_passwd.txt");
+        assertThat(PayslipService.entryName("5", "..\\boot.ini")).isEqualTo("payslip-5-___boot_ini.txt");
+        assertThat(PayslipService.entryName("5", null)).isEqualTo("payslip-5.txt");
+        assertThat(PayslipService.entryName("5", " ")).isEqualTo("payslip-5.txt");
+    }
+
+    // Pages through PAYSLIPS rows by id like the payroll table would
+    private void servePayrollRows() {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            long afterId = (Long) invocation.getArgument(4);
+            int limit = (Integer) invocation.getArgument(5);
+            for (long id = afterId + 1; id <= Math.min(afterId + limit, PAYSLIPS); id++) {
+                handler.processRow(row(id));
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any(), any(), any());
+    }
+
+    private static ResultSet row(long id) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("id")).thenReturn(String.valueOf(id));
+        when(rs.getDate("date")).thenReturn(Date.valueOf(LocalDate.of(2026, 3, 31)));
+        when(rs.getString("employee_name")).thenReturn("Employee " + id);
+        when(rs.getString("employee_code")).thenReturn(id == 7 ? null : id == 13 ? "../../etc/passwd" : "EMP" + id);
+        when(rs.getString("department")).thenReturn("Engineering");
+        when(rs.getString("position")).thenReturn("Engineer");
+        when(rs.getBigDecimal(anyString())).thenReturn(BigDecimal.ZERO);
+        when(rs.getBigDecimal("net_pay")).thenReturn(BigDecimal.valueOf(900 + id));
+        return rs;
+    }
+
+    private void awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (Boolean.TRUE.equals(payslipService.getStatus().get("running")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(payslipService.getStatus().get("running")).isEqualTo(false);
+    }
+
+    private static Map<String, String> readArchive(Path archive) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        try (InputStream in = Files.newInputStream(archive); ZipInputStream zip = new ZipInputStream(in)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,197 @@
+package com.hrms.service;
+
+import com.hrms.model.Attendance;
+import com.hrms.model.Employee;
+import com.hrms.model.JobCheckpoint;
+import com.hrms.model.PunchDirection;
+import com.hrms.model.PunchEvent;
+import com.hrms.repository.AttendanceRepository;
+import com.hrms.repository.EmployeeRepository;
+import com.hrms.repository.JobCheckpointRepository;
+import com.hrms.repository.PunchEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PunchProjectionServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 19);
+
+    @Mock
+    private PunchEventRepository punchEventRepository;
+
+    @Mock
+    private AttendanceRepository attendanceRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private JobCheckpointRepository checkpointRepository;
+
+    @Mock
+    private ShiftService shiftService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AttendanceAnomalyDetector anomalyDetector;
+
+    @Mock
+    private RetroPayTracker retroPayTracker;
+
+    @InjectMocks
+    private PunchProjectionService punchProjectionService;
+
+    // The punch table as other transactions see it: only committed rows
+    private final TreeMap<Long, PunchEvent> committed = new TreeMap<>();
+    private final Map<String, JobCheckpoint> checkpoints = new HashMap<>();
+    private final Map<Long, Attendance> attendance = new HashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(punchProjectionService, "batchSize", 1000);
+        ReflectionTestUtils.setField(punchProjectionService, "gapTimeoutSeconds", 300L);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        when(checkpointRepository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(checkpoints.get(invocation.<String>getArgument(0))));
+        when(checkpointRepository.save(any(JobCheckpoint.class))).thenAnswer(invocation -> {
+            JobCheckpoint checkpoint = invocation.getArgument(0);
+            checkpoints.put(checkpoint.getJobName(), checkpoint);
+            return checkpoint;
+        });
+
+        when(punchEventRepository.findUnprojected(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable page = invocation.getArgument(1);
+            return committed.tailMap(invocation.<Long>getArgument(0), false).values().stream()
+                    .limit(page.getPageSize()).collect(Collectors.toList());
+        });
+        when(punchEventRepository.findByIdRange(anyLong(), anyLong())).thenAnswer(invocation ->
+                new ArrayList<>(committed.subMap(invocation.<Long>getArgument(0), true, invocation.<Long>getArgument(1), true).values()));
+        when(punchEventRepository.findByEmployeesAndDateRange(anyCollection(), any(), any())).thenAnswer(invocation -> {
+            Collection<Long> employeeIds = invocation.getArgument(0);
+            return committed.values().stream().filter(p -> employeeIds.contains(p.getEmployeeId())).collect(Collectors.toList());
+        });
+
+        when(attendanceRepository.findByEmployeeIdsAndDateRange(anyCollection(), any(), any())).thenReturn(List.of());
+        when(attendanceRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<Attendance> saved = invocation.getArgument(0);
+            saved.forEach(a -> attendance.put(a.getEmployee().getId(), a));
+            return saved;
+        });
+        when(employeeRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Employee> employees = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                Employee employee = new Employee();
+                employee.setId(id);
+                employees.add(employee);
+            }
+            return employees;
+        });
+    }
+
+    @Test
+    void projectsABatchThatCommitsAfterLaterPunches() {
+        // A batch upload was given ids 1 to 25 but commits after punches 26 to 30 from a kiosk
+        List<PunchEvent> upload = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            upload.add(punch(id));
+        }
+        for (long id = 26; id <= 30; id++) {
+            commit(punch(id));
+        }
+
+        punchProjectionService.projectPending();
+
+        assertThat(attendance.keySet()).containsExactlyInAnyOrder(26L, 27L, 28L, 29L, 30L);
+        assertThat(checkpoint()).startsWith("30|1-25@");
+
+        upload.forEach(this::commit);
+        punchProjectionService.projectPending();
+
+        assertThat(attendance).hasSize(30);
+        assertThat(attendance.values()).allSatisfy(a -> assertThat(a.getCheckInTime()).isEqualTo(LocalTime.of(9, 0)));
+        assertThat(checkpoint()).isEqualTo("30");
+    }
+
+    @Test
+    void keepsTheGapsThatAreStillMissing() {
+        commit(punch(3));
+        commit(punch(7));
+        commit(punch(12));
+        punchProjectionService.projectPending();
+        assertThat(checkpoint()).matches("12\\|1-2@\\d+,4-6@\\d+,8-11@\\d+");
+
+        commit(punch(5));
+        commit(punch(8));
+        punchProjectionService.projectPending();
+
+        assertThat(attendance.keySet()).containsExactlyInAnyOrder(3L, 5L, 7L, 8L, 12L);
+        assertThat(checkpoint()).matches("12\\|1-2@\\d+,4@\\d+,6@\\d+,9-11@\\d+");
+    }
+
+    @Test
+    void givesUpOnGapsOlderThanTheTimeout() {
+        checkpoints.put("punch-projection", new JobCheckpoint("punch-projection", "30|1-25@1000,27@1000"));
+
+        punchProjectionService.projectPending();
+
+        assertThat(checkpoint()).isEqualTo("30");
+        assertThat(attendance).isEmpty();
+    }
+
+    @Test
+    void readsSingleIdGapsWrittenBeforeRanges() {
+        PunchProjectionService.Progress progress = PunchProjectionService.Progress.parse("40|31@100,32@100,35@200");
+
+        assertThat(progress.lastId).isEqualTo(40);
+        assertThat(progress.gaps).containsOnlyKeys(31L, 32L, 35L);
+        assertThat(progress.format()).isEqualTo("40|31@100,32@100,35@200");
+    }
+
+    private void commit(PunchEvent punch) {
+        committed.put(punch.getId(), punch);
+    }
+
+    private String checkpoint() {
+        return checkpoints.get("punch-projection").getCheckpoint();
+    }
+
+    // Each punch is another employee's check-in, so every punch makes its own attendance row
+    private static PunchEvent punch(long id) {
+        PunchEvent punch = new PunchEvent();
+        punch.setId(id);
+        punch.setEmployeeId(id);
+        punch.setAttendanceDate(DAY);
+        punch.setPunchedAt(DAY.atTime(9, 0));
+        punch.setDirection(PunchDirection.IN);
+        return punch;
+    }
+}
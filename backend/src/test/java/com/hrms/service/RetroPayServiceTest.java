@@ -0,0 +1,214 @@
+package com.hrms.service;
+
+import com.hrms.model.Money;
+import com.hrms.model.Payroll;
+import com.hrms.repository.PayrollRepository;
+import com.hrms.repository.PayrollRetroMarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs retro pay against the payroll tables in H2 (MySQL mode), with pay computation stubbed.
+ * There is no test transaction, since the work is done on a background thread in transactions of
+ * its own.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(RetroPayService.class)
+class RetroPayServiceTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2026, 3);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayrollRetroMarkRepository markRepository;
+
+    @Autowired
+    private RetroPayService retroPayService;
+
+    @MockBean
+    private PayrollRunService payrollRunService;
+
+    @MockBean
+    private PayrollAggregateService payrollAggregateService;
+
+    private final Timestamp markedAt = Timestamp.valueOf(LocalDateTime.of(2026, 4, 10, 9, 0));
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM payroll_retro_marks");
+        jdbcTemplate.update("DELETE FROM payroll");
+        jdbcTemplate.update("DELETE FROM payroll_runs");
+    }
+
+    @Test
+    void writesTheDifferenceFromWhatWasAlreadyPaid() throws Exception {
+        completedRun(10L, 1L, 2L);
+        // Employee 2 was already given 100.00 of overtime by an earlier adjustment
+        adjustment(2L, "100.00", "10.00");
+        mark(1L);
+        mark(2L);
+        // Employee 2 now has 300.00 of overtime in all
+        when(payrollRunService.computePay(eq(PERIOD), eq("IN (?, ?)"), any(Object[].class), eq(false)))
+                .thenReturn(List.of(employeePay(1L, 0), employeePay(2L, 30_000)));
+
+        runRetroPay();
+
+        List<Payroll> adjustments = adjustmentsFor(2L);
+        assertThat(adjustments).hasSize(2);
+        Payroll adjustment = adjustments.get(1);
+        assertThat(adjustment.getRunId()).isNull();
+        assertThat(adjustment.getDate()).isEqualTo(LocalDate.now());
+        assertThat(adjustment.getOvertimePay()).isEqualTo(Money.parse("200.00"));
+        assertThat(adjustment.getBaseSalary()).isEqualTo(Money.ZERO);
+        assertThat(adjustment.getGrossSalary()).isEqualTo(Money.parse("200.00"));
+        assertThat(adjustment.getTaxDeductions()).isEqualTo(Money.parse("20.00"));
+        assertThat(adjustment.getNetPay()).isEqualTo(Money.parse("180.00"));
+        assertThat(adjustment.getContentHash()).isEqualTo(PayrollHashService.rowHash(adjustment));
+        assertThat(adjustmentsFor(1L)).isEmpty();
+        verify(payrollAggregateService).rowAdded(any(Payroll.class));
+
+        assertThat(markRepository.count()).isZero();
+        assertThat(retroPayService.getStatus())
+                .containsEntry("employeesRecomputed", 2L)
+                .containsEntry("adjustmentsWritten", 1L)
+                .containsEntry("error", null);
+    }
+
+    @Test
+    void keepsAMarkTouchedAgainWhileItsBatchIsRecomputed() throws Exception {
+        completedRun(10L, 1L, 2L);
+        mark(1L);
+        mark(2L);
+        when(payrollRunService.computePay(eq(PERIOD), anyString(), any(Object[].class), eq(false))).thenAnswer(invocation -> {
+            // Another change to employee 1 lands before the batch clears its marks
+            jdbcTemplate.update("UPDATE payroll_retro_marks SET marked_at = ? WHERE employee_id = 1",
+                    Timestamp.valueOf(markedAt.toLocalDateTime().plusMinutes(1)));
+            return List.of(employeePay(1L, 0), employeePay(2L, 0));
+        });
+
+        runRetroPay();
+
+        assertThat(markRepository.findAllByOrderByPayPeriodAscEmployeeIdAsc())
+                .extracting(mark -> mark.getEmployeeId()).containsExactly(1L);
+    }
+
+    @Test
+    void defersPeriodsWithAnUnfinishedRun() throws Exception {
+        completedRun(10L, 1L);
+        jdbcTemplate.update(
+                "INSERT INTO payroll_runs (id, pay_period, active_period, status, employees_paid, employees_skipped, created_at) " +
+                "VALUES (11, ?, ?, 'RUNNING', 0, 0, ?)", PERIOD.toString(), PERIOD.toString(), markedAt);
+        mark(1L);
+
+        runRetroPay();
+
+        assertThat(retroPayService.getStatus()).containsEntry("periodsDeferred", 1L).containsEntry("employeesRecomputed", 0L);
+        assertThat(markRepository.count()).isEqualTo(1);
+        verify(payrollRunService, never()).computePay(any(), anyString(), any(), any(Boolean.class));
+    }
+
+    @Test
+    void dropsMarksForAPeriodNoRunCompleted() throws Exception {
+        mark(1L);
+
+        runRetroPay();
+
+        assertThat(markRepository.count()).isZero();
+        verify(payrollRunService, never()).computePay(any(), anyString(), any(), any(Boolean.class));
+    }
+
+    // A completed run that paid each employee 5000.00 gross and 500.00 tax
+    private void completedRun(Long runId, Long... employeeIds) {
+        jdbcTemplate.update(
+                "INSERT INTO payroll_runs (id, pay_period, status, employees_paid, employees_skipped, created_at) VALUES (?, ?, 'COMPLETED', ?, 0, ?)",
+                runId, PERIOD.toString(), employeeIds.length, markedAt);
+        for (Long employeeId : employeeIds) {
+            jdbcTemplate.update(
+                    "INSERT INTO payroll (employee_id, employee_name, department, run_id, base_salary, overtime_pay, unpaid_leave_deduction, " +
+                    "gross_salary, tax_deductions, net_pay, date) VALUES (?, ?, 'Engineering', ?, 5000.00, 0, 0, 5000.00, 500.00, 4500.00, ?)",
+                    employeeId, "Employee " + employeeId, runId, Date.valueOf(PERIOD.atEndOfMonth()));
+        }
+    }
+
+    private void adjustment(Long employeeId, String overtimePay, String tax) {
+        jdbcTemplate.update(
+                "INSERT INTO payroll (employee_id, employee_name, department, retro_period, base_salary, overtime_pay, unpaid_leave_deduction, " +
+                "gross_salary, tax_deductions, net_pay, date) VALUES (?, ?, 'Engineering', ?, 0, ?, 0, ?, ?, ?, ?)",
+                employeeId, "Employee " + employeeId, PERIOD.toString(), new BigDecimal(overtimePay),
+                new BigDecimal(overtimePay), new BigDecimal(tax),
+                new BigDecimal(overtimePay).subtract(new BigDecimal(tax)), Date.valueOf(LocalDate.of(2026, 4, 5)));
+    }
+
+    private void mark(Long employeeId) {
+        jdbcTemplate.update("INSERT INTO payroll_retro_marks (employee_id, pay_period, reason, marked_at) VALUES (?, ?, ?, ?)",
+                employeeId, PERIOD.toString(), RetroPayTracker.ATTENDANCE, markedAt);
+    }
+
+    private List<Payroll> adjustmentsFor(Long employeeId) {
+        return payrollRepository.findAll().stream()
+                .filter(payroll -> employeeId.equals(payroll.getEmployeeId()) && payroll.getRetroPeriod() != null)
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toList();
+    }
+
+    // 5000.00 base plus the overtime, taxed at 10%, in minor units
+    private static PayrollRunService.EmployeePay employeePay(long employeeId, long overtimePay) {
+        PayrollCalculator.Result pay = new PayrollCalculator.Result();
+        long gross = 500_000 + overtimePay;
+        ReflectionTestUtils.setField(pay, "baseSalary", 500_000L);
+        ReflectionTestUtils.setField(pay, "overtimePay", overtimePay);
+        ReflectionTestUtils.setField(pay, "grossSalary", gross);
+        ReflectionTestUtils.setField(pay, "taxDeductions", gross / 10);
+        ReflectionTestUtils.setField(pay, "netPay", gross - gross / 10);
+        PayrollRunService.EmployeePay employeePay = new PayrollRunService.EmployeePay();
+        employeePay.employeeId = employeeId;
+        employeePay.employeeName = "Employee " + employeeId;
+        employeePay.department = "Engineering";
+        employeePay.salary = 500_000;
+        employeePay.pay = pay;
+        return employeePay;
+    }
+
+    private void runRetroPay() throws InterruptedException {
+        assertThat(retroPayService.start()).isTrue();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (Boolean.TRUE.equals(retroPayService.getStatus().get("running")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(retroPayService.getStatus().get("running")).isEqualTo(false);
+    }
+}
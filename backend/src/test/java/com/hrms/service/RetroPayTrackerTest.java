@@ -0,0 +1,169 @@
+package com.hrms.service;
+
+import com.hrms.model.PayrollRetroMark;
+import com.hrms.repository.PayrollRetroMarkRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs the tracker's statements against the payroll tables in H2 (MySQL mode).
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RetroPayTracker.class)
+class RetroPayTrackerTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PayrollRetroMarkRepository markRepository;
+
+    @Autowired
+    private RetroPayTracker tracker;
+
+    @Test
+    void changeToAPeriodThatWasNeverRunMarksNothing() {
+        run(1L, "2026-02", "COMPLETED", 7L);
+
+        tracker.inputsChanged(7L, LocalDate.of(2026, 3, 10), null, RetroPayTracker.ATTENDANCE);
+
+        assertThat(markRepository.count()).isZero();
+    }
+
+    @Test
+    void marksOnlyEmployeesTheRunPaid() {
+        run(1L, "2026-03", "COMPLETED", 7L, 8L);
+
+        tracker.periodsChanged(Map.of(7L, Set.of(YearMonth.of(2026, 3)), 9L, Set.of(YearMonth.of(2026, 3))),
+                RetroPayTracker.ATTENDANCE);
+
+        assertThat(marks()).containsExactly(tuple(7L, "2026-03", RetroPayTracker.ATTENDANCE));
+    }
+
+    @Test
+    void seesRunsStartedElsewhereWithoutBeingTold() {
+        tracker.inputsChanged(7L, LocalDate.of(2026, 3, 10), null, RetroPayTracker.ATTENDANCE);
+        assertThat(markRepository.count()).isZero();
+
+        // Another instance starts a run that pays the employee
+        run(1L, "2026-03", "RUNNING", 7L);
+        tracker.inputsChanged(7L, LocalDate.of(2026, 3, 11), null, RetroPayTracker.ATTENDANCE);
+
+        assertThat(marks()).containsExactly(tuple(7L, "2026-03", RetroPayTracker.ATTENDANCE));
+    }
+
+    @Test
+    void marksEveryRunPeriodALeaveSpans() {
+        run(1L, "2026-01", "COMPLETED", 7L);
+        run(2L, "2026-03", "COMPLETED", 7L);
+
+        tracker.inputsChanged(7L, LocalDate.of(2026, 1, 28), LocalDate.of(2026, 4, 2), RetroPayTracker.LEAVE);
+
+        assertThat(marks()).containsExactly(
+                tuple(7L, "2026-01", RetroPayTracker.LEAVE), tuple(7L, "2026-03", RetroPayTracker.LEAVE));
+    }
+
+    @Test
+    void supersededRunsDoNotCount() {
+        run(1L, "2026-03", "SUPERSEDED", 7L);
+
+        tracker.inputsChanged(7L, LocalDate.of(2026, 3, 10), null, RetroPayTracker.SALARY);
+
+        assertThat(markRepository.count()).isZero();
+    }
+
+    @Test
+    void markingAgainUpdatesTheExistingMark() {
+        run(1L, "2026-03", "COMPLETED", 7L);
+        tracker.inputsChanged(7L, LocalDate.of(2026, 3, 10), null, RetroPayTracker.ATTENDANCE);
+        jdbcTemplate.update("UPDATE payroll_retro_marks SET marked_at = ?", Timestamp.valueOf(LocalDateTime.of(2026, 4, 1, 0, 0)));
+
+        tracker.inputsChanged(7L, LocalDate.of(2026, 3, 20), null, RetroPayTracker.SALARY);
+
+        List<PayrollRetroMark> marks = markRepository.findAllByOrderByPayPeriodAscEmployeeIdAsc();
+        assertThat(marks).hasSize(1);
+        assertThat(marks.get(0).getReason()).isEqualTo(RetroPayTracker.SALARY);
+        assertThat(marks.get(0).getMarkedAt()).isAfter(LocalDateTime.of(2026, 4, 1, 0, 0));
+    }
+
+    @Test
+    void marksBatchesLargerThanOneStatement() {
+        // H2's parser runs out of stack long before a full statement's worth of pairs
+        tracker.pairsPerStatement = 4;
+        int employees = 10;
+        Long[] ids = new Long[employees];
+        Map<Long, Set<YearMonth>> changed = new HashMap<>();
+        for (int i = 0; i < employees; i++) {
+            ids[i] = i + 1L;
+            changed.put(ids[i], Set.of(YearMonth.of(2026, 3)));
+        }
+        run(1L, "2026-03", "COMPLETED", ids);
+
+        tracker.periodsChanged(changed, RetroPayTracker.ATTENDANCE);
+
+        assertThat(markRepository.count()).isEqualTo(employees);
+    }
+
+    @Test
+    void completedRunDropsTheMarksItCovers() {
+        run(1L, "2026-03", "COMPLETED", 7L, 8L);
+        tracker.inputsChanged(7L, LocalDate.of(2026, 3, 10), null, RetroPayTracker.ATTENDANCE);
+        jdbcTemplate.update("UPDATE payroll_retro_marks SET marked_at = ?", Timestamp.valueOf(LocalDateTime.of(2026, 4, 1, 0, 0)));
+        tracker.inputsChanged(8L, LocalDate.of(2026, 3, 10), null, RetroPayTracker.ATTENDANCE);
+
+        tracker.runCompleted(YearMonth.of(2026, 3), LocalDateTime.of(2026, 4, 2, 0, 0));
+
+        assertThat(marks()).extracting(mark -> mark.toList().get(0)).containsExactly(8L);
+    }
+
+    @Test
+    void ignoresChangesWithoutAnEmployeeOrDate() {
+        run(1L, "2026-03", "COMPLETED", 7L);
+
+        tracker.inputsChanged(null, LocalDate.of(2026, 3, 10), null, RetroPayTracker.SALARY);
+        tracker.inputsChanged(7L, null, null, RetroPayTracker.SALARY);
+
+        assertThat(markRepository.count()).isZero();
+    }
+
+    // A run of the period that paid each of the employees
+    private void run(Long runId, String period, String status, Long... employeeIds) {
+        jdbcTemplate.update(
+                "INSERT INTO payroll_runs (id, pay_period, status, employees_paid, employees_skipped, created_at) VALUES (?, ?, ?, ?, 0, ?)",
+                runId, period, status, employeeIds.length, Timestamp.valueOf(LocalDateTime.now()));
+        List<Object[]> rows = new ArrayList<>();
+        for (Long employeeId : employeeIds) {
+            rows.add(new Object[]{employeeId, "Employee " + employeeId, runId, YearMonth.parse(period).atEndOfMonth()});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO payroll (employee_id, employee_name, run_id, gross_salary, tax_deductions, net_pay, date) " +
+                "VALUES (?, ?, ?, 5000.00, 500.00, 4500.00, ?)", rows);
+    }
+
+    private List<Tuple> marks() {
+        return markRepository.findAllByOrderByPayPeriodAscEmployeeIdAsc().stream()
+                .map(mark -> tuple(mark.getEmployeeId(), mark.getPayPeriod(), mark.getReason()))
+                .toList();
+    }
+}
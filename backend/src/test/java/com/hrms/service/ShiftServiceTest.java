@@ -0,0 +1,91 @@
+package com.hrms.service;
+
+import com.hrms.model.Shift;
+import com.hrms.repository.ShiftRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ShiftServiceTest {
+
+    @Mock
+    private ShiftRepository shiftRepository;
+
+    @InjectMocks
+    private ShiftService shiftService;
+
+    private final Shift day = shift(1L, "Day", 8.0);
+    private final Shift night = shift(2L, "Night", 10.0);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(shiftService, "defaultStandardHours", 8.0);
+        when(shiftRepository.findAll()).thenReturn(List.of(day));
+        shiftService.reload();
+        // The new shift is given the next id
+        when(shiftRepository.saveAndFlush(any(Shift.class))).thenAnswer(invocation -> {
+            Shift saved = invocation.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+    }
+
+    @Test
+    void aNewShiftIsUsedOnlyOnceTheTransactionCommits() {
+        when(shiftRepository.findAll()).thenReturn(List.of(day, night));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            shiftService.createShift(night);
+            assertThat(shiftService.getShift(2L)).isEmpty();
+            assertThat(shiftService.getStandardHours(2L)).isEqualTo(8.0);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(shiftService.getStandardHours(2L)).isEqualTo(10.0);
+    }
+
+    @Test
+    void aRolledBackShiftIsNeverUsed() {
+        when(shiftRepository.findAll()).thenReturn(List.of(day, night));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            shiftService.createShift(night);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(shiftService.getAllShifts()).containsExactly(day);
+    }
+
+    private static Shift shift(Long id, String name, double standardHours) {
+        Shift shift = new Shift();
+        shift.setId(id);
+        shift.setName(name);
+        shift.setStartTime(LocalTime.of(9, 0));
+        shift.setEndTime(LocalTime.of(17, 0));
+        shift.setStandardHours(standardHours);
+        return shift;
+    }
+}
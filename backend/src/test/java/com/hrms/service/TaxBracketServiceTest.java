@@ -0,0 +1,150 @@
+package com.hrms.service;
+
+import com.hrms.model.Money;
+import com.hrms.model.TaxBracket;
+import com.hrms.repository.TaxBracketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TaxBracketServiceTest {
+
+    @Mock
+    private TaxBracketRepository taxBracketRepository;
+
+    @Mock
+    private HolidayCalendarService holidayCalendarService;
+
+    @InjectMocks
+    private TaxBracketService taxBracketService;
+
+    private final List<TaxBracket> defaultBrackets = List.of(
+            bracket("DEFAULT", 2024, "0", 0), bracket("DEFAULT", 2024, "1000", 0.1),
+            bracket("DEFAULT", 2024, "4000", 0.2), bracket("DEFAULT", 2024, "10000", 0.3),
+            bracket("DEFAULT", 2026, "0", 0), bracket("DEFAULT", 2026, "1200", 0.1));
+
+    // Starts above zero, so everything below the first threshold is untaxed
+    private final List<TaxBracket> northBrackets = List.of(bracket("NORTH", 2025, "500", 0.05));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(taxBracketService, "flatRate", 0.1);
+        when(holidayCalendarService.getDefaultRegion()).thenReturn("DEFAULT");
+        when(taxBracketRepository.count()).thenReturn(1L);
+        when(taxBracketRepository.findRegions()).thenReturn(List.of("DEFAULT", "NORTH"));
+        when(taxBracketRepository.findByRegionOrderByTaxYearAscThresholdAsc("DEFAULT")).thenReturn(defaultBrackets);
+        when(taxBracketRepository.findByRegionOrderByTaxYearAscThresholdAsc("NORTH")).thenReturn(northBrackets);
+        taxBracketService.load();
+    }
+
+    @Test
+    void taxesEachBracketAtItsMarginalRate() {
+        assertThat(tax("DEFAULT", 2024, "999.99")).isEqualTo("0.00");
+        assertThat(tax("DEFAULT", 2024, "1000.00")).isEqualTo("0.00");
+        assertThat(tax("DEFAULT", 2024, "4000.00")).isEqualTo("300.00");
+        assertThat(tax("DEFAULT", 2024, "4000.10")).isEqualTo("300.02");
+        assertThat(tax("DEFAULT", 2024, "10000.00")).isEqualTo("1500.00");
+        assertThat(tax("DEFAULT", 2024, "12000.00")).isEqualTo("2100.00");
+    }
+
+    @Test
+    void roundsTheExactTaxHalfUpToMinorUnits() {
+        // 0.4 and 0.5 of a cent above the threshold
+        assertThat(tax("DEFAULT", 2024, "1000.04")).isEqualTo("0.00");
+        assertThat(tax("DEFAULT", 2024, "1000.05")).isEqualTo("0.01");
+        assertThat(taxBracketService.calculateTax("DEFAULT", 2024, 0)).isZero();
+        assertThat(taxBracketService.calculateTax("DEFAULT", 2024, -100)).isZero();
+    }
+
+    @Test
+    void usesTheLatestTableFromTheYearOrBefore() {
+        assertThat(tax("DEFAULT", 2025, "4000.00")).isEqualTo("300.00");
+        assertThat(tax("DEFAULT", 2026, "2200.00")).isEqualTo("100.00");
+        assertThat(tax("DEFAULT", 2030, "2200.00")).isEqualTo("100.00");
+    }
+
+    @Test
+    void regionsWithoutATableForTheYearUseTheDefaultRegion() {
+        assertThat(tax("SOUTH", 2024, "4000.00")).isEqualTo("300.00");
+        assertThat(tax(null, 2024, "4000.00")).isEqualTo("300.00");
+        // NORTH's first table is 2025
+        assertThat(tax("NORTH", 2024, "4000.00")).isEqualTo("300.00");
+        assertThat(tax("NORTH", 2025, "499.99")).isEqualTo("0.00");
+        assertThat(tax("NORTH", 2025, "1000.00")).isEqualTo("25.00");
+    }
+
+    @Test
+    void fallsBackToTheFlatRateWhenNoTableApplies() {
+        assertThat(tax("DEFAULT", 2023, "4000.00")).isEqualTo("400.00");
+        assertThat(tax("SOUTH", 2023, "4000.00")).isEqualTo("400.00");
+        assertThat(taxBracketService.calculateCumulativeTax("DEFAULT", 2023, 1_200_000, 3)).isEqualTo(120_000);
+    }
+
+    @Test
+    void cumulativeTaxScalesTheThresholdsByThePeriods() {
+        // Three months at 4000 owe three times one month's tax, however the pay was spread
+        assertThat(taxBracketService.calculateCumulativeTax("DEFAULT", 2024, 1_200_000, 3)).isEqualTo(90_000);
+        assertThat(taxBracketService.calculateCumulativeTax("DEFAULT", 2024, 1_200_000, 1)).isEqualTo(210_000);
+        assertThat(taxBracketService.calculateCumulativeTax("DEFAULT", 2024, 0, 3)).isZero();
+        assertThat(taxBracketService.calculateCumulativeTax("DEFAULT", 2024, 1_200_000, 0)).isZero();
+    }
+
+    @Test
+    void replacedBracketsApplyOnlyOnceTheTransactionCommits() {
+        List<TaxBracket> replaced = new ArrayList<>(defaultBrackets);
+        replaced.add(bracket("DEFAULT", 2028, "0", 0.5));
+        when(taxBracketRepository.findByRegionOrderByTaxYearAscThresholdAsc("DEFAULT")).thenReturn(replaced);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            taxBracketService.replaceBrackets("DEFAULT", 2028, List.of(bracket("DEFAULT", 2028, "0", 0.5)));
+            assertThat(tax("DEFAULT", 2028, "2000.00")).isEqualTo("80.00");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(tax("DEFAULT", 2028, "2000.00")).isEqualTo("1000.00");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void replacedBracketsAreDroppedOnRollback() {
+        when(taxBracketRepository.findByRegionOrderByTaxYearAscThresholdAsc("DEFAULT")).thenReturn(List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            taxBracketService.replaceBrackets("DEFAULT", 2024, List.of());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(tax("DEFAULT", 2024, "4000.00")).isEqualTo("300.00");
+    }
+
+    private String tax(String region, int year, String gross) {
+        long minorUnits = taxBracketService.calculateTax(region, year, Money.toMinor(new BigDecimal(gross)));
+        return Money.ofMinor(minorUnits).toString();
+    }
+
+    private static TaxBracket bracket(String region, int year, String threshold, double rate) {
+        return new TaxBracket(region, year, Money.parse(threshold), rate);
+    }
+}
@@ -0,0 +1,112 @@
+package com.hrms.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+
+    @Test
+    void intervalsOverlapWhenTheyShareAnEndpoint() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1, "a");
+
+        assertThat(tree.anyOverlap(20, 25, value -> true)).isTrue();
+        assertThat(tree.anyOverlap(5, 10, value -> true)).isTrue();
+        assertThat(tree.anyOverlap(21, 25, value -> true)).isFalse();
+        assertThat(tree.anyOverlap(5, 9, value -> true)).isFalse();
+        assertThat(overlaps(tree, 15, 15)).containsExactly("a");
+    }
+
+    @Test
+    void singleDayIntervalsTouchOnlyThatDay() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(7, 7, 1, "a");
+
+        assertThat(overlaps(tree, 7, 7)).containsExactly("a");
+        assertThat(overlaps(tree, 6, 6)).isEmpty();
+        assertThat(overlaps(tree, 8, 30)).isEmpty();
+    }
+
+    @Test
+    void duplicateIntervalsAreKeptAndRemovedByIdentity() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1, "a");
+        tree.insert(10, 20, 2, "b");
+        tree.insert(10, 20, 3, "c");
+
+        assertThat(tree.size()).isEqualTo(3);
+        assertThat(overlaps(tree, 15, 15)).containsExactlyInAnyOrder("a", "b", "c");
+
+        assertThat(tree.remove(10, 2)).isTrue();
+        assertThat(tree.remove(10, 2)).isFalse();
+        assertThat(overlaps(tree, 15, 15)).containsExactlyInAnyOrder("a", "c");
+        assertThat(tree.size()).isEqualTo(2);
+    }
+
+    @Test
+    void removeNeedsTheStartTheIntervalWasInsertedWith() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1, "a");
+
+        assertThat(tree.remove(11, 1)).isFalse();
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.remove(10, 1)).isTrue();
+        assertThat(tree.isEmpty()).isTrue();
+        assertThat(tree.anyOverlap(Integer.MIN_VALUE, Integer.MAX_VALUE, value -> true)).isFalse();
+    }
+
+    @Test
+    void filterSkipsIntervalsButKeepsSearching() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(1, 100, 1, "pending");
+        tree.insert(40, 45, 2, "approved");
+        tree.insert(60, 70, 3, "pending");
+
+        assertThat(tree.anyOverlap(42, 50, "approved"::equals)).isTrue();
+        assertThat(tree.anyOverlap(46, 80, "approved"::equals)).isFalse();
+    }
+
+    @Test
+    void matchesABruteForceScanThroughInsertsAndRemoves() {
+        Random random = new Random(42);
+        IntervalTree<Long> tree = new IntervalTree<>();
+        List<int[]> intervals = new ArrayList<>();
+        long nextId = 0;
+        for (int step = 0; step < 5_000; step++) {
+            if (intervals.isEmpty() || random.nextInt(3) > 0) {
+                int start = random.nextInt(1_000);
+                int end = start + random.nextInt(30);
+                tree.insert(start, end, nextId, nextId);
+                intervals.add(new int[]{start, end, (int) nextId});
+                nextId++;
+            } else {
+                int[] removed = intervals.remove(random.nextInt(intervals.size()));
+                assertThat(tree.remove(removed[0], removed[2])).isTrue();
+            }
+
+            int start = random.nextInt(1_050) - 25;
+            int end = start + random.nextInt(20);
+            List<Long> expected = new ArrayList<>();
+            for (int[] interval : intervals) {
+                if (interval[0] <= end && interval[1] >= start) {
+                    expected.add((long) interval[2]);
+                }
+            }
+            assertThat(overlaps(tree, start, end)).containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(tree.anyOverlap(start, end, id -> id % 2 == 0))
+                    .isEqualTo(expected.stream().anyMatch(id -> id % 2 == 0));
+            assertThat(tree.size()).isEqualTo(intervals.size());
+        }
+    }
+
+    private static <T> List<T> overlaps(IntervalTree<T> tree, int start, int end) {
+        List<T> result = new ArrayList<>();
+        tree.collectOverlaps(start, end, result);
+        return result;
+    }
+}